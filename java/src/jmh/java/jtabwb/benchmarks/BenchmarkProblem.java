@@ -0,0 +1,211 @@
+/*******************************************************************************
+ * Copyright (C) 2013, 2016 Mauro Ferrari
+ * 
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+package jtabwb.benchmarks;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.BitSet;
+
+import jtabwbx.problems.JTabWbSimpleProblemReader;
+import jtabwbx.problems.ProblemDescriptionException;
+import jtabwbx.prop.basic.PropositionalConnective;
+import jtabwbx.prop.formula.Formula;
+import jtabwbx.prop.formula.FormulaFactory;
+import jtabwbx.prop.formula.FormulaProposition;
+import jtabwbx.prop.parser.FormulaParseException;
+import jtabwbx.prop.parser.PropositionalFormulaParser;
+
+/**
+ * A problem of the <code>tests/problems</code> directory selected by family
+ * and size. The directory is given by the system property
+ * {@value #PROBLEMS_DIR_PROPERTY}, by default <code>../tests/problems</code>
+ * (the directory of the problems when the benchmarks are run from the
+ * <code>java</code> directory).
+ * <p>
+ * The problems of some families use <code>=&gt;</code> for implication, the
+ * problems of other families use <code>-&gt;</code>; the text of the
+ * conjecture is normalized to the syntax of {@link PropositionalFormulaParser}
+ * and {@link #toILTP()} returns the equivalent fully parenthesized ILTP text.
+ * </p>
+ * 
+ * @author Mauro Ferrari
+ */
+public final class BenchmarkProblem {
+
+  /**
+   * The system property defining the directory of the problems.
+   */
+  static final String PROBLEMS_DIR_PROPERTY = "jtabwb.problems";
+
+  /**
+   * The problem families; the size is the number in the file name. The type
+   * is public since it is the type of the family parameter of the benchmarks.
+   */
+  public static enum Family {
+    /**
+     * The provable Egly-Schmitt problems <code>es&lt;size&gt;</code>.
+     */
+    ES("ipl_EglySchmitt_jtabwb", "es%d.jtabwb"),
+    /**
+     * The unprovable Egly-Schmitt problems <code>es&lt;size&gt;-false</code>.
+     */
+    ES_FALSE("ipl_EglySchmitt_jtabwb", "es%d-false.jtabwb"),
+    /**
+     * The Portia problems <code>negportia_&lt;size&gt;</code>.
+     */
+    PORTIA("ipl_portia_jtabwb", "negportia_%02d.jtabwb"),
+    /**
+     * The SAT-intuit problems <code>cross&lt;size&gt;x</code>.
+     */
+    CROSS("ipl_SATintuit_jtabwb", "cross%dx.jtabwb"),
+    /**
+     * The EC problems <code>EC_&lt;size&gt;</code>.
+     */
+    EC("ipl_EC_jtabwb", "EC_%02d.jtabwb");
+
+    private final String directory;
+    private final String fileNamePattern;
+
+    private Family(String directory, String fileNamePattern) {
+      this.directory = directory;
+      this.fileNamePattern = fileNamePattern;
+    }
+
+    File file(int size) {
+      File problemsDir = new File(System.getProperty(PROBLEMS_DIR_PROPERTY, "../tests/problems"));
+      return new File(new File(problemsDir, directory), String.format(fileNamePattern, size));
+    }
+  }
+
+  private final String name;
+  private final String conjecture;
+
+  /**
+   * Reads the problem of the specified family and size.
+   * 
+   * @param family the family of the problem.
+   * @param size the size of the problem.
+   * @throws IOException if the problem file cannot be read.
+   * @throws ProblemDescriptionException if the file is not in the JTabWb
+   * format.
+   */
+  BenchmarkProblem(Family family, int size) throws IOException, ProblemDescriptionException {
+    Reader reader = new FileReader(family.file(size));
+    try {
+      String text = new JTabWbSimpleProblemReader().read(reader).getConjecture();
+      this.name = family.name().toLowerCase() + "_" + size;
+      this.conjecture = text.replace("<=>", "\u0000").replace("=>", "->").replace("\u0000", "<=>");
+    } finally {
+      reader.close();
+    }
+  }
+
+  /**
+   * Returns the conjecture of the problem in the syntax of
+   * {@link PropositionalFormulaParser}.
+   * 
+   * @return the text of the conjecture.
+   */
+  String getConjecture() {
+    return conjecture;
+  }
+
+  /**
+   * Returns the conjecture built in the specified factory.
+   * 
+   * @param factory the factory building the formula.
+   * @return the conjecture formula.
+   * @throws FormulaParseException if the conjecture cannot be parsed.
+   */
+  Formula build(FormulaFactory factory) throws FormulaParseException {
+    return factory.buildFrom(new PropositionalFormulaParser().parse(conjecture));
+  }
+
+  /**
+   * Returns the text of the problem in the ILTP format.
+   * 
+   * @return the ILTP text of the problem.
+   * @throws FormulaParseException if the conjecture cannot be parsed.
+   */
+  String toILTP() throws FormulaParseException {
+    StringBuilder sb = new StringBuilder();
+    sb.append("fof(").append(name).append(", conjecture, ");
+    appendILTP(sb, build(new FormulaFactory()));
+    return sb.append(").").toString();
+  }
+
+  private static void appendILTP(StringBuilder sb, Formula wff) {
+    if (wff.isAtomic()) {
+      sb.append(((FormulaProposition) wff).getName());
+      return;
+    }
+    Formula[] subformulas = wff.immediateSubformulas();
+    if (wff.mainConnective() == PropositionalConnective.NOT) {
+      sb.append("~ (");
+      appendILTP(sb, subformulas[0]);
+      sb.append(')');
+      return;
+    }
+    sb.append('(');
+    appendILTP(sb, subformulas[0]);
+    switch (wff.mainConnective()) {
+    case AND:
+      sb.append(" & ");
+      break;
+    case OR:
+      sb.append(" | ");
+      break;
+    case IMPLIES:
+      sb.append(" => ");
+      break;
+    case EQ:
+      sb.append(" <=> ");
+      break;
+    default:
+      throw new IllegalArgumentException("Unexpected connective: " + wff.mainConnective());
+    }
+    appendILTP(sb, subformulas[1]);
+    sb.append(')');
+  }
+
+  /**
+   * Returns the distinct subformulas of the specified formula, every formula
+   * following its immediate subformulas; the last element is the formula.
+   * 
+   * @param wff a formula.
+   * @return the subformulas of <code>wff</code> in post-order.
+   */
+  static Formula[] subformulas(Formula wff) {
+    ArrayList<Formula> result = new ArrayList<Formula>();
+    collect(wff, new BitSet(), result);
+    return result.toArray(new Formula[result.size()]);
+  }
+
+  private static void collect(Formula wff, BitSet visited, ArrayList<Formula> result) {
+    if (visited.get(wff.getIndex()))
+      return;
+    visited.set(wff.getIndex());
+    if (!wff.isAtomic())
+      for (Formula sub : wff.immediateSubformulas())
+        collect(sub, visited, result);
+    result.add(wff);
+  }
+
+}
@@ -0,0 +1,223 @@
+/*******************************************************************************
+ * Copyright (C) 2013, 2016 Mauro Ferrari
+ * 
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+package jtabwb.benchmarks;
+
+import java.util.Collection;
+import java.util.LinkedList;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import jtabwbx.prop.basic.FormulaType;
+import jtabwbx.prop.formula.BitSetOfFormulas;
+import jtabwbx.prop.formula.Formula;
+import jtabwbx.prop.formula.FormulaFactory;
+
+/**
+ * Benchmarks the type-indexed queries of {@link BitSetOfFormulas} on random
+ * sets of 1 to 20 subformulas of a problem, comparing the scan of the set
+ * looking up the type of every formula with the queries masking the set by the
+ * formulas of the type generated by the factory. A type-indexed operation
+ * queries a set for every formula type; {@link #subseteq()} compares a set with
+ * the union of the set and of the next one, hence it visits all the formulas of
+ * the set. The time of an operation is the time per set.
+ * 
+ * @author Mauro Ferrari
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BitSetOfFormulasBenchmark {
+
+  static final int SETS = 256;
+  private static final int MAX_SET_SIZE = 20;
+  private static final FormulaType[] TYPES = FormulaType.values();
+
+  /**
+   * The implementations of the queries: the scan of the set looking up every
+   * formula and the methods of {@link BitSetOfFormulas}.
+   */
+  public static enum Query {
+    SCAN {
+      @Override
+      Formula getFirst(BitSetOfFormulas set, FormulaType type) {
+        FormulaFactory factory = set.getFactory();
+        for (int i = set.nextSetBit(0); i >= 0; i = set.nextSetBit(i + 1)) {
+          Formula wff = factory.getByIndex(i);
+          if (wff.getFormulaType() == type)
+            return wff;
+        }
+        return null;
+      }
+
+      @Override
+      Collection<Formula> getAllFormulas(BitSetOfFormulas set, FormulaType type) {
+        FormulaFactory factory = set.getFactory();
+        LinkedList<Formula> list = new LinkedList<Formula>();
+        for (int i = set.nextSetBit(0); i >= 0; i = set.nextSetBit(i + 1)) {
+          Formula wff = factory.getByIndex(i);
+          if (wff.getFormulaType() == type)
+            list.add(wff);
+        }
+        return list.size() == 0 ? null : list;
+      }
+
+      @Override
+      void forEach(BitSetOfFormulas set, FormulaType type, Consumer<Formula> action) {
+        for (Formula wff : set)
+          if (wff.getFormulaType() == type)
+            action.accept(wff);
+      }
+
+      @Override
+      boolean subseteq(BitSetOfFormulas set, BitSetOfFormulas other) {
+        BitSetOfFormulas cloned = set.clone();
+        cloned.and(other);
+        return cloned.equals(set);
+      }
+    },
+    MASKED {
+      @Override
+      Formula getFirst(BitSetOfFormulas set, FormulaType type) {
+        return set.getFirst(type);
+      }
+
+      @Override
+      Collection<Formula> getAllFormulas(BitSetOfFormulas set, FormulaType type) {
+        return set.getAllFormulas(type);
+      }
+
+      @Override
+      void forEach(BitSetOfFormulas set, FormulaType type, Consumer<Formula> action) {
+        set.forEach(type, action);
+      }
+
+      @Override
+      boolean subseteq(BitSetOfFormulas set, BitSetOfFormulas other) {
+        return set.subseteq(other);
+      }
+    };
+
+    abstract Formula getFirst(BitSetOfFormulas set, FormulaType type);
+
+    abstract Collection<Formula> getAllFormulas(BitSetOfFormulas set, FormulaType type);
+
+    abstract void forEach(BitSetOfFormulas set, FormulaType type, Consumer<Formula> action);
+
+    abstract boolean subseteq(BitSetOfFormulas set, BitSetOfFormulas other);
+  }
+
+  /*
+   * The action of the forEach benchmark, counting the visited formulas.
+   */
+  private static class Counter implements Consumer<Formula> {
+
+    int count;
+
+    @Override
+    public void accept(Formula wff) {
+      count++;
+    }
+  }
+
+  @Param
+  public Query query;
+
+  @Param({ "ES", "PORTIA", "EC" })
+  public BenchmarkProblem.Family family;
+
+  @Param({ "3" })
+  public int size;
+
+  private BitSetOfFormulas[] sets;
+  private BitSetOfFormulas[] supersets; // supersets[i] is the union of sets[i] and sets[i + 1]
+  private final Counter counter = new Counter();
+
+  @Setup
+  public void setup() throws Exception {
+    FormulaFactory factory = new FormulaFactory();
+    Formula[] formulas = BenchmarkProblem.subformulas(new BenchmarkProblem(family, size)
+        .build(factory));
+    Random random = new Random(0);
+    sets = new BitSetOfFormulas[SETS];
+    for (int i = 0; i < SETS; i++) {
+      sets[i] = new BitSetOfFormulas(factory);
+      int setSize = 1 + random.nextInt(MAX_SET_SIZE);
+      for (int k = 0; k < setSize; k++)
+        sets[i].add(formulas[random.nextInt(formulas.length)]);
+    }
+    supersets = new BitSetOfFormulas[SETS];
+    for (int i = 0; i < SETS; i++) {
+      supersets[i] = sets[i].clone();
+      supersets[i].or(sets[(i + 1) % SETS]);
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(SETS)
+  public void getFirst(Blackhole bh) {
+    for (BitSetOfFormulas set : sets)
+      for (FormulaType type : TYPES)
+        bh.consume(query.getFirst(set, type));
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(SETS)
+  public void getAllFormulas(Blackhole bh) {
+    for (BitSetOfFormulas set : sets)
+      for (FormulaType type : TYPES)
+        bh.consume(query.getAllFormulas(set, type));
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(SETS)
+  public int forEach() {
+    counter.count = 0;
+    for (BitSetOfFormulas set : sets)
+      for (FormulaType type : TYPES)
+        query.forEach(set, type, counter);
+    return counter.count;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(SETS)
+  public int subseteq() {
+    int count = 0;
+    for (int i = 0; i < SETS; i++)
+      if (query.subseteq(sets[i], supersets[i]))
+        count++;
+    return count;
+  }
+
+}
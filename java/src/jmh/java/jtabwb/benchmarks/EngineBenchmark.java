@@ -0,0 +1,80 @@
+/*******************************************************************************
+ * Copyright (C) 2013, 2016 Mauro Ferrari
+ * 
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+package jtabwb.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import cpl.g3c.tp.Prover;
+import jtabwb.engine.Engine;
+import jtabwb.engine.Engine.ExecutionMode;
+import jtabwb.engine.ProofSearchResult;
+import jtabwbx.prop.formula.Formula;
+import jtabwbx.prop.formula.FormulaFactory;
+import jtabwbx.prop.formula._Sequent;
+
+/**
+ * Benchmarks the proof-search of the G3 prover for classical propositional
+ * logic by the engine in plain mode; every invocation searches a proof of a
+ * copy of the goal, so that invocations do not share the state of the search.
+ * 
+ * @author Mauro Ferrari
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EngineBenchmark {
+
+  @Param({ "ES", "ES_FALSE", "PORTIA" })
+  public BenchmarkProblem.Family family;
+
+  @Param({ "1", "2", "3" })
+  public int size;
+
+  private Prover prover;
+  private _Sequent goal;
+
+  @Setup
+  public void setup() throws Exception {
+    FormulaFactory factory = new FormulaFactory();
+    Formula wff = new BenchmarkProblem(family, size).build(factory);
+    goal = factory.newSequent();
+    goal.addRight(wff);
+    prover = new Prover();
+    prover.configure(factory);
+  }
+
+  @Benchmark
+  public ProofSearchResult searchProof() {
+    return new Engine(prover, goal.clone(), ExecutionMode.ENGINE_PLAIN).searchProof();
+  }
+
+}
@@ -0,0 +1,152 @@
+/*******************************************************************************
+ * Copyright (C) 2013, 2016 Mauro Ferrari
+ * 
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+package jtabwb.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import jtabwbx.prop.basic.PropositionalConnective;
+import jtabwbx.prop.formula.CompactFormulaFactory;
+import jtabwbx.prop.formula.ConcurrentFormulaFactory;
+import jtabwbx.prop.formula.Formula;
+import jtabwbx.prop.formula.FormulaFactory;
+import jtabwbx.prop.formula.FormulaProposition;
+
+/**
+ * Benchmarks the interning of formulas by
+ * {@link FormulaFactory#buildCompound(PropositionalConnective, Formula...)}:
+ * the benchmarks build the subformulas of a problem bottom-up, in a new factory
+ * (every compound formula is inserted in the table of the factory) and in a
+ * factory already containing them (every compound formula is found in the
+ * table of the factory).
+ * 
+ * @author Mauro Ferrari
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FormulaFactoryBenchmark {
+
+  /**
+   * The implementations of the formula factory.
+   */
+  public static enum Factory {
+    PLAIN {
+      @Override
+      FormulaFactory newFactory() {
+        return new FormulaFactory();
+      }
+    },
+    COMPACT {
+      @Override
+      FormulaFactory newFactory() {
+        return new CompactFormulaFactory();
+      }
+    },
+    CONCURRENT {
+      @Override
+      FormulaFactory newFactory() {
+        return new ConcurrentFormulaFactory();
+      }
+    };
+
+    abstract FormulaFactory newFactory();
+  }
+
+  @Param
+  public Factory factory;
+
+  @Param({ "ES", "PORTIA" })
+  public BenchmarkProblem.Family family;
+
+  @Param({ "3", "10" })
+  public int size;
+
+  /*
+   * The subformulas of the problem in post-order: the connective of the i-th
+   * subformula (null for propositions), its name if it is a proposition and the
+   * positions of its immediate subformulas otherwise.
+   */
+  private PropositionalConnective[] connectives;
+  private String[] names;
+  private int[][] subformulas;
+  private FormulaFactory populated;
+
+  @Setup
+  public void setup() throws Exception {
+    FormulaFactory source = new FormulaFactory();
+    Formula[] formulas = BenchmarkProblem.subformulas(new BenchmarkProblem(family, size)
+        .build(source));
+    int[] position = new int[source.numberOfGeneratedFormulas()];
+    connectives = new PropositionalConnective[formulas.length];
+    names = new String[formulas.length];
+    subformulas = new int[formulas.length][];
+    for (int i = 0; i < formulas.length; i++) {
+      Formula wff = formulas[i];
+      position[wff.getIndex()] = i;
+      if (wff.isAtomic())
+        names[i] = ((FormulaProposition) wff).getName();
+      else {
+        connectives[i] = wff.mainConnective();
+        Formula[] subs = wff.immediateSubformulas();
+        subformulas[i] = new int[subs.length];
+        for (int j = 0; j < subs.length; j++)
+          subformulas[i][j] = position[subs[j].getIndex()];
+      }
+    }
+    populated = factory.newFactory();
+    build(populated);
+  }
+
+  private Formula build(FormulaFactory target) {
+    Formula[] built = new Formula[connectives.length];
+    for (int i = 0; i < built.length; i++)
+      if (connectives[i] == null)
+        built[i] = target.buildAtomic(names[i]);
+      else if (subformulas[i].length == 1)
+        built[i] = target.buildCompound(connectives[i], built[subformulas[i][0]]);
+      else
+        built[i] = target.buildCompound(connectives[i], built[subformulas[i][0]],
+            built[subformulas[i][1]]);
+    return built[built.length - 1];
+  }
+
+  @Benchmark
+  public Formula buildNew() {
+    return build(factory.newFactory());
+  }
+
+  @Benchmark
+  public Formula buildInterned() {
+    return build(populated);
+  }
+
+}
@@ -0,0 +1,96 @@
+/*******************************************************************************
+ * Copyright (C) 2013, 2016 Mauro Ferrari
+ * 
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+package jtabwb.benchmarks;
+
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import jtabwbx.problems.ILTPProblemReader;
+import jtabwbx.problems.ProblemDescription;
+import jtabwbx.prop.formula.Formula;
+import jtabwbx.prop.formula.FormulaFactory;
+import jtabwbx.prop.parser.PropositionalFormulaParser;
+import jtabwbx.prop.parser.StreamingFormulaParser;
+
+/**
+ * Benchmarks the throughput of the parsers of the formulas of a problem: the
+ * parse tree of {@link PropositionalFormulaParser}, the formula built from it,
+ * the formula built by {@link StreamingFormulaParser} and the ILTP problem
+ * built by the ILTP parser (through {@link ILTPProblemReader}, since the parser
+ * is internal to its package). Every invocation builds the formulas in a new
+ * factory.
+ * 
+ * @author Mauro Ferrari
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParserBenchmark {
+
+  @Param({ "ES", "PORTIA" })
+  public BenchmarkProblem.Family family;
+
+  @Param({ "3", "10" })
+  public int size;
+
+  private String conjecture;
+  private String iltp;
+
+  @Setup
+  public void setup() throws Exception {
+    BenchmarkProblem problem = new BenchmarkProblem(family, size);
+    conjecture = problem.getConjecture();
+    iltp = problem.toILTP();
+  }
+
+  @Benchmark
+  public ParseTree propositionalParseTree() throws Exception {
+    return new PropositionalFormulaParser().parse(conjecture);
+  }
+
+  @Benchmark
+  public Formula propositionalBuild() throws Exception {
+    return new FormulaFactory().buildFrom(new PropositionalFormulaParser().parse(conjecture));
+  }
+
+  @Benchmark
+  public Formula streamingBuild() throws Exception {
+    return new StreamingFormulaParser(new FormulaFactory()).parse(conjecture);
+  }
+
+  @Benchmark
+  public ProblemDescription iltpBuild() throws Exception {
+    return new ILTPProblemReader().read(new StringReader(iltp));
+  }
+
+}
@@ -0,0 +1,168 @@
+/*******************************************************************************
+ * Copyright (C) 2013, 2016 Mauro Ferrari
+ * 
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+package jtabwb.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import jtabwbx.prop.formula.Formula;
+import jtabwbx.prop.formula.FormulaFactory;
+import jtabwbx.prop.formula.SequentOnArray;
+import jtabwbx.prop.formula.SequentOnBSF;
+import jtabwbx.prop.formula.SequentOnBSFWithFormulasByType;
+import jtabwbx.prop.formula.SequentOnBitSet;
+import jtabwbx.prop.formula.SequentOnLists;
+import jtabwbx.prop.formula.SequentOnPersistentBitSet;
+import jtabwbx.prop.formula.SequentOnSparseSet;
+import jtabwbx.prop.formula._Sequent;
+
+/**
+ * Benchmarks the operations of the {@link _Sequent} implementations on the
+ * subformulas of a problem. The sequent of the benchmarks contains the
+ * subformulas in even position in the left-hand side and the subformulas in odd
+ * position in the right-hand side, hence it is not an identity axiom and
+ * {@link _Sequent#isIdentityAxiom()} has to inspect all its formulas.
+ * 
+ * @author Mauro Ferrari
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SequentBenchmark {
+
+  /**
+   * The implementations of {@link _Sequent}.
+   */
+  public static enum Implementation {
+    ARRAY {
+      @Override
+      _Sequent newSequent(FormulaFactory factory) {
+        return new SequentOnArray(factory);
+      }
+    },
+    BSF {
+      @Override
+      _Sequent newSequent(FormulaFactory factory) {
+        return new SequentOnBSF(factory);
+      }
+    },
+    BSF_BY_TYPE {
+      @Override
+      _Sequent newSequent(FormulaFactory factory) {
+        return new SequentOnBSFWithFormulasByType(factory);
+      }
+    },
+    BITSET {
+      @Override
+      _Sequent newSequent(FormulaFactory factory) {
+        return new SequentOnBitSet(factory);
+      }
+    },
+    LISTS {
+      @Override
+      _Sequent newSequent(FormulaFactory factory) {
+        return new SequentOnLists();
+      }
+    },
+    PERSISTENT_BITSET {
+      @Override
+      _Sequent newSequent(FormulaFactory factory) {
+        return new SequentOnPersistentBitSet(factory);
+      }
+    },
+    SPARSE_SET {
+      @Override
+      _Sequent newSequent(FormulaFactory factory) {
+        return new SequentOnSparseSet(factory);
+      }
+    };
+
+    abstract _Sequent newSequent(FormulaFactory factory);
+  }
+
+  @Param
+  public Implementation implementation;
+
+  @Param({ "ES", "PORTIA" })
+  public BenchmarkProblem.Family family;
+
+  @Param({ "3" })
+  public int size;
+
+  private Formula[] left;
+  private Formula[] right;
+  private _Sequent sequent;
+  private _Sequent work; // empty after every invocation of addRemove
+
+  @Setup
+  public void setup() throws Exception {
+    FormulaFactory factory = new FormulaFactory();
+    Formula[] formulas = BenchmarkProblem.subformulas(new BenchmarkProblem(family, size)
+        .build(factory));
+    left = new Formula[(formulas.length + 1) / 2];
+    right = new Formula[formulas.length / 2];
+    for (int i = 0; i < formulas.length; i++)
+      if (i % 2 == 0)
+        left[i / 2] = formulas[i];
+      else
+        right[i / 2] = formulas[i];
+    sequent = implementation.newSequent(factory);
+    for (Formula wff : left)
+      sequent.addLeft(wff);
+    for (Formula wff : right)
+      sequent.addRight(wff);
+    work = implementation.newSequent(factory);
+  }
+
+  @Benchmark
+  public _Sequent cloneSequent() {
+    return sequent.clone();
+  }
+
+  @Benchmark
+  public _Sequent addRemove() {
+    for (Formula wff : left)
+      work.addLeft(wff);
+    for (Formula wff : right)
+      work.addRight(wff);
+    for (Formula wff : left)
+      work.removeLeft(wff);
+    for (Formula wff : right)
+      work.removeRight(wff);
+    return work;
+  }
+
+  @Benchmark
+  public boolean isIdentityAxiom() {
+    return sequent.isIdentityAxiom();
+  }
+
+}
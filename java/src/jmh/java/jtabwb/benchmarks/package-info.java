@@ -0,0 +1,26 @@
+/*******************************************************************************
+ * Copyright (C) 2013, 2016 Mauro Ferrari
+ * 
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+/**
+ * JMH benchmarks of the engine, of the sequent implementations, of the
+ * type-indexed queries of the sets of formulas, of the formula factory and of
+ * the formula parsers. The benchmarks are built by the
+ * <code>jmh</code> profile of the project and are run by {@link Main}, which
+ * enables the GC profiler reporting the allocation rate of every benchmark.
+ * 
+ * @author Mauro Ferrari
+ */
+package jtabwb.benchmarks;
@@ -3,7 +3,7 @@ package cpl.g3c.calculus;
 
 import jtabwb.engine.NoSuchSubgoalException;
 import jtabwb.engine._AbstractFormula;
-import jtabwb.engine._RegularRule;
+import jtabwb.engine._InPlaceRegularRule;
 import jtabwbx.prop.formula.Formula;
 import jtabwbx.prop.formula._Sequent;
 
@@ -16,7 +16,7 @@ import jtabwbx.prop.formula._Sequent;
  * 
  * @author Mauro Ferrari
  */
-public class Rule_Left_IMPLIES implements _RegularRule {
+public class Rule_Left_IMPLIES implements _InPlaceRegularRule {
 
   private _Sequent premise;
   private Formula mainFormula;
@@ -34,8 +34,21 @@ public class Rule_Left_IMPLIES implements _RegularRule {
     return nextConclusionIndex < NUMBER_OF_CONCLUSIONS;
   }
 
+  @Override
   public _Sequent nextSubgoal() throws NoSuchSubgoalException {
-    _Sequent result = premise.clone();
+    return nextSubgoal(premise.clone());
+  }
+
+  @Override
+  public _Sequent nextSubgoalInPlace() throws NoSuchSubgoalException {
+    return nextSubgoal(premise);
+  }
+
+  /*
+   * Returns the next conclusion obtained by modifying the specified sequent,
+   * which is the premise or a copy of it.
+   */
+  private _Sequent nextSubgoal(_Sequent result) throws NoSuchSubgoalException {
     result.removeLeft(mainFormula);
     Formula[] subformulas = mainFormula.immediateSubformulas();
     switch (nextConclusionIndex) {
@@ -2,7 +2,7 @@ package cpl.g3c.calculus;
 
 import jtabwb.engine.NoSuchSubgoalException;
 import jtabwb.engine._AbstractFormula;
-import jtabwb.engine._RegularRule;
+import jtabwb.engine._InPlaceRegularRule;
 import jtabwbx.prop.formula.Formula;
 import jtabwbx.prop.formula._Sequent;
 
@@ -16,7 +16,7 @@ import jtabwbx.prop.formula._Sequent;
  * 
  * @author Mauro Ferrari
  */
-public class Rule_Left_OR implements _RegularRule {
+public class Rule_Left_OR implements _InPlaceRegularRule {
 
   private _Sequent premise;
   private Formula mainFormula;
@@ -37,9 +37,21 @@ public class Rule_Left_OR implements _RegularRule {
 
   @Override
   public _Sequent nextSubgoal() throws NoSuchSubgoalException {
+    return nextSubgoal(premise.clone());
+  }
+
+  @Override
+  public _Sequent nextSubgoalInPlace() throws NoSuchSubgoalException {
+    return nextSubgoal(premise);
+  }
+
+  /*
+   * Returns the next conclusion obtained by modifying the specified sequent,
+   * which is the premise or a copy of it.
+   */
+  private _Sequent nextSubgoal(_Sequent result) throws NoSuchSubgoalException {
     if (nextConclusionIndex >= NUMBER_OF_CONCLUSIONS)
       throw new NoSuchSubgoalException();
-    _Sequent result = premise.clone();
     result.removeLeft(mainFormula);
     Formula[] subformulas = mainFormula.immediateSubformulas();
     result.addLeft(subformulas[nextConclusionIndex++]);
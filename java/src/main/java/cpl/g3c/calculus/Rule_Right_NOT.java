@@ -3,7 +3,7 @@ package cpl.g3c.calculus;
 
 import jtabwb.engine.NoSuchSubgoalException;
 import jtabwb.engine._AbstractFormula;
-import jtabwb.engine._RegularRule;
+import jtabwb.engine._InPlaceRegularRule;
 import jtabwbx.prop.formula.Formula;
 import jtabwbx.prop.formula._Sequent;
 
@@ -17,7 +17,7 @@ import jtabwbx.prop.formula._Sequent;
  * 
  * @author Mauro Ferrari
  */
-public class Rule_Right_NOT implements _RegularRule {
+public class Rule_Right_NOT implements _InPlaceRegularRule {
 
   private _Sequent premise;
   private Formula mainFormula;
@@ -46,6 +46,11 @@ public class Rule_Right_NOT implements _RegularRule {
     return premise;
   }
 
+  @Override
+  public _Sequent nextSubgoalInPlace() throws NoSuchSubgoalException {
+    return nextSubgoal();
+  }
+
   @Override
   public String name() {
     return "RIGHT_NOT";
@@ -3,7 +3,7 @@ package cpl.g3c.calculus;
 
 import jtabwb.engine.NoSuchSubgoalException;
 import jtabwb.engine._AbstractFormula;
-import jtabwb.engine._RegularRule;
+import jtabwb.engine._InPlaceRegularRule;
 import jtabwbx.prop.formula.Formula;
 import jtabwbx.prop.formula._Sequent;
 
@@ -17,7 +17,7 @@ import jtabwbx.prop.formula._Sequent;
  * 
  * @author Mauro Ferrari
  */
-public class Rule_Right_OR implements _RegularRule {
+public class Rule_Right_OR implements _InPlaceRegularRule {
 
   private _Sequent premise;
   private Formula mainFormula;
@@ -47,6 +47,11 @@ public class Rule_Right_OR implements _RegularRule {
     return premise;
   }
 
+  @Override
+  public _Sequent nextSubgoalInPlace() throws NoSuchSubgoalException {
+    return nextSubgoal();
+  }
+
   @Override
   public String name() {
     return "RIGHT_OR";
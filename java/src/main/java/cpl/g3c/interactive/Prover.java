@@ -20,7 +20,6 @@ import jtabwbx.prop.basic.FormulaType;
 import jtabwbx.prop.basic.PropositionalConnective;
 import jtabwbx.prop.formula.Formula;
 import jtabwbx.prop.formula.FormulaFactory;
-import jtabwbx.prop.formula.SequentOnArray;
 import jtabwbx.prop.formula._Sequent;
 import jtabwbx.prop.parser.FormulaParseException;
 import jtabwbx.prop.parser.PropositionalFormulaParser;
@@ -46,7 +45,7 @@ public class Prover {
         this._formulaParser = new PropositionalFormulaParser();
         this._goals = new HashMap<>();
         this._appRules = new HashMap<>();
-        this.load (new SequentOnArray (this._formulaFactory));
+        this.load (this._formulaFactory.newSequent ());
     }
 
     // Resets prover state.
@@ -92,7 +91,7 @@ public class Prover {
                 }
             }
         }
-        _Sequent seq = new SequentOnArray(this._formulaFactory);
+        _Sequent seq = this._formulaFactory.newSequent();
         for (Formula wff : lhs) {
             seq.addLeft (wff);
         }
@@ -10,18 +10,30 @@ import jtabwbx.problems.JTabWbSimpleProblem;
 import jtabwbx.problems.ProblemDescription;
 import jtabwbx.prop.formula.Formula;
 import jtabwbx.prop.formula.FormulaFactory;
-import jtabwbx.prop.formula.SequentOnArray;
 import jtabwbx.prop.formula._Sequent;
 import jtabwbx.prop.parser.FormulaParseException;
 import jtabwbx.prop.parser.PropositionalFormulaParser;
+import jtabwbx.prop.parser.StreamingFormulaParser;
 
 class InitialNodeSetBuilder implements _InitialGoalBuilder {
 
   private FormulaFactory formulaFactory;
+  private boolean streamingParser = false;
 
   public InitialNodeSetBuilder() {
   }
 
+  /**
+   * If <code>b</code> is <code>true</code> the formulas given as strings are
+   * parsed by {@link StreamingFormulaParser} instead of
+   * {@link PropositionalFormulaParser}.
+   * 
+   * @param b if <code>true</code> the streaming parser is used.
+   */
+  public void setStreamingParser(boolean b) {
+    this.streamingParser = b;
+  }
+
   public void setFormulaFactory(FormulaFactory formulaFactory) {
     this.formulaFactory = formulaFactory;
   }
@@ -32,23 +44,27 @@ class InitialNodeSetBuilder implements _InitialGoalBuilder {
 
     if (inputProblem instanceof JTabWbSimpleProblem) {
       JTabWbSimpleProblem pd = (JTabWbSimpleProblem) inputProblem;
-      // get the conjecture
-      String problem = pd.getConjecture();
-      if (pd.getConjecture() == null) {
-        throw new InitialGoalBuilderException("No problem formula defined in the input problem.");
-      }
-      
-      // build the conjecture formula
-      PropositionalFormulaParser parser = new PropositionalFormulaParser();
-      Formula wff = null;
-      try {
-        wff = formulaFactory.buildFrom(parser.parse(problem));
-      } catch (FormulaParseException e) {
-        throw new InitialGoalBuilderException(e.getMessage());
+      // the conjecture may have been built by the reader
+      Formula wff = pd.getBuiltConjecture();
+      if (wff != null)
+        wff = fromBuiltFormula(wff);
+      else {
+        // get the conjecture
+        String problem = pd.getConjecture();
+        if (pd.getConjecture() == null) {
+          throw new InitialGoalBuilderException("No problem formula defined in the input problem.");
+        }
+
+        // build the conjecture formula
+        try {
+          wff = parse(problem);
+        } catch (FormulaParseException e) {
+          throw new InitialGoalBuilderException(e.getMessage());
+        }
       }
 
       // build the mode set
-      SequentOnArray sequent = new SequentOnArray(this.formulaFactory);
+      _Sequent sequent = formulaFactory.newSequent();
       sequent.addRight(wff);
 
       return sequent;
@@ -57,28 +73,37 @@ class InitialNodeSetBuilder implements _InitialGoalBuilder {
     if (inputProblem instanceof ILTPProblem) {
       ILTPProblem pd= (ILTPProblem) inputProblem;
       // get the conjecture
-      String problem = pd.getConjecture();
-      if (pd.getConjecture() == null) {
+      if (pd.getBuiltConjecture() == null && pd.getConjecture() == null) {
         throw new InitialGoalBuilderException("No problem formula defined in the input problem.");
       }
-      
-      // build the conjecture and axiom formulas
-      PropositionalFormulaParser parser = new PropositionalFormulaParser();
+
       Formula right = null;
       LinkedList<Formula> axioms = null;
-      try {
-        right = formulaFactory.buildFrom(parser.parse(problem));
-        
-        if (pd.getAxioms() != null){
+      if (pd.getBuiltConjecture() != null) {
+        // the formulas have been built by the reader: if the reader used the
+        // factory of this builder they are used as they are
+        right = fromBuiltFormula(pd.getBuiltConjecture());
+        if (pd.getBuiltAxioms() != null) {
           axioms = new LinkedList<Formula>();
-          for (String axiom: pd.getAxioms())
-            axioms.add(formulaFactory.buildFrom(parser.parse(axiom)));
+          for (Formula axiom : pd.getBuiltAxioms())
+            axioms.add(fromBuiltFormula(axiom));
+        }
+      } else {
+        // build the conjecture and axiom formulas
+        try {
+          right = parse(pd.getConjecture());
+
+          if (pd.getAxioms() != null){
+            axioms = new LinkedList<Formula>();
+            for (String axiom: pd.getAxioms())
+              axioms.add(parse(axiom));
+          }
+        } catch (FormulaParseException e) {
+          throw new InitialGoalBuilderException(e.getMessage());
         }
-      } catch (FormulaParseException e) {
-        throw new InitialGoalBuilderException(e.getMessage());
       }
 
-      SequentOnArray sequent = new SequentOnArray(this.formulaFactory);
+      _Sequent sequent = formulaFactory.newSequent();
       if (axioms != null)
         for (Formula wff: axioms)
           sequent.addLeft(wff);
@@ -91,6 +116,17 @@ class InitialNodeSetBuilder implements _InitialGoalBuilder {
 
   }
 
+  private Formula parse(String str) throws FormulaParseException {
+    if (streamingParser)
+      return new StreamingFormulaParser(formulaFactory).parse(str);
+    else
+      return formulaFactory.buildFrom(new PropositionalFormulaParser().parse(str));
+  }
+
+  private Formula fromBuiltFormula(Formula wff) {
+    return wff.getFactory() == formulaFactory ? wff : formulaFactory.buildFrom(wff);
+  }
+
   public FormulaFactory getFormulaFactory() {
     return formulaFactory;
   }
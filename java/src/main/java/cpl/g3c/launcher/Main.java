@@ -1,10 +1,20 @@
 package cpl.g3c.launcher;
 
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.Option;
+import org.apache.commons.cli.Options;
+
 import cpl.g3c.tp.Prover;
+import cpl.g3c.tp.ProverRightFirst;
 import jtabwb.launcher.Launcher;
+import jtabwb.launcher.Launcher.LaunchConfiguration;
+import jtabwb.launcher._InitialGoalBuilder;
+import jtabwb.launcher._PipelineFactory;
+import jtabwb.launcher._SingleExecutionConfigurator;
 import jtabwbx.problems.ILTPProblemReader;
 import jtabwbx.problems.JTabWbSimpleProblemReader;
 import jtabwbx.problems.PlainProblemReader;
+import jtabwbx.prop.formula.FormulaFactory;
 
 /**
  * Launcher for G3c prover.
@@ -13,6 +23,15 @@ import jtabwbx.problems.PlainProblemReader;
  */
 public class Main {
 
+  static final String STREAMING_PARSER = "streaming-parser";
+  private static final String STREAMING_PARSER_DESCRIPTION =
+      "Parse the formulas by the streaming parser building them directly in the formula factory.";
+  static final String SPARSE_THRESHOLD = "sparse-threshold";
+  private static final String SPARSE_THRESHOLD_DESCRIPTION =
+      "Represent the sets of formulas by sparse sets when the problem generates at least the specified number of formulas (default: dense sets for every problem).";
+  private static final String SPARSE_THRESHOLD_ERROR =
+      "ERROR -- Value [%s] of option [%s] is not a non-negative integer.";
+
   private static String FORMULA_SYNTAX_DESCRIPTION = //
   "Syntax of formulas\n" + "  atoms: Java identifiers\n" + //
       "logical: false, & (and), | (or), ~ (not), -> (implies), <=> (iff)\n" + //
@@ -28,12 +47,37 @@ public class Main {
 
   private void start(String[] args) {
     configureLauncher();
-    launcher.processCmdLineArguments(args);
+    // the sparse threshold is checked before the execution starts
+    sparseThreshold(launcher.processCmdLineArguments(args));
     launcher.launch();
   }
 
+  /*
+   * Returns the sparse threshold specified by the command line of the
+   * configuration, FormulaFactory.DEFAULT_SPARSE_THRESHOLD if it is not
+   * specified; if the value is not a non-negative integer an error is logged
+   * and the execution terminates.
+   */
+  static int sparseThreshold(LaunchConfiguration configuration) {
+    CommandLine commandLine = configuration.getCommandLine();
+    if (!commandLine.hasOption(SPARSE_THRESHOLD))
+      return FormulaFactory.DEFAULT_SPARSE_THRESHOLD;
+    String value = commandLine.getOptionValue(SPARSE_THRESHOLD);
+    try {
+      int threshold = Integer.parseInt(value);
+      if (threshold >= 0)
+        return threshold;
+    } catch (NumberFormatException e) {
+      // reported below
+    }
+    System.out.println(String.format(SPARSE_THRESHOLD_ERROR, value, SPARSE_THRESHOLD));
+    System.exit(1);
+    return -1;
+  }
+
   private void configureLauncher() {
     launcher.configTheoremProver("jpcltp", Prover.class, true);
+    launcher.configTheoremProver("jpcltp-rf", ProverRightFirst.class, false);
     launcher.configProblemDescriptionReader("plain", PlainProblemReader.class, false);
     launcher.configProblemDescriptionReader("pitp", JTabWbSimpleProblemReader.class, true);
     launcher.configProblemDescriptionReader("iltp", ILTPProblemReader.class, false);
@@ -41,10 +85,29 @@ public class Main {
     InitialNodeSetBuilder i = new InitialNodeSetBuilder();
     launcher.configInitialNodeSetBuilder(i);
     launcher.optConfigSingleExecutionConfigurator(new SingelExecutionConfigurator(i));
+    // every thread of a parallel testset uses its own formula factory
+    launcher.optConfigPipelineFactory(new _PipelineFactory() {
+
+      @Override
+      public _InitialGoalBuilder newInitialGoalBuilder() {
+        return new InitialNodeSetBuilder();
+      }
+
+      @Override
+      public _SingleExecutionConfigurator newSingleExecutionConfigurator(
+          _InitialGoalBuilder initialGoalBuilder) {
+        return new SingelExecutionConfigurator((InitialNodeSetBuilder) initialGoalBuilder);
+      }
+    });
     launcher.configLauncherName(this.getClass().getCanonicalName());
     launcher
         .optConfigWelcomeMessage("jpcltp - Prover for Classical propositional logic based on G3, ver. 1.0");
     launcher.configStandardInputReader(new PlainProblemReader());
+    launcher.optConfigCmdLineOptions(new Options()
+        .addOption(Option.builder().longOpt(STREAMING_PARSER).desc(STREAMING_PARSER_DESCRIPTION)
+            .build())
+        .addOption(Option.builder().longOpt(SPARSE_THRESHOLD).hasArg(true).argName("n")
+            .desc(SPARSE_THRESHOLD_DESCRIPTION).build()));
     launcher.optConfigInputSyntax(FORMULA_SYNTAX_DESCRIPTION);
   }
 
@@ -7,6 +7,9 @@ import jtabwb.launcher.Launcher.LaunchConfiguration;
 import jtabwb.launcher._ProblemReader;
 import jtabwb.launcher._SingleExecutionConfigurator;
 import jtabwb.util.ImplementationError;
+import jtabwbx.problems.ILTPProblemReader;
+import jtabwbx.problems.JTabWbSimpleProblemReader;
+import jtabwbx.problems.PlainProblemReader;
 import jtabwbx.problems.ProblemDescription;
 import jtabwbx.prop.formula.FormulaFactory;
 
@@ -22,13 +25,31 @@ class SingelExecutionConfigurator implements _SingleExecutionConfigurator {
   @Override
   public void configProblemReader(_ProblemReader reader,
       LaunchConfiguration currentLauncherConfiguration) {
+    this.formulaFactory = new FormulaFactory("@FALSE", "@TRUE");
+    formulaFactory.setSparseThreshold(Main.sparseThreshold(currentLauncherConfiguration));
+    // ILTP problems are built directly in the factory of the prover
+    if (reader instanceof ILTPProblemReader)
+      ((ILTPProblemReader) reader).setFormulaFactory(formulaFactory);
+    // with the streaming parser the other readers build the formula while
+    // reading the input
+    if (currentLauncherConfiguration.getCommandLine().hasOption(Main.STREAMING_PARSER)) {
+      if (reader instanceof JTabWbSimpleProblemReader)
+        ((JTabWbSimpleProblemReader) reader).setFormulaFactory(formulaFactory);
+      if (reader instanceof PlainProblemReader)
+        ((PlainProblemReader) reader).setFormulaFactory(formulaFactory);
+    }
   }
 
   @Override
   public void configInitialNodeSetBuilder(ProblemDescription problemescrption,
       LaunchConfiguration launcherConfiguration) {
-    this.formulaFactory = new FormulaFactory("@FALSE", "@TRUE");
+    if (this.formulaFactory == null) {
+      this.formulaFactory = new FormulaFactory("@FALSE", "@TRUE");
+      formulaFactory.setSparseThreshold(Main.sparseThreshold(launcherConfiguration));
+    }
     initialNodeSetBuilder.setFormulaFactory(formulaFactory);
+    initialNodeSetBuilder.setStreamingParser(launcherConfiguration.getCommandLine().hasOption(
+        Main.STREAMING_PARSER));
   }
 
   @Override
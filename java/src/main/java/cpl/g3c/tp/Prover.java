@@ -23,12 +23,27 @@ public class Prover implements _Prover, _LatexSupport {
 
   FormulaFactory factory = new FormulaFactory();
   ProverName proverName;
+  private final boolean rightFirst;
 
   public Prover() {
+    this(false);
+  }
+
+  /**
+   * Builds the prover; if <code>rightFirst</code> is true the strategy
+   * decomposes the formulas in the right-hand side of a sequent before the
+   * formulas in the left-hand side.
+   * 
+   * @param rightFirst the order of the strategy.
+   */
+  protected Prover(boolean rightFirst) {
     super();
+    this.rightFirst = rightFirst;
     this.proverName = new ProverName(NAME);
     this.proverName.setDescription(DESCRITPION);
     this.proverName.setVersion(VERSION);
+    if (rightFirst)
+      this.proverName.setVariant("right-first");
   }
 
   public void configure(FormulaFactory formulaFactory) {
@@ -42,7 +57,7 @@ public class Prover implements _Prover, _LatexSupport {
 
   @Override
   public _Strategy getStrategy() {
-    return new Strategy();
+    return new Strategy(rightFirst);
   }
 
   @Override
@@ -0,0 +1,16 @@
+package cpl.g3c.tp;
+
+/**
+ * Prover for G3c whose strategy decomposes the formulas in the right-hand side
+ * of a sequent first; it is an alternative member of a portfolio.
+ * 
+ * @author Mauro Ferrari
+ *
+ */
+public class ProverRightFirst extends Prover {
+
+  public ProverRightFirst() {
+    super(true);
+  }
+
+}
@@ -28,11 +28,28 @@ import jtabwbx.prop.formula._Sequent;
  */
 class Strategy implements _Strategy {
 
+  // if true the formulas in the right-hand side are decomposed first
+  private final boolean rightFirst;
+
+  Strategy() {
+    this(false);
+  }
+
+  Strategy(boolean rightFirst) {
+    this.rightFirst = rightFirst;
+  }
+
   @Override
   public _AbstractRule nextRule(_AbstractGoal currentNode, IterationInfo lastIteration) {
     _Sequent premise = (_Sequent) currentNode;
     Formula mainFormula;
 
+    if (rightFirst) {
+      mainFormula = getRightCompound(premise);
+      if (mainFormula != null)
+        return getRighRuleFor(premise, mainFormula);
+    }
+
     mainFormula = getLeftCompound(premise);
     if (mainFormula != null)
       return getLeftRuleFor(premise, mainFormula);
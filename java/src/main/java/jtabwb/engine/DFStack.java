@@ -130,6 +130,12 @@ class DFStack {
     node.df_previousNode = df_head;
     node.df_previousBranch = df_lastBranch;
     node.df_previousBacktrack = df_lastBacktrack;
+    // in in-place mode save the trail of the premise
+    if (engine.inPlaceMode && node.premiseEngineNode != null
+        && node.premiseEngineNode.nodeSet instanceof _TrailedGoal) {
+      node.trailedPremise = (_TrailedGoal) node.premiseEngineNode.nodeSet;
+      node.trailMark = node.trailedPremise.trailMark();
+    }
     // update stack reference
     df_head = node;
     // update stack info
@@ -214,6 +220,7 @@ class DFStack {
       boolean continueSearch = true;
       do {
         number_of_restored_backtrack_points++;
+        activeBacktrackPoint.undoTrail();
         // if the restored is an OnResumeListener apply onResume()
         if (activeBacktrackPoint.requireOnResumeInvocation) {
           activeBacktrackPoint.applyOnResume();
@@ -308,6 +315,7 @@ class DFStack {
       boolean continueSearch = true;
       do {
         number_of_restored_branch_points++;
+        activeBranchPoint.undoTrail();
         // if the restored is an OnResumeListener apply onResume()
         if (activeBranchPoint.requireOnResumeInvocation) {
           activeBranchPoint.applyOnResume();
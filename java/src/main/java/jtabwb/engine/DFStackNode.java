@@ -46,6 +46,9 @@ abstract class DFStackNode {
 
   LinkedList<_OnRuleCompletedListener> ruleStatusListeners = null;
 
+  _TrailedGoal trailedPremise = null; // in in-place mode the premise whose trail is saved
+  int trailMark; // the position of the trail of the premise when the node is added
+
   boolean requireOnResumeInvocation; /*
                                       * Set true in subclasses if the applied
                                       * rule is a dynamic rule requiring
@@ -63,6 +66,15 @@ abstract class DFStackNode {
     this.premiseEngineNode = premiseNode;
   }
 
+  /**
+   * In in-place mode, restores the state the premise had when this node was
+   * added to the stack.
+   */
+  void undoTrail() {
+    if (trailedPremise != null)
+      trailedPremise.undoTrail(trailMark);
+  }
+
   void addListener(_OnRuleCompletedListener listener) {
     if (ruleStatusListeners == null)
       ruleStatusListeners = new LinkedList<_OnRuleCompletedListener>();
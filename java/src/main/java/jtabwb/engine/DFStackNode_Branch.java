@@ -75,7 +75,8 @@ class DFStackNode_Branch extends DFStackNode {
    */
   GoalNode nextConclusionToTreat(EnginePlain engine) {
     nextConclusionToTreat++;
-    return new GoalNode(engine, ((_RegularRule) appliedRule).nextSubgoal());
+    return new GoalNode(engine, engine.nextSubgoal((_RegularRule) appliedRule,
+        premiseEngineNode.nodeSet));
   }
 
   void applyOnResume() {
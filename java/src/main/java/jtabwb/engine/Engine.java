@@ -41,7 +41,30 @@ public class Engine {
      * The prover is executed in trace mode, i.e., the proof-trace describing
      * the current proof search is built during proof-search.
      */
-    ENGINE_TRACE;
+    ENGINE_TRACE,
+    /**
+     * The prover is executed in parallel mode, i.e., the conclusions of the
+     * regular rules with more than one subgoal are treated in parallel (see
+     * {@link ParallelSearchOptions}). The result of the proof-search is the
+     * same of the plain mode.
+     */
+    ENGINE_PARALLEL,
+    /**
+     * The prover is executed in OR-parallel mode, i.e., besides the conclusions
+     * of regular rules, the alternatives of meta-backtrack and branch-exists
+     * rules are raced in parallel and the first successful alternative stops
+     * the others (see {@link ParallelSearchOptions}). The result of the
+     * proof-search is the same of the plain mode.
+     */
+    ENGINE_OR_PARALLEL,
+    /**
+     * The prover is executed in in-place mode, i.e., the rules implementing
+     * {@link _InPlaceRegularRule} generate their subgoals by modifying their
+     * premise and the modifications of the goals implementing
+     * {@link _TrailedGoal} are undone when a branch or backtrack point is
+     * restored. The result of the proof-search is the same of the plain mode.
+     */
+    ENGINE_IN_PLACE;
   }
 
   /**
@@ -54,6 +77,22 @@ public class Engine {
    * @param mode the execution mode.
    */
   public Engine(_Prover prover, _AbstractGoal goal, ExecutionMode mode) {
+    this(prover, goal, mode, new ParallelSearchOptions());
+  }
+
+  /**
+   * Builds an instance of the engine act that allows to search for a proof of
+   * the goal specified as argument (<em>initial goal</em>) using the specified
+   * prover. The specified mode modify the standard behaviour of the engine; the
+   * specified options are used in the parallel execution modes.
+   * 
+   * @param prover the prover to use.
+   * @param goal the initial node set.
+   * @param mode the execution mode.
+   * @param parallelOptions the options of the parallel execution modes.
+   */
+  public Engine(_Prover prover, _AbstractGoal goal, ExecutionMode mode,
+      ParallelSearchOptions parallelOptions) {
     this.currentExecutionMode = mode;
     switch (mode) {
     case ENGINE_PLAIN:
@@ -65,6 +104,16 @@ public class Engine {
     case ENGINE_VERBOSE:
       realEngine = new EnginePlain(prover, goal, true);
       break;
+    case ENGINE_PARALLEL:
+      realEngine = new EngineParallel(prover, goal, parallelOptions, false);
+      break;
+    case ENGINE_OR_PARALLEL:
+      realEngine = new EngineParallel(prover, goal, parallelOptions, true);
+      break;
+    case ENGINE_IN_PLACE:
+      realEngine = new EnginePlain(prover, goal, false);
+      realEngine.inPlaceMode = true;
+      break;
     default:
       throw new ImplementationError(ImplementationError.CASE_NOT_IMPLEMENTED);
     }
@@ -93,7 +142,8 @@ public class Engine {
   }
 
   /**
-   * Returns the result of the last proof-search.
+   * Returns the result of the last proof-search or <code>null</code> if the
+   * last proof-search has been stopped because its budget has been exhausted.
    * 
    * @return the result of the last proof-search.
    */
@@ -101,6 +151,62 @@ public class Engine {
     return realEngine.getResult();
   }
 
+  /**
+   * Sets the budget of the next proof-searches performed by this engine; if
+   * <code>budget</code> is <code>null</code> the proof-search is not limited.
+   * 
+   * @param budget the budget of the proof-search or <code>null</code>.
+   */
+  public void setSearchBudget(SearchBudget budget) {
+    realEngine.budget = budget;
+  }
+
+  /**
+   * Returns the budget of the proof-searches performed by this engine or
+   * <code>null</code> if the proof-search is not limited.
+   * 
+   * @return the budget of the proof-search or <code>null</code>.
+   */
+  public SearchBudget getSearchBudget() {
+    return realEngine.budget;
+  }
+
+  /**
+   * Returns the limit of the budget exceeded by the last proof-search or
+   * <code>null</code> if the last proof-search terminated within its budget.
+   * 
+   * @return the exceeded limit or <code>null</code>.
+   */
+  public SearchBudget.Limit getExhaustedLimit() {
+    return realEngine.exhaustedLimit;
+  }
+
+  /**
+   * Sets the transposition table used by the next proof-searches performed by
+   * this engine; if <code>table</code> is <code>null</code> no transposition
+   * table is used. The status of every goal implementing {@link _HashableGoal}
+   * is recorded in the table as soon as it is determined and, when the status
+   * of a goal is found in the table, the engine does not search a proof of the
+   * goal and forces its status. The table is not used in trace mode, since the
+   * trace of a proof-search must describe a complete proof.
+   * 
+   * @param table the transposition table or <code>null</code>.
+   */
+  public void setTranspositionTable(TranspositionTable table) {
+    if (currentExecutionMode != ExecutionMode.ENGINE_TRACE)
+      realEngine.setTranspositionTable(table);
+  }
+
+  /**
+   * Returns the transposition table used by this engine or <code>null</code>
+   * if the engine does not use a transposition table.
+   * 
+   * @return the transposition table or <code>null</code>.
+   */
+  public TranspositionTable getTranspositionTable() {
+    return realEngine.transpositionTable;
+  }
+
   /**
    * Returns the trace of the last proof-search or null if the engine has not
    * been executed in trace mode (see {@link ExecutionMode}).
@@ -116,14 +222,51 @@ public class Engine {
 
   /**
    * Searches a proof for the initial goal and, if it terminates, returns the
-   * result of the proof-search.
+   * result of the proof-search. If a budget has been set (see
+   * {@link #setSearchBudget(SearchBudget)}) and one of its limits is exceeded,
+   * the proof-search is stopped and the method returns <code>null</code>.
    * 
-   * @return the result of the search.
+   * @return the result of the search or <code>null</code>.
    */
   public ProofSearchResult searchProof() {
     return realEngine.searchProof();
   }
 
+  /**
+   * Performs at most <code>n</code> iterations of the proof-search for the
+   * initial goal and returns <code>true</code> iff the proof-search is
+   * finished. The first invocation starts the proof-search; the subsequent ones
+   * continue it, possibly from a different thread, until it is finished. When
+   * the proof-search is finished its result is returned by {@link #getResult()}
+   * (<code>null</code> if its budget has been exhausted) and further
+   * invocations return <code>true</code> without performing any iteration.
+   * 
+   * @param n the maximum number of iterations to perform.
+   * @return <code>true</code> iff the proof-search is finished.
+   */
+  public boolean step(long n) {
+    return realEngine.step(n);
+  }
+
+  /**
+   * Returns <code>true</code> iff the proof-search started by
+   * {@link #step(long)} or {@link #searchProof()} is finished.
+   * 
+   * @return <code>true</code> iff the proof-search is finished.
+   */
+  public boolean isFinished() {
+    return realEngine.isFinished();
+  }
+
+  /**
+   * Returns the implementation of this engine.
+   * 
+   * @return the real engine.
+   */
+  EnginePlain getRealEngine() {
+    return realEngine;
+  }
+
   /**
    * Returns a bunch of detailed information on the last iteration performed by
    * the prover.
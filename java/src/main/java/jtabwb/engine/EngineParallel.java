@@ -0,0 +1,616 @@
+/*******************************************************************************
+ * Copyright (C) 2013, 2016 Mauro Ferrari
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+package jtabwb.engine;
+
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/*
+ * An extension of the engine treating in parallel the conclusions of the
+ * regular rules with more than one subgoal. Since the proof-search for a
+ * regular rule succeeds iff the proof-search for all its conclusions succeeds,
+ * the conclusions can be treated independently: the engine builds a sub-engine
+ * for every conclusion, forks the sub-engines in a fork-join pool and replaces
+ * the rule application with a ForceBranchSuccess or a ForceBranchFailure rule
+ * according to the result of the sub-engines. As soon as a sub-engine fails the
+ * siblings following it are cancelled, while the siblings preceding it are
+ * completed: the first failing conclusion decides the result, as in the
+ * sequential engine, and only the sub-engines treating the conclusions up to
+ * the first failing one contribute to the iteration info of the engine. Hence
+ * the iteration info is the one of the sequential engine.
+ *
+ * In OR-parallel mode the engine also races the alternatives of meta-backtrack
+ * and branch-exists rule applications: a sub-engine is built for every rule
+ * returned by the meta-backtrack rule (the sub-engine starts by applying that
+ * rule) and for every subgoal of the branch-exists rule. As soon as a
+ * sub-engine succeeds the siblings following it are cancelled and the first
+ * succeeding alternative decides the result. At most
+ * ParallelSearchOptions.getMaxLiveAlternatives() alternatives are live at once
+ * and the alternatives are treated sequentially when the number of branch and
+ * backtrack points from the initial goal is at least
+ * ParallelSearchOptions.getOrParallelDepth().
+ *
+ * The rules are intercepted at the strategy level (see ParallelStrategy),
+ * hence the main cycle of EnginePlain is not modified. A regular rule is
+ * treated in parallel only if the current worker does not have too many queued
+ * tasks, otherwise it is applied as in the sequential engine; rules
+ * implementing _OnRuleResumedListener are always applied sequentially since
+ * their subgoals may be modified when they are resumed.
+ *
+ * The prover must provide a new instance of the strategy at every invocation of
+ * _Prover.getStrategy() (or a thread-safe strategy) since the sub-engines are
+ * executed concurrently.
+ */
+class EngineParallel extends EnginePlain {
+
+  /* Names of the rules replacing the rules treated in parallel */
+  private static final String PARALLEL_BRANCH_SUCCESS = "PARALLEL_BRANCH_SUCCESS";
+  private static final String PARALLEL_BRANCH_FAILURE = "PARALLEL_BRANCH_FAILURE";
+  private static final String CANCELLED_BRANCH = "CANCELLED_BRANCH";
+  private static final String BUDGET_EXHAUSTED = "BUDGET_EXHAUSTED";
+
+  /*
+   * A regular rule is treated in parallel only if the number of tasks queued by
+   * the current worker and not yet stolen is at most this value.
+   */
+  private static final int MAX_SURPLUS_QUEUED_TASKS = 2;
+
+  final ParallelSearchOptions options; // the options of the parallel search
+  final boolean orParallel; // true iff backtrack alternatives are raced
+  final EngineParallel parentEngine; // the engine forking this one or null
+  final SiblingsGroup siblings; // the group of siblings of this engine or null
+  final int siblingIndex; // the index of this engine in its group of siblings
+  final int depth; // number of branch and backtrack points above the goal of this engine
+  _AbstractRule firstRule; // the first rule to apply or null
+  boolean cancelled = false; // true iff this engine was cancelled before termination
+
+  // BUDGET
+  long inheritedStackSize; // the stack size left to the parent engine
+  SharedBudget sharedBudget; // the budget shared by the engines of the fork tree
+  long publishedIterations; // the iterations of this engine added to the shared budget
+  long publishedCpuTime; // the CPU time (ns) of this engine added to the shared budget
+
+  /*
+   * The iterations and the CPU time consumed by the engines of a fork tree. The
+   * iteration and CPU time limits of the root engine bound the sum of the
+   * iterations and of the CPU times of all the engines of the tree; every
+   * engine adds its own iterations and CPU time, not those of its sub-engines.
+   */
+  static class SharedBudget {
+    final AtomicLong iterations = new AtomicLong();
+    final AtomicLong cpuTime = new AtomicLong();
+  }
+
+  /*
+   * The group of sub-engines generated by the same rule application, indexed in
+   * the order the sequential engine treats them. The decisive result is FAILURE
+   * for the conclusions of a regular rule and SUCCESS for the alternatives of a
+   * backtrack-point; decidedIndex is the least index of a sub-engine terminated
+   * with the decisive result (Integer.MAX_VALUE if there is none) and the
+   * sub-engines with a greater index are cancelled. All the sub-engines are
+   * cancelled if the budget of one of them is exhausted.
+   */
+  static class SiblingsGroup {
+    final ProofSearchResult decisiveResult;
+    final AtomicInteger decidedIndex = new AtomicInteger(Integer.MAX_VALUE);
+    volatile boolean aborted = false;
+
+    SiblingsGroup(ProofSearchResult decisiveResult) {
+      this.decisiveResult = decisiveResult;
+    }
+
+    /*
+     * Records that the sub-engine with the specified index terminated with the
+     * decisive result.
+     */
+    void decide(int index) {
+      int current = decidedIndex.get();
+      while (index < current && !decidedIndex.compareAndSet(current, index))
+        current = decidedIndex.get();
+    }
+
+    /*
+     * Returns true iff the sub-engine with the specified index is no longer
+     * needed.
+     */
+    boolean cancels(int index) {
+      return aborted || decidedIndex.get() < index;
+    }
+  }
+
+  /**
+   * Constructs an instance of the engine that perform a proof-search of the
+   * <code>goal</code> driven by the <code>prover</code> with the specified
+   * options.
+   *
+   * @param prover the prover driving proof search.
+   * @param goal the goal of the proof-search.
+   * @param options the options of the parallel search.
+   * @param orParallel if <code>true</code> backtrack alternatives are raced.
+   */
+  EngineParallel(_Prover prover, _AbstractGoal goal, ParallelSearchOptions options,
+      boolean orParallel) {
+    this(prover, goal, options, orParallel, null, null, 0, null);
+  }
+
+  /**
+   * Constructs a sub-engine of the specified parent engine.
+   *
+   * @param prover the prover driving proof search.
+   * @param goal the goal of the proof-search.
+   * @param options the options of the parallel search.
+   * @param orParallel if <code>true</code> backtrack alternatives are raced.
+   * @param parentEngine the engine forking this one.
+   * @param siblings the group of siblings of this engine.
+   * @param siblingIndex the index of this engine in its group of siblings.
+   * @param firstRule the first rule to apply or <code>null</code> if the first
+   * rule is selected by the strategy.
+   */
+  EngineParallel(_Prover prover, _AbstractGoal goal, ParallelSearchOptions options,
+      boolean orParallel, EngineParallel parentEngine, SiblingsGroup siblings, int siblingIndex,
+      _AbstractRule firstRule) {
+    super(prover, goal, false);
+    this.options = options;
+    this.orParallel = orParallel;
+    this.parentEngine = parentEngine;
+    this.siblings = siblings;
+    this.siblingIndex = siblingIndex;
+    this.firstRule = firstRule;
+    this.depth = parentEngine == null ? 0 : parentEngine.currentDepth() + 1;
+    this.strategy = new ParallelStrategy(this.strategy);
+    if (parentEngine != null)
+      setTranspositionTable(parentEngine.transpositionTable);
+    if (parentEngine != null)
+      // the sub-engine is built by the thread of the parent engine
+      this.inheritedStackSize =
+          parentEngine.stackSizeLimit == SearchBudget.UNLIMITED ? SearchBudget.UNLIMITED
+              : parentEngine.stackSizeLimit - parentEngine.stack.current_stack_size - 1;
+  }
+
+  /**
+   * Initialises the limits of the proof-search. The root engine builds the
+   * budget shared by its fork tree: the iterations and the CPU time of all the
+   * engines of the tree are bounded by the limits of the root engine. Since the
+   * stack of a sub-engine extends the stack of its parent, a sub-engine inherits
+   * the stack size left to its parent engine when it has been built.
+   */
+  @Override
+  void initBudget() {
+    if (parentEngine == null) {
+      super.initBudget();
+      sharedBudget = new SharedBudget();
+    } else {
+      wallClockDeadline = parentEngine.wallClockDeadline;
+      cpuTimeLimit = parentEngine.cpuTimeLimit;
+      cpuTimeUsed = 0;
+      iterationsLimit = parentEngine.iterationsLimit;
+      stackSizeLimit = inheritedStackSize;
+      checkTimeLimits = parentEngine.checkTimeLimits;
+      nextTimeCheck = SearchBudget.TIME_CHECK_INTERVAL;
+      sharedBudget = parentEngine.sharedBudget;
+    }
+    publishedIterations = 0;
+    publishedCpuTime = 0;
+    // the first rule is selected, and possibly treated in parallel, before the first step
+    if (cpuTimeLimit != Long.MAX_VALUE)
+      stepCpuTimeStart = currentThreadCpuTime();
+  }
+
+  /**
+   * Adds the iterations performed by this engine since the last invocation to
+   * the shared budget and checks the iteration limit against the iterations of
+   * the whole fork tree.
+   */
+  @Override
+  boolean iterationsExhausted() {
+    if (iterationsLimit == SearchBudget.UNLIMITED)
+      return false;
+    long iterations = LAST_ITERATION_INFO.number_of_iterations;
+    long total = sharedBudget.iterations.addAndGet(iterations - publishedIterations);
+    publishedIterations = iterations;
+    return total >= iterationsLimit;
+  }
+
+  /**
+   * Adds the CPU time consumed by this engine since the last invocation to the
+   * shared budget and checks the CPU time limit against the CPU time of the
+   * whole fork tree.
+   */
+  @Override
+  boolean cpuTimeExhausted() {
+    if (cpuTimeLimit == Long.MAX_VALUE)
+      return false;
+    long consumed = cpuTimeConsumed();
+    long total = sharedBudget.cpuTime.addAndGet(consumed - publishedCpuTime);
+    publishedCpuTime = consumed;
+    return total >= cpuTimeLimit;
+  }
+
+  /**
+   * Adds the CPU time consumed by the last step to the shared budget.
+   */
+  @Override
+  void proofSearchFinished() {
+    if (cpuTimeLimit != Long.MAX_VALUE) {
+      sharedBudget.cpuTime.addAndGet(cpuTimeUsed - publishedCpuTime);
+      publishedCpuTime = cpuTimeUsed;
+    }
+    super.proofSearchFinished();
+  }
+
+  /**
+   * The transposition strategy wraps the prover strategy inside the parallel
+   * strategy, so that the first rule of a sub-engine racing an alternative is
+   * not taken as the rule deciding the status of its goal.
+   */
+  @Override
+  boolean hasTranspositionStrategy() {
+    return ((ParallelStrategy) strategy).proverStrategy instanceof TranspositionStrategy;
+  }
+
+  @Override
+  void installTranspositionStrategy() {
+    ParallelStrategy parallelStrategy = (ParallelStrategy) strategy;
+    parallelStrategy.proverStrategy =
+        new TranspositionStrategy(this, parallelStrategy.proverStrategy);
+  }
+
+  /**
+   * The status of goals is not recorded if the proof-search of this engine has
+   * been cancelled or its budget has been exhausted, since in these cases the
+   * failure of the proof-search is forced.
+   */
+  @Override
+  boolean canRecordGoalStatus() {
+    return exhaustedLimit == null && !isCancelled();
+  }
+
+  /**
+   * Returns the number of branch and backtrack points above the current goal.
+   *
+   * @return the depth of the current goal.
+   */
+  int currentDepth() {
+    return depth + stack.current_stack_size;
+  }
+
+  /**
+   * Returns <code>true</code> iff the proof-search of this engine is no longer
+   * needed, that is a preceding sibling of this engine or of one of its
+   * ancestors returned the decisive result of its group, or the proof-search
+   * of the group has been aborted.
+   *
+   * @return <code>true</code> iff the proof-search of this engine has been
+   * cancelled.
+   */
+  boolean isCancelled() {
+    for (EngineParallel e = this; e.siblings != null; e = e.parentEngine)
+      if (e.siblings.cancels(e.siblingIndex))
+        return true;
+    return false;
+  }
+
+  /**
+   * Searches a proof for the initial goal; if the current thread is not a
+   * worker of the pool of this engine the proof-search is submitted to the
+   * pool and the current thread waits for its termination.
+   *
+   * @return the result of the proof-search.
+   */
+  @Override
+  ProofSearchResult searchProof() {
+    if (ForkJoinTask.getPool() == options.getPool())
+      return searchProofInPool();
+    else
+      // a CompletableFuture is never executed by the joining thread, hence
+      // the proof-search is executed by a worker of the pool
+      return CompletableFuture.supplyAsync(new Supplier<ProofSearchResult>() {
+
+        @Override
+        public ProofSearchResult get() {
+          return searchProofInPool();
+        }
+      }, options.getPool()).join();
+  }
+
+  /**
+   * Searches a proof for the initial goal in the current thread, which must be
+   * a worker of the pool of this engine.
+   *
+   * @return the result of the proof-search.
+   */
+  ProofSearchResult searchProofInPool() {
+    return super.searchProof();
+  }
+
+  /**
+   * Performs at most <code>n</code> iterations of the current proof-search; as
+   * for {@link #searchProof()}, if the current thread is not a worker of the
+   * pool of this engine the iterations are performed by a worker of the pool.
+   *
+   * @param n the maximum number of iterations to perform.
+   * @return <code>true</code> iff the proof-search is finished.
+   */
+  @Override
+  boolean step(final long n) {
+    if (ForkJoinTask.getPool() == options.getPool())
+      return super.step(n);
+    else
+      return CompletableFuture.supplyAsync(new Supplier<Boolean>() {
+
+        @Override
+        public Boolean get() {
+          return EngineParallel.super.step(n);
+        }
+      }, options.getPool()).join();
+  }
+
+  /*
+   * Builds the task executing the sub-engine of this engine with the specified
+   * index in the group of siblings.
+   */
+  private SearchTask subEngineTask(_AbstractGoal goal, SiblingsGroup group, int index,
+      _AbstractRule first) {
+    return new SearchTask(new EngineParallel(prover, goal, options, orParallel, this, group, index,
+        first));
+  }
+
+  /*
+   * Executes the specified tasks keeping at most maxLive of them live at once
+   * and returns the number of executed tasks. The task with the smallest index
+   * returning the decisive result of the group, without having been cancelled,
+   * is stored in decisive[0] (-1 if no task returns the decisive result); since
+   * a decisive result cancels only the following tasks, the preceding ones are
+   * completed as in the sequential proof-search. The
+   * CPU time spent by this thread executing the tasks is charged to the
+   * sub-engines, not to this engine.
+   */
+  private int executeTasks(ArrayList<SearchTask> tasks, SiblingsGroup group, int maxLive,
+      int[] decisive) {
+    if (cpuTimeLimit != Long.MAX_VALUE)
+      cpuTimeUsed = cpuTimeConsumed();
+    int size = tasks.size();
+    int forked = Math.min(size, maxLive);
+    // fork the tasks but the first one, which is treated by this thread
+    for (int i = forked - 1; i > 0; i--)
+      tasks.get(i).fork();
+    decisive[0] = -1;
+    for (int i = 0; i < forked; i++) {
+      ProofSearchResult result = i == 0 ? tasks.get(i).invoke() : tasks.get(i).join();
+      if (result == group.decisiveResult && !tasks.get(i).engine.cancelled && decisive[0] < 0)
+        decisive[0] = i;
+      // a task terminated, a new one can be forked
+      if (forked < size && !group.cancels(forked))
+        tasks.get(forked++).fork();
+    }
+    if (cpuTimeLimit != Long.MAX_VALUE)
+      stepCpuTimeStart = currentThreadCpuTime();
+    return forked;
+  }
+
+  /*
+   * Updates the stack info and the iteration info of this engine with the data
+   * of the executed sub-engines up to the one returning the decisive result of
+   * the group (with index decisive, -1 if there is no such sub-engine); the
+   * work of the following sub-engines is speculative and it is not counted, so
+   * that the info is the one of the sequential proof-search.
+   */
+  private void updateInfo(ArrayList<SearchTask> tasks, int executed, int decisive) {
+    // the iterations of the sub-engines have been added to the shared budget by the sub-engines
+    long iterations = LAST_ITERATION_INFO.number_of_iterations;
+    int counted = decisive < 0 ? executed : decisive + 1;
+    for (int i = 0; i < counted; i++) {
+      EnginePlain subEngine = tasks.get(i).engine;
+      LAST_ITERATION_INFO.number_of_iterations += subEngine.LAST_ITERATION_INFO.number_of_iterations;
+      LAST_ITERATION_INFO.number_of_generated_nodes +=
+          subEngine.LAST_ITERATION_INFO.number_of_generated_nodes;
+      stack.number_of_restored_backtrack_points +=
+          subEngine.stack.number_of_restored_backtrack_points;
+      stack.number_of_restored_branch_points += subEngine.stack.number_of_restored_branch_points;
+      LAST_ITERATION_INFO.transposition_table_hits +=
+          subEngine.LAST_ITERATION_INFO.transposition_table_hits;
+      LAST_ITERATION_INFO.transposition_table_misses +=
+          subEngine.LAST_ITERATION_INFO.transposition_table_misses;
+      // the sequential engine keeps the rule application in the stack but for the last sub-engine
+      int subEngineStackSize =
+          stack.current_stack_size + subEngine.stack.max_stack_size + (i < tasks.size() - 1 ? 1 : 0);
+      if (subEngineStackSize > stack.max_stack_size)
+        stack.max_stack_size = subEngineStackSize;
+    }
+    // the last branch-point (resp. backtrack-point) search of the sub-engines is
+    // performed by this engine after the application of the returned rule
+    LAST_ITERATION_INFO.number_of_iterations--;
+    publishedIterations += LAST_ITERATION_INFO.number_of_iterations - iterations;
+  }
+
+  /*
+   * Returns the rule to apply to the premise of a rule treated in parallel. If
+   * no sub-engine returned the decisive result of the group and one of the
+   * executed sub-engines exhausted its budget, the budget of this engine is
+   * exhausted too.
+   */
+  private _AbstractRule ruleFor(_AbstractRule rule, _AbstractGoal premise,
+      ArrayList<SearchTask> tasks, SiblingsGroup group, int executed, ProofSearchResult result) {
+    if (result != group.decisiveResult)
+      for (int i = 0; i < executed; i++)
+        if (tasks.get(i).engine.exhaustedLimit != null) {
+          exhaustedLimit = tasks.get(i).engine.exhaustedLimit;
+          return new ForceBranchFailure(BUDGET_EXHAUSTED, premise);
+        }
+
+    if (rule instanceof _OnRuleCompletedListener)
+      ((_OnRuleCompletedListener) rule).onCompleted(result);
+
+    if (result == ProofSearchResult.SUCCESS)
+      return new ForceBranchSuccess(PARALLEL_BRANCH_SUCCESS, premise);
+    else
+      return new ForceBranchFailure(PARALLEL_BRANCH_FAILURE, premise);
+  }
+
+  /*
+   * Treats in parallel the conclusions of the specified rule application and
+   * returns the rule to apply to the premise.
+   */
+  private _AbstractRule treatConclusionsInParallel(_RegularRule rule, _AbstractGoal premise) {
+    SiblingsGroup group = new SiblingsGroup(ProofSearchResult.FAILURE);
+    ArrayList<SearchTask> tasks = new ArrayList<SearchTask>(rule.numberOfSubgoals());
+    while (rule.hasNextSubgoal())
+      tasks.add(subEngineTask(rule.nextSubgoal(), group, tasks.size(), null));
+
+    int[] firstFailure = new int[1];
+    int executed = executeTasks(tasks, group, tasks.size(), firstFailure);
+    ProofSearchResult result =
+        firstFailure[0] < 0 ? ProofSearchResult.SUCCESS : ProofSearchResult.FAILURE;
+
+    updateInfo(tasks, executed, firstFailure[0]);
+    if (result == ProofSearchResult.SUCCESS)
+      // the sequential engine restores the branch-point for every conclusion but the first one
+      stack.number_of_restored_branch_points += tasks.size() - 1;
+    else
+      // the sequential engine restores the branch-point for every conclusion
+      // preceding the failed one
+      stack.number_of_restored_branch_points += firstFailure[0];
+    return ruleFor(rule, premise, tasks, group, executed, result);
+  }
+
+  /*
+   * Races the alternatives specified by tasks and returns the rule to apply to
+   * the premise of the specified rule.
+   */
+  private _AbstractRule raceAlternatives(_AbstractRule rule, _AbstractGoal premise,
+      ArrayList<SearchTask> tasks, SiblingsGroup group) {
+    int[] winner = new int[1];
+    int executed = executeTasks(tasks, group, options.getMaxLiveAlternatives(), winner);
+    ProofSearchResult result = winner[0] < 0 ? ProofSearchResult.FAILURE : ProofSearchResult.SUCCESS;
+
+    updateInfo(tasks, executed, winner[0]);
+    if (result == ProofSearchResult.SUCCESS)
+      // the sequential engine restores the backtrack-point for every alternative
+      // preceding the winner
+      stack.number_of_restored_backtrack_points += winner[0];
+    else
+      // the sequential engine restores the backtrack-point for every alternative but the first one
+      stack.number_of_restored_backtrack_points += tasks.size() - 1;
+    return ruleFor(rule, premise, tasks, group, executed, result);
+  }
+
+  /*
+   * Races the rules of the specified meta-backtrack rule application.
+   */
+  private _AbstractRule raceRules(_MetaBacktrackRule rule, _AbstractGoal premise) {
+    SiblingsGroup group = new SiblingsGroup(ProofSearchResult.SUCCESS);
+    ArrayList<SearchTask> tasks = new ArrayList<SearchTask>(rule.totalNumberOfRules());
+    while (rule.hasNextRule())
+      tasks.add(subEngineTask(rule.goal(), group, tasks.size(), rule.nextRule()));
+    // the sequential engine applies the first rule to the current goal
+    LAST_ITERATION_INFO.number_of_generated_nodes--;
+    return raceAlternatives(rule, premise, tasks, group);
+  }
+
+  /*
+   * Races the branches of the specified branch-exists rule application.
+   */
+  private _AbstractRule raceBranches(_BranchExistsRule rule, _AbstractGoal premise) {
+    SiblingsGroup group = new SiblingsGroup(ProofSearchResult.SUCCESS);
+    ArrayList<SearchTask> tasks = new ArrayList<SearchTask>(rule.numberOfBranchExistsSubgoals());
+    while (rule.hasNextBranchExistsSubgoal())
+      tasks.add(subEngineTask(rule.nextBranchExistsSubgoal(), group, tasks.size(), null));
+    return raceAlternatives(rule, premise, tasks, group);
+  }
+
+  /*
+   * The strategy wrapping the strategy of the prover: the rules generating
+   * more than one subgoal or alternative are treated in parallel.
+   */
+  private class ParallelStrategy implements _Strategy {
+
+    private _Strategy proverStrategy;
+
+    ParallelStrategy(_Strategy proverStrategy) {
+      this.proverStrategy = proverStrategy;
+    }
+
+    @Override
+    public _AbstractRule nextRule(_AbstractGoal goal, IterationInfo lastIteration) {
+      if (isCancelled())
+        return new ForceBranchFailure(CANCELLED_BRANCH, goal);
+      _AbstractRule rule;
+      if (firstRule != null) {
+        rule = firstRule;
+        firstRule = null;
+      } else
+        rule = proverStrategy.nextRule(goal, lastIteration);
+      if (rule == null || rule instanceof _OnRuleResumedListener)
+        return rule;
+
+      switch (RuleType.getType(rule)) {
+      case REGULAR:
+        if (((_RegularRule) rule).numberOfSubgoals() > 1
+            && ForkJoinTask.getSurplusQueuedTaskCount() <= MAX_SURPLUS_QUEUED_TASKS)
+          return treatConclusionsInParallel((_RegularRule) rule, goal);
+        break;
+      case META_BACKTRACK_RULE:
+        if (orParallel && ((_MetaBacktrackRule) rule).totalNumberOfRules() > 1
+            && currentDepth() < options.getOrParallelDepth())
+          return raceRules((_MetaBacktrackRule) rule, goal);
+        break;
+      case BRANCH_EXISTS:
+        if (orParallel && ((_BranchExistsRule) rule).numberOfBranchExistsSubgoals() > 1
+            && currentDepth() < options.getOrParallelDepth())
+          return raceBranches((_BranchExistsRule) rule, goal);
+        break;
+      default:
+        break;
+      }
+      return rule;
+    }
+  }
+
+  /*
+   * The task executing the proof-search of an engine.
+   */
+  static class SearchTask extends RecursiveTask<ProofSearchResult> {
+
+    private static final long serialVersionUID = 1L;
+
+    final EngineParallel engine;
+
+    SearchTask(EngineParallel engine) {
+      this.engine = engine;
+    }
+
+    @Override
+    protected ProofSearchResult compute() {
+      ProofSearchResult result = engine.searchProofInPool();
+      // a result obtained after the group has been decided may be forced by the cancellation
+      engine.cancelled = engine.isCancelled();
+      // a decisive result cancels the following siblings, an exhausted budget all of them
+      if (engine.siblings != null)
+        if (result == null)
+          engine.siblings.aborted = true;
+        else if (result == engine.siblings.decisiveResult && !engine.cancelled)
+          engine.siblings.decide(engine.siblingIndex);
+      return result;
+    }
+  }
+
+}
@@ -16,6 +16,9 @@
  ******************************************************************************/
 package jtabwb.engine;
 
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
 import jtabwb.engine.IterationInfo.Move;
 
 /*
@@ -52,6 +55,27 @@ class EnginePlain {
 
   final IterationInfo LAST_ITERATION_INFO;
   boolean verboseMode;
+  boolean inPlaceMode = false; // true iff rules are applied in place
+
+  // BUDGET OF THE PROOF-SEARCH
+  SearchBudget budget = null; // the budget of the proof-search or null
+  SearchBudget.Limit exhaustedLimit = null; // the limit exceeded by the last proof-search or null
+  long wallClockDeadline; // System.nanoTime() value at which the search is stopped
+  long cpuTimeLimit; // the CPU time (ns) of the proof-search or Long.MAX_VALUE
+  long cpuTimeUsed; // the CPU time (ns) consumed by the completed steps
+  long stepCpuTimeStart; // thread CPU time (ns) at the beginning of the current step
+  long iterationsLimit; // the maximum number of iterations
+  long stackSizeLimit; // the maximum size of the stack
+  boolean checkTimeLimits; // true iff a time limit has to be checked
+  long nextTimeCheck; // the iteration at which time limits are checked
+
+  // TRANSPOSITION TABLE
+  TranspositionTable transpositionTable = null; // the transposition table or null
+
+  // STATUS OF THE STEP-WISE PROOF-SEARCH
+  _AbstractRule nextRule; // the next rule to apply
+  boolean searchStarted = false; // true iff a proof-search has been started
+  boolean searchFinished = false; // true iff the started proof-search is finished
 
   /**
    * Constructs an instance of the engine that perform a proof-search of the
@@ -99,6 +123,146 @@ class EnginePlain {
     this.stack = stack.newInstance();
     // reset data about last iteration
     LAST_ITERATION_INFO.reset();
+    // reset the budget
+    this.exhaustedLimit = null;
+    initBudget();
+  }
+
+  /**
+   * Initialises the limits of the proof-search according with the budget of
+   * this engine.
+   */
+  void initBudget() {
+    if (budget == null) {
+      wallClockDeadline = Long.MAX_VALUE;
+      cpuTimeLimit = Long.MAX_VALUE;
+      iterationsLimit = SearchBudget.UNLIMITED;
+      stackSizeLimit = SearchBudget.UNLIMITED;
+      checkTimeLimits = false;
+    } else {
+      wallClockDeadline = deadline(System.nanoTime(), budget.getWallClockTime());
+      cpuTimeLimit = deadline(0, budget.getCpuTime());
+      iterationsLimit = budget.getIterations();
+      stackSizeLimit = budget.getStackSize();
+      checkTimeLimits = budget.hasTimeLimits();
+    }
+    cpuTimeUsed = 0;
+    nextTimeCheck = SearchBudget.TIME_CHECK_INTERVAL;
+  }
+
+  /*
+   * Returns the time in nanoseconds obtained adding the specified milliseconds
+   * to start or Long.MAX_VALUE if milliseconds is unlimited or the addition
+   * overflows.
+   */
+  static long deadline(long start, long milliseconds) {
+    if (milliseconds == SearchBudget.UNLIMITED
+        || milliseconds > (Long.MAX_VALUE - Math.max(start, 0)) / 1000000)
+      return Long.MAX_VALUE;
+    return start + milliseconds * 1000000;
+  }
+
+  /*
+   * Returns the CPU time of the current thread in nanoseconds.
+   */
+  static long currentThreadCpuTime() {
+    ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+    return bean.isCurrentThreadCpuTimeSupported() ? bean.getCurrentThreadCpuTime() : 0;
+  }
+
+  /*
+   * Returns the CPU time in nanoseconds consumed by the current proof-search;
+   * since the steps of a proof-search can be executed by different threads, the
+   * CPU time of the current step is added to the one of the completed steps.
+   */
+  long cpuTimeConsumed() {
+    return cpuTimeUsed + currentThreadCpuTime() - stepCpuTimeStart;
+  }
+
+  /**
+   * Sets the transposition table of this engine; if <code>table</code> is
+   * <code>null</code> the transposition table is not used.
+   * 
+   * @param table the transposition table or <code>null</code>.
+   */
+  void setTranspositionTable(TranspositionTable table) {
+    if (table != null && transpositionTable == null && !hasTranspositionStrategy())
+      installTranspositionStrategy();
+    this.transpositionTable = table;
+  }
+
+  /**
+   * Returns <code>true</code> iff the strategy of this engine has been wrapped
+   * by a {@link TranspositionStrategy}.
+   * 
+   * @return <code>true</code> iff the transposition strategy is installed.
+   */
+  boolean hasTranspositionStrategy() {
+    return strategy instanceof TranspositionStrategy;
+  }
+
+  /**
+   * Wraps the strategy of this engine by a {@link TranspositionStrategy}.
+   */
+  void installTranspositionStrategy() {
+    strategy = new TranspositionStrategy(this, strategy);
+  }
+
+  /**
+   * Returns <code>true</code> iff the status of the goals notified by the stack
+   * can be recorded in the transposition table, that is the proof-search status
+   * notified by the stack is not due to the interruption of the proof-search.
+   * 
+   * @return <code>true</code> iff goal statuses can be recorded.
+   */
+  boolean canRecordGoalStatus() {
+    return exhaustedLimit == null;
+  }
+
+  /**
+   * Returns <code>true</code> iff one of the limits of the budget of the
+   * proof-search has been exceeded; in this case {@link #exhaustedLimit} is set
+   * to the exceeded limit. The limits on iterations and stack size are checked
+   * at every invocation, time limits every
+   * {@link SearchBudget#TIME_CHECK_INTERVAL} iterations.
+   * 
+   * @return <code>true</code> iff the budget has been exhausted.
+   */
+  boolean isBudgetExhausted() {
+    if (exhaustedLimit != null)
+      return true;
+    if (iterationsExhausted())
+      exhaustedLimit = SearchBudget.Limit.ITERATIONS;
+    else if (stack.current_stack_size > stackSizeLimit)
+      exhaustedLimit = SearchBudget.Limit.STACK_SIZE;
+    else if (checkTimeLimits && LAST_ITERATION_INFO.number_of_iterations >= nextTimeCheck) {
+      nextTimeCheck = LAST_ITERATION_INFO.number_of_iterations + SearchBudget.TIME_CHECK_INTERVAL;
+      if (wallClockDeadline != Long.MAX_VALUE && System.nanoTime() - wallClockDeadline >= 0)
+        exhaustedLimit = SearchBudget.Limit.WALL_CLOCK_TIME;
+      else if (cpuTimeExhausted())
+        exhaustedLimit = SearchBudget.Limit.CPU_TIME;
+    }
+    return exhaustedLimit != null;
+  }
+
+  /**
+   * Returns <code>true</code> iff the iterations of the proof-search have
+   * reached the iteration limit.
+   * 
+   * @return <code>true</code> iff the iteration limit is exhausted.
+   */
+  boolean iterationsExhausted() {
+    return LAST_ITERATION_INFO.number_of_iterations >= iterationsLimit;
+  }
+
+  /**
+   * Returns <code>true</code> iff the CPU time consumed by the proof-search has
+   * reached the CPU time limit.
+   * 
+   * @return <code>true</code> iff the CPU time limit is exhausted.
+   */
+  boolean cpuTimeExhausted() {
+    return cpuTimeLimit != Long.MAX_VALUE && cpuTimeConsumed() >= cpuTimeLimit;
   }
 
   /**
@@ -151,7 +315,7 @@ class EnginePlain {
         // select new goal
         currentGoal = branchNode.nextConclusionToTreat(this);
       } else
-        currentGoal = new GoalNode(this, application.nextSubgoal());
+        currentGoal = new GoalNode(this, nextSubgoal(application, currentGoal.nodeSet));
       // update iteration info
       LAST_ITERATION_INFO.applied_rule = ruleToApply;
       LAST_ITERATION_INFO.number_of_conclusions = application.numberOfSubgoals();
@@ -250,6 +414,21 @@ class EnginePlain {
     return currentGoal == null ? null : currentGoal.nodeSet;
   }
 
+  /**
+   * Returns the next subgoal of the specified rule; in in-place mode the
+   * subgoal is generated by modifying the premise of the rule, if the rule
+   * supports it and the modifications of the premise can be undone.
+   * 
+   * @param rule the rule.
+   * @param premise the premise of the rule.
+   * @return the next subgoal of the rule.
+   */
+  _AbstractGoal nextSubgoal(_RegularRule rule, _AbstractGoal premise) {
+    if (inPlaceMode && rule instanceof _InPlaceRegularRule && premise instanceof _TrailedGoal)
+      return ((_InPlaceRegularRule) rule).nextSubgoalInPlace();
+    return rule.nextSubgoal();
+  }
+
   /**
    * Returns the goal of the proof-search.
    * 
@@ -273,23 +452,66 @@ class EnginePlain {
   /**
    * Searches a proof for the initial goal.
    * 
-   * @return the result of the proof-search.
+   * @return the result of the proof-search or <code>null</code> if the budget
+   * of the proof-search has been exhausted.
    */
   ProofSearchResult searchProof() {
+    startProofSearch();
+    step(Long.MAX_VALUE);
+    return result;
+  }
+
+  /**
+   * Starts a new proof-search for the initial goal; the iterations of the
+   * proof-search are performed by {@link #step(long)}.
+   */
+  void startProofSearch() {
     if (verboseMode)
       VerboseModeSupport.printInitialSetInfo(LAST_ITERATION_INFO, stack, goal);
 
     // set initial state
     this.reset();
     this.currentGoal = new GoalNode(this, goal.clone());
+    if (inPlaceMode && currentGoal.nodeSet instanceof _TrailedGoal)
+      ((_TrailedGoal) currentGoal.nodeSet).startTrail();
     this.result = null;
+    this.searchStarted = true;
+    this.searchFinished = false;
 
-    // the main cycle
-    boolean finished = false;
     // select the first rule to apply
-    _AbstractRule nextRule = strategy.nextRule(currentGoal.nodeSet, LAST_ITERATION_INFO);
+    this.nextRule = strategy.nextRule(currentGoal.nodeSet, LAST_ITERATION_INFO);
+  }
+
+  /**
+   * Performs at most <code>n</code> iterations of the current proof-search,
+   * starting a new proof-search if no proof-search has been started, and
+   * returns <code>true</code> iff the proof-search is finished, that is its
+   * result is available or its budget has been exhausted. The proof-search can
+   * be continued by a subsequent invocation of this method, possibly from a
+   * different thread.
+   * 
+   * @param n the maximum number of iterations to perform.
+   * @return <code>true</code> iff the proof-search is finished.
+   */
+  boolean step(long n) {
+    if (!searchStarted)
+      startProofSearch();
+    if (searchFinished)
+      return true;
+    if (cpuTimeLimit != Long.MAX_VALUE)
+      stepCpuTimeStart = currentThreadCpuTime();
 
-    while (!finished) {
+    // the main cycle
+    for (long i = 0; i < n && !searchFinished; i++) {
+
+      // stop the proof-search if the budget is exhausted
+      if (isBudgetExhausted()) {
+        if (verboseMode)
+          VerboseModeSupport.printBudgetExhausted(exhaustedLimit);
+        result = null;
+        searchFinished = true;
+        break;
+      }
 
       if (nextRule != null) {
         RuleType stepType = RuleType.getType(nextRule);
@@ -313,7 +535,7 @@ class EnginePlain {
             if (verboseMode)
               VerboseModeSupport.printNoMoreBranchPoints();
             result = ProofSearchResult.SUCCESS;
-            finished = true;
+            searchFinished = true;
           } else
             nextRule = stack.restorePreviousBranchPoint();
         }
@@ -328,7 +550,7 @@ class EnginePlain {
               if (verboseMode)
                 VerboseModeSupport.printNoMoreBranchPoints();
               result = ProofSearchResult.SUCCESS;
-              finished = true;
+              searchFinished = true;
             } else
               nextRule = stack.restorePreviousBranchPoint();
           } else
@@ -345,12 +567,64 @@ class EnginePlain {
           if (verboseMode)
             VerboseModeSupport.printNoMoreBacktrackPoints();
           result = ProofSearchResult.FAILURE;
-          finished = true;
+          searchFinished = true;
         } else
           nextRule = stack.restorePreviousBacktrackPoint();
       }
     }
-    return result;
+
+    if (cpuTimeLimit != Long.MAX_VALUE)
+      cpuTimeUsed = cpuTimeConsumed();
+    if (searchFinished)
+      proofSearchFinished();
+    return searchFinished;
+  }
+
+  /**
+   * Invoked when the current proof-search is finished; the extensions of this
+   * class override this method to process the data of the finished
+   * proof-search.
+   */
+  void proofSearchFinished() {
+    nextRule = null;
+  }
+
+  /**
+   * Returns <code>true</code> iff the current proof-search is finished.
+   * 
+   * @return <code>true</code> iff the proof-search is finished.
+   */
+  boolean isFinished() {
+    return searchStarted && searchFinished;
+  }
+
+  /**
+   * Returns the number of iterations left to the current proof-search (or to
+   * the next one if no proof-search has been started) or
+   * {@link SearchBudget#UNLIMITED}.
+   * 
+   * @return the number of iterations left to the proof-search.
+   */
+  long remainingIterations() {
+    if (!searchStarted)
+      return budget == null ? SearchBudget.UNLIMITED : budget.getIterations();
+    return iterationsLimit == SearchBudget.UNLIMITED ? SearchBudget.UNLIMITED : iterationsLimit
+        - LAST_ITERATION_INFO.number_of_iterations;
+  }
+
+  /**
+   * Returns the <code>System.nanoTime()</code> value at which the current
+   * proof-search (or the next one if no proof-search has been started) is
+   * stopped or <code>Long.MAX_VALUE</code> if the wall-clock time is not
+   * limited.
+   * 
+   * @return the wall-clock deadline of the proof-search.
+   */
+  long wallClockDeadline() {
+    if (!searchStarted)
+      return budget == null ? Long.MAX_VALUE : deadline(System.nanoTime(),
+          budget.getWallClockTime());
+    return wallClockDeadline;
   }
 
   String getStackTrace() {
@@ -0,0 +1,354 @@
+/*******************************************************************************
+ * Copyright (C) 2013, 2016 Mauro Ferrari
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+package jtabwb.engine;
+
+import java.util.Comparator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A scheduler interleaving the proof-searches of many engines on a fixed number
+ * of worker threads. A worker repeatedly selects an engine according with the
+ * policy of the scheduler, performs at most <em>quantum</em> iterations of its
+ * proof-search (see {@link Engine#step(long)}) and, if the proof-search is not
+ * finished, puts the engine back in the queue of the scheduler. Hence a long
+ * proof-search never prevents short ones from progressing.
+ * <p>
+ * The result of a proof-search is provided by the future returned by
+ * {@link #submit(Engine)}; the value of the future is <code>null</code> if the
+ * budget of the proof-search has been exhausted (see
+ * {@link Engine#setSearchBudget(SearchBudget)}). Cancelling the future stops
+ * the proof-search at the end of the current quantum.
+ * </p>
+ *
+ * @author Mauro Ferrari
+ */
+public class EngineScheduler {
+
+  /**
+   * The policies selecting the next engine to execute.
+   *
+   * @author Mauro Ferrari
+   */
+  public static enum Policy {
+    /**
+     * The engines are executed in the order they are submitted and an engine
+     * not finished after its quantum is put at the end of the queue.
+     */
+    ROUND_ROBIN,
+    /**
+     * The engine with the shortest remaining budget is executed first: engines
+     * are ordered by the deadline of their wall-clock time limit, then by the
+     * number of iterations left and finally by submission order; engines
+     * without limits are executed after the others.
+     */
+    SHORTEST_REMAINING_BUDGET;
+  }
+
+  /**
+   * The default number of iterations performed by an engine each time it is
+   * selected.
+   */
+  public static final int DEFAULT_QUANTUM = 1024;
+
+  /*
+   * A submitted engine with its future and its scheduling keys; the keys are
+   * computed when the job is queued.
+   */
+  private static class Job {
+    final Engine engine;
+    final CompletableFuture<ProofSearchResult> future;
+    final long sequenceNumber;
+    long wallClockDeadline;
+    long remainingIterations;
+
+    Job(Engine engine, long sequenceNumber) {
+      this.engine = engine;
+      this.future = new CompletableFuture<ProofSearchResult>();
+      this.sequenceNumber = sequenceNumber;
+    }
+
+    void updateKeys() {
+      EnginePlain realEngine = engine.getRealEngine();
+      this.wallClockDeadline = realEngine.wallClockDeadline();
+      this.remainingIterations = realEngine.remainingIterations();
+    }
+  }
+
+  private static final Comparator<Job> SHORTEST_REMAINING_BUDGET_ORDER = new Comparator<Job>() {
+
+    @Override
+    public int compare(Job j1, Job j2) {
+      int c = compareDeadlines(j1.wallClockDeadline, j2.wallClockDeadline);
+      if (c == 0)
+        c = Long.compare(j1.remainingIterations, j2.remainingIterations);
+      if (c == 0)
+        c = Long.compare(j1.sequenceNumber, j2.sequenceNumber);
+      return c;
+    }
+
+    // System.nanoTime() values must be compared by their difference
+    private int compareDeadlines(long d1, long d2) {
+      if (d1 == d2)
+        return 0;
+      if (d1 == Long.MAX_VALUE)
+        return 1;
+      if (d2 == Long.MAX_VALUE)
+        return -1;
+      return d1 - d2 < 0 ? -1 : 1;
+    }
+  };
+
+  /* The job used to stop the workers */
+  private final Job STOP = new Job(null, Long.MAX_VALUE);
+
+  private final Policy policy;
+  private final int quantum;
+  private final BlockingQueue<Job> queue;
+  private final Thread[] workers;
+  private long submittedJobs = 0;
+  private int pendingJobs = 0;
+  private boolean shutdown = false;
+  private volatile boolean stopped = false;
+
+  /**
+   * Constructs a scheduler with the specified number of workers and policy,
+   * performing {@link #DEFAULT_QUANTUM} iterations of an engine each time it is
+   * selected.
+   *
+   * @param numberOfWorkers the number of worker threads.
+   * @param policy the policy of the scheduler.
+   */
+  public EngineScheduler(int numberOfWorkers, Policy policy) {
+    this(numberOfWorkers, policy, DEFAULT_QUANTUM);
+  }
+
+  /**
+   * Constructs a scheduler with the specified number of workers, policy and
+   * quantum; the number of workers and the quantum must be greater than zero.
+   *
+   * @param numberOfWorkers the number of worker threads.
+   * @param policy the policy of the scheduler.
+   * @param quantum the number of iterations performed by an engine each time it
+   * is selected.
+   */
+  public EngineScheduler(int numberOfWorkers, Policy policy, int quantum) {
+    if (numberOfWorkers < 1)
+      throw new EngineException(String.format(MSG.ENGINE_SCHEDULER.INVALID_VALUE,
+          "number of workers", numberOfWorkers));
+    if (quantum < 1)
+      throw new EngineException(String.format(MSG.ENGINE_SCHEDULER.INVALID_VALUE, "quantum",
+          quantum));
+    this.policy = policy;
+    this.quantum = quantum;
+    switch (policy) {
+    case ROUND_ROBIN:
+      this.queue = new LinkedBlockingQueue<Job>();
+      break;
+    case SHORTEST_REMAINING_BUDGET:
+      this.queue = new PriorityBlockingQueue<Job>(11, SHORTEST_REMAINING_BUDGET_ORDER);
+      break;
+    default:
+      throw new ImplementationError(ImplementationError.CASE_NOT_IMPLEMENTED);
+    }
+    this.workers = new Thread[numberOfWorkers];
+    for (int i = 0; i < numberOfWorkers; i++) {
+      workers[i] = new Thread(new Worker(), String.format(MSG.ENGINE_SCHEDULER.WORKER_NAME, i));
+      workers[i].setDaemon(true);
+      workers[i].start();
+    }
+  }
+
+  /**
+   * Returns the policy of this scheduler.
+   *
+   * @return the policy.
+   */
+  public Policy getPolicy() {
+    return this.policy;
+  }
+
+  /**
+   * Returns the number of iterations performed by an engine each time it is
+   * selected.
+   *
+   * @return the quantum.
+   */
+  public int getQuantum() {
+    return this.quantum;
+  }
+
+  /**
+   * Submits the proof-search of the specified engine and returns the future
+   * providing its result. The engine must not be used by other threads until
+   * the proof-search is finished.
+   *
+   * @param engine the engine to execute.
+   * @return the future providing the result of the proof-search.
+   * @throws EngineException if the scheduler has been shut down.
+   */
+  public synchronized CompletableFuture<ProofSearchResult> submit(Engine engine) {
+    if (shutdown)
+      throw new EngineException(MSG.ENGINE_SCHEDULER.SHUT_DOWN);
+    // the first step starts a new proof-search
+    engine.getRealEngine().searchStarted = false;
+    Job job = new Job(engine, submittedJobs++);
+    job.updateKeys();
+    pendingJobs++;
+    queue.add(job);
+    return job.future;
+  }
+
+  /**
+   * Returns the number of submitted proof-searches not yet finished.
+   *
+   * @return the number of pending proof-searches.
+   */
+  public synchronized int getPendingProofSearches() {
+    return pendingJobs;
+  }
+
+  /**
+   * Shuts down this scheduler: the submitted proof-searches are executed but no
+   * new proof-search is accepted.
+   */
+  public synchronized void shutdown() {
+    shutdown = true;
+    if (pendingJobs == 0)
+      stopWorkers();
+  }
+
+  /**
+   * Shuts down this scheduler and stops the workers at the end of their
+   * current quantum; the futures of the proof-searches not finished are
+   * cancelled and the engines waiting in the queue are returned.
+   *
+   * @return the queued engines whose proof-search has not been finished.
+   */
+  public synchronized List<Engine> shutdownNow() {
+    shutdown = true;
+    stopped = true;
+    List<Job> jobs = new LinkedList<Job>();
+    queue.drainTo(jobs);
+    List<Engine> engines = new LinkedList<Engine>();
+    for (Job job : jobs)
+      if (job != STOP) {
+        job.future.cancel(false);
+        engines.add(job.engine);
+      }
+    pendingJobs -= engines.size();
+    stopWorkers();
+    return engines;
+  }
+
+  /**
+   * Waits until all the workers of this scheduler terminate after a shut down
+   * or the timeout expires.
+   *
+   * @param timeout the maximum time to wait.
+   * @param unit the unit of the timeout.
+   * @return <code>true</code> iff all the workers terminated.
+   * @throws InterruptedException if the current thread is interrupted while
+   * waiting.
+   */
+  public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+    long deadline = System.nanoTime() + unit.toNanos(timeout);
+    for (Thread worker : workers) {
+      long left = deadline - System.nanoTime();
+      if (left > 0)
+        TimeUnit.NANOSECONDS.timedJoin(worker, left);
+      if (worker.isAlive())
+        return false;
+    }
+    return true;
+  }
+
+  /*
+   * Puts a STOP job for every worker in the queue; invoked holding the lock of
+   * the scheduler.
+   */
+  private void stopWorkers() {
+    for (int i = 0; i < workers.length; i++)
+      queue.add(STOP);
+  }
+
+  /*
+   * Invoked when the proof-search of a job is finished.
+   */
+  private synchronized void jobFinished() {
+    pendingJobs--;
+    if (shutdown && pendingJobs == 0)
+      stopWorkers();
+  }
+
+  /*
+   * Performs a quantum of the specified job and puts it back in the queue if
+   * the proof-search is not finished.
+   */
+  private void execute(Job job) {
+    if (stopped || job.future.isDone()) { // stopped or cancelled
+      job.future.cancel(false);
+      jobFinished();
+      return;
+    }
+    boolean finished;
+    try {
+      finished = job.engine.step(quantum);
+    } catch (Throwable t) {
+      job.future.completeExceptionally(t);
+      jobFinished();
+      return;
+    }
+    if (finished) {
+      job.future.complete(job.engine.getResult());
+      jobFinished();
+    } else if (stopped) {
+      job.future.cancel(false);
+      jobFinished();
+    } else {
+      job.updateKeys();
+      queue.add(job);
+    }
+  }
+
+  /*
+   * The worker threads.
+   */
+  private class Worker implements Runnable {
+
+    @Override
+    public void run() {
+      while (true) {
+        Job job;
+        try {
+          job = queue.take();
+        } catch (InterruptedException e) {
+          return;
+        }
+        if (job == STOP)
+          return;
+        execute(job);
+      }
+    }
+  }
+
+}
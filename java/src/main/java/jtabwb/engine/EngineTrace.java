@@ -58,13 +58,11 @@ class EngineTrace extends EnginePlain {
   }
 
   /**
-   * Searches a proof for the initial node-set.
-   * 
-   * @return the result of the search.
+   * Builds the trace of the finished proof-search.
    */
-  public ProofSearchResult searchProof() {
-    ProofSearchResult result = super.searchProof();
+  @Override
+  void proofSearchFinished() {
+    super.proofSearchFinished();
     this.trace = ((DFStackWithTrace) stack).getTrace(goal, prover, result);
-    return result;
   }
 }
@@ -93,6 +93,10 @@ public class IterationInfo {
   long number_of_restored_backtrack_points;
   long number_of_restored_branch_points;
   int max_stack_size;
+
+  // TRANSPOSITION TABLE INFO
+  long transposition_table_hits; // the number of goals found in the transposition table
+  long transposition_table_misses; // the number of goals not found in the transposition table
   EnginePlain engine;
 
   IterationInfo(EnginePlain engine) {
@@ -107,6 +111,8 @@ public class IterationInfo {
     number_of_restored_backtrack_points = 0;
     number_of_restored_branch_points = 0;
     max_stack_size = 0;
+    transposition_table_hits = 0;
+    transposition_table_misses = 0;
     // LAST APPLIED RULE INFO
     move = Move.INITIAL_STATE;
     current_node_set_status = null;
@@ -317,6 +323,28 @@ public class IterationInfo {
     return max_stack_size;
   }
 
+  /**
+   * Returns the number of goals whose status has been found in the
+   * transposition table of the engine up to this iteration (see
+   * {@link Engine#setTranspositionTable(TranspositionTable)}).
+   * 
+   * @return the number of transposition table hits.
+   */
+  public long getTranspositionTableHits() {
+    return transposition_table_hits;
+  }
+
+  /**
+   * Returns the number of goals searched in the transposition table of the
+   * engine and not found up to this iteration (see
+   * {@link Engine#setTranspositionTable(TranspositionTable)}).
+   * 
+   * @return the number of transposition table misses.
+   */
+  public long getTranspositionTableMisses() {
+    return transposition_table_misses;
+  }
+
   /**
    * Return the stack trace.
    * 
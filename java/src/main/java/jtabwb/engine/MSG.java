@@ -28,6 +28,30 @@ class MSG {
     static String CANNOT_PRUNE = "A trace with [%s] status cannot be pruned.";
   }
   
+  static class PARALLEL_SEARCH_OPTIONS {
+
+    static String INVALID_VALUE = "Invalid value for the %s [%d].";
+  }
+
+  static class SEARCH_BUDGET {
+
+    static String INVALID_LIMIT = "The %s limit must be positive [%d].";
+    static String DESCRIPTION = "wall-clock time (ms) [%s], CPU time (ms) [%s], iterations [%s], stack size [%s]";
+  }
+
+  static class TRANSPOSITION_TABLE {
+
+    static String INVALID_CAPACITY = "The capacity of a transposition table must be positive [%d].";
+    static String DESCRIPTION = "policy [%s], entries [%d], capacity [%d], hits [%d], misses [%d]";
+  }
+
+  static class ENGINE_SCHEDULER {
+
+    static String INVALID_VALUE = "Invalid value for the %s [%d].";
+    static String SHUT_DOWN = "The scheduler has been shut down.";
+    static String WORKER_NAME = "jtabwb-scheduler-worker-%d";
+  }
+
   static class IMPLEMENTATION_ERROR {
     static final String CASE_NOT_IMPLEMENTED = "Case not implemented!";
     static final String ARGUMENT_CANNOT_BE_NULL_$1 = "Argument [%s] cannot be null!"; 
@@ -0,0 +1,127 @@
+/*******************************************************************************
+ * Copyright (C) 2013, 2016 Mauro Ferrari
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+package jtabwb.engine;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * The options of the parallel execution modes of the engine (see
+ * {@link Engine.ExecutionMode#ENGINE_PARALLEL} and
+ * {@link Engine.ExecutionMode#ENGINE_OR_PARALLEL}).
+ *
+ * @author Mauro Ferrari
+ */
+public class ParallelSearchOptions {
+
+  /**
+   * The default value of the OR-parallel depth.
+   */
+  public static final int DEFAULT_OR_PARALLEL_DEPTH = 16;
+
+  private ForkJoinPool pool;
+  private int maxLiveAlternatives;
+  private int orParallelDepth;
+
+  /**
+   * Constructs the default options: the sub-engines are executed in the common
+   * fork-join pool, the number of alternatives concurrently treated is the
+   * parallelism of the pool and the OR-parallel depth is
+   * {@link #DEFAULT_OR_PARALLEL_DEPTH}.
+   */
+  public ParallelSearchOptions() {
+    this(ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Constructs the default options for the specified pool.
+   *
+   * @param pool the pool executing the sub-engines.
+   */
+  public ParallelSearchOptions(ForkJoinPool pool) {
+    super();
+    this.pool = pool;
+    this.maxLiveAlternatives = pool.getParallelism();
+    this.orParallelDepth = DEFAULT_OR_PARALLEL_DEPTH;
+  }
+
+  /**
+   * Returns the pool executing the sub-engines.
+   *
+   * @return the pool.
+   */
+  public ForkJoinPool getPool() {
+    return this.pool;
+  }
+
+  /**
+   * Sets the pool executing the sub-engines.
+   *
+   * @param pool the pool.
+   */
+  public void setPool(ForkJoinPool pool) {
+    this.pool = pool;
+  }
+
+  /**
+   * Returns the maximum number of alternatives of a backtrack-point that are
+   * concurrently treated.
+   *
+   * @return the maximum number of live alternatives.
+   */
+  public int getMaxLiveAlternatives() {
+    return this.maxLiveAlternatives;
+  }
+
+  /**
+   * Sets the maximum number of alternatives of a backtrack-point that are
+   * concurrently treated; the value must be greater than zero.
+   *
+   * @param maxLiveAlternatives the maximum number of live alternatives.
+   */
+  public void setMaxLiveAlternatives(int maxLiveAlternatives) {
+    if (maxLiveAlternatives < 1)
+      throw new EngineException(String.format(MSG.PARALLEL_SEARCH_OPTIONS.INVALID_VALUE,
+          "maximum number of live alternatives", maxLiveAlternatives));
+    this.maxLiveAlternatives = maxLiveAlternatives;
+  }
+
+  /**
+   * Returns the OR-parallel depth, that is the number of branch and backtrack
+   * points above which the alternatives of a backtrack-point are treated
+   * sequentially.
+   *
+   * @return the OR-parallel depth.
+   */
+  public int getOrParallelDepth() {
+    return this.orParallelDepth;
+  }
+
+  /**
+   * Sets the OR-parallel depth, that is the number of branch and backtrack
+   * points above which the alternatives of a backtrack-point are treated
+   * sequentially; the value must be non negative.
+   *
+   * @param orParallelDepth the OR-parallel depth.
+   */
+  public void setOrParallelDepth(int orParallelDepth) {
+    if (orParallelDepth < 0)
+      throw new EngineException(String.format(MSG.PARALLEL_SEARCH_OPTIONS.INVALID_VALUE,
+          "OR-parallel depth", orParallelDepth));
+    this.orParallelDepth = orParallelDepth;
+  }
+
+}
@@ -0,0 +1,177 @@
+/*******************************************************************************
+ * Copyright (C) 2013, 2016 Mauro Ferrari
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+package jtabwb.engine;
+
+/**
+ * The budget of a proof-search. A budget is defined by a wall-clock time limit,
+ * a CPU time limit, a limit on the number of iterations and a limit on the
+ * size of the depth-first stack; every limit is optional. The engine checks the
+ * budget at every iteration (time limits are checked every
+ * {@link #TIME_CHECK_INTERVAL} iterations) and, if one of the limits is
+ * exceeded, the proof-search is stopped: in this case
+ * {@link Engine#searchProof()} returns <code>null</code> and
+ * {@link Engine#getExhaustedLimit()} returns the exceeded limit.
+ *
+ * @author Mauro Ferrari
+ */
+public class SearchBudget {
+
+  /**
+   * The limits of a budget.
+   *
+   * @author Mauro Ferrari
+   */
+  public static enum Limit {
+    /**
+     * The limit on the wall-clock time of the proof-search.
+     */
+    WALL_CLOCK_TIME,
+    /**
+     * The limit on the CPU time of the thread executing the proof-search.
+     */
+    CPU_TIME,
+    /**
+     * The limit on the number of iterations of the proof-search.
+     */
+    ITERATIONS,
+    /**
+     * The limit on the size of the depth-first stack.
+     */
+    STACK_SIZE;
+  }
+
+  /**
+   * The value of an undefined limit.
+   */
+  public static final long UNLIMITED = Long.MAX_VALUE;
+
+  /**
+   * The number of iterations between two checks of the time limits.
+   */
+  public static final int TIME_CHECK_INTERVAL = 1024;
+
+  private long wallClockTime = UNLIMITED;
+  private long cpuTime = UNLIMITED;
+  private long iterations = UNLIMITED;
+  private long stackSize = UNLIMITED;
+
+  /**
+   * Constructs a budget where no limit is defined.
+   */
+  public SearchBudget() {
+    super();
+  }
+
+  /**
+   * Returns the wall-clock time limit in milliseconds or {@link #UNLIMITED}.
+   *
+   * @return the wall-clock time limit.
+   */
+  public long getWallClockTime() {
+    return this.wallClockTime;
+  }
+
+  /**
+   * Sets the wall-clock time limit in milliseconds.
+   *
+   * @param milliseconds the wall-clock time limit.
+   */
+  public void setWallClockTime(long milliseconds) {
+    this.wallClockTime = checkedLimit(Limit.WALL_CLOCK_TIME, milliseconds);
+  }
+
+  /**
+   * Returns the CPU time limit in milliseconds or {@link #UNLIMITED}.
+   *
+   * @return the CPU time limit.
+   */
+  public long getCpuTime() {
+    return this.cpuTime;
+  }
+
+  /**
+   * Sets the CPU time limit in milliseconds.
+   *
+   * @param milliseconds the CPU time limit.
+   */
+  public void setCpuTime(long milliseconds) {
+    this.cpuTime = checkedLimit(Limit.CPU_TIME, milliseconds);
+  }
+
+  /**
+   * Returns the maximum number of iterations or {@link #UNLIMITED}.
+   *
+   * @return the maximum number of iterations.
+   */
+  public long getIterations() {
+    return this.iterations;
+  }
+
+  /**
+   * Sets the maximum number of iterations.
+   *
+   * @param iterations the maximum number of iterations.
+   */
+  public void setIterations(long iterations) {
+    this.iterations = checkedLimit(Limit.ITERATIONS, iterations);
+  }
+
+  /**
+   * Returns the maximum size of the depth-first stack or {@link #UNLIMITED}.
+   *
+   * @return the maximum size of the stack.
+   */
+  public long getStackSize() {
+    return this.stackSize;
+  }
+
+  /**
+   * Sets the maximum size of the depth-first stack.
+   *
+   * @param stackSize the maximum size of the stack.
+   */
+  public void setStackSize(long stackSize) {
+    this.stackSize = checkedLimit(Limit.STACK_SIZE, stackSize);
+  }
+
+  /**
+   * Returns <code>true</code> iff at least a time limit is defined.
+   *
+   * @return <code>true</code> iff a time limit is defined.
+   */
+  public boolean hasTimeLimits() {
+    return wallClockTime != UNLIMITED || cpuTime != UNLIMITED;
+  }
+
+  private long checkedLimit(Limit limit, long value) {
+    if (value <= 0)
+      throw new EngineException(String.format(MSG.SEARCH_BUDGET.INVALID_LIMIT, limit.name(),
+          value));
+    return value;
+  }
+
+  @Override
+  public String toString() {
+    return String.format(MSG.SEARCH_BUDGET.DESCRIPTION, limitToString(wallClockTime),
+        limitToString(cpuTime), limitToString(iterations), limitToString(stackSize));
+  }
+
+  private String limitToString(long value) {
+    return value == UNLIMITED ? "-" : String.valueOf(value);
+  }
+
+}
@@ -0,0 +1,94 @@
+/*******************************************************************************
+ * Copyright (C) 2013, 2016 Mauro Ferrari
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+package jtabwb.engine;
+
+/**
+ * The strategy used by an engine with a transposition table; it wraps the
+ * strategy of the prover. When a rule is selected for a hashable goal, the
+ * goal is searched in the table: if the status of the goal is known, the
+ * strategy returns a rule forcing such a status; otherwise it returns the rule
+ * selected by the prover strategy and registers a listener recording the
+ * status of (a copy of) the goal when it is determined (see
+ * {@link OnCompletedRuleHandler}).
+ *
+ * @author Mauro Ferrari
+ */
+class TranspositionStrategy implements _Strategy {
+
+  private static final String TRANSPOSITION_TABLE_HIT = "TRANSPOSITION_TABLE_HIT";
+  private static final String RECORD_GOAL_STATUS = "RECORD_GOAL_STATUS";
+
+  private final EnginePlain engine;
+  final _Strategy strategy; // the wrapped strategy
+
+  /*
+   * The listener recording the status of a goal.
+   */
+  private class GoalStatusRecorder implements _OnRuleCompletedListener {
+
+    private final _HashableGoal goal;
+
+    GoalStatusRecorder(_HashableGoal goal) {
+      this.goal = goal;
+    }
+
+    @Override
+    public String name() {
+      return RECORD_GOAL_STATUS;
+    }
+
+    @Override
+    public void onCompleted(ProofSearchResult status) {
+      if (engine.canRecordGoalStatus())
+        engine.transpositionTable.record(goal, status);
+    }
+  }
+
+  TranspositionStrategy(EnginePlain engine, _Strategy strategy) {
+    this.engine = engine;
+    this.strategy = strategy;
+  }
+
+  @Override
+  public _AbstractRule nextRule(_AbstractGoal goal, IterationInfo lastIteration) {
+    // the strategy is invoked again on the same goal after a failed clash
+    // detection: the goal has already been searched
+    if (lastIteration.getMove() == IterationInfo.Move.CLASH_DETECTION_RULE_APPLICATION
+        || !(goal instanceof _HashableGoal) || engine.transpositionTable == null)
+      return strategy.nextRule(goal, lastIteration);
+
+    _HashableGoal hashableGoal = (_HashableGoal) goal;
+    ProofSearchResult status = engine.transpositionTable.lookup(hashableGoal);
+    if (status != null) {
+      engine.LAST_ITERATION_INFO.transposition_table_hits++;
+      if (status == ProofSearchResult.SUCCESS)
+        return new ForceBranchSuccess(TRANSPOSITION_TABLE_HIT, goal);
+      else
+        return new ForceBranchFailure(TRANSPOSITION_TABLE_HIT, goal);
+    }
+    engine.LAST_ITERATION_INFO.transposition_table_misses++;
+    _AbstractRule rule = strategy.nextRule(goal, lastIteration);
+    // the status of the goal is notified to the listener when the proof-search
+    // starting with the application of rule terminates; since rules may modify
+    // their premise, the listener stores a copy of the goal
+    if (rule != null)
+      engine.stack.addOnCompletedRuleListener(new GoalStatusRecorder(
+          (_HashableGoal) hashableGoal.clone()));
+    return rule;
+  }
+
+}
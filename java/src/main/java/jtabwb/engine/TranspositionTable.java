@@ -0,0 +1,311 @@
+/*******************************************************************************
+ * Copyright (C) 2013, 2016 Mauro Ferrari
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+package jtabwb.engine;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded table storing the proof-search status of the goals decided during
+ * proof-search (see {@link Engine#setTranspositionTable(TranspositionTable)}).
+ * Only goals implementing {@link _HashableGoal} are stored. When the table is
+ * full, the entry to remove is selected according with the eviction policy of
+ * the table. A table can be shared by many engines using the same prover, also
+ * concurrently.
+ *
+ * @author Mauro Ferrari
+ */
+public class TranspositionTable {
+
+  /**
+   * The policies selecting the entry to remove from a full table.
+   *
+   * @author Mauro Ferrari
+   */
+  public static enum EvictionPolicy {
+    /**
+     * The least recently used entry is removed.
+     */
+    LRU,
+    /**
+     * The entry is selected by the CLOCK approximation of LRU: entries are
+     * scanned circularly and the first entry not used since the last scan is
+     * removed.
+     */
+    CLOCK;
+  }
+
+  /**
+   * The default capacity of a table.
+   */
+  public static final int DEFAULT_CAPACITY = 1 << 16;
+
+  private final int capacity;
+  private final EvictionPolicy policy;
+  private final Storage storage;
+  private long hits = 0;
+  private long misses = 0;
+
+  /**
+   * Constructs a table with capacity {@link #DEFAULT_CAPACITY} and LRU eviction
+   * policy.
+   */
+  public TranspositionTable() {
+    this(DEFAULT_CAPACITY, EvictionPolicy.LRU);
+  }
+
+  /**
+   * Constructs a table with the specified capacity and eviction policy; the
+   * capacity must be greater than zero.
+   *
+   * @param capacity the maximum number of entries of the table.
+   * @param policy the eviction policy of the table.
+   */
+  public TranspositionTable(int capacity, EvictionPolicy policy) {
+    if (capacity < 1)
+      throw new EngineException(String.format(MSG.TRANSPOSITION_TABLE.INVALID_CAPACITY,
+          capacity));
+    this.capacity = capacity;
+    this.policy = policy;
+    switch (policy) {
+    case LRU:
+      this.storage = new LRUStorage(capacity);
+      break;
+    case CLOCK:
+      this.storage = new ClockStorage(capacity);
+      break;
+    default:
+      throw new ImplementationError(ImplementationError.CASE_NOT_IMPLEMENTED);
+    }
+  }
+
+  /**
+   * Returns the maximum number of entries of this table.
+   *
+   * @return the capacity of this table.
+   */
+  public int getCapacity() {
+    return this.capacity;
+  }
+
+  /**
+   * Returns the eviction policy of this table.
+   *
+   * @return the eviction policy.
+   */
+  public EvictionPolicy getEvictionPolicy() {
+    return this.policy;
+  }
+
+  /**
+   * Returns the number of entries of this table.
+   *
+   * @return the number of entries.
+   */
+  public synchronized int size() {
+    return storage.size();
+  }
+
+  /**
+   * Returns the number of lookups finding the searched goal since the
+   * construction of this table.
+   *
+   * @return the number of hits.
+   */
+  public synchronized long getHits() {
+    return this.hits;
+  }
+
+  /**
+   * Returns the number of lookups not finding the searched goal since the
+   * construction of this table.
+   *
+   * @return the number of misses.
+   */
+  public synchronized long getMisses() {
+    return this.misses;
+  }
+
+  /**
+   * Removes all the entries of this table.
+   */
+  public synchronized void clear() {
+    storage.clear();
+  }
+
+  /**
+   * Returns the proof-search status of the specified goal or <code>null</code>
+   * if the goal is not in this table.
+   *
+   * @param goal the goal to search.
+   * @return the status of the goal or <code>null</code>.
+   */
+  public synchronized ProofSearchResult lookup(_HashableGoal goal) {
+    ProofSearchResult status = storage.get(goal);
+    if (status == null)
+      misses++;
+    else
+      hits++;
+    return status;
+  }
+
+  /**
+   * Records the proof-search status of the specified goal.
+   *
+   * @param goal the goal.
+   * @param status the proof-search status of the goal.
+   */
+  public synchronized void record(_HashableGoal goal, ProofSearchResult status) {
+    storage.put(goal, status);
+  }
+
+  @Override
+  public synchronized String toString() {
+    return String.format(MSG.TRANSPOSITION_TABLE.DESCRIPTION, policy.name(), storage.size(),
+        capacity, hits, misses);
+  }
+
+  /*
+   * The bounded map implementing an eviction policy.
+   */
+  private static interface Storage {
+
+    ProofSearchResult get(_HashableGoal goal);
+
+    void put(_HashableGoal goal, ProofSearchResult status);
+
+    int size();
+
+    void clear();
+  }
+
+  /*
+   * LRU storage: a linked hash-map in access order removing its eldest entry.
+   */
+  private static class LRUStorage implements Storage {
+
+    private final LinkedHashMap<_HashableGoal, ProofSearchResult> map;
+
+    LRUStorage(final int capacity) {
+      this.map = new LinkedHashMap<_HashableGoal, ProofSearchResult>(16, 0.75f, true) {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<_HashableGoal, ProofSearchResult> eldest) {
+          return size() > capacity;
+        }
+      };
+    }
+
+    @Override
+    public ProofSearchResult get(_HashableGoal goal) {
+      return map.get(goal);
+    }
+
+    @Override
+    public void put(_HashableGoal goal, ProofSearchResult status) {
+      map.put(goal, status);
+    }
+
+    @Override
+    public int size() {
+      return map.size();
+    }
+
+    @Override
+    public void clear() {
+      map.clear();
+    }
+  }
+
+  /*
+   * CLOCK storage: the entries are stored in a circular array with a reference
+   * bit; a hash-map gives the position of a goal in the array.
+   */
+  private static class ClockStorage implements Storage {
+
+    private final _HashableGoal[] goals;
+    private final ProofSearchResult[] statuses;
+    private final boolean[] referenced;
+    private final HashMap<_HashableGoal, Integer> positions;
+    private int size = 0;
+    private int hand = 0;
+
+    ClockStorage(int capacity) {
+      this.goals = new _HashableGoal[capacity];
+      this.statuses = new ProofSearchResult[capacity];
+      this.referenced = new boolean[capacity];
+      this.positions = new HashMap<_HashableGoal, Integer>();
+    }
+
+    @Override
+    public ProofSearchResult get(_HashableGoal goal) {
+      Integer pos = positions.get(goal);
+      if (pos == null)
+        return null;
+      referenced[pos] = true;
+      return statuses[pos];
+    }
+
+    @Override
+    public void put(_HashableGoal goal, ProofSearchResult status) {
+      Integer pos = positions.get(goal);
+      if (pos != null) {
+        statuses[pos] = status;
+        referenced[pos] = true;
+        return;
+      }
+      int free;
+      if (size < goals.length)
+        free = size++;
+      else {
+        // advance the hand clearing reference bits up to a non referenced entry
+        while (referenced[hand]) {
+          referenced[hand] = false;
+          hand = (hand + 1) % goals.length;
+        }
+        free = hand;
+        hand = (hand + 1) % goals.length;
+        positions.remove(goals[free]);
+      }
+      goals[free] = goal;
+      statuses[free] = status;
+      referenced[free] = false;
+      positions.put(goal, free);
+    }
+
+    @Override
+    public int size() {
+      return size;
+    }
+
+    @Override
+    public void clear() {
+      for (int i = 0; i < size; i++) {
+        goals[i] = null;
+        statuses[i] = null;
+        referenced[i] = false;
+      }
+      positions.clear();
+      size = 0;
+      hand = 0;
+    }
+  }
+
+}
@@ -62,6 +62,8 @@ class VerboseModeSupport {
       static final String BRANCH_POINT_RESUMED_NODE_SET = "Node set %s";
       static final String NO_MORE_BACKTRACK_POINTS =
           "No more backtrack points to resume; end of search.";
+      static final String BUDGET_EXHAUSTED =
+          "The %s limit of the budget has been exceeded; end of search.";
       static final String NO_MORE_BRANCH_POINTS =
           "No more AND-branch points to resume; end of search.";
 
@@ -335,6 +337,10 @@ class VerboseModeSupport {
     iterationStepInfo(MSG.RESUMED_NODE_INFO.NO_MORE_BRANCH_POINTS);
   }
 
+  static void printBudgetExhausted(SearchBudget.Limit limit) {
+    iterationStepInfo(MSG.RESUMED_NODE_INFO.BUDGET_EXHAUSTED, limit.name());
+  }
+
   /*
    * Prints details about the resumed node
    */
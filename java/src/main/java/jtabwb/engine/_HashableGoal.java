@@ -0,0 +1,50 @@
+/*******************************************************************************
+ * Copyright (C) 2013, 2016 Mauro Ferrari
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+package jtabwb.engine;
+
+/**
+ * Specifies that the goal implementing this interface can be stored in a
+ * {@link TranspositionTable}. Implementing this interface a goal declares that
+ * its {@link #equals(Object)} and {@link #hashCode()} methods are consistent
+ * with the proof-search: two equal goals must have the same proof-search status
+ * independently of the branch of the proof-search where they occur. Since the
+ * rules of a prover may modify their premise, the table stores the copy of a
+ * goal returned by {@link #clone()}, which must be equal to the goal.
+ * 
+ * @author Mauro Ferrari
+ */
+public interface _HashableGoal extends _AbstractGoal {
+
+  /**
+   * Returns <code>true</code> iff the specified object is a goal having the same
+   * proof-search status of this goal.
+   * 
+   * @param obj the object to compare.
+   * @return <code>true</code> iff <code>obj</code> is equal to this goal.
+   */
+  @Override
+  public boolean equals(Object obj);
+
+  /**
+   * Returns the hash code of this goal; equal goals must have the same hash
+   * code.
+   * 
+   * @return the hash code of this goal.
+   */
+  @Override
+  public int hashCode();
+}
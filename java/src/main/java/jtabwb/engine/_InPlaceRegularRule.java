@@ -0,0 +1,41 @@
+/*******************************************************************************
+ * Copyright (C) 2013, 2016 Mauro Ferrari
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+package jtabwb.engine;
+
+/**
+ * A regular rule which can generate its subgoals by modifying its premise
+ * instead of building new goals. In in-place mode (see
+ * {@link Engine.ExecutionMode#ENGINE_IN_PLACE}) the engine invokes
+ * {@link #nextSubgoalInPlace()} instead of {@link #nextSubgoal()}; if the
+ * premise of the rule implements {@link _TrailedGoal}, before the invocation
+ * the engine undoes the modifications performed on the premise after the
+ * selection of the rule. Hence the premise is in the state it had when the
+ * rule was selected.
+ *
+ * @author Mauro Ferrari
+ */
+public interface _InPlaceRegularRule extends _RegularRule {
+
+  /**
+   * Returns the next subgoal of this rule, obtained by modifying the premise
+   * of this rule.
+   *
+   * @return the next subgoal of the rule.
+   */
+  public _AbstractGoal nextSubgoalInPlace();
+
+}
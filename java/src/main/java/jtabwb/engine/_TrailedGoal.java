@@ -0,0 +1,58 @@
+/*******************************************************************************
+ * Copyright (C) 2013, 2016 Mauro Ferrari
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+package jtabwb.engine;
+
+/**
+ * Specifies that the goal implementing this interface can record its
+ * modifications in a trail and undo them. This interface is used by the engine
+ * in in-place mode (see {@link Engine.ExecutionMode#ENGINE_IN_PLACE}): the
+ * rules implementing {@link _InPlaceRegularRule} modify their premise, the
+ * engine saves the position of the trail of the premise when it adds a branch
+ * or backtrack point to its stack, and it undoes the modifications following
+ * such a position when the point is restored.
+ * <p>
+ * A goal records its modifications only after the invocation of
+ * {@link #startTrail()}; a clone of a goal recording its modifications records
+ * its modifications in a new empty trail.
+ * </p>
+ *
+ * @author Mauro Ferrari
+ */
+public interface _TrailedGoal extends _AbstractGoal {
+
+  /**
+   * Starts recording the modifications of this goal in its trail.
+   */
+  public void startTrail();
+
+  /**
+   * Returns the current position of the trail of this goal.
+   *
+   * @return the position of the trail.
+   */
+  public int trailMark();
+
+  /**
+   * Undoes the modifications of this goal recorded after the specified position
+   * of the trail, restoring the state of the goal when the position was
+   * returned by {@link #trailMark()}.
+   *
+   * @param mark a position of the trail.
+   */
+  public void undoTrail(int mark);
+
+}
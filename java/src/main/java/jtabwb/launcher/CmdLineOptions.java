@@ -16,10 +16,19 @@
  *******************************************************************************/
 package jtabwb.launcher;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.LinkedList;
 
+import jtabwb.engine.EngineException;
+import jtabwb.engine.SearchBudget;
+import jtabwb.engine.TranspositionTable;
+import jtabwb.engine._Prover;
 import jtabwb.engine.Engine.ExecutionMode;
 import jtabwb.launcher.Launcher.LaunchConfiguration;
+import jtabwbx.problems.ProblemCache;
 
 import org.apache.commons.cli.CommandLineParser;
 import org.apache.commons.cli.DefaultParser;
@@ -28,6 +37,7 @@ import org.apache.commons.cli.Option;
 import org.apache.commons.cli.ParseException;
 
 import ferram.CLIOptionsSupport.CLIOptionsSupport;
+import ferram.rtoptions._NamedArgument;
 
 /**
  * The class managing the launcher command line options.
@@ -58,6 +68,30 @@ class CmdLineOptions {
     static String LOG_TIME = "time";
     static String TESTSET = "testset";
     static String LOG_DIR = "logdir";
+    static String PARALLEL = "parallel";
+    static String OR_PARALLEL = "or-parallel";
+    static String OR_PARALLEL_DEPTH = "or-parallel-depth";
+    static String IN_PLACE = "in-place";
+    static String MAX_ALTERNATIVES = "max-alternatives";
+    static String TIMEOUT = "timeout";
+    static String CPU_TIMEOUT = "cpu-timeout";
+    static String MAX_ITERATIONS = "max-iterations";
+    static String MAX_STACK_SIZE = "max-stack-size";
+    static String TRANSPOSITION_TABLE = "transposition-table";
+    static String TT_EVICTION = "tt-eviction";
+    static String PROBLEM_CACHE = "problem-cache";
+    static String JOBS = "jobs";
+    static String SCHEDULE = "schedule";
+    static String WORKERS = "workers";
+    static String HARD_TIMEOUT = "hard-timeout";
+    static String WORKER = "worker";
+    static String SERVER = "server";
+    static String PORT = "port";
+    static String PORTFOLIO = "portfolio";
+    static String WARMUP = "warmup";
+    static String RUNS = "runs";
+    static String RESULTS = "results";
+    static String RESULTS_SYNC = "results-sync";
 
     static void defineIncompatibility(CLIOptionsSupport incomp) {
       incomp.addIncompatibility(VERBOSE, TESTSET);
@@ -70,6 +104,47 @@ class CmdLineOptions {
       incomp.addIncompatibility(TESTSET, SAVE_TRACE);
       incomp.addIncompatibility(TESTSET, F3_TIME_STR);
       incomp.addIncompatibility(READER, INPUT);
+      incomp.addIncompatibility(PORTFOLIO, VERBOSE);
+      incomp.addIncompatibility(PORTFOLIO, PROVER);
+      incomp.addIncompatibility(VERBOSE, PORTFOLIO);
+      incomp.addIncompatibility(PROVER, PORTFOLIO);
+      incomp.addIncompatibility(WARMUP, SERVER);
+      incomp.addIncompatibility(WARMUP, PORT);
+      incomp.addIncompatibility(WARMUP, PORTFOLIO);
+      incomp.addIncompatibility(RUNS, SERVER);
+      incomp.addIncompatibility(RUNS, PORT);
+      incomp.addIncompatibility(RUNS, PORTFOLIO);
+      incomp.addIncompatibility(SERVER, WARMUP);
+      incomp.addIncompatibility(SERVER, RUNS);
+      incomp.addIncompatibility(PORT, WARMUP);
+      incomp.addIncompatibility(PORT, RUNS);
+      incomp.addIncompatibility(PORTFOLIO, WARMUP);
+      incomp.addIncompatibility(PORTFOLIO, RUNS);
+      incomp.addIncompatibility(WARMUP, PARALLEL);
+      incomp.addIncompatibility(WARMUP, OR_PARALLEL);
+      incomp.addIncompatibility(RUNS, PARALLEL);
+      incomp.addIncompatibility(RUNS, OR_PARALLEL);
+      incomp.addIncompatibility(PARALLEL, WARMUP);
+      incomp.addIncompatibility(PARALLEL, RUNS);
+      incomp.addIncompatibility(OR_PARALLEL, WARMUP);
+      incomp.addIncompatibility(OR_PARALLEL, RUNS);
+      incomp.addIncompatibility(PARALLEL, VERBOSE);
+      incomp.addIncompatibility(PARALLEL, LATEX_CTREE);
+      incomp.addIncompatibility(PARALLEL, LATEX_PROOF);
+      incomp.addIncompatibility(PARALLEL, SAVE_TRACE);
+      incomp.addIncompatibility(OR_PARALLEL, VERBOSE);
+      incomp.addIncompatibility(OR_PARALLEL, LATEX_CTREE);
+      incomp.addIncompatibility(OR_PARALLEL, LATEX_PROOF);
+      incomp.addIncompatibility(OR_PARALLEL, SAVE_TRACE);
+      incomp.addIncompatibility(IN_PLACE, VERBOSE);
+      incomp.addIncompatibility(IN_PLACE, PARALLEL);
+      incomp.addIncompatibility(IN_PLACE, OR_PARALLEL);
+      incomp.addIncompatibility(IN_PLACE, LATEX_CTREE);
+      incomp.addIncompatibility(IN_PLACE, LATEX_PROOF);
+      incomp.addIncompatibility(IN_PLACE, SAVE_TRACE);
+      incomp.addIncompatibility(TRANSPOSITION_TABLE, LATEX_CTREE);
+      incomp.addIncompatibility(TRANSPOSITION_TABLE, LATEX_PROOF);
+      incomp.addIncompatibility(TRANSPOSITION_TABLE, SAVE_TRACE);
     }
   }
 
@@ -144,6 +219,80 @@ class CmdLineOptions {
     // LOGDIR
     lo.add(Option.builder().longOpt(OptNames.LOG_DIR).hasArg(true).argName("filename")
         .desc(MSG.CMD_LINE_OPTIONS.OPTIONS_DESCRIPTIONS.LOGDIR).build());
+    // PARALLEL
+    lo.add(Option.builder().longOpt(OptNames.PARALLEL)
+        .desc(MSG.CMD_LINE_OPTIONS.OPTIONS_DESCRIPTIONS.PARALLEL).build());
+    // OR_PARALLEL
+    lo.add(Option.builder().longOpt(OptNames.OR_PARALLEL)
+        .desc(MSG.CMD_LINE_OPTIONS.OPTIONS_DESCRIPTIONS.OR_PARALLEL).build());
+    // IN_PLACE
+    lo.add(Option.builder().longOpt(OptNames.IN_PLACE)
+        .desc(MSG.CMD_LINE_OPTIONS.OPTIONS_DESCRIPTIONS.IN_PLACE).build());
+    // OR_PARALLEL_DEPTH
+    lo.add(Option.builder().longOpt(OptNames.OR_PARALLEL_DEPTH).hasArg(true).argName("depth")
+        .desc(MSG.CMD_LINE_OPTIONS.OPTIONS_DESCRIPTIONS.OR_PARALLEL_DEPTH).build());
+    // MAX_ALTERNATIVES
+    lo.add(Option.builder().longOpt(OptNames.MAX_ALTERNATIVES).hasArg(true).argName("n")
+        .desc(MSG.CMD_LINE_OPTIONS.OPTIONS_DESCRIPTIONS.MAX_ALTERNATIVES).build());
+    // TIMEOUT
+    lo.add(Option.builder().longOpt(OptNames.TIMEOUT).hasArg(true).argName("ms")
+        .desc(MSG.CMD_LINE_OPTIONS.OPTIONS_DESCRIPTIONS.TIMEOUT).build());
+    // CPU_TIMEOUT
+    lo.add(Option.builder().longOpt(OptNames.CPU_TIMEOUT).hasArg(true).argName("ms")
+        .desc(MSG.CMD_LINE_OPTIONS.OPTIONS_DESCRIPTIONS.CPU_TIMEOUT).build());
+    // MAX_ITERATIONS
+    lo.add(Option.builder().longOpt(OptNames.MAX_ITERATIONS).hasArg(true).argName("n")
+        .desc(MSG.CMD_LINE_OPTIONS.OPTIONS_DESCRIPTIONS.MAX_ITERATIONS).build());
+    // MAX_STACK_SIZE
+    lo.add(Option.builder().longOpt(OptNames.MAX_STACK_SIZE).hasArg(true).argName("n")
+        .desc(MSG.CMD_LINE_OPTIONS.OPTIONS_DESCRIPTIONS.MAX_STACK_SIZE).build());
+    // TRANSPOSITION_TABLE
+    lo.add(Option.builder().longOpt(OptNames.TRANSPOSITION_TABLE).hasArg(true)
+        .argName("capacity").desc(MSG.CMD_LINE_OPTIONS.OPTIONS_DESCRIPTIONS.TRANSPOSITION_TABLE)
+        .build());
+    // TT_EVICTION
+    lo.add(Option.builder().longOpt(OptNames.TT_EVICTION).hasArg(true).argName("policy")
+        .desc(MSG.CMD_LINE_OPTIONS.OPTIONS_DESCRIPTIONS.TT_EVICTION).build());
+    // JOBS
+    lo.add(Option.builder().longOpt(OptNames.JOBS).hasArg(true).argName("n")
+        .desc(MSG.CMD_LINE_OPTIONS.OPTIONS_DESCRIPTIONS.JOBS).build());
+    // SCHEDULE
+    lo.add(Option.builder().longOpt(OptNames.SCHEDULE).hasArg(true).argName("policy")
+        .desc(MSG.CMD_LINE_OPTIONS.OPTIONS_DESCRIPTIONS.SCHEDULE).build());
+    // WORKERS
+    lo.add(Option.builder().longOpt(OptNames.WORKERS).hasArg(true).argName("n")
+        .desc(MSG.CMD_LINE_OPTIONS.OPTIONS_DESCRIPTIONS.WORKERS).build());
+    // HARD_TIMEOUT
+    lo.add(Option.builder().longOpt(OptNames.HARD_TIMEOUT).hasArg(true).argName("ms")
+        .desc(MSG.CMD_LINE_OPTIONS.OPTIONS_DESCRIPTIONS.HARD_TIMEOUT).build());
+    // PORTFOLIO
+    lo.add(Option.builder().longOpt(OptNames.PORTFOLIO).hasArg(true).argName("provers")
+        .desc(String.format(MSG.CMD_LINE_OPTIONS.OPTIONS_DESCRIPTIONS.PORTFOLIO,
+            configuration.availableProvers.getNames())).build());
+    // WARMUP
+    lo.add(Option.builder().longOpt(OptNames.WARMUP).hasArg(true).argName("k")
+        .desc(MSG.CMD_LINE_OPTIONS.OPTIONS_DESCRIPTIONS.WARMUP).build());
+    // RUNS
+    lo.add(Option.builder().longOpt(OptNames.RUNS).hasArg(true).argName("m")
+        .desc(MSG.CMD_LINE_OPTIONS.OPTIONS_DESCRIPTIONS.RUNS).build());
+    // RESULTS
+    lo.add(Option.builder().longOpt(OptNames.RESULTS).hasArg(true).argName("filename")
+        .desc(MSG.CMD_LINE_OPTIONS.OPTIONS_DESCRIPTIONS.RESULTS).build());
+    // RESULTS_SYNC
+    lo.add(Option.builder().longOpt(OptNames.RESULTS_SYNC).hasArg(true).argName("n")
+        .desc(MSG.CMD_LINE_OPTIONS.OPTIONS_DESCRIPTIONS.RESULTS_SYNC).build());
+    // SERVER
+    lo.add(Option.builder().longOpt(OptNames.SERVER).hasArg(false)
+        .desc(MSG.CMD_LINE_OPTIONS.OPTIONS_DESCRIPTIONS.SERVER).build());
+    // PORT
+    lo.add(Option.builder().longOpt(OptNames.PORT).hasArg(true).argName("port")
+        .desc(MSG.CMD_LINE_OPTIONS.OPTIONS_DESCRIPTIONS.PORT).build());
+    // WORKER
+    lo.add(Option.builder().longOpt(OptNames.WORKER).hasArg(false)
+        .desc(MSG.CMD_LINE_OPTIONS.OPTIONS_DESCRIPTIONS.WORKER).build());
+    // PROBLEM_CACHE
+    lo.add(Option.builder().longOpt(OptNames.PROBLEM_CACHE).hasArg(true).argName("dir")
+        .desc(MSG.CMD_LINE_OPTIONS.OPTIONS_DESCRIPTIONS.PROBLEM_CACHE).build());
     // F3_TIME_STR
     lo.add(Option.builder().longOpt(OptNames.F3_TIME_STR).hasArg(false)
         .desc(MSG.CMD_LINE_OPTIONS.OPTIONS_DESCRIPTIONS.F3_TIME_STR).build());
@@ -236,11 +385,168 @@ class CmdLineOptions {
     if (configuration.commandLine.hasOption(OptNames.LOG_DIR))
       configuration.logDirAbsolutePath = configuration.commandLine.getOptionValue(OptNames.LOG_DIR);
 
+    if (configuration.commandLine.hasOption(OptNames.PROBLEM_CACHE)) {
+      String dirName = configuration.commandLine.getOptionValue(OptNames.PROBLEM_CACHE);
+      try {
+        configuration.problemCache = new ProblemCache(new File(dirName));
+      } catch (IOException e) {
+        LOG.error(MSG.CMD_LINE_OPTIONS.ERRORS.PROBLEM_CACHE_ERROR, dirName, e.getMessage());
+        System.exit(1);
+      }
+    }
+
     if (configuration.commandLine.hasOption(OptNames.TESTSET)) {
       configuration.testsetmode = true;
       configuration.testsetName = configuration.commandLine.getOptionValue(OptNames.TESTSET);
     }
 
+    if (configuration.commandLine.hasOption(OptNames.PARALLEL))
+      configuration.engineExecutionMode = ExecutionMode.ENGINE_PARALLEL;
+
+    if (configuration.commandLine.hasOption(OptNames.OR_PARALLEL))
+      configuration.engineExecutionMode = ExecutionMode.ENGINE_OR_PARALLEL;
+
+    if (configuration.commandLine.hasOption(OptNames.IN_PLACE))
+      configuration.engineExecutionMode = ExecutionMode.ENGINE_IN_PLACE;
+
+    try {
+      if (configuration.commandLine.hasOption(OptNames.OR_PARALLEL_DEPTH))
+        configuration.parallelSearchOptions
+            .setOrParallelDepth(getIntegerOptionValue(OptNames.OR_PARALLEL_DEPTH));
+
+      if (configuration.commandLine.hasOption(OptNames.MAX_ALTERNATIVES))
+        configuration.parallelSearchOptions
+            .setMaxLiveAlternatives(getIntegerOptionValue(OptNames.MAX_ALTERNATIVES));
+
+      if (configuration.commandLine.hasOption(OptNames.TIMEOUT))
+        searchBudget().setWallClockTime(getLongOptionValue(OptNames.TIMEOUT));
+
+      if (configuration.commandLine.hasOption(OptNames.CPU_TIMEOUT))
+        searchBudget().setCpuTime(getLongOptionValue(OptNames.CPU_TIMEOUT));
+
+      if (configuration.commandLine.hasOption(OptNames.MAX_ITERATIONS))
+        searchBudget().setIterations(getLongOptionValue(OptNames.MAX_ITERATIONS));
+
+      if (configuration.commandLine.hasOption(OptNames.MAX_STACK_SIZE))
+        searchBudget().setStackSize(getLongOptionValue(OptNames.MAX_STACK_SIZE));
+
+      if (configuration.commandLine.hasOption(OptNames.TRANSPOSITION_TABLE)) {
+        int capacity = getIntegerOptionValue(OptNames.TRANSPOSITION_TABLE);
+        if (capacity < 1) {
+          LOG.error(MSG.CMD_LINE_OPTIONS.ERRORS.NOT_A_POSITIVE_INTEGER, capacity,
+              OptNames.TRANSPOSITION_TABLE);
+          System.exit(1);
+        }
+        configuration.transpositionTableCapacity = capacity;
+      }
+
+      if (configuration.commandLine.hasOption(OptNames.JOBS)) {
+        int jobs = getIntegerOptionValue(OptNames.JOBS);
+        if (jobs < 1) {
+          LOG.error(MSG.CMD_LINE_OPTIONS.ERRORS.NOT_A_POSITIVE_INTEGER, jobs, OptNames.JOBS);
+          System.exit(1);
+        }
+        configuration.testsetJobs = jobs;
+      }
+
+      if (configuration.commandLine.hasOption(OptNames.WORKERS)) {
+        int workers = getIntegerOptionValue(OptNames.WORKERS);
+        if (workers < 1) {
+          LOG.error(MSG.CMD_LINE_OPTIONS.ERRORS.NOT_A_POSITIVE_INTEGER, workers, OptNames.WORKERS);
+          System.exit(1);
+        }
+        configuration.testsetWorkers = workers;
+      }
+
+      if (configuration.commandLine.hasOption(OptNames.HARD_TIMEOUT)) {
+        long hardTimeout = getLongOptionValue(OptNames.HARD_TIMEOUT);
+        if (hardTimeout < 1) {
+          LOG.error(MSG.CMD_LINE_OPTIONS.ERRORS.NOT_A_POSITIVE_INTEGER, hardTimeout,
+              OptNames.HARD_TIMEOUT);
+          System.exit(1);
+        }
+        configuration.workerHardTimeout = hardTimeout;
+      }
+
+      if (configuration.commandLine.hasOption(OptNames.WARMUP)) {
+        int warmupRuns = getIntegerOptionValue(OptNames.WARMUP);
+        if (warmupRuns < 0) {
+          LOG.error(MSG.CMD_LINE_OPTIONS.ERRORS.NOT_A_NON_NEGATIVE_INTEGER, warmupRuns,
+              OptNames.WARMUP);
+          System.exit(1);
+        }
+        configuration.warmupRuns = warmupRuns;
+      }
+
+      if (configuration.commandLine.hasOption(OptNames.RUNS)) {
+        int measuredRuns = getIntegerOptionValue(OptNames.RUNS);
+        if (measuredRuns < 1) {
+          LOG.error(MSG.CMD_LINE_OPTIONS.ERRORS.NOT_A_POSITIVE_INTEGER, measuredRuns,
+              OptNames.RUNS);
+          System.exit(1);
+        }
+        configuration.measuredRuns = measuredRuns;
+      }
+
+      if (configuration.commandLine.hasOption(OptNames.RESULTS))
+        configuration.resultsFile =
+            new File(configuration.commandLine.getOptionValue(OptNames.RESULTS));
+
+      if (configuration.commandLine.hasOption(OptNames.RESULTS_SYNC)) {
+        int syncInterval = getIntegerOptionValue(OptNames.RESULTS_SYNC);
+        if (syncInterval < 1) {
+          LOG.error(MSG.CMD_LINE_OPTIONS.ERRORS.NOT_A_POSITIVE_INTEGER, syncInterval,
+              OptNames.RESULTS_SYNC);
+          System.exit(1);
+        }
+        configuration.resultsSyncInterval = syncInterval;
+      }
+
+      if (configuration.commandLine.hasOption(OptNames.WORKER))
+        configuration.workerMode = true;
+
+      if (configuration.commandLine.hasOption(OptNames.SERVER))
+        configuration.serverMode = true;
+
+      if (configuration.commandLine.hasOption(OptNames.PORT)) {
+        int port = getIntegerOptionValue(OptNames.PORT);
+        if (port < 0 || port > 65535) {
+          LOG.error(MSG.CMD_LINE_OPTIONS.ERRORS.NOT_A_PORT, port, OptNames.PORT);
+          System.exit(1);
+        }
+        configuration.serverMode = true;
+        configuration.serverPort = port;
+      }
+
+      if (configuration.commandLine.hasOption(OptNames.SCHEDULE)) {
+        String policyName = configuration.commandLine.getOptionValue(OptNames.SCHEDULE);
+        try {
+          configuration.testsetScheduler =
+              new TestsetScheduler(TestsetScheduler.Policy.valueOf(policyName.toUpperCase()
+                  .replace('-', '_')));
+        } catch (IllegalArgumentException e) {
+          LOG.error(MSG.CMD_LINE_OPTIONS.ERRORS.NO_SCHEDULING_POLICY_WITH_NAME, policyName,
+              Arrays.toString(TestsetScheduler.Policy.values()));
+          System.exit(1);
+        }
+      }
+
+      if (configuration.commandLine.hasOption(OptNames.TT_EVICTION)) {
+        String policyName = configuration.commandLine.getOptionValue(OptNames.TT_EVICTION);
+        try {
+          configuration.transpositionTablePolicy =
+              TranspositionTable.EvictionPolicy.valueOf(policyName.toUpperCase());
+        } catch (IllegalArgumentException e) {
+          LOG.error(MSG.CMD_LINE_OPTIONS.ERRORS.NO_EVICTION_POLICY_WITH_NAME, policyName,
+              Arrays.toString(TranspositionTable.EvictionPolicy.values()));
+          System.exit(1);
+        }
+      }
+    } catch (EngineException e) {
+      LOG.error(e.getMessage());
+      System.exit(1);
+    }
+
     if (configuration.commandLine.hasOption(OptNames.F3_TIME_STR)) {
       configuration.generatef3TimeStr = true;
     }
@@ -277,6 +583,27 @@ class CmdLineOptions {
       // otherwise set the default or the last added prover
       configuration.selectedProver = configuration.availableProvers.getDefaultProver();
 
+    if (configuration.commandLine.hasOption(OptNames.PORTFOLIO)) {
+      String names = configuration.commandLine.getOptionValue(OptNames.PORTFOLIO);
+      configuration.portfolio = new ArrayList<ConfiguredTheoremProver>();
+      if (names.equals("all"))
+        for (_NamedArgument<Class<_Prover>> prover : configuration.availableProvers
+            .getNamedArguments())
+          configuration.portfolio.add((ConfiguredTheoremProver) prover);
+      else
+        for (String proverName : names.split(",")) {
+          ConfiguredTheoremProver prover =
+              configuration.availableProvers.searchProverByName(proverName.trim());
+          if (prover == null) {
+            LOG.error(MSG.CMD_LINE_OPTIONS.ERRORS.NO_PROVER_WITH_NAME, proverName.trim());
+            System.exit(1);
+          }
+          configuration.portfolio.add(prover);
+        }
+      // the first member is the prover of the launcher
+      configuration.selectedProver = configuration.portfolio.get(0);
+    }
+
     if (configuration.commandLine.hasOption(OptNames.VERBOSE)) {
       configuration.verboseExecutionMode = true;
       configuration.engineExecutionMode = ExecutionMode.ENGINE_VERBOSE;
@@ -284,4 +611,52 @@ class CmdLineOptions {
 
     return configuration;
   }
+
+  /**
+   * Returns the integer value of the specified option; if the value is not an
+   * integer an error is logged and the execution terminates.
+   * 
+   * @param optName the name of the option.
+   * @return the integer value of the option.
+   */
+  private int getIntegerOptionValue(String optName) {
+    String value = configuration.commandLine.getOptionValue(optName);
+    try {
+      return Integer.parseInt(value);
+    } catch (NumberFormatException e) {
+      LOG.error(MSG.CMD_LINE_OPTIONS.ERRORS.NOT_AN_INTEGER, value, optName);
+      System.exit(1);
+      return -1;
+    }
+  }
+
+  /**
+   * Returns the long value of the specified option; if the value is not an
+   * integer an error is logged and the execution terminates.
+   * 
+   * @param optName the name of the option.
+   * @return the long value of the option.
+   */
+  private long getLongOptionValue(String optName) {
+    String value = configuration.commandLine.getOptionValue(optName);
+    try {
+      return Long.parseLong(value);
+    } catch (NumberFormatException e) {
+      LOG.error(MSG.CMD_LINE_OPTIONS.ERRORS.NOT_AN_INTEGER, value, optName);
+      System.exit(1);
+      return -1;
+    }
+  }
+
+  /**
+   * Returns the search budget of the configuration, creating it if it is not
+   * defined.
+   * 
+   * @return the search budget of the configuration.
+   */
+  private SearchBudget searchBudget() {
+    if (configuration.searchBudget == null)
+      configuration.searchBudget = new SearchBudget();
+    return configuration.searchBudget;
+  }
 }
@@ -0,0 +1,264 @@
+/*******************************************************************************
+ * Copyright (C) 2013, 2016 Mauro Ferrari
+ * 
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+package jtabwb.launcher;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Reads and writes the JSON objects of the line-delimited protocol of the
+ * {@link ProverServer}. A request is a JSON object on a single line whose
+ * values are strings, numbers, booleans or <code>null</code>; nested objects
+ * and arrays are not used by the protocol and are rejected. A response is
+ * built by a {@link JsonLine.Builder}.
+ * 
+ * @author Mauro Ferrari
+ */
+final class JsonLine {
+
+  private final String line;
+  private int pos;
+
+  private JsonLine(String line) {
+    this.line = line;
+    this.pos = 0;
+  }
+
+  /**
+   * Returns the map of the members of the JSON object in the specified line;
+   * numbers are represented as {@link Long} if they are integers and as
+   * {@link Double} otherwise.
+   * 
+   * @param line a line containing a JSON object.
+   * @return the members of the object.
+   * @throws IOException if the line is not a JSON object of the protocol.
+   */
+  static Map<String, Object> parse(String line) throws IOException {
+    JsonLine parser = new JsonLine(line);
+    Map<String, Object> members = parser.object();
+    parser.skipSpaces();
+    if (parser.pos != line.length())
+      throw parser.error("end of line");
+    return members;
+  }
+
+  private Map<String, Object> object() throws IOException {
+    Map<String, Object> members = new LinkedHashMap<String, Object>();
+    expect('{');
+    skipSpaces();
+    if (peek() == '}') {
+      pos++;
+      return members;
+    }
+    while (true) {
+      skipSpaces();
+      String name = string();
+      skipSpaces();
+      expect(':');
+      skipSpaces();
+      members.put(name, value());
+      skipSpaces();
+      char c = next();
+      if (c == '}')
+        return members;
+      if (c != ',')
+        throw error("',' or '}'");
+    }
+  }
+
+  private Object value() throws IOException {
+    char c = peek();
+    if (c == '"')
+      return string();
+    if (c == '-' || (c >= '0' && c <= '9'))
+      return number();
+    if (line.startsWith("true", pos)) {
+      pos += 4;
+      return Boolean.TRUE;
+    }
+    if (line.startsWith("false", pos)) {
+      pos += 5;
+      return Boolean.FALSE;
+    }
+    if (line.startsWith("null", pos)) {
+      pos += 4;
+      return null;
+    }
+    throw error("a string, a number, a boolean or null");
+  }
+
+  private String string() throws IOException {
+    expect('"');
+    StringBuilder sb = new StringBuilder();
+    while (true) {
+      char c = next();
+      if (c == '"')
+        return sb.toString();
+      if (c != '\\') {
+        sb.append(c);
+        continue;
+      }
+      c = next();
+      switch (c) {
+      case '"':
+      case '\\':
+      case '/':
+        sb.append(c);
+        break;
+      case 'b':
+        sb.append('\b');
+        break;
+      case 'f':
+        sb.append('\f');
+        break;
+      case 'n':
+        sb.append('\n');
+        break;
+      case 'r':
+        sb.append('\r');
+        break;
+      case 't':
+        sb.append('\t');
+        break;
+      case 'u':
+        if (pos + 4 > line.length())
+          throw error("an escape sequence");
+        try {
+          sb.append((char) Integer.parseInt(line.substring(pos, pos + 4), 16));
+        } catch (NumberFormatException e) {
+          throw error("an escape sequence");
+        }
+        pos += 4;
+        break;
+      default:
+        throw error("an escape sequence");
+      }
+    }
+  }
+
+  private Object number() throws IOException {
+    int start = pos;
+    boolean integer = true;
+    while (pos < line.length()) {
+      char c = line.charAt(pos);
+      if (c == '.' || c == 'e' || c == 'E')
+        integer = false;
+      else if (c != '-' && c != '+' && (c < '0' || c > '9'))
+        break;
+      pos++;
+    }
+    String str = line.substring(start, pos);
+    try {
+      return integer ? (Object) Long.valueOf(str) : (Object) Double.valueOf(str);
+    } catch (NumberFormatException e) {
+      pos = start;
+      throw error("a number");
+    }
+  }
+
+  private void skipSpaces() {
+    while (pos < line.length() && Character.isWhitespace(line.charAt(pos)))
+      pos++;
+  }
+
+  private char peek() throws IOException {
+    if (pos == line.length())
+      throw error("a value");
+    return line.charAt(pos);
+  }
+
+  private char next() throws IOException {
+    if (pos == line.length())
+      throw error("a character");
+    return line.charAt(pos++);
+  }
+
+  private void expect(char c) throws IOException {
+    if (pos == line.length() || line.charAt(pos) != c)
+      throw error("'" + c + "'");
+    pos++;
+  }
+
+  private IOException error(String expected) {
+    return new IOException(String.format(MSG.LAUNCHER.SERVER.JSON_SYNTAX_ERROR, expected, pos));
+  }
+
+  /**
+   * Builds a JSON object on a single line.
+   */
+  static final class Builder {
+
+    private final StringBuilder sb = new StringBuilder("{");
+
+    /**
+     * Adds the specified member; the value is written as a JSON string, unless
+     * it is <code>null</code>, a number or a boolean.
+     * 
+     * @param name the name of the member.
+     * @param value the value of the member.
+     * @return this builder.
+     */
+    Builder add(String name, Object value) {
+      if (sb.length() > 1)
+        sb.append(',');
+      quote(name);
+      sb.append(':');
+      if (value == null || value instanceof Number || value instanceof Boolean)
+        sb.append(value);
+      else
+        quote(value.toString());
+      return this;
+    }
+
+    private void quote(String str) {
+      sb.append('"');
+      for (int i = 0; i < str.length(); i++) {
+        char c = str.charAt(i);
+        switch (c) {
+        case '"':
+          sb.append("\\\"");
+          break;
+        case '\\':
+          sb.append("\\\\");
+          break;
+        case '\n':
+          sb.append("\\n");
+          break;
+        case '\r':
+          sb.append("\\r");
+          break;
+        case '\t':
+          sb.append("\\t");
+          break;
+        default:
+          if (c < 0x20)
+            sb.append(String.format("\\u%04x", (int) c));
+          else
+            sb.append(c);
+        }
+      }
+      sb.append('"');
+    }
+
+    @Override
+    public String toString() {
+      return sb.toString() + "}";
+    }
+  }
+
+}
@@ -16,18 +16,35 @@ import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileReader;
 import java.io.FileWriter;
+import java.io.FilenameFilter;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.PrintStream;
 import java.io.PrintWriter;
+import java.io.Reader;
 import java.io.StringReader;
 import java.io.StringWriter;
 import java.lang.management.ManagementFactory;
 import java.lang.management.ThreadMXBean;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
 
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.Option;
@@ -35,15 +52,21 @@ import org.apache.commons.cli.Options;
 
 import jtabwb.engine.Engine;
 import jtabwb.engine.Engine.ExecutionMode;
+import jtabwb.engine.EngineScheduler;
 import jtabwb.engine.IterationInfo;
+import jtabwb.engine.ParallelSearchOptions;
 import jtabwb.engine.ProofSearchResult;
 import jtabwb.engine.ProvabilityStatus;
 import jtabwb.engine.ProverName;
+import jtabwb.engine.SearchBudget;
 import jtabwb.engine.TraceException;
+import jtabwb.engine.TranspositionTable;
 import jtabwb.engine._AbstractGoal;
 import jtabwb.engine._Prover;
+import jtabwb.launcher.ProofSearchData.TerminationStatus;
 import jtabwb.tracesupport.CTree;
 import jtabwb.tracesupport._LatexSupport;
+import jtabwbx.problems.ProblemCache;
 import jtabwbx.problems.ProblemDescription;
 import jtabwbx.problems.ProblemDescriptionException;
 
@@ -98,6 +121,10 @@ import jtabwbx.problems.ProblemDescriptionException;
  * set the configurator to invoke before every execution. a
  * {@link _SingleExecutionConfigurator} is an object allowing to properly
  * configure every element of the pipeline before its execution.
+ * 
+ * <li>{@link #optConfigPipelineFactory(_PipelineFactory)}: set the factory
+ * building the pipeline of every thread executing a testset in parallel (see
+ * the <code>--jobs</code> option).</li>
  * </ul>
  * 
  * <p>
@@ -186,6 +213,8 @@ public class Launcher {
   final static String DEFAULT_TESTSET_FILE_SUFFIX = ".log";
   final static String DEFAULT_TRACE_FILE_NAME_PREFIX = "trace-";
   final static String DEFAULT_TRACE_FILE_NAME_SUFFIX = ".log";
+  // files of at least this size are read by a MappedFileReader
+  final static long MAPPED_READING_THRESHOLD = 1L << 20;
 
   final Log LOG;
   boolean processCmdLineOptionsExecuted = false;
@@ -193,6 +222,8 @@ public class Launcher {
   ProofSearchData lastProofSearchData;
   TestsetDetails testsetDetails;
   ThreadMXBean bean;
+  Pipeline mainPipeline;
+  ThreadLocal<Pipeline> serverPipelines;
 
   /**
    * Constructs a new launcher.
@@ -204,20 +235,19 @@ public class Launcher {
     bean = ManagementFactory.getThreadMXBean();
   }
 
-  private _AbstractGoal buildInitialNodeSet(ProofSearchData info) {
+  private _AbstractGoal buildInitialNodeSet(ProofSearchData info, Pipeline pipeline) {
     _AbstractGoal initialNodeSet = null;
     // build the initial node set
     try {
       if (!currentConfiguration.testsetmode)
         LOG.infoNoLn(MSG.LAUNCHER.INFO.INITIAL_NODE_SET_BUILDING_BEGIN);
       // configure the initial node set builder
-      if (currentConfiguration.singleExecutionConfigurator != null)
-        currentConfiguration.singleExecutionConfigurator.configInitialNodeSetBuilder(
-            info.problemDescription, currentConfiguration);
+      if (pipeline.singleExecutionConfigurator != null)
+        pipeline.singleExecutionConfigurator.configInitialNodeSetBuilder(info.problemDescription,
+            currentConfiguration);
       // build initial node set
       info.initial_node_set_construction_start_time = getCurrentTimeMilleseconds();
-      initialNodeSet =
-          currentConfiguration.initialNodeSetBuilder.buildInitialNodeSet(info.problemDescription);
+      initialNodeSet = pipeline.initialNodeSetBuilder.buildInitialNodeSet(info.problemDescription);
       info.initial_node_set_construction_end_time = getCurrentTimeMilleseconds();
 
       if (!currentConfiguration.testsetmode)
@@ -379,15 +409,28 @@ public class Launcher {
     currentConfiguration.singleExecutionConfigurator = configurator;
   }
 
-  private _Prover configProver(ProofSearchData info) {
+  /**
+   * Defines the factory building the pipelines of the threads executing a
+   * testset when the <code>--jobs</code> option is set; if no factory is
+   * defined, testsets are executed by a single thread.
+   * 
+   * @param pipelineFactory the pipeline factory.
+   */
+  public void optConfigPipelineFactory(_PipelineFactory pipelineFactory) {
+    currentConfiguration.pipelineFactory = pipelineFactory;
+  }
+
+  private _Prover configProver(ProofSearchData info, Pipeline pipeline) {
     try {
       _Prover prover = currentConfiguration.selectedProver.getValue().newInstance();
-      if (currentConfiguration.singleExecutionConfigurator != null)
-        currentConfiguration.singleExecutionConfigurator.configProver(prover, info.goal,
-            currentConfiguration);
+      if (pipeline.singleExecutionConfigurator != null)
+        pipeline.singleExecutionConfigurator.configProver(prover, info.goal, currentConfiguration);
 
       // TODO: eliminare dipendenza da _LatexSupport
-      currentConfiguration.selectedProverName = prover.getProverName();
+      if (pipeline == mainPipeline)
+        currentConfiguration.selectedProverName = prover.getProverName();
+      if (currentConfiguration.portfolio != null)
+        portfolio_configMembers(info, prover, pipeline);
       if (currentConfiguration.generateLatexOfProof || currentConfiguration.generateLatexOfCtrees)
         if (!(prover instanceof _LatexSupport)) {
           LOG.error(MSG.LAUNCHER.ERROR_MSG.LATEX_SUPPORT_REQUIRED, prover.getProverName()
@@ -438,6 +481,11 @@ public class Launcher {
     testsetDetails.proverName = currentConfiguration.selectedProverName;
     testsetDetails.testsetName = currentConfiguration.testsetName;
     testsetDetails.startTime = new Date();
+    if (currentConfiguration.portfolio != null) {
+      testsetDetails.portfolioWins = new LinkedHashMap<String, Integer>();
+      for (ConfiguredTheoremProver member : currentConfiguration.portfolio)
+        testsetDetails.portfolioWins.put(member.getName(), 0);
+    }
     try {
       testsetDetails.tempFile =
           File.createTempFile(
@@ -450,6 +498,18 @@ public class Launcher {
       LOG.error(MSG.LAUNCHER.ERROR_MSG.TESTSET_TMP_FILE_CANNOT_BE_CREATEd, e.getMessage());
       System.exit(1);
     }
+    if (currentConfiguration.resultsFile != null)
+      try {
+        testsetDetails.resultsSink =
+            new ResultsSink(currentConfiguration.resultsFile,
+                currentConfiguration.resultsSyncInterval, testsetDetails.testsetName,
+                new SimpleDateFormat("yyMMdd_HHmmss").format(testsetDetails.startTime),
+                testsetDetails.proverName.getDetailedName());
+      } catch (IOException e) {
+        LOG.error(MSG.LAUNCHER.ERROR_MSG.RESULTS_FILE_ERROR,
+            currentConfiguration.resultsFile.getAbsolutePath(), e.getMessage());
+        System.exit(1);
+      }
 
     return testsetDetails;
   }
@@ -464,7 +524,8 @@ public class Launcher {
    */
   public void launch() throws LauncherExecutionException, LauncherConfigurationException {
     try {
-      if (currentConfiguration.launcherWelcomeMessage != null)
+      if (currentConfiguration.launcherWelcomeMessage != null && !currentConfiguration.workerMode
+          && !(currentConfiguration.serverMode && currentConfiguration.serverPort < 0))
         LOG.info(currentConfiguration.launcherWelcomeMessage);
 
       if (!processCmdLineOptionsExecuted) // processCmdLineArguments must be executed before launch
@@ -474,6 +535,18 @@ public class Launcher {
       // check compatibility of runtime options
       currentConfiguration.checkConfiguration();
 
+      // a worker reads the names of the problems from the standard input
+      if (currentConfiguration.workerMode) {
+        worker_launch();
+        return;
+      }
+
+      // a server reads the problems from the requests
+      if (currentConfiguration.serverMode) {
+        server_launch();
+        return;
+      }
+
       // either the input option is set or a file name is given
       String[] fileNames = currentConfiguration.commandLine.getArgs();
       if (currentConfiguration.readFromStandardInput) {
@@ -486,34 +559,43 @@ public class Launcher {
         System.exit(1);
       }
 
+      mainPipeline =
+          new Pipeline(currentConfiguration.initialNodeSetBuilder,
+              currentConfiguration.singleExecutionConfigurator);
       if (currentConfiguration.readFromStandardInput) {
         ProofSearchData info = new ProofSearchData();
         // read problem  
         info.problemDescription = readFromStandardInput(info);
         // build initial node set;
-        info.goal = buildInitialNodeSet(info);
+        info.goal = buildInitialNodeSet(info, mainPipeline);
         // configure prover
-        info.selectedProver = configProver(info);
+        info.selectedProver = configProver(info, mainPipeline);
         info_preProverExecutionDetails();
         // search for proof
-        searchProof(info);
+        searchProof(info, mainPipeline);
         lastProofSearchData = info;
+      } else if (currentConfiguration.testsetmode && currentConfiguration.testsetWorkers > 0) {
+        testset_launchWorkers(fileNames);
+      } else if (currentConfiguration.testsetmode && currentConfiguration.testsetJobs > 1) {
+        testset_launchParallel(fileNames);
       } else if (currentConfiguration.testsetmode) {
         boolean firstTest = true;
         for (String problemFileName : fileNames) {
           ProofSearchData info = new ProofSearchData();
           // read problem    
-          info.problemDescription = readFromFile(info, problemFileName);
+          info.problemDescription = readFromFile(info, problemFileName, mainPipeline);
+          problemDetails_print(info.problemDescription);
           // build initial node set;
-          info.goal = buildInitialNodeSet(info);
+          info.goal = buildInitialNodeSet(info, mainPipeline);
           // configure prover
-          info.selectedProver = configProver(info);
+          info.selectedProver = configProver(info, mainPipeline);
           if (firstTest) {
             testsetDetails = initilizeTesetDetails();
             firstTest = false;
           }
           // search for proof
-          searchProof(info);
+          searchProof(info, mainPipeline);
+          testset_printSingleTestInfo(info);
           updateTestSetDetails(info);
           lastProofSearchData = info;
         }
@@ -523,14 +605,15 @@ public class Launcher {
         for (String problemFileName : fileNames) {
           ProofSearchData info = new ProofSearchData();
           // read problem
-          info.problemDescription = readFromFile(info, problemFileName);
+          info.problemDescription = readFromFile(info, problemFileName, mainPipeline);
+          problemDetails_print(info.problemDescription);
           // build initial node set;
-          info.goal = buildInitialNodeSet(info);
+          info.goal = buildInitialNodeSet(info, mainPipeline);
           // config prover
-          info.selectedProver = configProver(info);
+          info.selectedProver = configProver(info, mainPipeline);
           info_preProverExecutionDetails();
           // search for proof
-          searchProof(info);
+          searchProof(info, mainPipeline);
           lastProofSearchData = info;
         }
       }
@@ -543,6 +626,360 @@ public class Launcher {
     }
   }
 
+  /*
+   * Executes the testset by a pool of testsetJobs threads. Every thread reads,
+   * builds and proves its problems by its own pipeline, built by the pipeline
+   * factory, and the CPU times of a problem are measured on the thread proving
+   * it. The problems are submitted in the order defined by the scheduling
+   * policy and an idle thread takes the next submitted problem. The results are
+   * printed and collected in testsetDetails by this thread, in the order of the
+   * problems on the command line.
+   */
+  private void testset_launchParallel(String[] fileNames) throws InterruptedException,
+      ExecutionException {
+    if (currentConfiguration.pipelineFactory == null) {
+      LOG.error(MSG.LAUNCHER.ERROR_MSG.NO_PIPELINE_FACTORY);
+      System.exit(1);
+    }
+    final ThreadLocal<Pipeline> pipelines = newPipelines(currentConfiguration.pipelineFactory);
+    final AtomicLong cpuTime = new AtomicLong();
+    TestsetScheduler scheduler = currentConfiguration.testsetScheduler;
+    ExecutorService pool = Executors.newFixedThreadPool(currentConfiguration.testsetJobs);
+    List<Future<ProofSearchData>> results = testset_newResults(fileNames.length);
+    long startTime = System.currentTimeMillis();
+    try {
+      Integer[] order = scheduler.order(fileNames, testset_logFiles());
+      if (scheduler.getPolicy() == TestsetScheduler.Policy.FORMULA_SIZE) {
+        // read all the problems, then prove them by decreasing size
+        for (int i : order)
+          results.set(i,
+              pool.submit(testset_newJob(fileNames[i], null, false, pipelines, cpuTime)));
+        ProofSearchData[] prepared = new ProofSearchData[fileNames.length];
+        ProblemDescription[] problems = new ProblemDescription[fileNames.length];
+        for (int i = 0; i < fileNames.length; i++) {
+          prepared[i] = results.get(i).get();
+          problems[i] = prepared[i].problemDescription;
+        }
+        for (int i : scheduler.orderBySize(problems))
+          results.set(i, pool.submit(testset_newJob(null, prepared[i], true, pipelines, cpuTime)));
+      } else
+        for (int i : order)
+          results.set(i, pool.submit(testset_newJob(fileNames[i], null, true, pipelines, cpuTime)));
+      testset_collectResults(results);
+    } finally {
+      pool.shutdownNow();
+    }
+    testsetDetails.jobs = currentConfiguration.testsetJobs;
+    testsetDetails.makespan = System.currentTimeMillis() - startTime;
+    testsetDetails.totalCpuTime =
+        TimeUnit.MILLISECONDS.convert(cpuTime.get(), TimeUnit.NANOSECONDS);
+    testset_printReport();
+  }
+
+  /*
+   * Returns the pipelines built by the specified factory, one for every thread.
+   */
+  private static ThreadLocal<Pipeline> newPipelines(final _PipelineFactory pipelineFactory) {
+    return new ThreadLocal<Pipeline>() {
+
+      @Override
+      protected Pipeline initialValue() {
+        return newPipeline(pipelineFactory);
+      }
+    };
+  }
+
+  /*
+   * Returns a new pipeline built by the specified factory.
+   */
+  private static Pipeline newPipeline(_PipelineFactory pipelineFactory) {
+    _InitialGoalBuilder builder = pipelineFactory.newInitialGoalBuilder();
+    return new Pipeline(builder, pipelineFactory.newSingleExecutionConfigurator(builder));
+  }
+
+  /*
+   * Executes the launcher as a prover server (see ProverServer) reading the
+   * requests from the standard input or, if a port is defined, from the
+   * connections to the port. The requests are solved by a pool of testsetJobs
+   * threads, every one with its own pipeline.
+   */
+  private void server_launch() throws IOException {
+    int threads = currentConfiguration.testsetJobs;
+    if (currentConfiguration.pipelineFactory != null)
+      serverPipelines = newPipelines(currentConfiguration.pipelineFactory);
+    else if (threads > 1) {
+      LOG.error(MSG.LAUNCHER.ERROR_MSG.NO_PIPELINE_FACTORY);
+      System.exit(1);
+    } else {
+      mainPipeline =
+          new Pipeline(currentConfiguration.initialNodeSetBuilder,
+              currentConfiguration.singleExecutionConfigurator);
+      serverPipelines = new ThreadLocal<Pipeline>() {
+
+        @Override
+        protected Pipeline initialValue() {
+          return mainPipeline;
+        }
+      };
+    }
+    ProverServer server = new ProverServer(this, threads);
+    try {
+      if (currentConfiguration.serverPort >= 0)
+        server.listen(currentConfiguration.serverPort);
+      else
+        server.serve(System.in, System.out);
+    } finally {
+      server.shutdown();
+    }
+  }
+
+  /*
+   * Solves a request of the prover server by the pipeline of the current
+   * thread. The problem is read from text by the specified reader or, if
+   * fileReader is null, by the standard input reader. Errors are reported by
+   * exceptions rather than terminating the execution, so that a wrong request
+   * does not stop the server.
+   */
+  ProofSearchData server_solve(String text, ConfiguredProblemDescriptioReader fileReader,
+      ConfiguredTheoremProver prover, SearchBudget budget) throws ProblemDescriptionException,
+      IOException, InitialGoalBuilderException, ReflectiveOperationException {
+    Pipeline pipeline = serverPipelines.get();
+    ProofSearchData info = new ProofSearchData();
+    // read problem
+    _ProblemReader reader =
+        fileReader == null ? currentConfiguration.stdinReader.getClass().newInstance()
+            : fileReader.getValue().newInstance();
+    if (pipeline.singleExecutionConfigurator != null)
+      pipeline.singleExecutionConfigurator.configProblemReader(reader, currentConfiguration);
+    info.parsing_problem_start_time = getCurrentTimeMilleseconds();
+    ProblemDescription problemDescription = reader.read(new StringReader(text));
+    info.parsing_problem_end_time = getCurrentTimeMilleseconds();
+    if (problemDescription.getProblemName() == null)
+      problemDescription.setName("input");
+    if (problemDescription.getSource() == null)
+      problemDescription.setSource("server");
+    if (problemDescription.getProblemStatus() == null)
+      problemDescription.setProblemStatus(ProvabilityStatus.UNKNOWN);
+    info.problemDescription = problemDescription;
+    // build initial node set
+    if (pipeline.singleExecutionConfigurator != null)
+      pipeline.singleExecutionConfigurator.configInitialNodeSetBuilder(problemDescription,
+          currentConfiguration);
+    info.initial_node_set_construction_start_time = getCurrentTimeMilleseconds();
+    info.goal = pipeline.initialNodeSetBuilder.buildInitialNodeSet(problemDescription);
+    info.initial_node_set_construction_end_time = getCurrentTimeMilleseconds();
+    // configure prover
+    info.selectedProver = prover.getValue().newInstance();
+    if (pipeline.singleExecutionConfigurator != null)
+      pipeline.singleExecutionConfigurator.configProver(info.selectedProver, info.goal,
+          currentConfiguration);
+    if (currentConfiguration.portfolio != null && prover == currentConfiguration.selectedProver)
+      portfolio_configMembers(info, info.selectedProver, pipeline);
+    // search for proof; the resident server is warm, hence no warm runs
+    searchProof(info, null, budget);
+    return info;
+  }
+
+  /*
+   * Executes the testset by a pool of testsetWorkers worker processes (see
+   * TestsetWorkers). The problems are submitted in the order defined by the
+   * scheduling policy; since the problems are read by the workers, the
+   * formula-size policy orders the problems by file size. The results are
+   * printed and collected in testsetDetails by this thread, in the order of the
+   * problems on the command line.
+   */
+  private void testset_launchWorkers(String[] fileNames) throws InterruptedException,
+      ExecutionException {
+    try {
+      currentConfiguration.selectedProverName =
+          currentConfiguration.selectedProver.getValue().newInstance().getProverName();
+      /*
+       * we already tested that a visible nullary constructor exists for this
+       * class when we added it to availableProvers
+       */
+    } catch (InstantiationException e) {
+    } catch (IllegalAccessException e) {
+    }
+    TestsetWorkers workers =
+        new TestsetWorkers(currentConfiguration.testsetWorkers, worker_command(),
+            currentConfiguration.workerHardTimeout);
+    List<Future<ProofSearchData>> results = testset_newResults(fileNames.length);
+    long startTime = System.currentTimeMillis();
+    try {
+      for (int i : currentConfiguration.testsetScheduler.order(fileNames, testset_logFiles()))
+        results.set(i, workers.submit(fileNames[i]));
+      testset_collectResults(results);
+    } finally {
+      workers.shutdown();
+    }
+    testsetDetails.jobs = currentConfiguration.testsetWorkers;
+    testsetDetails.makespan = System.currentTimeMillis() - startTime;
+    testsetDetails.totalCpuTime = workers.getCpuTime();
+    testset_printReport();
+  }
+
+  /*
+   * Returns the list of the results of a parallel testset with the specified
+   * number of problems; the result of the i-th problem on the command line is
+   * the i-th element, set when the problem is submitted.
+   */
+  private static List<Future<ProofSearchData>> testset_newResults(int problems) {
+    return new ArrayList<Future<ProofSearchData>>(
+        Collections.<Future<ProofSearchData>> nCopies(problems, null));
+  }
+
+  /*
+   * Prints and collects in testsetDetails the results of a parallel testset, in
+   * the order of the problems on the command line.
+   */
+  private void testset_collectResults(List<Future<ProofSearchData>> results)
+      throws InterruptedException, ExecutionException {
+    boolean firstTest = true;
+    for (int i = 0; i < results.size(); i++) {
+      ProofSearchData info = results.get(i).get();
+      results.set(i, null);
+      if (firstTest) {
+        if (info.selectedProver != null)
+          currentConfiguration.selectedProverName = info.selectedProver.getProverName();
+        testsetDetails = initilizeTesetDetails();
+        firstTest = false;
+      }
+      problemDetails_print(info.problemDescription);
+      testset_printSingleTestInfo(info);
+      if (info.terminationStatus == TerminationStatus.ABORTED)
+        LOG.error(MSG.LAUNCHER.ERROR_MSG.WORKER_ABORTED, info.problemDescription.getSource(),
+            info.abortCause == null ? "-" : info.abortCause);
+      updateTestSetDetails(info);
+      lastProofSearchData = info;
+    }
+  }
+
+  /*
+   * Returns the command starting a worker process: the JVM running this
+   * launcher is started with its JVM options, its class path, the class whose
+   * main method invoked the launcher and the command line options, without the
+   * file names and the options of the worker pool.
+   */
+  private List<String> worker_command() {
+    List<String> command = new ArrayList<String>();
+    command.add(new File(new File(System.getProperty("java.home"), "bin"), "java").getPath());
+    for (String arg : ManagementFactory.getRuntimeMXBean().getInputArguments())
+      if (arg.startsWith("-X") || arg.startsWith("-D"))
+        command.add(arg);
+    command.add("-XX:+ExitOnOutOfMemoryError");
+    command.add("-cp");
+    command.add(System.getProperty("java.class.path"));
+    StackTraceElement[] stack = new Throwable().getStackTrace();
+    command.add(stack[stack.length - 1].getClassName());
+    for (Option opt : currentConfiguration.commandLine.getOptions()) {
+      String name = opt.getLongOpt() != null ? opt.getLongOpt() : opt.getOpt();
+      if (name.equals(CmdLineOptions.OptNames.WORKERS)
+          || name.equals(CmdLineOptions.OptNames.HARD_TIMEOUT)
+          || name.equals(CmdLineOptions.OptNames.JOBS)
+          || name.equals(CmdLineOptions.OptNames.RESULTS)
+          || name.equals(CmdLineOptions.OptNames.RESULTS_SYNC))
+        continue;
+      command.add(opt.getLongOpt() != null ? "--" + name : "-" + name);
+      if (opt.getValues() != null)
+        for (String value : opt.getValues())
+          command.add(value);
+    }
+    command.add("--" + CmdLineOptions.OptNames.WORKER);
+    return command;
+  }
+
+  /*
+   * Executes the launcher as a worker of a TestsetWorkers pool: reads the name
+   * of a problem file from the standard input, proves the problem and writes the
+   * lines describing the problem and the result on the standard output, until
+   * the standard input is closed. An error terminates the worker, which is
+   * replaced by the pool.
+   */
+  private void worker_launch() throws IOException {
+    mainPipeline =
+        new Pipeline(currentConfiguration.initialNodeSetBuilder,
+            currentConfiguration.singleExecutionConfigurator);
+    BufferedReader in = new BufferedReader(new InputStreamReader(System.in));
+    String problemFileName;
+    while ((problemFileName = in.readLine()) != null) {
+      try {
+        long startCpuTime = bean.getCurrentThreadCpuTime();
+        ProofSearchData info = new ProofSearchData();
+        info.problemDescription = readFromFile(info, problemFileName, mainPipeline);
+        System.out.println(TestsetWorkers.formatProblem(info.problemDescription));
+        System.out.flush();
+        info.goal = buildInitialNodeSet(info, mainPipeline);
+        info.selectedProver = configProver(info, mainPipeline);
+        searchProof(info, mainPipeline);
+        long cpuTime =
+            TimeUnit.MILLISECONDS.convert(bean.getCurrentThreadCpuTime() - startCpuTime,
+                TimeUnit.NANOSECONDS);
+        System.out.println(TestsetWorkers.formatResult(info, cpuTime));
+        System.out.flush();
+      } catch (Throwable e) {
+        System.out.println(TestsetWorkers.formatAbort(e));
+        System.out.flush();
+        System.exit(1);
+      }
+    }
+  }
+
+  /*
+   * Returns a job of a parallel testset. If prepared is null, the job reads the
+   * problem in fileName and builds its initial node set and its prover; if
+   * search is true, the job searches for a proof of the problem. The CPU time
+   * of the job is added to cpuTime. A problem prepared by a job and searched by
+   * another one is prepared by a pipeline of its own, stored in its data and
+   * used by the searching job: the pipeline of a thread is configured for the
+   * last problem read by the thread, while the warm runs rebuild the goal of
+   * the problem by the configuration of the problem.
+   */
+  private Callable<ProofSearchData> testset_newJob(final String fileName,
+      final ProofSearchData prepared, final boolean search, final ThreadLocal<Pipeline> pipelines,
+      final AtomicLong cpuTime) {
+    return new Callable<ProofSearchData>() {
+
+      @Override
+      public ProofSearchData call() {
+        long startCpuTime = bean.getCurrentThreadCpuTime();
+        ProofSearchData info = prepared;
+        Pipeline pipeline;
+        if (info == null) {
+          pipeline =
+              search ? pipelines.get() : newPipeline(currentConfiguration.pipelineFactory);
+          info = new ProofSearchData();
+          info.problemDescription = readFromFile(info, fileName, pipeline);
+          info.goal = buildInitialNodeSet(info, pipeline);
+          info.selectedProver = configProver(info, pipeline);
+          if (!search)
+            info.pipeline = pipeline;
+        } else {
+          pipeline = info.pipeline;
+          info.pipeline = null;
+        }
+        if (search)
+          searchProof(info, pipeline);
+        cpuTime.addAndGet(bean.getCurrentThreadCpuTime() - startCpuTime);
+        return info;
+      }
+    };
+  }
+
+  /*
+   * Returns the testset log files in the log directory.
+   */
+  private File[] testset_logFiles() {
+    File logDir = new File(currentConfiguration.logDirAbsolutePath);
+    return logDir.listFiles(new FilenameFilter() {
+
+      @Override
+      public boolean accept(File dir, String name) {
+        return name.startsWith(currentConfiguration.testsetFilePrefix)
+            && name.endsWith(currentConfiguration.testsetFileSuffix);
+      }
+    });
+  }
+
   /**
    * Processes the command line arguments and defines the configuration of the
    * launcher; the method returns the object describing the essential details of
@@ -579,7 +1016,8 @@ public class Launcher {
   /*
    * Read the specified and returns the parsed formula.
    */
-  private ProblemDescription readFromFile(ProofSearchData info, String inputFilename) {
+  private ProblemDescription readFromFile(ProofSearchData info, String inputFilename,
+      Pipeline pipeline) {
     try {
       // get the file
       File inputFile = new File(inputFilename);
@@ -589,29 +1027,40 @@ public class Launcher {
       }
       // get the reader
       try {
-        currentConfiguration.selectedReader =
-            currentConfiguration.fileReader.getValue().newInstance();
+        _ProblemReader reader = currentConfiguration.fileReader.getValue().newInstance();
+        if (pipeline == mainPipeline)
+          currentConfiguration.selectedReader = reader;
         if (!currentConfiguration.testsetmode)
           info_preReaderExecutionDetails();
-        FileReader fir = new FileReader(inputFile);
         if (!currentConfiguration.testsetmode)
           LOG.infoNoLn(MSG.LAUNCHER.INFO.PROBLEM_DESCRIPTION_PARSING_BEGIN);
 
         // configure problem reader if problem reader configurator is defined
-        if (currentConfiguration.singleExecutionConfigurator != null)
-          currentConfiguration.singleExecutionConfigurator.configProblemReader(
-              currentConfiguration.selectedReader, currentConfiguration);
+        if (pipeline.singleExecutionConfigurator != null)
+          pipeline.singleExecutionConfigurator.configProblemReader(reader, currentConfiguration);
 
-        // read problem description
+        // read problem description, from the cache if it is already stored
         info.parsing_problem_start_time = getCurrentTimeMilleseconds();
-        ProblemDescription problemDescription = currentConfiguration.selectedReader.read(fir);
+        ProblemCache cache = currentConfiguration.problemCache;
+        String cacheKey = null;
+        ProblemDescription problemDescription = null;
+        if (cache != null) {
+          cacheKey = cache.key(inputFile, reader);
+          problemDescription = cache.load(cacheKey, reader);
+        }
+        if (problemDescription == null) {
+          Reader fir = inputFile.length() >= MAPPED_READING_THRESHOLD ? new MappedFileReader(
+              inputFile) : new FileReader(inputFile);
+          problemDescription = reader.read(fir);
+          fir.close();
+          if (cache != null)
+            cache.store(cacheKey, problemDescription);
+        }
         info.parsing_problem_end_time = getCurrentTimeMilleseconds();
 
         if (!currentConfiguration.testsetmode)
           LOG.info(MSG.LAUNCHER.INFO.PROBLEM_DESCRIPTION_PARSING_END, info.getParsingProblemTime());
         problemDescription.setSource(inputFile.getAbsolutePath());
-
-        problemDetails_print(problemDescription);
         return problemDescription;
         /*
          * we already tested that a visible nullary constructor exists for this
@@ -671,45 +1120,30 @@ public class Launcher {
     return null;
   }
 
-  private void searchProof(ProofSearchData proofSearchData) {
-    // BUILD THE ENGINE
-    //currentConfiguration.engineExecutionMode = ExecutionMode.ENGINE_VERBOSE;
-    Engine engine =
-        new Engine(proofSearchData.selectedProver, proofSearchData.goal,
-            currentConfiguration.engineExecutionMode);
+  private void searchProof(ProofSearchData proofSearchData, Pipeline pipeline) {
+    searchProof(proofSearchData, pipeline, currentConfiguration.searchBudget);
+  }
 
-    if (!currentConfiguration.testsetmode)
+  /*
+   * Executes the proof-search of proofSearchData and generates the required
+   * details. In warm-run mode the proof-search is executed warmupRuns times and
+   * then measuredRuns times, rebuilding the initial goal by the pipeline before
+   * every execution but the first; warm runs are not executed if pipeline is
+   * null.
+   */
+  private void searchProof(ProofSearchData proofSearchData, Pipeline pipeline,
+      SearchBudget searchBudget) {
+    // no details are printed for the problems of a testset or of a server
+    boolean silent = currentConfiguration.testsetmode || currentConfiguration.serverMode;
+    if (!silent)
       LOG.info(MSG.LAUNCHER.INFO.PROVING_BEGIN);
 
-    // start the proof search
-    ThreadMXBean bean = ManagementFactory.getThreadMXBean();
-    proofSearchData.execution_start_time = getCurrentTimeMilleseconds();
-    long cpuTime = bean.getCurrentThreadCpuTime();
-    engine.searchProof();
-    // end of proof search, set info values
-    cpuTime = bean.getCurrentThreadCpuTime() - cpuTime;
-    proofSearchData.execution_end_time = getCurrentTimeMilleseconds();
-
-    // set the data of the last proof search
-    IterationInfo lastIterationInfo = engine.getLastIterationInfo();
-    proofSearchData.proofSearchResult = engine.getResult();
-    proofSearchData.testStatus = TestStatus.getTestStatus(proofSearchData);
-    proofSearchData.iterationCounter = lastIterationInfo.getNumberOfIterations();
-    proofSearchData.max_stack_size = lastIterationInfo.getMaxStackSize();
-    proofSearchData.proofSearchResult = engine.getResult();
-    proofSearchData.numberOfRestoredBacktrackPoints =
-        lastIterationInfo.getNumberOfRestoredBacktrackPoints();
-    proofSearchData.numberOfGeneratedNodes = lastIterationInfo.getNumberOfGeneratedNodes();
-    proofSearchData.numberOfRestoredBranchPoints =
-        lastIterationInfo.getNumberOfRestoredBranchPoints();
-
-    // generates data and data files according with defined options 
-    if (currentConfiguration.engineExecutionMode == ExecutionMode.ENGINE_TRACE)
-      proofSearchData.trace = engine.getTrace();
+    if (pipeline != null && currentConfiguration.isWarmRunMode())
+      warmRuns_searchProof(proofSearchData, pipeline, searchBudget);
+    else
+      searchProof_execute(proofSearchData, searchBudget);
 
-    if (currentConfiguration.testsetmode)
-      testset_printSingleTestInfo(proofSearchData);
-    else {
+    if (!silent) {
       print_postProofSearchDetails(proofSearchData);
 
       if (currentConfiguration.generateLogFile)
@@ -733,7 +1167,213 @@ public class Launcher {
       if (currentConfiguration.generateJTabWbTimeStr)
         timing_jtabwb_generatesString(proofSearchData);
     }
+  }
+
+  /*
+   * Executes once the proof-search of proofSearchData and sets its data.
+   */
+  private void searchProof_execute(ProofSearchData proofSearchData, SearchBudget searchBudget) {
+    Engine engine;
+    if (proofSearchData.portfolioProvers == null) {
+      // BUILD THE ENGINE
+      //currentConfiguration.engineExecutionMode = ExecutionMode.ENGINE_VERBOSE;
+      engine = newEngine(proofSearchData.selectedProver, proofSearchData.goal, searchBudget);
+
+      if (currentConfiguration.isParallelExecutionMode()) {
+        // the proof-search is executed by the threads of a pool, hence the
+        // wall-clock time of the proof-search is measured
+        proofSearchData.execution_start_time = System.currentTimeMillis();
+        engine.searchProof();
+        proofSearchData.execution_end_time = System.currentTimeMillis();
+      } else {
+        // start the proof search
+        proofSearchData.execution_start_time = getCurrentTimeMilleseconds();
+        engine.searchProof();
+        // end of proof search, set info values
+        proofSearchData.execution_end_time = getCurrentTimeMilleseconds();
+      }
+    } else {
+      // the members of the portfolio are executed by other threads, hence the
+      // wall-clock time of the proof-search is measured
+      proofSearchData.execution_start_time = System.currentTimeMillis();
+      engine = portfolio_searchProof(proofSearchData, searchBudget);
+      proofSearchData.execution_end_time = System.currentTimeMillis();
+    }
+
+    // set the data of the last proof search
+    IterationInfo lastIterationInfo = engine.getLastIterationInfo();
+    proofSearchData.proofSearchResult = engine.getResult();
+    proofSearchData.exhaustedLimit = engine.getExhaustedLimit();
+    proofSearchData.terminationStatus =
+        proofSearchData.exhaustedLimit == null ? TerminationStatus.REGULAR
+            : TerminationStatus.TIMEOUT;
+    proofSearchData.testStatus = TestStatus.getTestStatus(proofSearchData);
+    proofSearchData.iterationCounter = lastIterationInfo.getNumberOfIterations();
+    proofSearchData.max_stack_size = lastIterationInfo.getMaxStackSize();
+    proofSearchData.proofSearchResult = engine.getResult();
+    proofSearchData.numberOfRestoredBacktrackPoints =
+        lastIterationInfo.getNumberOfRestoredBacktrackPoints();
+    proofSearchData.numberOfGeneratedNodes = lastIterationInfo.getNumberOfGeneratedNodes();
+    proofSearchData.numberOfRestoredBranchPoints =
+        lastIterationInfo.getNumberOfRestoredBranchPoints();
+    proofSearchData.transpositionTableHits = lastIterationInfo.getTranspositionTableHits();
+    proofSearchData.transpositionTableMisses = lastIterationInfo.getTranspositionTableMisses();
+
+    if (currentConfiguration.engineExecutionMode == ExecutionMode.ENGINE_TRACE)
+      proofSearchData.trace = engine.getTrace();
+  }
 
+  /*
+   * Executes the warm-up and the measured runs of the proof-search of info; the
+   * wall-clock and CPU times of every measured run are taken on this thread
+   * around the whole execution, including the construction of the engine
+   * (the warm-run options are incompatible with the portfolio and the parallel
+   * modes, whose proof-search is executed by other threads). The data of info
+   * are those of the last run.
+   */
+  private void warmRuns_searchProof(ProofSearchData info, Pipeline pipeline,
+      SearchBudget searchBudget) {
+    int warmupRuns = currentConfiguration.warmupRuns;
+    int measuredRuns = currentConfiguration.measuredRuns;
+    long[] wallTimes = new long[measuredRuns];
+    long[] cpuTimes = new long[measuredRuns];
+    for (int run = 0; run < warmupRuns + measuredRuns; run++) {
+      if (run > 0)
+        warmRuns_rebuildGoal(info, pipeline);
+      long wallStart = System.nanoTime();
+      long cpuStart = bean.getCurrentThreadCpuTime();
+      searchProof_execute(info, searchBudget);
+      if (run >= warmupRuns) {
+        cpuTimes[run - warmupRuns] = bean.getCurrentThreadCpuTime() - cpuStart;
+        wallTimes[run - warmupRuns] = System.nanoTime() - wallStart;
+      }
+    }
+    info.warmupRuns = warmupRuns;
+    info.wallTimeStatistics = new RunTimeStatistics(wallTimes);
+    info.cpuTimeStatistics = new RunTimeStatistics(cpuTimes);
+  }
+
+  /*
+   * Builds a new initial goal for the problem of info and configures the
+   * prover of info for it, as done for the first execution.
+   */
+  private void warmRuns_rebuildGoal(ProofSearchData info, Pipeline pipeline) {
+    try {
+      if (pipeline.singleExecutionConfigurator != null)
+        pipeline.singleExecutionConfigurator.configInitialNodeSetBuilder(info.problemDescription,
+            currentConfiguration);
+      info.goal = pipeline.initialNodeSetBuilder.buildInitialNodeSet(info.problemDescription);
+    } catch (InitialGoalBuilderException e) {
+      LOG.error(MSG.LAUNCHER.ERROR_MSG.INITIAL_NODE_BUILDER_ERROR, e.getMessage());
+      System.exit(1);
+    }
+    if (pipeline.singleExecutionConfigurator != null)
+      pipeline.singleExecutionConfigurator.configProver(info.selectedProver, info.goal,
+          currentConfiguration);
+  }
+
+  private Engine newEngine(_Prover prover, _AbstractGoal goal, SearchBudget searchBudget) {
+    Engine engine =
+        new Engine(prover, goal, currentConfiguration.engineExecutionMode,
+            currentConfiguration.parallelSearchOptions);
+    engine.setSearchBudget(searchBudget);
+    if (currentConfiguration.transpositionTableCapacity > 0)
+      engine.setTranspositionTable(new TranspositionTable(
+          currentConfiguration.transpositionTableCapacity,
+          currentConfiguration.transpositionTablePolicy));
+    return engine;
+  }
+
+  /*
+   * Builds the members of the portfolio for the problem of info: the first
+   * member is the prover configured for info, every other member is configured
+   * by the pipeline with its own initial goal.
+   */
+  private void portfolio_configMembers(ProofSearchData info, _Prover first, Pipeline pipeline)
+      throws InstantiationException, IllegalAccessException {
+    List<ConfiguredTheoremProver> portfolio = currentConfiguration.portfolio;
+    info.portfolioProvers = new _Prover[portfolio.size()];
+    info.portfolioGoals = new _AbstractGoal[portfolio.size()];
+    info.portfolioProvers[0] = first;
+    info.portfolioGoals[0] = info.goal;
+    for (int i = 1; i < portfolio.size(); i++) {
+      try {
+        info.portfolioGoals[i] =
+            pipeline.initialNodeSetBuilder.buildInitialNodeSet(info.problemDescription);
+      } catch (InitialGoalBuilderException e) {
+        LOG.error(MSG.LAUNCHER.ERROR_MSG.INITIAL_NODE_BUILDER_ERROR, e.getMessage());
+        System.exit(1);
+      }
+      info.portfolioProvers[i] = portfolio.get(i).getValue().newInstance();
+      if (pipeline.singleExecutionConfigurator != null)
+        pipeline.singleExecutionConfigurator.configProver(info.portfolioProvers[i],
+            info.portfolioGoals[i], currentConfiguration);
+    }
+  }
+
+  /*
+   * Executes the proof-searches of the members of the portfolio of info by an
+   * engine scheduler with a worker for every member and returns the engine of
+   * the winner, that is the first member giving a definitive answer, namely a
+   * result whose provability status is known; the other proof-searches are
+   * cancelled. If no answer is definitive the winner is the first member
+   * terminating within its budget or, if every budget is exhausted, the data
+   * of the first member terminating are returned without a winner.
+   */
+  private Engine portfolio_searchProof(ProofSearchData info, SearchBudget searchBudget) {
+    int size = info.portfolioProvers.length;
+    EngineScheduler scheduler = new EngineScheduler(size, EngineScheduler.Policy.ROUND_ROBIN);
+    Engine[] engines = new Engine[size];
+    List<CompletableFuture<ProofSearchResult>> results =
+        new ArrayList<CompletableFuture<ProofSearchResult>>(size);
+    final BlockingQueue<Integer> terminated = new LinkedBlockingQueue<Integer>();
+    int winner = -1;
+    try {
+      for (int i = 0; i < size; i++) {
+        final int member = i;
+        engines[i] = newEngine(info.portfolioProvers[i], info.portfolioGoals[i], searchBudget);
+        results.add(scheduler.submit(engines[i]));
+        results.get(i).whenComplete(new BiConsumer<ProofSearchResult, Throwable>() {
+
+          @Override
+          public void accept(ProofSearchResult result, Throwable t) {
+            terminated.add(member);
+          }
+        });
+      }
+      int fallback = -1;
+      Throwable failure = null;
+      for (int k = 0; k < size && winner < 0; k++) {
+        int i = terminated.take();
+        ProofSearchResult result;
+        try {
+          result = results.get(i).get();
+        } catch (ExecutionException e) {
+          if (failure == null)
+            failure = e.getCause();
+          continue;
+        }
+        if (result != null
+            && info.portfolioProvers[i].statusFor(result) != ProvabilityStatus.UNKNOWN)
+          winner = i;
+        else if (fallback < 0 || (result != null && engines[fallback].getResult() == null))
+          fallback = i;
+      }
+      if (winner < 0)
+        winner = fallback;
+      if (winner < 0)
+        throw new LauncherExecutionException(failure);
+    } catch (InterruptedException e) {
+      throw new LauncherExecutionException(e);
+    } finally {
+      scheduler.shutdownNow();
+    }
+    info.selectedProver = info.portfolioProvers[winner];
+    info.goal = info.portfolioGoals[winner];
+    // when every budget is exhausted there is no winner
+    if (engines[winner].getResult() != null)
+      info.portfolioWinner = currentConfiguration.portfolio.get(winner).getName();
+    return engines[winner];
   }
 
   private void updateTestSetDetails(ProofSearchData proofSearchData) {
@@ -744,19 +1384,28 @@ public class Launcher {
     testsetDetails.totalProblemParsingTime += proofSearchData.getParsingProblemTime();
     testsetDetails.totalInitalNodeSetConstructionTime +=
         proofSearchData.getIntialNodeSetConstructionTime();
-
-    switch (proofSearchData.proofSearchResult) {
-    case FAILURE:
-      testsetDetails.unsuccesfulProofSearch++;
-      break;
-    case SUCCESS:
-      testsetDetails.succesfullProofSearch++;
-      break;
-    default:
-      throw new ImplementationError(MSG.IMPLEMENTATION_ERROR.CASE_NOT_IMPLEMENTED);
+    if (proofSearchData.wallTimeStatistics != null) {
+      testsetDetails.totalMedianWallTime += proofSearchData.wallTimeStatistics.getMedian();
+      testsetDetails.totalMedianCpuTime += proofSearchData.cpuTimeStatistics.getMedian();
     }
-    TestStatus testStatus = TestStatus.getTestStatus(proofSearchData);
-    switch (testStatus) {
+    if (proofSearchData.portfolioWinner != null)
+      testsetDetails.portfolioWins.put(proofSearchData.portfolioWinner,
+          testsetDetails.portfolioWins.get(proofSearchData.portfolioWinner) + 1);
+
+    if (proofSearchData.terminationStatus == TerminationStatus.TIMEOUT)
+      testsetDetails.timeoutProofSearch++;
+    else if (proofSearchData.terminationStatus != TerminationStatus.ABORTED)
+      switch (proofSearchData.proofSearchResult) {
+      case FAILURE:
+        testsetDetails.unsuccesfulProofSearch++;
+        break;
+      case SUCCESS:
+        testsetDetails.succesfullProofSearch++;
+        break;
+      default:
+        throw new ImplementationError(MSG.IMPLEMENTATION_ERROR.CASE_NOT_IMPLEMENTED);
+      }
+    switch (proofSearchData.testStatus) {
     case UNCHECKED:
       testsetDetails.uncheckedTests++;
       break;
@@ -766,6 +1415,12 @@ public class Launcher {
     case FAILED:
       testsetDetails.failedTests++;
       break;
+    case TIMEOUT:
+      testsetDetails.timeoutTests++;
+      break;
+    case ABORTED:
+      testsetDetails.abortedTests++;
+      break;
     default:
       throw new ImplementationError(MSG.IMPLEMENTATION_ERROR.CASE_NOT_IMPLEMENTED);
     }
@@ -782,6 +1437,16 @@ public class Launcher {
     default:
       throw new ImplementationError(MSG.IMPLEMENTATION_ERROR.CASE_NOT_IMPLEMENTED);
     }
+
+    // stream the record of the problem
+    if (testsetDetails.resultsSink != null)
+      try {
+        testsetDetails.resultsSink.write(proofSearchData);
+      } catch (IOException e) {
+        LOG.error(MSG.LAUNCHER.ERROR_MSG.RESULTS_FILE_ERROR,
+            currentConfiguration.resultsFile.getAbsolutePath(), e.getMessage());
+        System.exit(1);
+      }
   }
 
   /**
@@ -844,9 +1509,13 @@ public class Launcher {
    *
    */
   public static enum TestStatus {
-    UNCHECKED, PASSED, FAILED;
+    UNCHECKED, PASSED, FAILED, TIMEOUT, ABORTED;
 
     static TestStatus getTestStatus(ProofSearchData info) {
+      if (info.terminationStatus == TerminationStatus.TIMEOUT)
+        return TIMEOUT;
+      if (info.terminationStatus == TerminationStatus.ABORTED)
+        return ABORTED;
       ProvabilityStatus problemStatus = info.problemDescription.getProblemStatus();
       if (problemStatus == ProvabilityStatus.UNKNOWN)
         return UNCHECKED;
@@ -882,7 +1551,7 @@ public class Launcher {
     sb.append("\n");
     sb.append(String.format(MSG.LAUNCHER.PROOF_SEARCH_INFO.TEST_DETAILS,
         proofSearchData.problemDescription.getProblemName(), proofSearchData.problemDescription
-            .getProblemStatus().name(), proofSearchData.proofSearchResult, TestStatus
+            .getProblemStatus().name(), proofSearchData.getResultName(), TestStatus
             .getTestStatus(proofSearchData).name()));
     sb.append("\n");
 
@@ -891,6 +1560,11 @@ public class Launcher {
         proofSearchData.numberOfRestoredBacktrackPoints, //
         proofSearchData.numberOfRestoredBranchPoints));
     sb.append("\n");
+    if (currentConfiguration.transpositionTableCapacity > 0) {
+      sb.append(String.format(MSG.LAUNCHER.PROOF_SEARCH_INFO.TRANSPOSITION_TABLE_STAT_STRING,
+          proofSearchData.transpositionTableHits, proofSearchData.transpositionTableMisses));
+      sb.append("\n");
+    }
 
     long proofSearch_time = proofSearchData.getExecutionTime();
     long buildInitialNodeSet_time = proofSearchData.getIntialNodeSetConstructionTime();
@@ -899,6 +1573,17 @@ public class Launcher {
     sb.append(String.format(MSG.LAUNCHER.PROOF_SEARCH_INFO.TIMINGS_DETAILS, proofSearch_time,
         buildInitialNodeSet_time, problemReading_time));
     sb.append("\n");
+    if (proofSearchData.wallTimeStatistics != null) {
+      sb.append(String.format(MSG.LAUNCHER.PROOF_SEARCH_INFO.WARM_RUNS_DETAILS,
+          proofSearchData.warmupRuns, proofSearchData.wallTimeStatistics.getNumberOfRuns()));
+      sb.append("\n");
+      sb.append(warmRuns_format(MSG.LAUNCHER.PROOF_SEARCH_INFO.WARM_RUNS_TIMES, "Wall-clock",
+          proofSearchData.wallTimeStatistics));
+      sb.append("\n");
+      sb.append(warmRuns_format(MSG.LAUNCHER.PROOF_SEARCH_INFO.WARM_RUNS_TIMES, "CPU",
+          proofSearchData.cpuTimeStatistics));
+      sb.append("\n");
+    }
     String convertedTime = buildTimeString(totalProof_time);
     if (convertedTime == null)
       sb.append(String.format(MSG.LAUNCHER.PROOF_SEARCH_INFO.TOTAL_TIME_1, totalProof_time));
@@ -936,7 +1621,7 @@ public class Launcher {
         // TEST
         proofSearchData.problemDescription.getProblemName(), // problem name
         proofSearchData.problemDescription.getProblemStatus().name(), // problem status
-        proofSearchData.proofSearchResult.name(), // proof search result
+        proofSearchData.getResultName(), // proof search result
         proofSearchData.testStatus.name(), // test result
         // TIMES
         totalProof_time, // total proof-time
@@ -956,26 +1641,35 @@ public class Launcher {
 
   private void timing_f3time_generateString(ProofSearchData proofSearchData) {
     String result = null;
-    switch (proofSearchData.selectedProver.statusFor(proofSearchData.proofSearchResult)) {
-    case PROVABLE:
-      result = "provable";
-      break;
-    case UNPROVABLE:
-      result = "uprovable";
-      break;
-    case UNKNOWN:
-      result = "unknown";
-      break;
-    default:
-      throw new ImplementationError(MSG.IMPLEMENTATION_ERROR.CASE_NOT_IMPLEMENTED);
+    if (proofSearchData.terminationStatus == TerminationStatus.TIMEOUT)
+      result = "timeout";
+    else
+      switch (proofSearchData.selectedProver.statusFor(proofSearchData.proofSearchResult)) {
+      case PROVABLE:
+        result = "provable";
+        break;
+      case UNPROVABLE:
+        result = "uprovable";
+        break;
+      case UNKNOWN:
+        result = "unknown";
+        break;
+      default:
+        throw new ImplementationError(MSG.IMPLEMENTATION_ERROR.CASE_NOT_IMPLEMENTED);
 
-    }
+      }
 
     String str =
         buildF3TimeString(proofSearchData.getParsingProblemTime()
             + proofSearchData.getExecutionTime()
             + proofSearchData.getIntialNodeSetConstructionTime())
             + "\n" + result;
+    if (proofSearchData.wallTimeStatistics != null)
+      str +=
+          "\n" + warmRuns_format(MSG.LAUNCHER.TIME_STR.F3_WARM_RUNS_STRING, "wall",
+              proofSearchData.wallTimeStatistics) + "\n"
+              + warmRuns_format(MSG.LAUNCHER.TIME_STR.F3_WARM_RUNS_STRING, "cpu",
+                  proofSearchData.cpuTimeStatistics);
 
     LOG.info(str);
   }
@@ -991,7 +1685,7 @@ public class Launcher {
         // TEST
         proofSearchData.problemDescription.getProblemName(), // problem name
         proofSearchData.problemDescription.getProblemStatus().name(), // problem status
-        proofSearchData.proofSearchResult.name(), // proof search result
+        proofSearchData.getResultName(), // proof search result
         proofSearchData.testStatus.name(), // test result
         // TIMES
         buildSecondBasedString(totalProof_time),// total proof-time
@@ -1003,6 +1697,40 @@ public class Launcher {
         proofSearchData.numberOfRestoredBacktrackPoints, // restored backtrack points
         proofSearchData.numberOfRestoredBranchPoints // restored branch points
         ));
+    if (proofSearchData.wallTimeStatistics != null) {
+      String[] wall = warmRuns_timeStrings(proofSearchData.wallTimeStatistics);
+      String[] cpu = warmRuns_timeStrings(proofSearchData.cpuTimeStatistics);
+      LOG.info(String.format(MSG.LAUNCHER.TIME_STR.JTABWB_WARM_RUNS_STRING, //
+          proofSearchData.problemDescription.getProblemName(), // problem name
+          proofSearchData.warmupRuns, // warm-up runs
+          proofSearchData.wallTimeStatistics.getNumberOfRuns(), // measured runs
+          wall[0], wall[1], wall[2], wall[3], // wall-clock min, median, p90, max
+          cpu[0], cpu[1], cpu[2], cpu[3] // CPU min, median, p90, max
+          ));
+    }
+  }
+
+  /*
+   * Returns the min, the median, the 90th percentile and the max of the
+   * specified times as strings of seconds with microseconds.
+   */
+  private String[] warmRuns_timeStrings(RunTimeStatistics statistics) {
+    return new String[] { buildMicroSecondBasedString(statistics.getMin()),
+        buildMicroSecondBasedString(statistics.getMedian()),
+        buildMicroSecondBasedString(statistics.getP90()),
+        buildMicroSecondBasedString(statistics.getMax()) };
+  }
+
+  private String warmRuns_format(String format, String label, RunTimeStatistics statistics) {
+    String[] times = warmRuns_timeStrings(statistics);
+    return String.format(format, label, times[0], times[1], times[2], times[3]);
+  }
+
+  private String buildMicroSecondBasedString(long nanoSeconds) {
+    long sec = TimeUnit.NANOSECONDS.toSeconds(nanoSeconds);
+    long mic = TimeUnit.NANOSECONDS.toMicros(nanoSeconds) % 1000000;
+
+    return String.format(MSG.LAUNCHER.TIME_STR.WARM_TIME_STRING, sec, mic);
   }
 
   private String buildSecondBasedString(long miliSeconds) {
@@ -1084,9 +1812,10 @@ public class Launcher {
     long problemReading_time = proofSearchData.getParsingProblemTime();
     long totalProof_time = buildInitialNodeSet_time + proofSearch_time;
     return String.format(MSG.LAUNCHER.TESTSET_INFO.SINGLE_OUTPUT_RESULT, //
-        proofSearchData.proofSearchResult.name(), //
+        proofSearchData.getResultName(), //
         proofSearchData.testStatus.name(), // test result
-        proofSearchData.testStatus == TestStatus.FAILED ? "<<==================" : "",
+        proofSearchData.testStatus == TestStatus.FAILED
+            || proofSearchData.testStatus == TestStatus.ABORTED ? "<<==================" : "",
         // 2nd LINE PROOF-SEARCH DETAILS
         proofSearchData.iterationCounter, // iterations,
         proofSearchData.max_stack_size, // max stack size,
@@ -1104,10 +1833,26 @@ public class Launcher {
   private void testset_printSingleTestInfo(ProofSearchData proofSearchData) {
     // print result on output
     LOG.info(testset_buildConciseTimingDescription(proofSearchData));
+    if (proofSearchData.portfolioWinner != null)
+      LOG.info(MSG.LAUNCHER.TESTSET_INFO.PORTFOLIO_WINNER, proofSearchData.portfolioWinner);
+    String[] wall = null;
+    String[] cpu = null;
+    if (proofSearchData.wallTimeStatistics != null) {
+      wall = warmRuns_timeStrings(proofSearchData.wallTimeStatistics);
+      cpu = warmRuns_timeStrings(proofSearchData.cpuTimeStatistics);
+      LOG.info(MSG.LAUNCHER.TESTSET_INFO.SINGLE_OUTPUT_WARM_RUNS, proofSearchData.warmupRuns,
+          proofSearchData.wallTimeStatistics.getNumberOfRuns(), wall[0], wall[1], wall[2],
+          wall[3], cpu[0], cpu[1], cpu[2], cpu[3]);
+    }
 
     // print result on tmp file 
     String s = testset_buildLogFileSingleTestDescription(proofSearchData);
     testsetDetails.pw4TempFile.println(s);
+    if (wall != null)
+      testsetDetails.pw4TempFile.println(String.format(
+          MSG.LAUNCHER.TESTSET_INFO.TESTSET_LOGFILE_WARM_RUNS, proofSearchData.warmupRuns,
+          proofSearchData.wallTimeStatistics.getNumberOfRuns(), wall[0], wall[1], wall[2],
+          wall[3], cpu[0], cpu[1], cpu[2], cpu[3]));
   }
 
   /**
@@ -1118,6 +1863,14 @@ public class Launcher {
     // close the temp file
     testsetDetails.pw4TempFile.flush();
     testsetDetails.pw4TempFile.close();
+    if (testsetDetails.resultsSink != null)
+      try {
+        testsetDetails.resultsSink.close();
+      } catch (IOException e) {
+        LOG.error(MSG.LAUNCHER.ERROR_MSG.RESULTS_FILE_ERROR,
+            currentConfiguration.resultsFile.getAbsolutePath(), e.getMessage());
+        System.exit(1);
+      }
 
     // build the log file name
     String logFileName =
@@ -1157,7 +1910,8 @@ public class Launcher {
       detailsStr.append("\n");
       detailsStr.append(String
           .format(MSG.LAUNCHER.TESTSET_INFO.TESTSET_TEST, testsetDetails.failedTests,
-              testsetDetails.successfulTests, testsetDetails.uncheckedTests));
+              testsetDetails.successfulTests, testsetDetails.uncheckedTests,
+              testsetDetails.timeoutTests));
       detailsStr.append("\n");
 
       detailsStr.append(String.format(MSG.LAUNCHER.TESTSET_INFO.TIMINGS_DETAILS,
@@ -1165,6 +1919,35 @@ public class Launcher {
           buildSecondBasedString(testsetDetails.totalInitalNodeSetConstructionTime), //
           buildSecondBasedString(testsetDetails.totalProblemParsingTime)));
       detailsStr.append("\n");
+      if (testsetDetails.abortedTests > 0) {
+        detailsStr.append(String.format(MSG.LAUNCHER.TESTSET_INFO.TESTSET_ABORTED,
+            testsetDetails.abortedTests));
+        detailsStr.append("\n");
+      }
+      if (testsetDetails.portfolioWins != null) {
+        StringBuffer wins = new StringBuffer();
+        for (Map.Entry<String, Integer> entry : testsetDetails.portfolioWins.entrySet())
+          wins.append(wins.length() == 0 ? "" : ", ").append(
+              String.format(MSG.LAUNCHER.TESTSET_INFO.PORTFOLIO_MEMBER_WINS, entry.getKey(),
+                  entry.getValue()));
+        detailsStr.append(String.format(MSG.LAUNCHER.TESTSET_INFO.PORTFOLIO_DETAILS,
+            wins.toString()));
+        detailsStr.append("\n");
+      }
+      if (currentConfiguration.isWarmRunMode()) {
+        detailsStr.append(String.format(MSG.LAUNCHER.TESTSET_INFO.WARM_RUNS_DETAILS,
+            currentConfiguration.warmupRuns, currentConfiguration.measuredRuns,
+            buildMicroSecondBasedString(testsetDetails.totalMedianWallTime),
+            buildMicroSecondBasedString(testsetDetails.totalMedianCpuTime)));
+        detailsStr.append("\n");
+      }
+      if (testsetDetails.makespan >= 0) {
+        detailsStr.append(String.format(MSG.LAUNCHER.TESTSET_INFO.PARALLEL_DETAILS,
+            testsetDetails.jobs, currentConfiguration.testsetScheduler.getPolicy()
+                .name(), buildSecondBasedString(testsetDetails.makespan),
+            buildSecondBasedString(testsetDetails.totalCpuTime)));
+        detailsStr.append("\n");
+      }
 
       { // PROOF TIME STRING
         long totalProofTime =
@@ -1336,6 +2119,22 @@ public class Launcher {
     }
   }
 
+  /*
+   * The initial node set builder and the configurator used by a thread to
+   * read, build and prove its problems.
+   */
+  static class Pipeline {
+
+    final _InitialGoalBuilder initialNodeSetBuilder;
+    final _SingleExecutionConfigurator singleExecutionConfigurator;
+
+    Pipeline(_InitialGoalBuilder initialNodeSetBuilder,
+        _SingleExecutionConfigurator singleExecutionConfigurator) {
+      this.initialNodeSetBuilder = initialNodeSetBuilder;
+      this.singleExecutionConfigurator = singleExecutionConfigurator;
+    }
+  }
+
   static class TestsetDetails {
 
     ProverName proverName;
@@ -1354,9 +2153,19 @@ public class Launcher {
     int successfulTests = 0;
     int failedTests = 0;
     int uncheckedTests = 0;
+    int timeoutTests = 0;
+    int abortedTests = 0; // defined for testsets executed by worker processes
+    int timeoutProofSearch = 0;
     long totalProofSearchTime = 0;
     long totalProblemParsingTime = 0;
     long totalInitalNodeSetConstructionTime = 0;
+    int jobs = 1;
+    long makespan = -1; // defined for parallel testsets only
+    long totalCpuTime = 0;
+    Map<String, Integer> portfolioWins = null; // the wins of the members of the portfolio
+    long totalMedianWallTime = 0; // nanoseconds, defined in warm-run mode
+    long totalMedianCpuTime = 0;
+    ResultsSink resultsSink = null; // the sink of the results file, if any
   }
 
   /**
@@ -1387,9 +2196,16 @@ public class Launcher {
     _InitialGoalBuilder initialNodeSetBuilder = null;
     _ProblemReader selectedReader = null;
     _SingleExecutionConfigurator singleExecutionConfigurator;
+    _PipelineFactory pipelineFactory = null;
     ConfiguredTheoremProver selectedProver = null;
+    List<ConfiguredTheoremProver> portfolio = null;
     ProverName selectedProverName = null;
     ExecutionMode engineExecutionMode = ExecutionMode.ENGINE_PLAIN;
+    ParallelSearchOptions parallelSearchOptions = new ParallelSearchOptions();
+    SearchBudget searchBudget = null;
+    int transpositionTableCapacity = 0;
+    TranspositionTable.EvictionPolicy transpositionTablePolicy = TranspositionTable.EvictionPolicy.LRU;
+    ProblemCache problemCache = null;
     String logDirAbsolutePath = DEFAULT_LOG_DIR_NAME;
     String latexCtreesFileNamePrefix = Launcher.DEFAULT_LATEX_CTREE_FILE_NAME_PREFIX;
     String latexCtreesFileNameSuffix = Launcher.DEFAULT_LATEX_CTREE_FILE_NAME_SUFFIX;
@@ -1403,6 +2219,17 @@ public class Launcher {
     String logTimeFileNamePrefix = Launcher.DEFAULT_LOG_TIME_FILE_NAME_PREFIX;
     String logTimeFileNameSuffix = Launcher.DEFAULT_LOG_TIME_FILE_NAME_SUFFIX;
     String testsetName = null;
+    int testsetJobs = 1;
+    int testsetWorkers = 0;
+    long workerHardTimeout = 0;
+    boolean workerMode = false;
+    boolean serverMode = false;
+    int serverPort = -1; // the server reads the standard input if negative
+    int warmupRuns = 0;
+    int measuredRuns = 1;
+    File resultsFile = null;
+    int resultsSyncInterval = 10;
+    TestsetScheduler testsetScheduler = new TestsetScheduler(TestsetScheduler.Policy.FILE_SIZE);
     String testsetFilePrefix = Launcher.DEFAULT_TESTSET_FILE_PREFIX;
     String testsetFileSuffix = Launcher.DEFAULT_TESTSET_FILE_SUFFIX;
     String traceFileNamePrefix = Launcher.DEFAULT_TRACE_FILE_NAME_PREFIX;
@@ -1418,6 +2245,16 @@ public class Launcher {
       return this.engineExecutionMode == ExecutionMode.ENGINE_TRACE;
     }
 
+    /**
+     * Returns true if the parallel or the or-parallel execution mode is set.
+     * 
+     * @return true if the proof-search is executed by the threads of a pool
+     */
+    public boolean isParallelExecutionMode() {
+      return this.engineExecutionMode == ExecutionMode.ENGINE_PARALLEL
+          || this.engineExecutionMode == ExecutionMode.ENGINE_OR_PARALLEL;
+    }
+
     /**
      * Returns the list of atomic options and arguments parsed according to the
      * specified options.
@@ -1442,6 +2279,14 @@ public class Launcher {
       return this.selectedProver;
     }
 
+    /*
+     * Returns true if every proof-search is executed more than once to measure
+     * the steady-state times.
+     */
+    boolean isWarmRunMode() {
+      return warmupRuns > 0 || measuredRuns > 1;
+    }
+
     public void checkConfiguration() {
       if (verboseExecutionMode && this.engineExecutionMode == ExecutionMode.ENGINE_TRACE)
         throw new LauncherConfigurationException(String.format(
@@ -67,6 +67,9 @@ class MSG {
 
       static final String NO_INPUT_IS_SPECIFIED = "No input specified!!";
       static final String NO_SUCH_FILE = "No such file: %s";
+      static final String NO_PIPELINE_FACTORY =
+          "The launcher does not define a pipeline factory, the testset cannot be executed in parallel.";
+      static final String WORKER_ABORTED = "Worker process failed on problem [%s]: %s";
 
       static final String PARSER_EXCEPTION = "PARSER ERROR... %s";
       static final String PROBLEM_WRONG_FORMAT = "PROBLEM DESCRIPTION - wrong format: %s";
@@ -75,6 +78,7 @@ class MSG {
           "Testset log file [%s] cannot be created: %s";
       static final String TESTSET_TMP_FILE_CANNOT_BE_CREATEd =
           "Testset temporary file cannot be created: %s";
+      static final String RESULTS_FILE_ERROR = "Results file [%s] cannot be written: %s";
 
     }
 
@@ -93,12 +97,17 @@ class MSG {
       static final String READER_DETAILS = "** Reader [%s]";
       static final String STAT_STRING =
           "** Generated nodes [%d], restored backtrack-points [%d], restored branch-points [%d]";
+      static final String TRANSPOSITION_TABLE_STAT_STRING =
+          "** Transposition table hits [%d], misses [%d]";
       static final String TESTSET_EXEC_CONFIG_INFO = "--Reader [%s], Prover [%s]\n";
       static final String TESTSET_PROBLEM_INFO = "** [%s], status [%s],";
       static final String TOTAL_TIME_1 = "** Proof time (PS + NSC + PP): (ms) [%d]";
       static final String TOTAL_TIME_2 = "** Proof time (PS + NSC + PP): (ms) [%d] (hh:mm:ss + ms) [%s]";
       static final String TIMINGS_DETAILS = "** Timings (ms): PS (proof-search) [%d]," //
           + " NSC (initial node set) [%d], PP (problem parsing) [%d]";
+      static final String WARM_RUNS_DETAILS = "** Warm runs: warm-up [%d], measured [%d]";
+      static final String WARM_RUNS_TIMES =
+          "** %s times (sec.): min [%s], median [%s], p90 [%s], max [%s]";
     }
 
     static class INVOCATION_EXCEPTIONS {
@@ -154,15 +163,18 @@ class MSG {
               + "**   test: problem, status, proof-search result, test result;\n"
               + "**   times (ms): proof-time (PS + NSC), PS (proof-search), NSC (initial node set construction), PP (problem parsing);\n" //
               + "**   details: iterations, generated nodes, max stack size, visited branches, failed branches;\n" //
-              + "**   problem source file";
+              + "**   problem source file;\n" //
+              + "**   in warm-run mode, a second line: warm-up runs, measured runs; wall-clock and CPU times (sec.) of the measured runs: min, median, p90, max";
       static final String TESTSET_LOGFILE_RESULT =
           "test: %s, %s, %s, %s; times (ms): %d, %d, %d, %d; details: %d; %d; %d; %d; %d; %s";
+      static final String TESTSET_LOGFILE_WARM_RUNS =
+          "warm runs: %d, %d; wall (sec): %s, %s, %s, %s; cpu (sec): %s, %s, %s, %s";
       static final String TESTSET_LOGFILE_PROVER_NAME = "** Prover: %s; version=%s; variant=(%s)";
       static final String TESTSET_LOGFILE_TESTSETNAME = "** Testset: %s";
       static final String TESTSET_PROBLEMS =
           "** Problems: total [%d], provable [%d], unprovable [%d], unknown status [%d]";
       static final String TESTSET_TEST =
-          "** Test report: failed [%d], successful [%d], unchecked [%d]";
+          "** Test report: failed [%d], successful [%d], unchecked [%d], timeout [%d]";
       static final String TESTSET_PROOF_TIME_1 = "** Total proof time (PS + NSC) (sec): [%s]";
       static final String TESTSET_PROOF_TIME_2 =
           "** Total proof time (PS + NSC) (sec): [%s] (hh:mm:ss + ms) [%s]";
@@ -171,6 +183,16 @@ class MSG {
           "** Total proof time (PS + NSC + PP) (sec): [%s] (hh:mm:ss + ms) [%s]";
       static final String TIMINGS_DETAILS = "** Total timings (sec): PS (proof-search) [%s]," //
           + " NSC (initial node set) [%s], PP (problem parsing) [%s]";
+      static final String PARALLEL_DETAILS = "** Parallel execution: jobs [%d], scheduling [%s]," //
+          + " makespan (sec) [%s], total CPU time (sec) [%s]";
+      static final String SINGLE_OUTPUT_WARM_RUNS = INDENT
+          + "Warm runs [%d + %d], times (sec.) min/median/p90/max: wall [%s/%s/%s/%s], CPU [%s/%s/%s/%s]";
+      static final String WARM_RUNS_DETAILS =
+          "** Warm runs: warm-up [%d], measured [%d], sum of the medians (sec): wall [%s], CPU [%s]";
+      static final String TESTSET_ABORTED = "** Aborted tests (failed worker processes): [%d]";
+      static final String PORTFOLIO_WINNER = INDENT + "Portfolio winner [%s]";
+      static final String PORTFOLIO_DETAILS = "** Portfolio wins: %s";
+      static final String PORTFOLIO_MEMBER_WINS = "%s [%d]";
       static final String TESTSET_LOGFILE_SEPARATOR =
           "****************************************************************";
       static final String TESTSET_LOGFILE_ROW_SEPARATOR =
@@ -188,6 +210,18 @@ class MSG {
       static final String JTABWB_DETAILS_STRING = "%s; %s; %s; %s; %s; %s; %s; %s; %d; %d; %d";
       static final String JTABWB_TIME_STRING = "%d.%03d";
       static final String F3_TIME_STRING = "%d.%03d seconds";
+      // warm-run times (min, median, p90, max) are printed with microseconds
+      static final String JTABWB_WARM_RUNS_STRING = "%s; %d; %d; %s; %s; %s; %s; %s; %s; %s; %s";
+      static final String F3_WARM_RUNS_STRING = "%s %s %s %s %s seconds";
+      static final String WARM_TIME_STRING = "%d.%06d";
+    }
+
+    static class SERVER {
+
+      static final String LISTENING = "Prover server listening on port [%d] of the loopback interface.";
+      static final String CONNECTION_ERROR = "Prover server connection error: %s";
+      static final String JSON_SYNTAX_ERROR = "JSON syntax error: expected %s at position %d.";
+      static final String MISSING_MEMBER = "The request has not the string member [%s].";
     }
 
   }
@@ -221,6 +255,17 @@ class MSG {
       static final String NO_READER_WITH_NAME =
           "There is not a problem description reader with name [%s].";
       static final String NO_PROVER_WITH_NAME = "There is not a prover with name [%s].";
+      static final String NOT_AN_INTEGER = "Value [%s] of option [%s] is not an integer.";
+      static final String NOT_A_POSITIVE_INTEGER =
+          "Value [%d] of option [%s] is not a positive integer.";
+      static final String NOT_A_NON_NEGATIVE_INTEGER =
+          "Value [%d] of option [%s] is not a non-negative integer.";
+      static final String NO_EVICTION_POLICY_WITH_NAME =
+          "No eviction policy with name [%s], available policies are [%s].";
+      static final String NO_SCHEDULING_POLICY_WITH_NAME =
+          "No scheduling policy with name [%s], available policies are [%s].";
+      static final String PROBLEM_CACHE_ERROR = "Problem cache [%s] cannot be used: %s";
+      static final String NOT_A_PORT = "Value [%d] of option [%s] is not a port number.";
     }
 
     static class OPTIONS_DESCRIPTIONS {
@@ -255,6 +300,54 @@ class MSG {
       static final String TESTSET =
           "Execute a test on the problems specified on the command line. test-name is used to name the log files.";
       static final String LOGDIR = "Defines the directory used to save log files.";
+      static final String PARALLEL =
+          "Treat in parallel the conclusions of the rules with more than one subgoal.";
+      static final String OR_PARALLEL =
+          "Treat in parallel the conclusions of the rules with more than one subgoal and race the alternatives of backtrack-points.";
+      static final String IN_PLACE =
+          "Apply the rules by modifying their premise and undo the modifications on backtracking.";
+      static final String OR_PARALLEL_DEPTH =
+          "Race the alternatives of backtrack-points only above the specified depth.";
+      static final String MAX_ALTERNATIVES =
+          "Maximum number of alternatives of a backtrack-point raced at once.";
+      static final String TIMEOUT =
+          "Stop the proof-search when the specified wall-clock time (in milliseconds) is exceeded.";
+      static final String CPU_TIMEOUT =
+          "Stop the proof-search when the specified CPU time (in milliseconds) is exceeded.";
+      static final String MAX_ITERATIONS =
+          "Stop the proof-search when the specified number of iterations is exceeded.";
+      static final String MAX_STACK_SIZE =
+          "Stop the proof-search when the size of the stack exceeds the specified value.";
+      static final String TRANSPOSITION_TABLE =
+          "Record the status of decided goals in a transposition table with the specified capacity.";
+      static final String TT_EVICTION =
+          "Eviction policy of the transposition table (LRU or CLOCK, default LRU).";
+      static final String JOBS =
+          "Number of threads solving in parallel the problems of a testset or the requests of the server (default 1).";
+      static final String SCHEDULE =
+          "Order of the problems of a testset solved in parallel: fifo, file-size (largest files first, default), formula-size (largest formulas first, after reading all the problems), history (longest times in the testset logs first).";
+      static final String WORKERS =
+          "Number of worker processes solving in parallel the problems of a testset; a worker that fails is restarted.";
+      static final String HARD_TIMEOUT =
+          "Time (in milliseconds) after which a worker process that has not solved its problem is killed and restarted.";
+      static final String PORTFOLIO =
+          "Run concurrently the specified provers (comma-separated names or all; available: %s) and take the first definitive answer.";
+      static final String WARMUP =
+          "Number of executions of the proof-search of every problem preceding the measured ones (default 0); the initial goal is rebuilt for every execution.";
+      static final String RUNS =
+          "Number of measured executions of the proof-search of every problem (default 1); min, median, 90th percentile and max of their wall-clock and CPU times are reported (not allowed in the parallel modes, where the CPU time of the proof-search is spent by the threads of a pool).";
+      static final String RESULTS =
+          "Append a record for every problem of a testset to the specified file as soon as the problem is solved, in CSV format if the file name ends with .csv and in JSON Lines format otherwise.";
+      static final String RESULTS_SYNC =
+          "Number of records after which the results file is synchronized with the storage device (default 10).";
+      static final String SERVER =
+          "Keep the prover resident and solve the JSON requests read from the standard input, one for every line, writing a JSON response for every request.";
+      static final String PORT =
+          "Read the requests of the server from the connections to the specified port of the loopback interface (0 for any free port).";
+      static final String WORKER =
+          "Solve the problems whose file names are read from the standard input (used by the worker processes).";
+      static final String PROBLEM_CACHE =
+          "Store the problems read in the specified directory and load the problems already stored instead of parsing them.";
     }
 
   }
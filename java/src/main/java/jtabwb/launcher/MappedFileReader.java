@@ -0,0 +1,86 @@
+/*******************************************************************************
+ * Copyright (C) 2013, 2016 Mauro Ferrari This program is free software; you can
+ * redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation; either version 3 of the
+ * License, or (at your option) any later version. This program is distributed
+ * in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details. You should have received
+ * a copy of the GNU General Public License along with this program; if not, see
+ * <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+package jtabwb.launcher;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.MalformedInputException;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A reader of an ASCII file mapped in memory. The characters are decoded
+ * directly from the mapped buffer, hence reading the file does not require a
+ * copy of its content in the heap; files larger than 2GB are mapped one region
+ * at a time. A byte which is not an ASCII character raises a
+ * {@link MalformedInputException}.
+ *
+ * @author Mauro Ferrari
+ */
+class MappedFileReader extends Reader {
+
+  private static final long REGION_SIZE = Integer.MAX_VALUE;
+
+  private final FileChannel channel;
+  private final long size;
+  private long regionStart;
+  private MappedByteBuffer region;
+
+  /**
+   * Builds a reader of the specified file.
+   *
+   * @param file the file to read.
+   * @throws IOException if an input/output error occurs mapping the file.
+   */
+  MappedFileReader(File file) throws IOException {
+    this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+    this.size = channel.size();
+    this.regionStart = 0;
+    this.region = map(0);
+  }
+
+  @Override
+  public int read(char[] cbuf, int off, int len) throws IOException {
+    if (region == null)
+      throw new IOException("Stream closed");
+    if (len == 0)
+      return 0;
+    if (!region.hasRemaining()) {
+      long next = regionStart + region.capacity();
+      if (next >= size)
+        return -1;
+      regionStart = next;
+      region = map(next);
+    }
+    int n = Math.min(len, region.remaining());
+    for (int i = 0; i < n; i++) {
+      byte b = region.get();
+      if (b < 0)
+        throw new MalformedInputException(1);
+      cbuf[off + i] = (char) b;
+    }
+    return n;
+  }
+
+  @Override
+  public void close() throws IOException {
+    region = null;
+    channel.close();
+  }
+
+  private MappedByteBuffer map(long start) throws IOException {
+    return channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(REGION_SIZE, size - start));
+  }
+
+}
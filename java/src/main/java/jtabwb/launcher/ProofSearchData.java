@@ -12,6 +12,7 @@
 package jtabwb.launcher;
 
 import jtabwb.engine.ProofSearchResult;
+import jtabwb.engine.SearchBudget;
 import jtabwb.engine.Trace;
 import jtabwb.engine._AbstractGoal;
 import jtabwb.engine._Prover;
@@ -37,12 +38,19 @@ public class ProofSearchData {
      */
     REGULAR, //
     /**
-     * The proof-search has been terminated because of a timeout.
+     * The proof-search has been terminated because of a timeout, that is one of
+     * the limits of the budget of the proof-search has been exceeded.
      */
-    TIMEOUT;
+    TIMEOUT, //
+    /**
+     * The proof-search has been aborted because the worker process executing it
+     * terminated abnormally, for instance because it ran out of memory.
+     */
+    ABORTED;
   }
 
-  TerminationStatus terminationStauts = null;
+  TerminationStatus terminationStatus = null;
+  SearchBudget.Limit exhaustedLimit = null;
   ProofSearchResult proofSearchResult;
   ProblemDescription problemDescription;
   _AbstractGoal goal;
@@ -53,6 +61,8 @@ public class ProofSearchData {
   long numberOfGeneratedNodes;
   long numberOfRestoredBacktrackPoints;
   long numberOfRestoredBranchPoints;
+  long transpositionTableHits;
+  long transpositionTableMisses;
   long execution_start_time = 0;
   long execution_end_time = -1;
   long parsing_problem_start_time = 0;
@@ -60,6 +70,14 @@ public class ProofSearchData {
   long initial_node_set_construction_start_time = 0;
   long initial_node_set_construction_end_time = -1;
   Trace trace;
+  String abortCause = null;
+  _Prover[] portfolioProvers = null; // the members of the portfolio
+  _AbstractGoal[] portfolioGoals = null;
+  String portfolioWinner = null;
+  int warmupRuns = 0;
+  RunTimeStatistics wallTimeStatistics = null; // defined in warm-run mode
+  RunTimeStatistics cpuTimeStatistics = null;
+  Launcher.Pipeline pipeline = null; // the pipeline of a problem prepared by another job
 
   ProofSearchData() {
   }
@@ -83,6 +101,17 @@ public class ProofSearchData {
     return selectedProver;
   }
 
+  /**
+   * Returns the name of the member of the portfolio whose proof-search
+   * determined the result or <code>null</code> if the proof-search has not
+   * been performed by a portfolio.
+   * 
+   * @return the name of the winner of the portfolio or <code>null</code>.
+   */
+  public String getPortfolioWinner() {
+    return portfolioWinner;
+  }
+
   public ProblemDescription getProblemDescription() {
     return problemDescription;
   }
@@ -97,10 +126,46 @@ public class ProofSearchData {
   }
 
   /**
-   * @return the terminationStauts
+   * Returns how the proof-search terminated.
+   * 
+   * @return the termination status of the proof-search.
+   */
+  public TerminationStatus getTerminationStatus() {
+    return this.terminationStatus;
+  }
+
+  /**
+   * @return the terminationStatus
+   * @deprecated use {@link #getTerminationStatus()}.
    */
+  @Deprecated
   public TerminationStatus getTerminationStauts() {
-    return this.terminationStauts;
+    return this.terminationStatus;
+  }
+
+  /**
+   * Returns the limit of the budget exceeded by the proof-search or
+   * <code>null</code> if the proof-search terminated regularly.
+   * 
+   * @return the exceeded limit or <code>null</code>.
+   */
+  public SearchBudget.Limit getExhaustedLimit() {
+    return this.exhaustedLimit;
+  }
+
+  /**
+   * Returns the name of the result of the proof-search; if the proof-search has
+   * been stopped because of a timeout the name describes the exceeded limit.
+   * 
+   * @return the name of the result of the proof-search.
+   */
+  public String getResultName() {
+    if (this.terminationStatus == TerminationStatus.TIMEOUT)
+      return TerminationStatus.TIMEOUT.name() + "/" + exhaustedLimit.name();
+    else if (this.terminationStatus == TerminationStatus.ABORTED)
+      return TerminationStatus.ABORTED.name();
+    else
+      return proofSearchResult.name();
   }
 
   /**
@@ -151,6 +216,26 @@ public class ProofSearchData {
     return this.numberOfRestoredBranchPoints;
   }
 
+  /**
+   * Returns the number of goals whose status has been found in the
+   * transposition table during the proof-search.
+   * 
+   * @return the number of transposition table hits.
+   */
+  public long getTranspositionTableHits() {
+    return this.transpositionTableHits;
+  }
+
+  /**
+   * Returns the number of goals searched in the transposition table and not
+   * found during the proof-search.
+   * 
+   * @return the number of transposition table misses.
+   */
+  public long getTranspositionTableMisses() {
+    return this.transpositionTableMisses;
+  }
+
   /**
    * Returns the time required by the proof-search in milliseconds.
    * 
@@ -199,6 +284,50 @@ public class ProofSearchData {
     return this.execution_end_time;
   }
 
+  /**
+   * Returns the reason why the proof-search has been aborted or
+   * <code>null</code> if the proof-search has not been aborted or the reason is
+   * unknown.
+   * 
+   * @return the reason why the proof-search has been aborted or
+   * <code>null</code>.
+   */
+  public String getAbortCause() {
+    return this.abortCause;
+  }
+
+  /**
+   * Returns the number of executions of the proof-search performed before the
+   * measured ones in warm-run mode.
+   * 
+   * @return the number of warm-up executions of the proof-search.
+   */
+  public int getWarmupRuns() {
+    return this.warmupRuns;
+  }
+
+  /**
+   * Returns the distribution of the wall-clock times of the measured executions
+   * of the proof-search or <code>null</code> if the launcher is not in warm-run
+   * mode; the data of this object describe the last measured execution.
+   * 
+   * @return the wall-clock times of the measured executions or
+   * <code>null</code>.
+   */
+  public RunTimeStatistics getWallTimeStatistics() {
+    return this.wallTimeStatistics;
+  }
+
+  /**
+   * Returns the distribution of the CPU times of the measured executions of the
+   * proof-search or <code>null</code> if the launcher is not in warm-run mode.
+   * 
+   * @return the CPU times of the measured executions or <code>null</code>.
+   */
+  public RunTimeStatistics getCpuTimeStatistics() {
+    return this.cpuTimeStatistics;
+  }
+
   /**
    * Returns the trace of the proof-search if the trace option was set or
    * <code>null</code> otherwise.
@@ -0,0 +1,292 @@
+/*******************************************************************************
+ * Copyright (C) 2013, 2016 Mauro Ferrari
+ * 
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+package jtabwb.launcher;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import jtabwb.engine.EngineException;
+import jtabwb.engine.SearchBudget;
+import jtabwb.launcher.Launcher.LaunchConfiguration;
+import jtabwb.launcher.ProofSearchData.TerminationStatus;
+
+/**
+ * A prover server: the launcher stays resident and solves the requests read
+ * from the standard input or from the connections to a TCP port of the
+ * loopback interface, so that the JVM start-up and the warm-up of the prover
+ * are paid once. The protocol is line-delimited JSON: every line of the input
+ * is a request, that is an object with the following members:
+ * <ul>
+ * <li><code>formula</code> (required): the text of the problem;</li>
+ * <li><code>id</code>: a value copied in the response;</li>
+ * <li><code>reader</code>: the name of the problem reader, by default the text
+ * is a formula read by the standard input reader;</li>
+ * <li><code>prover</code>: the name of the prover, by default the prover
+ * selected on the command line;</li>
+ * <li><code>timeout</code>, <code>cpu-timeout</code>,
+ * <code>max-iterations</code>, <code>max-stack-size</code>: the limits of the
+ * search budget, by default the limits defined on the command line.</li>
+ * </ul>
+ * Requests are solved concurrently by a pool of threads and every response is
+ * written on a line as soon as the request is solved; a response is an object
+ * with the members <code>id</code>, <code>problem</code>, <code>status</code>,
+ * <code>result</code>, <code>provability</code>, <code>test</code>,
+ * <code>iterations</code>, <code>nodes</code>, <code>parsing-ms</code>,
+ * <code>nsc-ms</code>, <code>ps-ms</code> and, if a portfolio is used,
+ * <code>winner</code>, or with the members
+ * <code>id</code> and <code>error</code> if the request cannot be solved.
+ * 
+ * @author Mauro Ferrari
+ */
+final class ProverServer {
+
+  static final String ID = "id";
+  static final String FORMULA = "formula";
+  static final String READER = "reader";
+  static final String PROVER = "prover";
+  static final String TIMEOUT = "timeout";
+  static final String CPU_TIMEOUT = "cpu-timeout";
+  static final String MAX_ITERATIONS = "max-iterations";
+  static final String MAX_STACK_SIZE = "max-stack-size";
+  // the number of requests waiting for a thread, for every thread of the pool
+  private static final int QUEUED_REQUESTS_PER_THREAD = 4;
+
+  private final Launcher launcher;
+  private final LaunchConfiguration configuration;
+  private final ThreadPoolExecutor pool;
+  private final Log LOG;
+
+  /**
+   * Builds a server solving the requests by the specified launcher with the
+   * specified number of threads.
+   * 
+   * @param launcher the launcher solving the requests.
+   * @param threads the number of threads of the pool.
+   */
+  ProverServer(Launcher launcher, int threads) {
+    this.launcher = launcher;
+    this.configuration = launcher.getCurrentLauncherConfiguration();
+    this.LOG = launcher.LOG;
+    // when the queue is full the connection waits, so that the pending
+    // requests are bounded
+    this.pool =
+        new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<Runnable>(QUEUED_REQUESTS_PER_THREAD * threads),
+            new RejectedExecutionHandler() {
+
+              @Override
+              public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
+                try {
+                  executor.getQueue().put(r);
+                } catch (InterruptedException e) {
+                  Thread.currentThread().interrupt();
+                  throw new RejectedExecutionException(e);
+                }
+              }
+            });
+  }
+
+  /**
+   * Solves the requests read from the specified input and writes the responses
+   * on the specified output; returns when the input is closed and all the
+   * responses have been written.
+   * 
+   * @param input the input stream of the requests.
+   * @param output the output stream of the responses.
+   * @throws IOException if an I/O error occurs.
+   */
+  void serve(InputStream input, OutputStream output) throws IOException {
+    BufferedReader in = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+    final PrintWriter out =
+        new PrintWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+    final Phaser pending = new Phaser(1);
+    String line;
+    while ((line = in.readLine()) != null) {
+      if (line.trim().isEmpty())
+        continue;
+      final String request = line;
+      pending.register();
+      pool.execute(new Runnable() {
+
+        @Override
+        public void run() {
+          try {
+            String response = handle(request);
+            synchronized (out) {
+              out.println(response);
+              out.flush();
+            }
+          } finally {
+            pending.arriveAndDeregister();
+          }
+        }
+      });
+    }
+    pending.arriveAndAwaitAdvance();
+  }
+
+  /**
+   * Stops the threads of the pool after the execution of the pending requests.
+   */
+  void shutdown() {
+    pool.shutdown();
+  }
+
+  /**
+   * Accepts connections on the specified port of the loopback interface and
+   * serves every connection by its own thread; the method does not return.
+   * 
+   * @param port the port.
+   * @throws IOException if the port cannot be used.
+   */
+  void listen(int port) throws IOException {
+    ServerSocket serverSocket = new ServerSocket(port, 0, InetAddress.getLoopbackAddress());
+    LOG.info(MSG.LAUNCHER.SERVER.LISTENING, serverSocket.getLocalPort());
+    while (true) {
+      final Socket socket = serverSocket.accept();
+      Thread connection = new Thread(new Runnable() {
+
+        @Override
+        public void run() {
+          try {
+            serve(socket.getInputStream(), socket.getOutputStream());
+          } catch (IOException e) {
+            LOG.error(MSG.LAUNCHER.SERVER.CONNECTION_ERROR, e.getMessage());
+          } finally {
+            try {
+              socket.close();
+            } catch (IOException e) {
+            }
+          }
+        }
+      });
+      connection.setDaemon(true);
+      connection.start();
+    }
+  }
+
+  /*
+   * Returns the response to the specified request.
+   */
+  private String handle(String request) {
+    Object id = null;
+    try {
+      Map<String, Object> members = JsonLine.parse(request);
+      id = members.get(ID);
+      Object text = members.get(FORMULA);
+      if (!(text instanceof String))
+        throw new IOException(String.format(MSG.LAUNCHER.SERVER.MISSING_MEMBER, FORMULA));
+      ConfiguredProblemDescriptioReader reader = null;
+      if (members.get(READER) != null) {
+        reader = configuration.availableReaders.searchReaderByName(members.get(READER).toString());
+        if (reader == null)
+          throw new IOException(String.format(MSG.CMD_LINE_OPTIONS.ERRORS.NO_READER_WITH_NAME,
+              members.get(READER)));
+      }
+      ConfiguredTheoremProver prover = configuration.selectedProver;
+      if (members.get(PROVER) != null) {
+        prover = configuration.availableProvers.searchProverByName(members.get(PROVER).toString());
+        if (prover == null)
+          throw new IOException(String.format(MSG.CMD_LINE_OPTIONS.ERRORS.NO_PROVER_WITH_NAME,
+              members.get(PROVER)));
+      }
+      ProofSearchData info =
+          launcher.server_solve((String) text, reader, prover, budget(members));
+      return response(id, info);
+    } catch (Exception e) {
+      return new JsonLine.Builder().add(ID, id).add("error", e.getMessage() != null ? e
+          .getMessage() : e.toString()).toString();
+    } catch (StackOverflowError e) {
+      return new JsonLine.Builder().add(ID, id).add("error", e.toString()).toString();
+    }
+  }
+
+  /*
+   * Returns the budget of the request, that is the budget of the command line
+   * with the limits defined by the request.
+   */
+  private SearchBudget budget(Map<String, Object> members) throws IOException {
+    SearchBudget defaults = configuration.searchBudget;
+    if (defaults == null && !members.containsKey(TIMEOUT) && !members.containsKey(CPU_TIMEOUT)
+        && !members.containsKey(MAX_ITERATIONS) && !members.containsKey(MAX_STACK_SIZE))
+      return null;
+    SearchBudget budget = new SearchBudget();
+    try {
+      if (defaults != null) {
+        budget.setWallClockTime(defaults.getWallClockTime());
+        budget.setCpuTime(defaults.getCpuTime());
+        budget.setIterations(defaults.getIterations());
+        budget.setStackSize(defaults.getStackSize());
+      }
+      if (members.containsKey(TIMEOUT))
+        budget.setWallClockTime(limit(members, TIMEOUT));
+      if (members.containsKey(CPU_TIMEOUT))
+        budget.setCpuTime(limit(members, CPU_TIMEOUT));
+      if (members.containsKey(MAX_ITERATIONS))
+        budget.setIterations(limit(members, MAX_ITERATIONS));
+      if (members.containsKey(MAX_STACK_SIZE))
+        budget.setStackSize(limit(members, MAX_STACK_SIZE));
+    } catch (EngineException e) {
+      throw new IOException(e.getMessage());
+    }
+    return budget;
+  }
+
+  private static long limit(Map<String, Object> members, String name) throws IOException {
+    Object value = members.get(name);
+    if (!(value instanceof Long))
+      throw new IOException(String.format(MSG.CMD_LINE_OPTIONS.ERRORS.NOT_AN_INTEGER, value, name));
+    return (Long) value;
+  }
+
+  private static String response(Object id, ProofSearchData info) {
+    JsonLine.Builder response = new JsonLine.Builder()
+        .add(ID, id)
+        .add("problem", info.problemDescription.getProblemName())
+        .add("status", info.problemDescription.getProblemStatus())
+        .add("result", info.getResultName())
+        .add("provability",
+            info.terminationStatus == TerminationStatus.REGULAR ? info.selectedProver
+                .statusFor(info.proofSearchResult) : null) //
+        .add("test", info.testStatus)
+        .add("iterations", info.iterationCounter)
+        .add("nodes", info.numberOfGeneratedNodes)
+        .add("parsing-ms", info.getParsingProblemTime())
+        .add("nsc-ms", info.getIntialNodeSetConstructionTime())
+        .add("ps-ms", info.getExecutionTime());
+    if (info.portfolioWinner != null)
+      response.add("winner", info.portfolioWinner);
+    return response.toString();
+  }
+
+}
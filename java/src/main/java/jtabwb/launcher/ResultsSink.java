@@ -0,0 +1,193 @@
+/*******************************************************************************
+ * Copyright (C) 2013, 2016 Mauro Ferrari
+ * 
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+package jtabwb.launcher;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A sink appending a record for every problem of a testset to a results file
+ * as soon as the problem is solved, so that the results of a testset
+ * terminating abnormally are not lost. Files whose name ends with
+ * <code>.csv</code> are written in CSV format, with a header line if the file
+ * is empty; the other files are written in JSON Lines format, one JSON object
+ * per line. Every record is flushed to the operating system when it is written
+ * and the file is synchronized with the storage device every
+ * <code>syncInterval</code> records and when the sink is closed.
+ * <p>
+ * Every record contains the name of the testset and the start time of its
+ * execution, hence the results of many executions can be appended to the same
+ * file. Times are in milliseconds, except the times of the measured runs in
+ * warm-run mode, which are in nanoseconds.
+ * </p>
+ * 
+ * @author Mauro Ferrari
+ */
+class ResultsSink {
+
+  /**
+   * The formats of the results file.
+   */
+  static enum Format {
+    JSONL, CSV;
+
+    /**
+     * Returns the format of the specified results file.
+     * 
+     * @param file the results file.
+     * @return CSV if the name of the file ends with <code>.csv</code>, JSONL
+     * otherwise.
+     */
+    static Format of(File file) {
+      return file.getName().toLowerCase().endsWith(".csv") ? CSV : JSONL;
+    }
+  }
+
+  private static final String[] FIELDS = { "testset", "started", "prover", "problem", "source",
+      "expected", "result", "test", "proof_time_ms", "proof_search_ms", "initial_node_set_ms",
+      "parsing_ms", "iterations", "max_stack_size", "generated_nodes",
+      "restored_backtrack_points", "restored_branch_points", "warmup_runs", "measured_runs",
+      "wall_min_ns", "wall_median_ns", "wall_p90_ns", "wall_max_ns", "cpu_min_ns",
+      "cpu_median_ns", "cpu_p90_ns", "cpu_max_ns", "portfolio_winner", "abort_cause" };
+
+  private final FileOutputStream out;
+  private final Writer writer;
+  private final Format format;
+  private final int syncInterval;
+  private final String testsetName;
+  private final String startTime;
+  private final String proverName;
+  private int unsyncedRecords = 0;
+
+  /**
+   * Opens the specified results file in append mode.
+   * 
+   * @param file the results file.
+   * @param syncInterval the number of records after which the file is
+   * synchronized with the storage device.
+   * @param testsetName the name of the testset.
+   * @param startTime the start time of the testset.
+   * @param proverName the name of the prover.
+   * @throws IOException if the file cannot be opened or written.
+   */
+  ResultsSink(File file, int syncInterval, String testsetName, String startTime,
+      String proverName) throws IOException {
+    this.format = Format.of(file);
+    this.syncInterval = syncInterval;
+    this.testsetName = testsetName;
+    this.startTime = startTime;
+    this.proverName = proverName;
+    boolean empty = file.length() == 0;
+    this.out = new FileOutputStream(file, true);
+    this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+    if (format == Format.CSV && empty) {
+      StringBuilder header = new StringBuilder();
+      for (String field : FIELDS)
+        header.append(header.length() == 0 ? "" : ",").append(field);
+      writeLine(header.toString());
+    }
+  }
+
+  /**
+   * Appends the record of the specified proof-search.
+   * 
+   * @param info the data of the proof-search.
+   * @throws IOException if the record cannot be written.
+   */
+  synchronized void write(ProofSearchData info) throws IOException {
+    Object[] values = values(info);
+    if (format == Format.CSV) {
+      StringBuilder sb = new StringBuilder();
+      for (int i = 0; i < values.length; i++) {
+        if (i > 0)
+          sb.append(',');
+        if (values[i] != null)
+          sb.append(csvField(values[i].toString()));
+      }
+      writeLine(sb.toString());
+    } else {
+      JsonLine.Builder json = new JsonLine.Builder();
+      for (int i = 0; i < values.length; i++)
+        json.add(FIELDS[i], values[i]);
+      writeLine(json.toString());
+    }
+    if (++unsyncedRecords >= syncInterval)
+      sync();
+  }
+
+  /**
+   * Synchronizes the results file with the storage device and closes it.
+   * 
+   * @throws IOException if the file cannot be synchronized or closed.
+   */
+  synchronized void close() throws IOException {
+    try {
+      writer.flush();
+      out.getFD().sync();
+    } finally {
+      writer.close();
+    }
+  }
+
+  private void writeLine(String line) throws IOException {
+    writer.write(line);
+    writer.write('\n');
+    writer.flush();
+  }
+
+  private void sync() throws IOException {
+    out.getFD().sync();
+    unsyncedRecords = 0;
+  }
+
+  private Object[] values(ProofSearchData info) {
+    RunTimeStatistics wall = info.wallTimeStatistics;
+    RunTimeStatistics cpu = info.cpuTimeStatistics;
+    return new Object[] { testsetName, startTime, proverName,
+        info.problemDescription.getProblemName(), info.problemDescription.getSource(),
+        info.problemDescription.getProblemStatus().name(), info.getResultName(),
+        info.testStatus.name(),
+        info.getIntialNodeSetConstructionTime() + info.getExecutionTime(),
+        info.getExecutionTime(), info.getIntialNodeSetConstructionTime(),
+        info.getParsingProblemTime(), info.iterationCounter, info.max_stack_size,
+        info.numberOfGeneratedNodes, info.numberOfRestoredBacktrackPoints,
+        info.numberOfRestoredBranchPoints, info.warmupRuns,
+        wall == null ? null : wall.getNumberOfRuns(), //
+        wall == null ? null : wall.getMin(), wall == null ? null : wall.getMedian(),
+        wall == null ? null : wall.getP90(), wall == null ? null : wall.getMax(),
+        cpu == null ? null : cpu.getMin(), cpu == null ? null : cpu.getMedian(),
+        cpu == null ? null : cpu.getP90(), cpu == null ? null : cpu.getMax(),
+        info.portfolioWinner, info.abortCause };
+  }
+
+  /*
+   * Returns the CSV field for str, quoted if it contains a separator, a quote
+   * or a line break.
+   */
+  private static String csvField(String str) {
+    if (str.indexOf(',') < 0 && str.indexOf('"') < 0 && str.indexOf('\n') < 0
+        && str.indexOf('\r') < 0)
+      return str;
+    return '"' + str.replace("\"", "\"\"") + '"';
+  }
+
+}
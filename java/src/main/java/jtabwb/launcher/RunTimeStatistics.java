@@ -0,0 +1,109 @@
+/*******************************************************************************
+ * Copyright (C) 2013, 2016 Mauro Ferrari
+ * 
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+package jtabwb.launcher;
+
+import java.util.Arrays;
+
+/**
+ * The distribution of the times of the measured runs of a proof-search executed
+ * in warm-run mode (see the <code>--warmup</code> and <code>--runs</code>
+ * options of the launcher). Times are in nanoseconds; percentiles are computed
+ * by the nearest-rank method.
+ * 
+ * @author Mauro Ferrari
+ */
+public class RunTimeStatistics {
+
+  private final long[] samples; // sorted
+
+  RunTimeStatistics(long[] samples) {
+    this.samples = samples.clone();
+    Arrays.sort(this.samples);
+  }
+
+  /**
+   * Returns the number of measured runs.
+   * 
+   * @return the number of measured runs.
+   */
+  public int getNumberOfRuns() {
+    return samples.length;
+  }
+
+  /**
+   * Returns the minimum time of the measured runs.
+   * 
+   * @return the minimum time in nanoseconds.
+   */
+  public long getMin() {
+    return samples[0];
+  }
+
+  /**
+   * Returns the median time of the measured runs; if the number of runs is even
+   * the median is the mean of the two central times.
+   * 
+   * @return the median time in nanoseconds.
+   */
+  public long getMedian() {
+    int middle = samples.length / 2;
+    if (samples.length % 2 == 1)
+      return samples[middle];
+    return (samples[middle - 1] + samples[middle]) / 2;
+  }
+
+  /**
+   * Returns the 90th percentile of the times of the measured runs.
+   * 
+   * @return the 90th percentile in nanoseconds.
+   */
+  public long getP90() {
+    return getPercentile(90);
+  }
+
+  /**
+   * Returns the maximum time of the measured runs.
+   * 
+   * @return the maximum time in nanoseconds.
+   */
+  public long getMax() {
+    return samples[samples.length - 1];
+  }
+
+  /**
+   * Returns the specified percentile of the times of the measured runs, namely
+   * the smallest time such that at least <code>percentile</code> percent of the
+   * times are not greater than it.
+   * 
+   * @param percentile a value in the interval (0, 100].
+   * @return the percentile in nanoseconds.
+   */
+  public long getPercentile(int percentile) {
+    if (percentile <= 0 || percentile > 100)
+      throw new IllegalArgumentException("Invalid percentile: " + percentile);
+    int rank = (int) Math.ceil(percentile * samples.length / 100.0);
+    return samples[rank - 1];
+  }
+
+  /*
+   * Returns the times of the measured runs in increasing order.
+   */
+  long[] getSamples() {
+    return samples.clone();
+  }
+
+}
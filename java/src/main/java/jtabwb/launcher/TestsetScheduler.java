@@ -0,0 +1,201 @@
+/*******************************************************************************
+ * Copyright (C) 2013, 2016 Mauro Ferrari
+ * 
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+package jtabwb.launcher;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import jtabwbx.problems.ProblemDescription;
+import jtabwbx.prop.formula.Formula;
+
+/**
+ * Defines the order in which the problems of a testset executed by many
+ * threads are submitted to the threads. The threads take the next problem from
+ * a shared queue as soon as they are idle; submitting the most expensive
+ * problems first, the problems of the long tail do not start when the other
+ * threads have nothing left to do.
+ * 
+ * @author Mauro Ferrari
+ */
+final class TestsetScheduler {
+
+  /**
+   * The policies estimating the cost of a problem.
+   * 
+   * @author Mauro Ferrari
+   */
+  static enum Policy {
+    /**
+     * The problems are executed in the order of the command line.
+     */
+    FIFO,
+    /**
+     * The largest files are executed first.
+     */
+    FILE_SIZE,
+    /**
+     * All the problems are read first, then the problems with the largest
+     * formulas are executed first.
+     */
+    FORMULA_SIZE,
+    /**
+     * The problems requiring the longest time in the testset logs of the log
+     * directory are executed first; problems not in the logs are executed
+     * before the others, the largest files first.
+     */
+    HISTORY;
+  }
+
+  // a problem line of a testset log file, see TESTSET_LOGFILE_RESULT
+  private static final Pattern LOG_LINE = Pattern
+      .compile("^test: .*; times \\(ms\\): (\\d+), \\d+, \\d+, (\\d+); details: .*; ([^;]+)$");
+
+  // the cost of a problem not in the logs is greater than any logged time
+  private static final long UNKNOWN_COST = Long.MAX_VALUE >>> 1;
+
+  private final Policy policy;
+
+  TestsetScheduler(Policy policy) {
+    this.policy = policy;
+  }
+
+  Policy getPolicy() {
+    return policy;
+  }
+
+  /**
+   * Returns the positions of the specified problem files in the order they
+   * have to be executed; if the policy is {@link Policy#FORMULA_SIZE}, returns
+   * the order they have to be read.
+   * 
+   * @param fileNames the problem files.
+   * @param logFiles the testset log files used by {@link Policy#HISTORY}.
+   * @return the order of the problems.
+   */
+  Integer[] order(String[] fileNames, File[] logFiles) {
+    long[] fileSizes = new long[fileNames.length];
+    for (int i = 0; i < fileNames.length; i++)
+      fileSizes[i] = new File(fileNames[i]).length();
+    switch (policy) {
+    case FIFO:
+      return sort(new long[fileNames.length]);
+    case FILE_SIZE:
+    case FORMULA_SIZE:
+      return sort(fileSizes);
+    case HISTORY:
+      HashMap<String, Long> times = readTimes(logFiles);
+      long[] costs = new long[fileNames.length];
+      for (int i = 0; i < fileNames.length; i++) {
+        Long time = times.get(new File(fileNames[i]).getAbsolutePath());
+        // unknown problems come first, ordered by file size
+        costs[i] = time == null ? UNKNOWN_COST + fileSizes[i] : time;
+      }
+      return sort(costs);
+    default:
+      throw new ImplementationError(MSG.IMPLEMENTATION_ERROR.CASE_NOT_IMPLEMENTED);
+    }
+  }
+
+  /**
+   * Returns the positions of the specified problems ordered by decreasing size;
+   * the size of a problem is the sum of the sizes of its formulas, where the
+   * size of a formula given as a string is its length.
+   * 
+   * @param problems the problems.
+   * @return the order of the problems.
+   */
+  Integer[] orderBySize(ProblemDescription[] problems) {
+    long[] sizes = new long[problems.length];
+    for (int i = 0; i < problems.length; i++)
+      for (String role : problems[i].getRoles()) {
+        LinkedList<Formula> formulas = problems[i].getBuiltFormulasByRole(role);
+        if (formulas != null)
+          for (Formula wff : formulas)
+            sizes[i] += wff.size();
+        else
+          for (String wff : problems[i].getFormulasByRole(role))
+            sizes[i] += wff.length();
+      }
+    return sort(sizes);
+  }
+
+  /*
+   * Returns the positions sorted by decreasing cost; the sort is stable, hence
+   * problems with the same cost keep the order of the command line.
+   */
+  private static Integer[] sort(final long[] costs) {
+    Integer[] positions = new Integer[costs.length];
+    for (int i = 0; i < positions.length; i++)
+      positions[i] = i;
+    Arrays.sort(positions, new Comparator<Integer>() {
+
+      @Override
+      public int compare(Integer i, Integer j) {
+        return Long.compare(costs[j], costs[i]);
+      }
+    });
+    return positions;
+  }
+
+  /*
+   * Returns the total time (proof time and parsing time) of the problems in the
+   * specified log files, indexed by the absolute path of the problem; the log
+   * files are read from the oldest to the newest, hence the newest time of a
+   * problem is returned.
+   */
+  private static HashMap<String, Long> readTimes(File[] logFiles) {
+    HashMap<String, Long> times = new HashMap<String, Long>();
+    if (logFiles == null)
+      return times;
+    File[] files = logFiles.clone();
+    Arrays.sort(files, new Comparator<File>() {
+
+      @Override
+      public int compare(File f1, File f2) {
+        return Long.compare(f1.lastModified(), f2.lastModified());
+      }
+    });
+    for (File file : files)
+      try {
+        BufferedReader reader = new BufferedReader(new FileReader(file));
+        try {
+          String line;
+          while ((line = reader.readLine()) != null) {
+            Matcher m = LOG_LINE.matcher(line);
+            if (m.matches())
+              times.put(m.group(3), Long.parseLong(m.group(1)) + Long.parseLong(m.group(2)));
+          }
+        } finally {
+          reader.close();
+        }
+      } catch (IOException e) {
+        // an unreadable log file provides no time
+      } catch (NumberFormatException e) {
+        // idem
+      }
+    return times;
+  }
+
+}
@@ -0,0 +1,387 @@
+/*******************************************************************************
+ * Copyright (C) 2013, 2016 Mauro Ferrari
+ * 
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+package jtabwb.launcher;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import jtabwb.engine.ProofSearchResult;
+import jtabwb.engine.ProvabilityStatus;
+import jtabwb.engine.SearchBudget;
+import jtabwb.launcher.Launcher.TestStatus;
+import jtabwb.launcher.ProofSearchData.TerminationStatus;
+import jtabwbx.problems.ProblemDescription;
+
+/**
+ * A pool of worker processes executing the problems of a testset. Every worker
+ * is a JVM executing the launcher in worker mode: it reads the name of a
+ * problem file from its standard input, proves the problem and writes the
+ * result on its standard output, so that the cost of starting a JVM is paid
+ * once per worker. A worker is managed by a thread of the pool, which takes
+ * the next submitted problem as soon as its worker is idle.
+ * <p>
+ * A worker that terminates while proving a problem, for instance because it
+ * runs out of memory or exhausts its stack, or that does not return the result
+ * within the hard timeout, is destroyed and replaced by a new worker for the
+ * next problem; the problem is reported as aborted or timed out, while the
+ * results of the other problems are not affected.
+ * </p>
+ * 
+ * @author Mauro Ferrari
+ */
+final class TestsetWorkers {
+
+  // the lines of the protocol start with a marker; other lines are ignored
+  static final String PROBLEM = "@jtabwb-problem";
+  static final String RESULT = "@jtabwb-result";
+  static final String ABORT = "@jtabwb-abort";
+  private static final String SEPARATOR = "\t";
+  private static final String NONE = "-";
+
+  private final List<String> command;
+  private final long hardTimeout;
+  private final ExecutorService pool;
+  private final ScheduledExecutorService timer;
+  private final ThreadLocal<Worker> workers;
+  private final List<Worker> allWorkers;
+  private final AtomicLong cpuTime;
+
+  /**
+   * Builds a pool of the specified number of workers; workers are started when
+   * the first problem is submitted to them.
+   * 
+   * @param numberOfWorkers the number of workers.
+   * @param command the command starting a worker.
+   * @param hardTimeout the time in milliseconds a worker has to prove a
+   * problem, 0 if the time is not limited.
+   */
+  TestsetWorkers(int numberOfWorkers, List<String> command, long hardTimeout) {
+    this.command = command;
+    this.hardTimeout = hardTimeout;
+    this.pool = Executors.newFixedThreadPool(numberOfWorkers);
+    this.timer = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+
+      @Override
+      public Thread newThread(Runnable r) {
+        Thread thread = new Thread(r);
+        thread.setDaemon(true);
+        return thread;
+      }
+    });
+    this.allWorkers = new ArrayList<Worker>();
+    this.cpuTime = new AtomicLong();
+    this.workers = new ThreadLocal<Worker>() {
+
+      @Override
+      protected Worker initialValue() {
+        Worker worker = new Worker();
+        synchronized (allWorkers) {
+          allWorkers.add(worker);
+        }
+        return worker;
+      }
+    };
+  }
+
+  /**
+   * Submits the specified problem file to the pool.
+   * 
+   * @param fileName the problem file.
+   * @return the future result of the problem.
+   */
+  Future<ProofSearchData> submit(final String fileName) {
+    return pool.submit(new Callable<ProofSearchData>() {
+
+      @Override
+      public ProofSearchData call() throws IOException {
+        return workers.get().solve(fileName);
+      }
+    });
+  }
+
+  /**
+   * Returns the CPU time in milliseconds required by the problems solved by the
+   * workers.
+   * 
+   * @return the CPU time required by the workers.
+   */
+  long getCpuTime() {
+    return cpuTime.get();
+  }
+
+  /**
+   * Stops the threads of the pool and destroys the workers.
+   */
+  void shutdown() {
+    pool.shutdownNow();
+    timer.shutdownNow();
+    synchronized (allWorkers) {
+      for (Worker worker : allWorkers)
+        worker.destroy();
+    }
+  }
+
+  /*
+   * A worker process, used by one thread of the pool.
+   */
+  private class Worker {
+
+    private Process process = null;
+    private PrintWriter toWorker;
+    private BufferedReader fromWorker;
+
+    ProofSearchData solve(String fileName) throws IOException {
+      if (process == null || !process.isAlive())
+        start();
+      final Process current = process;
+      final AtomicBoolean timedOut = new AtomicBoolean(false);
+      ScheduledFuture<?> deadline = null;
+      if (hardTimeout > 0)
+        deadline = timer.schedule(new Runnable() {
+
+          @Override
+          public void run() {
+            timedOut.set(true);
+            current.destroyForcibly();
+          }
+        }, hardTimeout, TimeUnit.MILLISECONDS);
+      toWorker.println(new File(fileName).getAbsolutePath());
+      toWorker.flush();
+      ProblemDescription problem = null;
+      String cause = null;
+      String line;
+      while ((line = fromWorker.readLine()) != null)
+        if (line.startsWith(RESULT)) {
+          if (deadline != null)
+            deadline.cancel(false);
+          return parseResult(line, problem);
+        } else if (line.startsWith(PROBLEM))
+          problem = parseProblem(line);
+        else if (line.startsWith(ABORT))
+          cause = line.substring(ABORT.length()).trim();
+        else if (line.length() > 0)
+          cause = line; // the last message of the worker
+      // the worker terminated or has been destroyed
+      if (deadline != null)
+        deadline.cancel(false);
+      if (cause == null)
+        try {
+          cause = "exit value " + current.waitFor();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      destroy();
+      if (problem == null) {
+        problem = new ProblemDescription(new File(fileName).getName());
+        problem.setProblemStatus(ProvabilityStatus.UNKNOWN);
+        problem.setSource(new File(fileName).getAbsolutePath());
+      }
+      if (timedOut.get())
+        return timedOut(problem);
+      return aborted(problem, cause);
+    }
+
+    private void start() throws IOException {
+      ProcessBuilder builder = new ProcessBuilder(command);
+      builder.redirectInput(ProcessBuilder.Redirect.PIPE);
+      builder.redirectOutput(ProcessBuilder.Redirect.PIPE);
+      builder.redirectError(ProcessBuilder.Redirect.INHERIT);
+      process = builder.start();
+      toWorker =
+          new PrintWriter(new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8));
+      fromWorker =
+          new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+    }
+
+    synchronized void destroy() {
+      if (process != null) {
+        process.destroyForcibly();
+        process = null;
+      }
+    }
+  }
+
+  /**
+   * Returns the line describing the specified problem.
+   * 
+   * @param problem the problem read by the worker.
+   * @return the protocol line.
+   */
+  static String formatProblem(ProblemDescription problem) {
+    return PROBLEM + SEPARATOR + clean(problem.getProblemName()) + SEPARATOR
+        + status(problem).name() + SEPARATOR + clean(problem.getSource());
+  }
+
+  /**
+   * Returns the line reporting the error terminating a worker.
+   * 
+   * @param e the error.
+   * @return the protocol line.
+   */
+  static String formatAbort(Throwable e) {
+    return ABORT + SEPARATOR + clean(e.toString());
+  }
+
+  /**
+   * Returns the line describing the result of the specified proof-search.
+   * 
+   * @param info the data of the proof-search.
+   * @param cpuTime the CPU time in milliseconds required by the problem.
+   * @return the protocol line.
+   */
+  static String formatResult(ProofSearchData info, long cpuTime) {
+    StringBuilder sb = new StringBuilder(RESULT);
+    append(sb, info.terminationStatus.name());
+    append(sb, info.exhaustedLimit == null ? NONE : info.exhaustedLimit.name());
+    append(sb, info.proofSearchResult == null ? NONE : info.proofSearchResult.name());
+    append(sb, info.testStatus.name());
+    append(sb, info.iterationCounter);
+    append(sb, info.max_stack_size);
+    append(sb, info.numberOfGeneratedNodes);
+    append(sb, info.numberOfRestoredBacktrackPoints);
+    append(sb, info.numberOfRestoredBranchPoints);
+    append(sb, info.transpositionTableHits);
+    append(sb, info.transpositionTableMisses);
+    append(sb, info.getExecutionTime());
+    append(sb, info.getParsingProblemTime());
+    append(sb, info.getIntialNodeSetConstructionTime());
+    append(sb, cpuTime);
+    append(sb, info.portfolioWinner == null ? NONE : clean(info.portfolioWinner));
+    append(sb, info.warmupRuns);
+    append(sb, formatSamples(info.wallTimeStatistics));
+    append(sb, formatSamples(info.cpuTimeStatistics));
+    return sb.toString();
+  }
+
+  private static String formatSamples(RunTimeStatistics statistics) {
+    if (statistics == null)
+      return NONE;
+    StringBuilder sb = new StringBuilder();
+    for (long sample : statistics.getSamples())
+      sb.append(sb.length() == 0 ? "" : ",").append(sample);
+    return sb.toString();
+  }
+
+  private static RunTimeStatistics parseSamples(String field) {
+    if (field.equals(NONE))
+      return null;
+    String[] values = field.split(",");
+    long[] samples = new long[values.length];
+    for (int i = 0; i < values.length; i++)
+      samples[i] = Long.parseLong(values[i]);
+    return new RunTimeStatistics(samples);
+  }
+
+  private static void append(StringBuilder sb, Object value) {
+    sb.append(SEPARATOR).append(value);
+  }
+
+  private static ProvabilityStatus status(ProblemDescription problem) {
+    return problem.getProblemStatus() == null ? ProvabilityStatus.UNKNOWN : problem
+        .getProblemStatus();
+  }
+
+  private static String clean(String str) {
+    return str == null ? "" : str.replace('\t', ' ');
+  }
+
+  private static ProblemDescription parseProblem(String line) throws IOException {
+    String[] fields = line.split(SEPARATOR, -1);
+    if (fields.length != 4)
+      throw new IOException("Invalid worker line: " + line);
+    ProblemDescription problem = new ProblemDescription(fields[1]);
+    problem.setProblemStatus(ProvabilityStatus.valueOf(fields[2]));
+    problem.setSource(fields[3]);
+    return problem;
+  }
+
+  private ProofSearchData parseResult(String line, ProblemDescription problem)
+      throws IOException {
+    String[] fields = line.split(SEPARATOR, -1);
+    if (fields.length != 20 || problem == null)
+      throw new IOException("Invalid worker line: " + line);
+    try {
+      ProofSearchData info = new ProofSearchData();
+      info.problemDescription = problem;
+      info.terminationStatus = TerminationStatus.valueOf(fields[1]);
+      info.exhaustedLimit = fields[2].equals(NONE) ? null : SearchBudget.Limit.valueOf(fields[2]);
+      info.proofSearchResult = fields[3].equals(NONE) ? null : ProofSearchResult.valueOf(fields[3]);
+      info.testStatus = TestStatus.valueOf(fields[4]);
+      info.iterationCounter = Long.parseLong(fields[5]);
+      info.max_stack_size = Integer.parseInt(fields[6]);
+      info.numberOfGeneratedNodes = Long.parseLong(fields[7]);
+      info.numberOfRestoredBacktrackPoints = Long.parseLong(fields[8]);
+      info.numberOfRestoredBranchPoints = Long.parseLong(fields[9]);
+      info.transpositionTableHits = Long.parseLong(fields[10]);
+      info.transpositionTableMisses = Long.parseLong(fields[11]);
+      info.execution_end_time = Long.parseLong(fields[12]);
+      info.parsing_problem_end_time = Long.parseLong(fields[13]);
+      info.initial_node_set_construction_end_time = Long.parseLong(fields[14]);
+      cpuTime.addAndGet(Long.parseLong(fields[15]));
+      info.portfolioWinner = fields[16].equals(NONE) ? null : fields[16];
+      info.warmupRuns = Integer.parseInt(fields[17]);
+      info.wallTimeStatistics = parseSamples(fields[18]);
+      info.cpuTimeStatistics = parseSamples(fields[19]);
+      return info;
+    } catch (IllegalArgumentException e) {
+      throw new IOException("Invalid worker line: " + line);
+    }
+  }
+
+  private static ProofSearchData timedOut(ProblemDescription problem) {
+    ProofSearchData info = failed(problem);
+    info.terminationStatus = TerminationStatus.TIMEOUT;
+    info.exhaustedLimit = SearchBudget.Limit.WALL_CLOCK_TIME;
+    info.testStatus = TestStatus.TIMEOUT;
+    return info;
+  }
+
+  private static ProofSearchData aborted(ProblemDescription problem, String cause) {
+    ProofSearchData info = failed(problem);
+    info.terminationStatus = TerminationStatus.ABORTED;
+    info.testStatus = TestStatus.ABORTED;
+    info.abortCause = cause;
+    return info;
+  }
+
+  private static ProofSearchData failed(ProblemDescription problem) {
+    ProofSearchData info = new ProofSearchData();
+    info.problemDescription = problem;
+    info.execution_end_time = 0;
+    info.parsing_problem_end_time = 0;
+    info.initial_node_set_construction_end_time = 0;
+    return info;
+  }
+
+}
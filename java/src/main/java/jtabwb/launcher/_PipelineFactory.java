@@ -0,0 +1,50 @@
+/*******************************************************************************
+ * Copyright (C) 2013, 2016 Mauro Ferrari
+ * 
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+package jtabwb.launcher;
+
+/**
+ * An object building the elements of the launcher pipeline that cannot be
+ * shared by threads. When a testset is executed by many threads (see the
+ * <code>--jobs</code> option), every thread reads and proves its problems by
+ * its own initial goal builder and single execution configurator, built by the
+ * factory set by {@link Launcher#optConfigPipelineFactory(_PipelineFactory)};
+ * with the formula-size scheduling policy the problems are read before being
+ * proved, hence every problem is read and proved by a pipeline of its own.
+ * 
+ * @author Mauro Ferrari
+ */
+public interface _PipelineFactory {
+
+  /**
+   * Returns a new initial goal builder.
+   * 
+   * @return the initial goal builder.
+   */
+  public _InitialGoalBuilder newInitialGoalBuilder();
+
+  /**
+   * Returns a new single execution configurator configuring the specified
+   * initial goal builder or <code>null</code> if no configurator is required.
+   * 
+   * @param initialGoalBuilder the initial goal builder returned by
+   * {@link #newInitialGoalBuilder()}.
+   * @return the single execution configurator or <code>null</code>.
+   */
+  public _SingleExecutionConfigurator newSingleExecutionConfigurator(
+      _InitialGoalBuilder initialGoalBuilder);
+
+}
@@ -18,6 +18,8 @@ package jtabwbx.problems;
 
 import java.util.LinkedList;
 
+import jtabwbx.prop.formula.Formula;
+
 /**
  * An object of this class describes a problem of the ILTP-library. A problem
  * consists of a list of axioms (role {@link #ROLE_AXIOM}) and a conjecture
@@ -47,6 +49,45 @@ public class ILTPProblem extends ProblemDescription {
     super.add(ROLE_AXIOM, wff);
   }
 
+  /**
+   * Adds the specified built formula as conjecture.
+   * 
+   * @param wff the conjecture.
+   */
+  public void addConjecture(Formula wff) {
+    super.add(ROLE_CONJECTURE, wff);
+  }
+
+  /**
+   * Adds the specified built formula as axiom.
+   * 
+   * @param wff the axiom.
+   */
+  public void addAxiom(Formula wff) {
+    super.add(ROLE_AXIOM, wff);
+  }
+
+  /**
+   * Returns the built conjecture or <code>null</code> if the conjecture has
+   * been given as a string.
+   * 
+   * @return the built conjecture or <code>null</code>.
+   */
+  public Formula getBuiltConjecture() {
+    LinkedList<Formula> conjectures = super.getBuiltFormulasByRole(ROLE_CONJECTURE);
+    return conjectures == null ? null : conjectures.getFirst();
+  }
+
+  /**
+   * Returns the built axioms or <code>null</code> if the problem has no built
+   * axiom.
+   * 
+   * @return the built axioms or <code>null</code>.
+   */
+  public LinkedList<Formula> getBuiltAxioms() {
+    return super.getBuiltFormulasByRole(ROLE_AXIOM);
+  }
+
   public String getConjecture() {
     return super.getFormulasByRole(ROLE_CONJECTURE).getFirst();
   };
@@ -48,7 +48,7 @@ class ILTPProblemBuilder {
     pd.setProblemStatus(problemStatus);
     if (!axioms.isEmpty())
       for (Formula formula : axioms.values())
-        pd.addAxiom(formula.format());
+        pd.addAxiom(formula);
 
     Formula conjecture = null;
     if (conjectures.isEmpty())
@@ -58,7 +58,7 @@ class ILTPProblemBuilder {
       throw new ProblemDescriptionException(ILTPProblemReader_MSG.PROBLEM_BUILDER.BUILD_ERROR_MORE_CONJECTURES);
 
     conjecture = conjectures.values().toArray(new Formula[1])[0];
-    pd.addConjecture(conjecture.format());
+    pd.addConjecture(conjecture);
     return pd;
   }
 
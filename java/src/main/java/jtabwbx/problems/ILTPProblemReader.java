@@ -20,19 +20,23 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.Reader;
 
-import jtabwb.launcher._ProblemReader;
+import jtabwbx.prop.formula.FormulaFactory;
 
 /**
- * Problem reader for ILTP-library problems.
+ * Problem reader for ILTP-library problems. The formulas of the problem are
+ * built while parsing and are added to the problem description as built
+ * formulas (see {@link ILTPProblem#getBuiltConjecture()}); if a factory is set
+ * by {@link #setFormulaFactory(FormulaFactory)}, the formulas are built in such
+ * a factory, so that they can be used without parsing them again.
  * 
  * @author Mauro Ferrari
  */
-public class ILTPProblemReader implements _ProblemReader {
+public class ILTPProblemReader implements _BuildingProblemReader {
 
   public static final String NAME = "iltp";
   static final String DESCRIPTION = "Reader for problems of ILTP-library.";
 
-  
+  private FormulaFactory formulaFactory = null;
 
   /**
    * Builds an instance of this problem description reader.
@@ -41,6 +45,21 @@ public class ILTPProblemReader implements _ProblemReader {
     super();
   }
 
+  /**
+   * Sets the factory building the formulas of the problems read by this
+   * reader; if no factory is set, every problem is built in a new factory.
+   * 
+   * @param formulaFactory the factory.
+   */
+  public void setFormulaFactory(FormulaFactory formulaFactory) {
+    this.formulaFactory = formulaFactory;
+  }
+
+  @Override
+  public FormulaFactory getFormulaFactory() {
+    return formulaFactory;
+  }
+
   /**
    * Returns a problem-description of the problem read from the specified input
    * stream.
@@ -54,6 +73,8 @@ public class ILTPProblemReader implements _ProblemReader {
   public ProblemDescription read(Reader input) throws ProblemDescriptionException, IOException {
     BufferedReader reader = new BufferedReader(input);
     ILTProblemParser parser = new ILTProblemParser(reader);
+    if (formulaFactory != null)
+      parser.setFormulaFactory(formulaFactory);
     try {
       return parser.parse();
     } catch (ILTPProblemParserError e) {
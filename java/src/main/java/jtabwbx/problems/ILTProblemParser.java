@@ -27,6 +27,7 @@ import jtabwbx.problems.ILTPProblemLexer.Token;
 import jtabwbx.problems.ILTPProblemLexer.TokenType;
 import jtabwbx.problems.ILTProblemParser.InfoLineExtractor.InfoLineResult;
 import jtabwbx.prop.formula.Formula;
+import jtabwbx.prop.formula.FormulaFactory;
 
 /**
  * A parser for ILTP-problems.
@@ -115,6 +116,15 @@ class ILTProblemParser {
   private ILTPProblemBuilder problemBuilder;
   private final InfoLineExtractor infoLineExtractor;
 
+  /**
+   * Sets the factory building the formulas of the problem.
+   * 
+   * @param formulaFactory the factory.
+   */
+  void setFormulaFactory(FormulaFactory formulaFactory) {
+    problemBuilder.setFormulaFactory(formulaFactory);
+  }
+
   public ILTPProblem parse() throws ILTPProblemParserError, ProblemDescriptionException {
     this.start();
     return problemBuilder.build();
@@ -16,7 +16,9 @@
  *******************************************************************************/
 package jtabwbx.problems;
 
+import java.util.LinkedList;
 
+import jtabwbx.prop.formula.Formula;
 
 /**
  * JTabWb problem description only contains one conjecture, the propositional
@@ -45,6 +47,26 @@ public class JTabWbSimpleProblem extends ProblemDescription {
     super.add(ROLE_CONJECTURE, wff);
   }
 
+  /**
+   * Adds the specified built formula as conjecture.
+   * 
+   * @param wff the conjecture.
+   */
+  public void addConjecture(Formula wff) {
+    super.add(ROLE_CONJECTURE, wff);
+  }
+
+  /**
+   * Returns the built conjecture or <code>null</code> if the conjecture has
+   * been given as a string.
+   * 
+   * @return the built conjecture or <code>null</code>.
+   */
+  public Formula getBuiltConjecture() {
+    LinkedList<Formula> conjectures = super.getBuiltFormulasByRole(ROLE_CONJECTURE);
+    return conjectures == null ? null : conjectures.getFirst();
+  }
+
   public String getConjecture() {
     return super.getFormulasByRole(ROLE_CONJECTURE).getFirst();
   }
@@ -23,7 +23,9 @@ import java.io.Reader;
 import org.antlr.v4.parse.ANTLRParser.throwsSpec_return;
 
 import jtabwb.engine.ProvabilityStatus;
-import jtabwb.launcher._ProblemReader;
+import jtabwbx.prop.formula.FormulaFactory;
+import jtabwbx.prop.parser.FormulaParseException;
+import jtabwbx.prop.parser.StreamingFormulaParser;
 
 /**
  * Instances of this class allow one to read a problem description in the JTabWb
@@ -42,12 +44,15 @@ import jtabwb.launcher._ProblemReader;
  * where <code>formula_name</code> is the name of the problem,
  * <code>status</code> is either <code>provable</code> or
  * <code>unprovable</code> and <code>&lt;FORMULA&gt;</code> is the specification
- * of the formula. *
+ * of the formula. If a factory is set by
+ * {@link #setFormulaFactory(FormulaFactory)}, the formula is built in such a
+ * factory by a {@link StreamingFormulaParser} reading the input, hence the
+ * formula is never stored as a string.
  * 
  * @author Mauro Ferrari
  */
 // TODO: rename JTabWbSimpleFormatProblemReader
-public class JTabWbSimpleProblemReader implements _ProblemReader {
+public class JTabWbSimpleProblemReader implements _BuildingProblemReader {
 
   public static final String NAME = "jtawb_format";
   private static final String DESCRIPTION =
@@ -56,12 +61,30 @@ public class JTabWbSimpleProblemReader implements _ProblemReader {
   private final String PRE_NAME = "% File     :";
   private final String PRE_STATUS = "% Status   :";
 
+  private FormulaFactory formulaFactory = null;
+
   /**
    * Builds an instance of this problem description reader.
    */
   public JTabWbSimpleProblemReader() {
   }
 
+  /**
+   * Sets the factory building the formulas of the problems read by this
+   * reader; if no factory is set, the formula is added to the problem as a
+   * string.
+   * 
+   * @param formulaFactory the factory.
+   */
+  public void setFormulaFactory(FormulaFactory formulaFactory) {
+    this.formulaFactory = formulaFactory;
+  }
+
+  @Override
+  public FormulaFactory getFormulaFactory() {
+    return formulaFactory;
+  }
+
   /**
    * Returns the problem description corresponding to the PITP problem
    * description read from the specified stream.
@@ -79,13 +102,11 @@ public class JTabWbSimpleProblemReader implements _ProblemReader {
 
       String name = null;
       String status = null;
-      String formula = null;
 
       reader.readLine(); // irrelevant
       name = reader.readLine().substring(PRE_NAME.length()).trim();
       status = reader.readLine().substring(PRE_STATUS.length()).trim();
       reader.readLine(); // irrelevant
-      formula = reader.readLine();
 
       ProvabilityStatus stat = null;
 
@@ -97,11 +118,17 @@ public class JTabWbSimpleProblemReader implements _ProblemReader {
         stat = ProvabilityStatus.UNKNOWN;
 
       JTabWbSimpleProblem pd = new JTabWbSimpleProblem(name);
-      pd.addConjecture(formula);
+      if (formulaFactory == null)
+        pd.addConjecture(reader.readLine());
+      else
+        pd.addConjecture(new StreamingFormulaParser(formulaFactory).parse(new LineReader(
+            reader)));
       pd.setProblemStatus(stat);
       return pd;
     } catch (NullPointerException e) {
       throw new ProblemDescriptionException("the problem is not in the JTabWb format.");
+    } catch (FormulaParseException e) {
+      throw new ProblemDescriptionException(e.getMessage());
     }
   }
 
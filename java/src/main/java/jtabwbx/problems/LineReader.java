@@ -0,0 +1,66 @@
+/*******************************************************************************
+ * Copyright (C) 2013, 2016 Mauro Ferrari
+ * 
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+package jtabwbx.problems;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * A reader returning the characters of the underlying reader up to the first
+ * line terminator (a line feed or a carriage return); the terminator is
+ * consumed. The characters of the underlying reader following the line
+ * terminator may be consumed and are discarded, hence this reader must be used
+ * to read the last relevant line of the input.
+ * 
+ * @author Mauro Ferrari
+ */
+class LineReader extends Reader {
+
+  private final Reader input;
+  private boolean endOfLine;
+
+  /**
+   * Builds a reader of the current line of the specified reader.
+   * 
+   * @param input the underlying reader.
+   */
+  LineReader(Reader input) {
+    this.input = input;
+    this.endOfLine = false;
+  }
+
+  @Override
+  public int read(char[] cbuf, int off, int len) throws IOException {
+    if (endOfLine)
+      return -1;
+    int n = input.read(cbuf, off, len);
+    if (n <= 0)
+      return n;
+    for (int i = off; i < off + n; i++)
+      if (cbuf[i] == '\n' || cbuf[i] == '\r') {
+        endOfLine = true;
+        return i == off ? -1 : i - off;
+      }
+    return n;
+  }
+
+  @Override
+  public void close() throws IOException {
+    input.close();
+  }
+
+}
@@ -21,20 +21,27 @@ import java.io.IOException;
 import java.io.Reader;
 
 import jtabwb.engine.ProvabilityStatus;
-import jtabwb.launcher._ProblemReader;
+import jtabwbx.prop.formula.FormulaFactory;
+import jtabwbx.prop.parser.FormulaParseException;
+import jtabwbx.prop.parser.StreamingFormulaParser;
 
 /**
  * Instances of this class allow one to read a problem only consisting of the
- * problem formula.
+ * problem formula. If a factory is set by
+ * {@link #setFormulaFactory(FormulaFactory)}, the formula is built in such a
+ * factory by a {@link StreamingFormulaParser} reading the input, hence the
+ * formula is never stored as a string.
  * 
  * @author Mauro Ferrari
  */
-public class PlainProblemReader implements _ProblemReader {
+public class PlainProblemReader implements _BuildingProblemReader {
 
   public static final String NAME = "plain";
   private static final String DESCRIPTION =
       "The file consists of exactly one line containing the conjecture";
 
+  private FormulaFactory formulaFactory = null;
+
   /**
    * Build a plain reader.
    * 
@@ -42,6 +49,22 @@ public class PlainProblemReader implements _ProblemReader {
   public PlainProblemReader() {
   }
 
+  /**
+   * Sets the factory building the formulas of the problems read by this
+   * reader; if no factory is set, the formula is added to the problem as a
+   * string.
+   * 
+   * @param formulaFactory the factory.
+   */
+  public void setFormulaFactory(FormulaFactory formulaFactory) {
+    this.formulaFactory = formulaFactory;
+  }
+
+  @Override
+  public FormulaFactory getFormulaFactory() {
+    return formulaFactory;
+  }
+
   /**
    * Returns the problem description build from the specified input stream; the
    * specified input stream is supposed to contain only one line describing the
@@ -56,9 +79,15 @@ public class PlainProblemReader implements _ProblemReader {
   public JTabWbSimpleProblem read(Reader input) throws ProblemDescriptionException, IOException {
 
     BufferedReader reader = new BufferedReader(input);
-    String wff = reader.readLine();
     JTabWbSimpleProblem pd = new JTabWbSimpleProblem();
-    pd.addConjecture(wff);
+    if (formulaFactory == null)
+      pd.addConjecture(reader.readLine());
+    else
+      try {
+        pd.addConjecture(new StreamingFormulaParser(formulaFactory).parse(new LineReader(reader)));
+      } catch (FormulaParseException e) {
+        throw new ProblemDescriptionException(e.getMessage());
+      }
     pd.setProblemStatus(ProvabilityStatus.UNKNOWN);
     return pd;
   }
@@ -0,0 +1,338 @@
+/*******************************************************************************
+ * Copyright (C) 2013, 2016 Mauro Ferrari
+ * 
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+package jtabwbx.problems;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.LinkedList;
+
+import jtabwb.engine.ProvabilityStatus;
+import jtabwb.launcher._ProblemReader;
+import jtabwbx.prop.formula.BinaryFormulaCodec;
+import jtabwbx.prop.formula.Formula;
+import jtabwbx.prop.formula.FormulaFactory;
+
+/**
+ * A directory storing the problem descriptions read from files in a binary
+ * format, so that a problem already read is loaded without lexing and parsing
+ * its file. An entry is identified by a key computed from the content of the
+ * file and from the reader (see {@link #key(File, _ProblemReader)}), hence
+ * an entry is never used for a modified file. An entry stores the name, the
+ * status and the roles of the problem; the built formulas of the problem are
+ * stored by a {@link BinaryFormulaCodec}, the formulas given as strings are
+ * stored as strings.
+ * <p>
+ * An entry is written in a temporary file which is then renamed, so that a
+ * cache shared by many processes never contains partially written entries.
+ * </p>
+ * 
+ * @author Mauro Ferrari
+ */
+public class ProblemCache {
+
+  private static final int MAGIC = 0x4A545043;
+  private static final byte VERSION = 1;
+  private static final String EXTENSION = ".jpc";
+  // problem description types
+  private static final byte PROBLEM_DESCRIPTION = 'P';
+  private static final byte JTABWB_SIMPLE_PROBLEM = 'J';
+  private static final byte ILTP_PROBLEM = 'I';
+  // role kinds
+  private static final byte STRINGS = 'S';
+  private static final byte FORMULAS = 'F';
+
+  private final File directory;
+
+  /**
+   * Builds the cache stored in the specified directory; the directory is
+   * created if it does not exist.
+   * 
+   * @param directory the directory of the cache.
+   * @throws IOException if the directory cannot be created.
+   */
+  public ProblemCache(File directory) throws IOException {
+    if (!directory.exists() && !directory.mkdirs())
+      throw new IOException("Cache directory [" + directory + "] cannot be created.");
+    if (!directory.isDirectory())
+      throw new IOException("Cache directory [" + directory + "] is not a directory.");
+    this.directory = directory;
+  }
+
+  /**
+   * Returns the directory of this cache.
+   * 
+   * @return the directory of this cache.
+   */
+  public File getDirectory() {
+    return directory;
+  }
+
+  /**
+   * Returns the key of the problem read from the specified file by the
+   * specified reader; the key is given by the SHA-256 hash of the content of
+   * the file, by the name of the reader and by whether the reader builds the
+   * formulas in a factory (see {@link _BuildingProblemReader}).
+   * 
+   * @param file the file of the problem.
+   * @param reader the reader of the problem.
+   * @return the key of the problem.
+   * @throws IOException if an input/output error occurs reading the file.
+   */
+  public String key(File file, _ProblemReader reader) throws IOException {
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IOException(e);
+    }
+    InputStream in = new DigestInputStream(new FileInputStream(file), digest);
+    try {
+      byte[] buffer = new byte[1 << 16];
+      while (in.read(buffer) >= 0)
+        ;
+    } finally {
+      in.close();
+    }
+    StringBuilder sb = new StringBuilder();
+    for (byte b : digest.digest())
+      sb.append(String.format("%02x", b & 0xFF));
+    sb.append('-').append(reader.getName());
+    sb.append(buildsFormulas(reader) ? "-b" : "-s");
+    return sb.toString();
+  }
+
+  /**
+   * Returns the problem description stored with the specified key or
+   * <code>null</code> if there is no valid entry with such a key. If the
+   * reader builds the formulas in a factory, the stored formulas are built in
+   * such a factory, otherwise they are built in a new factory; the entry is not
+   * valid if it has been stored by a factory with a different configuration.
+   * 
+   * @param key the key of the problem.
+   * @param reader the reader of the problem.
+   * @return the stored problem description or <code>null</code>.
+   */
+  public ProblemDescription load(String key, _ProblemReader reader) {
+    File file = entry(key);
+    if (!file.isFile())
+      return null;
+    try {
+      DataInputStream in =
+          new DataInputStream(new BufferedInputStream(new FileInputStream(file), 1 << 16));
+      try {
+        FormulaFactory factory = buildsFormulas(reader)
+            ? ((_BuildingProblemReader) reader).getFormulaFactory() : null;
+        return read(in, factory);
+      } finally {
+        in.close();
+      }
+    } catch (IOException e) {
+      return null; // missing, truncated or corrupted entry
+    } catch (IllegalArgumentException e) {
+      return null; // invalid status
+    }
+  }
+
+  /**
+   * Stores the specified problem description with the specified key; problem
+   * descriptions of classes not known by the cache are not stored.
+   * 
+   * @param key the key of the problem.
+   * @param problem the problem description.
+   * @throws IOException if an input/output error occurs.
+   */
+  public void store(String key, ProblemDescription problem) throws IOException {
+    if (type(problem) < 0)
+      return;
+    File tmp = File.createTempFile(key, ".tmp", directory);
+    try {
+      DataOutputStream out =
+          new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp), 1 << 16));
+      try {
+        write(out, problem);
+      } finally {
+        out.close();
+      }
+      Files.move(tmp.toPath(), entry(key).toPath(), StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      tmp.delete();
+    }
+  }
+
+  private File entry(String key) {
+    return new File(directory, key + EXTENSION);
+  }
+
+  private static boolean buildsFormulas(_ProblemReader reader) {
+    return reader instanceof _BuildingProblemReader
+        && ((_BuildingProblemReader) reader).getFormulaFactory() != null;
+  }
+
+  private static byte type(ProblemDescription problem) {
+    Class<?> c = problem.getClass();
+    if (c == ProblemDescription.class)
+      return PROBLEM_DESCRIPTION;
+    if (c == JTabWbSimpleProblem.class)
+      return JTABWB_SIMPLE_PROBLEM;
+    if (c == ILTPProblem.class)
+      return ILTP_PROBLEM;
+    return -1;
+  }
+
+  private static void write(DataOutput out, ProblemDescription problem) throws IOException {
+    out.writeInt(MAGIC);
+    out.writeByte(VERSION);
+    out.writeByte(type(problem));
+    writeNullableString(out, problem.getProblemName());
+    writeNullableString(out, problem.getProblemStatus() == null ? null
+        : problem.getProblemStatus().name());
+    ArrayList<Formula> builtFormulas = new ArrayList<Formula>();
+    out.writeInt(problem.getRoles().size());
+    for (String role : problem.getRoles()) {
+      writeString(out, role);
+      LinkedList<Formula> formulas = problem.getBuiltFormulasByRole(role);
+      if (formulas != null) {
+        out.writeByte(FORMULAS);
+        out.writeInt(formulas.size());
+        for (Formula wff : formulas) {
+          out.writeInt(builtFormulas.size());
+          builtFormulas.add(wff);
+        }
+      } else {
+        LinkedList<String> strings = problem.getFormulasByRole(role);
+        out.writeByte(STRINGS);
+        out.writeInt(strings.size());
+        for (String wff : strings)
+          writeString(out, wff);
+      }
+    }
+    if (!builtFormulas.isEmpty())
+      BinaryFormulaCodec.write(out, problem.getFormulaFactory(), builtFormulas);
+  }
+
+  /*
+   * The built formulas are decoded after the roles, hence the roles are read
+   * first and the problem is built at the end, preserving the order of the
+   * roles.
+   */
+  private static ProblemDescription read(DataInput in, FormulaFactory factory)
+      throws IOException {
+    if (in.readInt() != MAGIC || in.readByte() != VERSION)
+      return null;
+    byte type = in.readByte();
+    String name = readNullableString(in);
+    String status = readNullableString(in);
+    int numberOfRoles = in.readInt();
+    String[] roles = new String[numberOfRoles];
+    Object[] formulas = new Object[numberOfRoles]; // String[] or int[]
+    boolean built = false;
+    for (int i = 0; i < numberOfRoles; i++) {
+      roles[i] = readString(in);
+      byte kind = in.readByte();
+      int size = in.readInt();
+      if (kind == FORMULAS) {
+        int[] positions = new int[size];
+        for (int j = 0; j < size; j++)
+          positions[j] = in.readInt();
+        formulas[i] = positions;
+        built = true;
+      } else if (kind == STRINGS) {
+        String[] strings = new String[size];
+        for (int j = 0; j < size; j++)
+          strings[j] = readString(in);
+        formulas[i] = strings;
+      } else
+        return null;
+    }
+    Formula[] builtFormulas = null;
+    if (built) {
+      builtFormulas = BinaryFormulaCodec.read(in, factory);
+      if (builtFormulas == null)
+        return null;
+    }
+    ProblemDescription problem;
+    switch (type) {
+    case PROBLEM_DESCRIPTION:
+      problem = new ProblemDescription(name);
+      break;
+    case JTABWB_SIMPLE_PROBLEM:
+      problem = new JTabWbSimpleProblem(name);
+      break;
+    case ILTP_PROBLEM:
+      problem = new ILTPProblem(name);
+      break;
+    default:
+      return null;
+    }
+    if (status != null)
+      problem.setProblemStatus(ProvabilityStatus.valueOf(status));
+    for (int i = 0; i < numberOfRoles; i++)
+      if (formulas[i] instanceof int[]) {
+        for (int position : (int[]) formulas[i]) {
+          if (position < 0 || position >= builtFormulas.length)
+            return null;
+          problem.add(roles[i], builtFormulas[position]);
+        }
+      } else
+        for (String wff : (String[]) formulas[i])
+          problem.add(roles[i], wff);
+    return problem;
+  }
+
+  private static void writeString(DataOutput out, String str) throws IOException {
+    byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  private static String readString(DataInput in) throws IOException {
+    int length = in.readInt();
+    if (length < 0)
+      throw new IOException("Invalid string length.");
+    byte[] bytes = new byte[length];
+    in.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private static void writeNullableString(DataOutput out, String str) throws IOException {
+    out.writeBoolean(str != null);
+    if (str != null)
+      writeString(out, str);
+  }
+
+  private static String readNullableString(DataInput in) throws IOException {
+    return in.readBoolean() ? readString(in) : null;
+  }
+
+}
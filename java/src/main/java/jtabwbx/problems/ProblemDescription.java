@@ -20,6 +20,9 @@ import java.util.HashMap;
 import java.util.LinkedList;
 
 import jtabwb.engine.ProvabilityStatus;
+import jtabwb.util.ContractViolationImplementationError;
+import jtabwbx.prop.formula.Formula;
+import jtabwbx.prop.formula.FormulaFactory;
 
 /**
  * The description of a logical problem. It consists of some data identifying
@@ -28,6 +31,13 @@ import jtabwb.engine.ProvabilityStatus;
  * is given by a set of formulas (represented as strings) identified by a role.
  * As an example, a problem can be specified by a list of formulas having the
  * role "axioms" and a formula having the role "conjecture".
+ * <p>
+ * A reader building the formulas of the problem while parsing can add the
+ * built formulas instead of their strings (see
+ * {@link #add(String, Formula)}); all the built formulas of a problem
+ * description belong to the same factory and the strings of such formulas are
+ * computed only if requested by {@link #getFormulasByRole(String)}.
+ * </p>
  * 
  * @author Mauro Ferrari
  */
@@ -38,6 +48,8 @@ public class ProblemDescription {
   private LinkedList<String> roles;
   private ProvabilityStatus status;
   private String source;
+  private HashMap<String, LinkedList<Formula>> builtFormulasByRole;
+  private FormulaFactory formulaFactory;
 
   public ProblemDescription(String name, String inputSource) {
     super();
@@ -45,6 +57,8 @@ public class ProblemDescription {
     this.source = inputSource;
     this.formulasByRole = new HashMap<String, LinkedList<String>>();
     this.roles = new LinkedList<String>();
+    this.builtFormulasByRole = new HashMap<String, LinkedList<Formula>>();
+    this.formulaFactory = null;
   }
 
   public ProblemDescription(String name) {
@@ -68,7 +82,37 @@ public class ProblemDescription {
    * <code>null</code>.
    */
   public LinkedList<String> getFormulasByRole(String role) {
-    return formulasByRole.get(role);
+    LinkedList<String> formulas = formulasByRole.get(role);
+    if (formulas == null && builtFormulasByRole.containsKey(role)) {
+      formulas = new LinkedList<String>();
+      for (Formula wff : builtFormulasByRole.get(role))
+        formulas.add(wff.format());
+      formulasByRole.put(role, formulas);
+    }
+    return formulas;
+  }
+
+  /**
+   * Returns the list of the built formulas in this problem description with
+   * the specified role or <code>null</code> if no built formula with the
+   * specified role is defined for this problem.
+   * 
+   * @param role the role of the formulas to be returned.
+   * @return the built formulas with the specified role or <code>null</code>.
+   */
+  public LinkedList<Formula> getBuiltFormulasByRole(String role) {
+    return builtFormulasByRole.get(role);
+  }
+
+  /**
+   * Returns the factory of the built formulas of this problem description or
+   * <code>null</code> if the problem description does not contain built
+   * formulas.
+   * 
+   * @return the factory of the built formulas or <code>null</code>.
+   */
+  public FormulaFactory getFormulaFactory() {
+    return formulaFactory;
   }
 
   /**
@@ -99,6 +143,30 @@ public class ProblemDescription {
     }
   }
 
+  /**
+   * Add to the problem description a built formula with the specified role;
+   * the formulas added by this method must belong to the same factory.
+   * 
+   * @param role the role of the formula
+   * @param formula the formula
+   */
+  public void add(String role, Formula formula) {
+    if (formulaFactory == null)
+      formulaFactory = formula.getFactory();
+    else if (formulaFactory != formula.getFactory())
+      throw new ContractViolationImplementationError(
+          "The built formulas of a problem must belong to the same factory.");
+    if (!roles.contains(role))
+      roles.add(role);
+    LinkedList<Formula> formulas = builtFormulasByRole.get(role);
+    if (formulas == null) {
+      formulas = new LinkedList<Formula>();
+      builtFormulasByRole.put(role, formulas);
+    }
+    formulas.add(formula);
+    formulasByRole.remove(role); // the strings are computed again if requested
+  }
+
   /**
    * @return the problem name
    */
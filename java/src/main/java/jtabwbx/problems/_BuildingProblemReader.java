@@ -0,0 +1,46 @@
+/*******************************************************************************
+ * Copyright (C) 2013, 2016 Mauro Ferrari
+ * 
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+package jtabwbx.problems;
+
+import jtabwb.launcher._ProblemReader;
+import jtabwbx.prop.formula.FormulaFactory;
+
+/**
+ * A problem reader that can build the formulas of the problems it reads in a
+ * given factory.
+ * 
+ * @author Mauro Ferrari
+ */
+public interface _BuildingProblemReader extends _ProblemReader {
+
+  /**
+   * Sets the factory building the formulas of the problems read by this
+   * reader.
+   * 
+   * @param formulaFactory the factory.
+   */
+  public void setFormulaFactory(FormulaFactory formulaFactory);
+
+  /**
+   * Returns the factory building the formulas of the problems read by this
+   * reader or <code>null</code> if no factory has been set.
+   * 
+   * @return the factory of this reader or <code>null</code>.
+   */
+  public FormulaFactory getFormulaFactory();
+
+}
@@ -11,8 +11,6 @@
  ******************************************************************************/
 package jtabwbx.prop.formula;
 
-import java.util.HashSet;
-
 import jtabwb.util.CaseNotImplementedImplementationError;
 import jtabwbx.prop.basic.PropositionalConnective;
 
@@ -23,12 +21,12 @@ import jtabwbx.prop.basic.PropositionalConnective;
  */
 abstract class AbstractCompoundFormula extends Formula {
 
-  private HashSet<FormulaProposition> propositions;
-  private HashSet<Formula> formulae;
-  private Formula booleanSimplifiedVersion;
+  Formula booleanSimplifiedVersion;
 
   private final int hash;
   private boolean isLocal;
+  private final boolean containsTrue;
+  private final boolean containsFalse;
   private PropositionalConnective mainConnective;
 
   protected final FormulaFactory formulaFactory;
@@ -43,9 +41,10 @@ abstract class AbstractCompoundFormula extends Formula {
     this.subFormulas = subFormulas;
     this.left = left;
     this.right = right;
-    this.propositions = null;
     this.booleanSimplifiedVersion = null;
     this.hash = computeHashCode(subFormulas);
+    this.containsTrue = left.containsTrue() || right.containsTrue();
+    this.containsFalse = left.containsFalse() || right.containsFalse();
 
     switch (mainConnective) {
     case AND:
@@ -86,25 +85,6 @@ abstract class AbstractCompoundFormula extends Formula {
     return mainConnective.getName() + "-formula";
   }
 
-  private void updateHashSetsIfNeeded() {
-    if (propositions == null) {
-      propositions = new HashSet<FormulaProposition>();
-      formulae = new HashSet<Formula>();
-      for (Formula sub : subFormulas) {
-        if (sub instanceof FormulaProposition) {
-          FormulaProposition f = (FormulaProposition) sub;
-          propositions.add(f);
-        } else {
-          AbstractCompoundFormula subCompound = (AbstractCompoundFormula) sub;
-          subCompound.updateHashSetsIfNeeded();
-          propositions.addAll(subCompound.propositions);
-          formulae.add(subCompound);
-          formulae.addAll(subCompound.formulae);
-        }
-      }
-    }
-  }
-
   @Override
   public Formula[] immediateSubformulas() {
     return subFormulas;
@@ -140,38 +120,19 @@ abstract class AbstractCompoundFormula extends Formula {
     return hash;
   }
 
-  private boolean containSubFormula(Substitution subst) {
-    updateHashSetsIfNeeded();
-    boolean contain = false;
-    for (Formula key : subst.keySet()) {
-      contain = contain || formulae.contains(key) || propositions.contains(key);
-    }
-    return contain;
-  }
-
-  private boolean containProposition(PropositionalSubstitution subst) {
-    updateHashSetsIfNeeded();
-    boolean contain = false;
-    for (FormulaProposition key : subst.keySet()) {
-      contain = contain || propositions.contains(key);
-    }
-    return contain;
-  }
-
   @Override
   public final boolean containsProposition(FormulaProposition proposition) {
-    updateHashSetsIfNeeded();
-    return propositions.contains(proposition);
+    return formulaFactory.getSubformulaClosure(this).contains(proposition);
   }
 
   @Override
   public final boolean containsTrue() {
-    return containsProposition((FormulaProposition) formulaFactory.getTrue());
+    return containsTrue;
   }
 
   @Override
   public final boolean containsFalse() {
-    return containsProposition((FormulaProposition) formulaFactory.getFalse());
+    return containsFalse;
   }
 
   /**
@@ -184,13 +145,12 @@ abstract class AbstractCompoundFormula extends Formula {
   public final Formula calculateBooleanSimplification() {
     if (booleanSimplifiedVersion != null)
       return booleanSimplifiedVersion;
+    return FormulaOperations.booleanSimplification(this);
+  }
 
-    updateHashSetsIfNeeded();
-    if (!(propositions.contains(formulaFactory.getTrue()) || propositions.contains(formulaFactory
-        .getFalse())))
-      booleanSimplifiedVersion = this;
-    else
-      booleanSimplifiedVersion = computeBooleanSimplification();
+  @Override
+  final Formula booleanSimplification(Formula first, Formula second) {
+    booleanSimplifiedVersion = computeBooleanSimplification(first, second);
     return booleanSimplifiedVersion;
   }
 
@@ -217,42 +177,17 @@ abstract class AbstractCompoundFormula extends Formula {
 
   @Override
   public final Formula applySubstitution(Substitution subst) {
-    Formula newF = subst.get(this);
-
-    if (newF != null)
-      return newF;
-
-    if (!containSubFormula(subst))
-      return this;
-
-    newF =
-        formulaFactory.buildCompound(mainConnective(), left.applySubstitution(subst),
-            right.applySubstitution(subst));
-
-    return newF;
+    return FormulaOperations.applySubstitution(this, subst);
   }
 
   @Override
   public final Formula applySubstitution(PropositionalSubstitution subst) {
-    if (!containProposition(subst))
-      return this;
-
-    Formula newF =
-        formulaFactory.buildCompound(mainConnective(), left.applySubstitution(subst),
-            right.applySubstitution(subst));
-
-    return newF;
+    return FormulaOperations.applySubstitution(this, subst);
   }
 
   @Override
   public final Formula applyIntuitionisticPartialSubstitution(Substitution subst) {
-    Formula newF = subst.get(this);
-
-    if (newF != null)
-      return newF;
-
-    newF = computePartialSubstitution(subst);
-    return newF;
+    return FormulaOperations.applyIntuitionisticPartialSubstitution(this, subst);
   }
 
   @Override
@@ -284,7 +219,14 @@ abstract class AbstractCompoundFormula extends Formula {
     return result;
   }
 
-  abstract Formula computeBooleanSimplification();
-
-  protected abstract Formula computePartialSubstitution(Substitution subst);
+  /**
+   * Returns the boolean simplification of this formula given the boolean
+   * simplifications of its immediate subformulas; <code>newRight</code> is
+   * <code>null</code> if this formula has one immediate subformula.
+   * 
+   * @param newLeft the simplification of the left subformula.
+   * @param newRight the simplification of the right subformula.
+   * @return the simplified formula.
+   */
+  abstract Formula computeBooleanSimplification(Formula newLeft, Formula newRight);
 }
@@ -0,0 +1,219 @@
+/*******************************************************************************
+ * Copyright (C) 2013, 2016 Mauro Ferrari
+ *  
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 3 of the License, or (at your option) any later
+ * version.
+ *  
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *  
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package jtabwbx.prop.formula;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.List;
+
+import jtabwb.util.ContractViolationImplementationError;
+import jtabwbx.prop.basic.PropositionalConnective;
+
+/**
+ * A compact binary encoding of a list of formulas of a factory. The encoding
+ * stores the DAG of the formulas in topological order: every subformula is
+ * stored once, after its immediate subformulas, as the name of a proposition
+ * or as a connective followed by the positions of its immediate subformulas.
+ * The header of the encoding stores the names of the constants and the
+ * translations of the factory (see
+ * {@link FormulaFactory#setTranslateNegations(boolean)}), since the same
+ * formulas built in a factory with a different configuration may have a
+ * different structure.
+ * <p>
+ * Decoding rebuilds the formulas in a factory by a single pass on the
+ * encoding, without parsing.
+ * </p>
+ *
+ * @author Mauro Ferrari
+ */
+public final class BinaryFormulaCodec {
+
+  private static final int MAGIC = 0x4A544644;
+  private static final byte ATOM = 0; // connectives are encoded by ordinal + 1
+  private static final byte END = -1;
+  private static final PropositionalConnective[] CONNECTIVES = PropositionalConnective.values();
+
+  private BinaryFormulaCodec() {
+  }
+
+  /**
+   * Writes the encoding of the specified formulas of the specified factory.
+   *
+   * @param out the output.
+   * @param factory the factory of the formulas.
+   * @param formulas the formulas to write.
+   * @throws IOException if an input/output error occurs.
+   */
+  public static void write(DataOutput out, FormulaFactory factory, List<Formula> formulas)
+      throws IOException {
+    out.writeInt(MAGIC);
+    out.writeUTF(factory.getFalse().getName());
+    out.writeUTF(factory.getTrue().getName());
+    out.writeByte(translations(factory));
+    Encoder encoder = new Encoder(out, factory.numberOfGeneratedFormulas());
+    int[] roots = new int[formulas.size()];
+    try {
+      int i = 0;
+      for (Formula wff : formulas) {
+        if (wff.getFactory() != factory)
+          throw new ContractViolationImplementationError(
+              "The encoded formulas must belong to the specified factory.");
+        roots[i++] = encoder.traverse(wff);
+      }
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+    out.writeByte(END);
+    writeVarInt(out, roots.length);
+    for (int root : roots)
+      writeVarInt(out, root);
+  }
+
+  /**
+   * Reads an encoding written by
+   * {@link #write(DataOutput, FormulaFactory, List)} and returns the decoded formulas built in the specified factory or
+   * <code>null</code> if the configuration of the factory is not the one
+   * stored in the encoding. If the specified factory is <code>null</code>, the
+   * formulas are built in a new factory having the stored configuration.
+   *
+   * @param in the input.
+   * @param factory the factory building the formulas or <code>null</code>.
+   * @return the decoded formulas or <code>null</code>.
+   * @throws IOException if an input/output error occurs or the input is not a
+   * valid encoding.
+   */
+  public static Formula[] read(DataInput in, FormulaFactory factory) throws IOException {
+    if (in.readInt() != MAGIC)
+      throw new IOException("Not an encoding of formulas.");
+    String falseName = in.readUTF();
+    String trueName = in.readUTF();
+    byte translations = in.readByte();
+    if (factory == null) {
+      factory = new FormulaFactory(falseName, trueName);
+      factory.setTranslateNegations((translations & 1) != 0);
+      factory.setTranslateEquivalences((translations & 2) != 0);
+      factory.setTranslateImplisesFalse((translations & 4) != 0);
+    } else if (!factory.getFalse().getName().equals(falseName)
+        || !factory.getTrue().getName().equals(trueName) || translations(factory) != translations)
+      return null;
+    Formula[] nodes = new Formula[64];
+    int n = 0;
+    for (byte tag = in.readByte(); tag != END; tag = in.readByte()) {
+      if (n == nodes.length)
+        nodes = Arrays.copyOf(nodes, 2 * n);
+      if (tag == ATOM)
+        nodes[n++] = factory.buildAtomic(in.readUTF());
+      else if (tag < 0 || tag > CONNECTIVES.length)
+        throw new IOException("Invalid connective in the encoding of formulas.");
+      else {
+        PropositionalConnective connective = CONNECTIVES[tag - 1];
+        Formula first = node(nodes, n, readVarInt(in));
+        Formula wff;
+        if (connective == PropositionalConnective.NOT)
+          wff = factory.buildCompound(connective, first);
+        else
+          wff = factory.buildCompound(connective, first, node(nodes, n, readVarInt(in)));
+        nodes[n++] = wff;
+      }
+    }
+    Formula[] roots = new Formula[readVarInt(in)];
+    for (int i = 0; i < roots.length; i++)
+      roots[i] = node(nodes, n, readVarInt(in));
+    return roots;
+  }
+
+  private static byte translations(FormulaFactory factory) {
+    int translations = 0;
+    if (factory.translateNot)
+      translations |= 1;
+    if (factory.translateIff)
+      translations |= 2;
+    if (factory.translateImpliesFalse)
+      translations |= 4;
+    return (byte) translations;
+  }
+
+  private static Formula node(Formula[] nodes, int n, int position) throws IOException {
+    if (position >= n)
+      throw new IOException("Invalid formula reference in the encoding of formulas.");
+    return nodes[position];
+  }
+
+  private static void writeVarInt(DataOutput out, int value) throws IOException {
+    while ((value & ~0x7F) != 0) {
+      out.writeByte((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    out.writeByte(value);
+  }
+
+  private static int readVarInt(DataInput in) throws IOException {
+    int value = 0;
+    for (int shift = 0; shift < 32; shift += 7) {
+      byte b = in.readByte();
+      value |= (b & 0x7F) << shift;
+      if (b >= 0)
+        return value;
+    }
+    throw new IOException("Invalid integer in the encoding of formulas.");
+  }
+
+  /*
+   * Writes the formulas not yet written in post-order; the position of a
+   * formula is the number of formulas written before it.
+   */
+  private static class Encoder extends FormulaVisitor<Integer> {
+
+    private final DataOutput out;
+    private final int[] positions; // position + 1 of the formula with the index
+    private int written = 0;
+
+    Encoder(DataOutput out, int numberOfFormulas) {
+      this.out = out;
+      this.positions = new int[numberOfFormulas];
+    }
+
+    @Override
+    protected Integer visitBefore(Formula wff) {
+      int position = positions[wff.getIndex()];
+      return position == 0 ? null : position - 1;
+    }
+
+    @Override
+    protected Integer visit(Formula wff, Integer first, Integer second) {
+      try {
+        if (wff.isAtomic()) {
+          out.writeByte(ATOM);
+          out.writeUTF(((FormulaProposition) wff).getName());
+        } else {
+          out.writeByte(wff.mainConnective().ordinal() + 1);
+          writeVarInt(out, first);
+          if (second != null)
+            writeVarInt(out, second);
+        }
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      positions[wff.getIndex()] = ++written;
+      return written - 1;
+    }
+  }
+
+}
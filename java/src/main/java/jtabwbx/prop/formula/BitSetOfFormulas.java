@@ -20,11 +20,17 @@ import java.util.BitSet;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.function.Consumer;
 
 import jtabwbx.prop.basic.FormulaType;
 
 /**
- * Sets of formulas implemented over bitsets.
+ * Sets of formulas implemented over bitsets. The queries on the formulas of a
+ * given type intersect this set with the set of the formulas of the type
+ * generated by the factory (see
+ * {@link FormulaFactory#getGeneratedFormulasOfType(FormulaType)}), hence they
+ * skip the formulas of the other types a word at a time and do not allocate
+ * objects.
  * 
  * @author Mauro Ferrari
  */
@@ -37,6 +43,15 @@ public class BitSetOfFormulas extends BitSet implements _FormulaSet, Iterable<Fo
     this.formulaFactory = factory;
   }
 
+  /*
+   * Constructs an empty set whose initial size is large enough to contain the
+   * formulas with index less than nbits.
+   */
+  BitSetOfFormulas(FormulaFactory factory, int nbits) {
+    super(nbits);
+    this.formulaFactory = factory;
+  }
+
   @Override
   public boolean add(Formula wff) {
     int idx = wff.getIndex();
@@ -73,7 +88,57 @@ public class BitSetOfFormulas extends BitSet implements _FormulaSet, Iterable<Fo
   }
 
   public boolean containsFormulaOfType(FormulaType type) {
-    return getFirst(type) != null;
+    return nextSetBit(type, 0) >= 0;
+  }
+
+  /**
+   * Returns the least index greater than or equal to <code>from</code> of a
+   * formula of the specified type in this set or -1 if there is no such
+   * formula. The formulas of a given type in the set can be visited by:
+   * 
+   * <pre>
+   * for (int i = set.nextSetBit(type, 0); i &gt;= 0; i = set.nextSetBit(type, i + 1))
+   *   visit(factory.getByIndex(i));
+   * </pre>
+   * 
+   * @param type the type of the formula.
+   * @param from the index to start from.
+   * @return the index of the next formula of type <code>type</code> or -1.
+   */
+  public int nextSetBit(FormulaType type, int from) {
+    BitSet mask = formulaFactory.getGeneratedFormulasOfType(type);
+    int i = this.nextSetBit(from);
+    while (i >= 0) {
+      int j = mask.nextSetBit(i);
+      if (j == i || j < 0)
+        return j;
+      i = this.nextSetBit(j);
+    }
+    return -1;
+  }
+
+  /**
+   * Performs the specified action on each formula of this set in order of
+   * index.
+   * 
+   * @param action the action to perform.
+   */
+  @Override
+  public void forEach(Consumer<? super Formula> action) {
+    for (int i = this.nextSetBit(0); i >= 0; i = this.nextSetBit(i + 1))
+      action.accept(formulaFactory.getByIndex(i));
+  }
+
+  /**
+   * Performs the specified action on each formula of the specified type of this
+   * set in order of index.
+   * 
+   * @param type the type of the formulas.
+   * @param action the action to perform.
+   */
+  public void forEach(FormulaType type, Consumer<? super Formula> action) {
+    for (int i = nextSetBit(type, 0); i >= 0; i = nextSetBit(type, i + 1))
+      action.accept(formulaFactory.getByIndex(i));
   }
 
   /**
@@ -101,13 +166,13 @@ public class BitSetOfFormulas extends BitSet implements _FormulaSet, Iterable<Fo
    * this set.
    */
   public Collection<Formula> getAllFormulas(FormulaType formulaType) {
+    int i = nextSetBit(formulaType, 0);
+    if (i < 0)
+      return null;
     LinkedList<Formula> list = new LinkedList<Formula>();
-    for (int i = this.nextSetBit(0); i >= 0; i = this.nextSetBit(i + 1)) {
-      Formula wff = formulaFactory.getByIndex(i);
-      if (wff.getFormulaType() == formulaType)
-        list.add(wff);
-    }
-    return list.size() == 0 ? null : list;
+    for (; i >= 0; i = nextSetBit(formulaType, i + 1))
+      list.add(formulaFactory.getByIndex(i));
+    return list;
   }
 
   /**
@@ -121,13 +186,11 @@ public class BitSetOfFormulas extends BitSet implements _FormulaSet, Iterable<Fo
    * specified type.
    */
   public BitSetOfFormulas getBitsetOfAllFormulas(FormulaType formulaType) {
-    BitSetOfFormulas bset = new BitSetOfFormulas(this.formulaFactory);
-    for (int i = this.nextSetBit(0); i >= 0; i = this.nextSetBit(i + 1)) {
-      Formula wff = formulaFactory.getByIndex(i);
-      if (wff.getFormulaType() == formulaType)
-        bset.add(wff);
-    }
-    return bset.isEmpty() ? null : bset;
+    if (nextSetBit(formulaType, 0) < 0)
+      return null;
+    BitSetOfFormulas bset = this.clone();
+    bset.and(formulaFactory.getGeneratedFormulasOfType(formulaType));
+    return bset;
   }
 
   @Override
@@ -164,24 +227,25 @@ public class BitSetOfFormulas extends BitSet implements _FormulaSet, Iterable<Fo
    * <code>null</code>.
    */
   public Formula getFirstAndRemove(FormulaType type) {
-    for (int i = this.nextSetBit(0); i >= 0; i = this.nextSetBit(i + 1)) {
-      Formula wff = formulaFactory.getByIndex(i);
-      if (wff.getFormulaType() == type) {
-        Formula found = formulaFactory.getByIndex(i);
-        this.clear(found.getIndex());
-        return found;
-      }
-    }
-    return null;
+    int idx = nextSetBit(type, 0);
+    if (idx < 0)
+      return null;
+    this.clear(idx);
+    return formulaFactory.getByIndex(idx);
   }
 
+  /**
+   * Returns the first formula with the specified type of this bitset or
+   * <code>null</code> if this bitset does not contain any formula of the
+   * specified type.
+   * 
+   * @param type the type of the formula to return.
+   * @return the first formula with the specified type in this bitset or
+   * <code>null</code>.
+   */
   public Formula getFirst(FormulaType type) {
-    for (int i = this.nextSetBit(0); i >= 0; i = this.nextSetBit(i + 1)) {
-      Formula wff = formulaFactory.getByIndex(i);
-      if (wff.getFormulaType() == type)
-        return formulaFactory.getByIndex(i);
-    }
-    return null;
+    int idx = nextSetBit(type, 0);
+    return idx < 0 ? null : formulaFactory.getByIndex(idx);
   }
 
   public FormulaFactory getFactory() {
@@ -228,10 +292,17 @@ public class BitSetOfFormulas extends BitSet implements _FormulaSet, Iterable<Fo
     return result;
   }
 
+  /**
+   * Returns <code>true</code> iff this set is a subset of the specified one.
+   * 
+   * @param other the set to compare with.
+   * @return <code>true</code> iff this set is contained in <code>other</code>.
+   */
   public boolean subseteq(BitSetOfFormulas other) {
-    BitSetOfFormulas cloned = this.clone();
-    cloned.and(other);
-    return cloned.equals(this);
+    for (int i = this.nextSetBit(0); i >= 0; i = this.nextSetBit(other.nextClearBit(i)))
+      if (!other.get(i))
+        return false;
+    return true;
   }
 
   public boolean superseteq(BitSetOfFormulas other) {
@@ -0,0 +1,141 @@
+/*******************************************************************************
+ * Copyright (C) 2013, 2016 Mauro Ferrari
+ *  
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 3 of the License, or (at your option) any later
+ * version.
+ *  
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *  
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package jtabwbx.prop.formula;
+
+import jtabwbx.prop.basic.FormulaType;
+import jtabwbx.prop.basic.PropositionalConnective;
+
+/**
+ * A compound formula of a {@link CompactFormulaFactory}: a lightweight view of
+ * the data stored by the {@link CompactFormulaTable} of the factory. Many views
+ * of the same formula may exist; two views are equal iff they have the same
+ * index. The operations on formulas not reading the table are computed on a
+ * temporary object of the corresponding compound formula class.
+ *
+ * @author Mauro Ferrari
+ */
+final class CompactFormula extends Formula {
+
+  private final CompactFormulaTable table;
+
+  CompactFormula(CompactFormulaTable table, int index, int size) {
+    this.table = table;
+    this.setIndex(index);
+    this.size = size;
+  }
+
+  @Override
+  public Formula[] immediateSubformulas() {
+    return table.immediateSubformulas(getIndex());
+  }
+
+  @Override
+  public PropositionalConnective mainConnective() {
+    return table.connective(getIndex());
+  }
+
+  @Override
+  public FormulaType getFormulaType() {
+    return table.type(getIndex());
+  }
+
+  @Override
+  public boolean isIntuitionisticLocalFormula() {
+    return table.isLocal(getIndex());
+  }
+
+  @Override
+  public FormulaFactory getFactory() {
+    return table.factory;
+  }
+
+  @Override
+  public boolean isAtomic() {
+    return false;
+  }
+
+  @Override
+  public boolean isCompound() {
+    return true;
+  }
+
+  @Override
+  public boolean isFalse() {
+    return false;
+  }
+
+  @Override
+  public boolean isTrue() {
+    return false;
+  }
+
+  @Override
+  boolean containsProposition(FormulaProposition proposition) {
+    return table.factory.getSubformulaClosure(this).contains(proposition);
+  }
+
+  @Override
+  public boolean containsTrue() {
+    return table.containsTrue(getIndex());
+  }
+
+  @Override
+  public boolean containsFalse() {
+    return table.containsFalse(getIndex());
+  }
+
+  @Override
+  public Formula calculateBooleanSimplification() {
+    return FormulaOperations.booleanSimplification(this);
+  }
+
+  @Override
+  Formula booleanSimplification(Formula first, Formula second) {
+    return table.materialize(getIndex()).computeBooleanSimplification(first, second);
+  }
+
+  @Override
+  public Formula applySubstitution(Substitution subst) {
+    return FormulaOperations.applySubstitution(this, subst);
+  }
+
+  @Override
+  public Formula applySubstitution(PropositionalSubstitution subst) {
+    return FormulaOperations.applySubstitution(this, subst);
+  }
+
+  @Override
+  public Formula applyIntuitionisticPartialSubstitution(Substitution subst) {
+    return FormulaOperations.applyIntuitionisticPartialSubstitution(this, subst);
+  }
+
+  @Override
+  public String shortName() {
+    return mainConnective().getName() + "-formula";
+  }
+
+  @Override
+  public String format() {
+    return this.toString();
+  }
+
+  @Override
+  public String toString() {
+    return table.materialize(getIndex()).toString();
+  }
+
+}
@@ -0,0 +1,61 @@
+/*******************************************************************************
+ * Copyright (C) 2013, 2016 Mauro Ferrari
+ *  
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 3 of the License, or (at your option) any later
+ * version.
+ *  
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *  
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package jtabwbx.prop.formula;
+
+/**
+ * A formula factory storing compound formulas in arrays of primitive values
+ * instead of objects (see {@link CompactFormulaTable}); it is suited for
+ * problems with a huge number of subformulas. The compound formulas returned
+ * by the factory are lightweight views created on demand: equal formulas have
+ * the same index and are equal according to {@link Formula#equals(Object)},
+ * but they may be distinct objects, hence they must not be compared by
+ * <code>==</code>. Propositions are objects, as in {@link FormulaFactory}.
+ * <p>
+ * Retrieving a formula by index allocates a view, and operations like boolean
+ * simplification and substitution are slower than in {@link FormulaFactory},
+ * since they are not cached. The factory is not thread-safe.
+ * </p>
+ * 
+ * @author Mauro Ferrari
+ */
+public class CompactFormulaFactory extends FormulaFactory {
+
+  /**
+   * Constructs a compact factory using the specified names for true and false
+   * representation.
+   * 
+   * @param falseName the name of the false constant.
+   * @param trueName the name of the true constant.
+   */
+  public CompactFormulaFactory(String falseName, String trueName) {
+    super(falseName, trueName, FormulaTable.Kind.COMPACT);
+  }
+
+  /**
+   * Constructs a compact factory using "false" and "true" as names for true and
+   * false constants.
+   */
+  public CompactFormulaFactory() {
+    this("false", "true");
+  }
+
+  @Override
+  public String getDescription() {
+    return "Compact factory for propositional formulas.";
+  }
+
+}
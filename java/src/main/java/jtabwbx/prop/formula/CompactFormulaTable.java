@@ -0,0 +1,266 @@
+/*******************************************************************************
+ * Copyright (C) 2013, 2016 Mauro Ferrari
+ *  
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 3 of the License, or (at your option) any later
+ * version.
+ *  
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *  
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package jtabwbx.prop.formula;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+import jtabwb.util.ImplementationError;
+import jtabwbx.prop.basic.FormulaType;
+import jtabwbx.prop.basic.PropositionalConnective;
+
+/**
+ * The table of a {@link CompactFormulaFactory}. Propositions are stored as
+ * objects, while compound formulas are stored in arrays of primitive values
+ * indexed by formula index: the main connective, the type, the indexes of the
+ * immediate subformulas, the size, the hash code and the flags of a formula.
+ * Compound formulas are interned by an open-addressing hash table of formula
+ * indexes; {@link #getByIndex(int)} returns a new {@link CompactFormula}
+ * viewing the arrays.
+ *
+ * @author Mauro Ferrari
+ */
+final class CompactFormulaTable extends FormulaTable {
+
+  private static final PropositionalConnective[] CONNECTIVES = PropositionalConnective.values();
+  private static final FormulaType[] TYPES = FormulaType.values();
+  private static final byte ATOMIC = -1; // the connective of propositions
+  private static final byte LOCAL = 1; // intuitionistic local formula flag
+  private static final byte CONTAINS_TRUE = 2; // the formula contains TRUE
+  private static final byte CONTAINS_FALSE = 4; // the formula contains FALSE
+
+  private final HashMap<String, FormulaProposition> propositions;
+  private final ArrayList<FormulaProposition> propositionsList;
+  private byte[] connectives;
+  private byte[] types;
+  private byte[] flags;
+  // the index of the left subformula of a compound formula or the position in
+  // propositionsList of a proposition
+  private int[] lefts;
+  private int[] rights; // -1 for unary formulas
+  private int[] sizes;
+  private int[] hashes;
+  private int numberOfFormulas;
+  private int numberOfCompounds;
+  // the hash table: an element is 0 (empty) or 1 + the index of a compound
+  private int[] slots;
+
+  CompactFormulaTable(FormulaFactory factory) {
+    super(factory);
+    this.propositions = new HashMap<String, FormulaProposition>(100, .5f);
+    this.propositionsList = new ArrayList<FormulaProposition>();
+    int capacity = 64;
+    this.connectives = new byte[capacity];
+    this.types = new byte[capacity];
+    this.flags = new byte[capacity];
+    this.lefts = new int[capacity];
+    this.rights = new int[capacity];
+    this.sizes = new int[capacity];
+    this.hashes = new int[capacity];
+    this.slots = new int[2 * capacity];
+    this.numberOfFormulas = 0;
+    this.numberOfCompounds = 0;
+  }
+
+  @Override
+  FormulaProposition getProposition(String name) {
+    return propositions.get(name);
+  }
+
+  @Override
+  FormulaProposition intern(FormulaProposition proposition) {
+    FormulaProposition canonical = propositions.get(proposition.getName());
+    if (canonical == null) {
+      propositions.put(proposition.getName(), proposition);
+      int idx = add(ATOMIC, proposition.getFormulaType(), propositionsList.size(), -1, 1,
+          proposition.hashCode(), flags(proposition));
+      propositionsList.add(proposition);
+      proposition.setIndex(idx);
+      factory.registerFormula(proposition);
+      canonical = proposition;
+    }
+    return canonical;
+  }
+
+  @Override
+  Formula intern(AbstractCompoundFormula wff) {
+    Formula[] subformulas = wff.immediateSubformulas();
+    int connective = wff.mainConnective().ordinal();
+    int left = subformulas[0].getIndex();
+    int right = subformulas.length > 1 ? subformulas[1].getIndex() : -1;
+    // the equality on compound formulas is commutative except for
+    // implications and negations (see AbstractCompoundFormula#equals)
+    boolean commutative = wff.mainConnective() != PropositionalConnective.IMPLIES
+        && wff.mainConnective() != PropositionalConnective.NOT;
+    int hash = wff.hashCode();
+    int mask = slots.length - 1;
+    int pos = mix(hash) & mask;
+    for (int slot = slots[pos]; slot != 0; slot = slots[pos]) {
+      int idx = slot - 1;
+      if (hashes[idx] == hash && connectives[idx] == connective
+          && (lefts[idx] == left && rights[idx] == right || commutative && lefts[idx] == right
+              && rights[idx] == left))
+        return new CompactFormula(this, idx, sizes[idx]);
+      pos = (pos + 1) & mask;
+    }
+    int idx = add(connective, wff.getFormulaType(), left, right, wff.size(), hash, flags(wff));
+    slots[pos] = idx + 1;
+    if (++numberOfCompounds > slots.length >>> 1)
+      rehash();
+    CompactFormula canonical = new CompactFormula(this, idx, sizes[idx]);
+    factory.registerFormula(canonical);
+    return canonical;
+  }
+
+  private static byte flags(Formula wff) {
+    int flags = 0;
+    if (wff.isIntuitionisticLocalFormula())
+      flags |= LOCAL;
+    if (wff.containsTrue())
+      flags |= CONTAINS_TRUE;
+    if (wff.containsFalse())
+      flags |= CONTAINS_FALSE;
+    return (byte) flags;
+  }
+
+  private int add(int connective, FormulaType type, int left, int right, int size, int hash,
+      byte formulaFlags) {
+    int idx = numberOfFormulas;
+    if (idx == connectives.length) {
+      int capacity = 2 * idx;
+      connectives = Arrays.copyOf(connectives, capacity);
+      types = Arrays.copyOf(types, capacity);
+      flags = Arrays.copyOf(flags, capacity);
+      lefts = Arrays.copyOf(lefts, capacity);
+      rights = Arrays.copyOf(rights, capacity);
+      sizes = Arrays.copyOf(sizes, capacity);
+      hashes = Arrays.copyOf(hashes, capacity);
+    }
+    connectives[idx] = (byte) connective;
+    types[idx] = (byte) type.ordinal();
+    flags[idx] = formulaFlags;
+    lefts[idx] = left;
+    rights[idx] = right;
+    sizes[idx] = size;
+    hashes[idx] = hash;
+    numberOfFormulas++;
+    return idx;
+  }
+
+  private void rehash() {
+    int[] newSlots = new int[2 * slots.length];
+    int mask = newSlots.length - 1;
+    for (int slot : slots)
+      if (slot != 0) {
+        int pos = mix(hashes[slot - 1]) & mask;
+        while (newSlots[pos] != 0)
+          pos = (pos + 1) & mask;
+        newSlots[pos] = slot;
+      }
+    slots = newSlots;
+  }
+
+  private static int mix(int hash) {
+    int h = hash * 0x9E3779B9;
+    return h ^ (h >>> 16);
+  }
+
+  @Override
+  Formula getByIndex(int index) {
+    if (index >= numberOfFormulas)
+      throw new IndexOutOfBoundsException("No formula with index: " + index);
+    if (connectives[index] == ATOMIC)
+      return propositionsList.get(lefts[index]);
+    return new CompactFormula(this, index, sizes[index]);
+  }
+
+  @Override
+  int numberOfFormulas() {
+    return numberOfFormulas;
+  }
+
+  @Override
+  int numberOfPropositions() {
+    return propositionsList.size();
+  }
+
+  @Override
+  int numberOfCompoundFormulas() {
+    return numberOfCompounds;
+  }
+
+  PropositionalConnective connective(int index) {
+    return CONNECTIVES[connectives[index]];
+  }
+
+  FormulaType type(int index) {
+    return TYPES[types[index]];
+  }
+
+  boolean isLocal(int index) {
+    return (flags[index] & LOCAL) != 0;
+  }
+
+  boolean containsTrue(int index) {
+    return (flags[index] & CONTAINS_TRUE) != 0;
+  }
+
+  boolean containsFalse(int index) {
+    return (flags[index] & CONTAINS_FALSE) != 0;
+  }
+
+  /**
+   * Returns the immediate subformulas of the compound formula with the
+   * specified index.
+   * 
+   * @param index the index of a compound formula.
+   * @return the immediate subformulas of the formula.
+   */
+  Formula[] immediateSubformulas(int index) {
+    if (rights[index] < 0)
+      return new Formula[] { getByIndex(lefts[index]) };
+    return new Formula[] { getByIndex(lefts[index]), getByIndex(rights[index]) };
+  }
+
+  /**
+   * Returns a new compound formula object equal to the compound formula with
+   * the specified index; the object is not interned and is used to compute the
+   * operations implemented by the compound formula classes.
+   * 
+   * @param index the index of a compound formula.
+   * @return an object representing the formula.
+   */
+  AbstractCompoundFormula materialize(int index) {
+    Formula left = getByIndex(lefts[index]);
+    switch (connective(index)) {
+    case AND:
+      return new FormulaAnd(factory, left, getByIndex(rights[index]));
+    case OR:
+      return new FormulaOr(factory, left, getByIndex(rights[index]));
+    case IMPLIES:
+      return new FormulaImplies(factory, left, getByIndex(rights[index]));
+    case EQ:
+      return new FormulaIff(factory, left, getByIndex(rights[index]));
+    case NOT:
+      return new FormulaNot(factory, left);
+    default:
+      throw new ImplementationError(ImplementationError.CASE_NOT_IMPLEMENTED);
+    }
+  }
+
+}
@@ -0,0 +1,65 @@
+/*******************************************************************************
+ * Copyright (C) 2013, 2016 Mauro Ferrari
+ *  
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 3 of the License, or (at your option) any later
+ * version.
+ *  
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *  
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package jtabwbx.prop.formula;
+
+/**
+ * A formula factory which can be used by many threads, for instance to parse
+ * the formulas of a problem in parallel or to run many provers on the formulas
+ * of the same factory. The factory guarantees that equal formulas built by
+ * different threads are the same object and have the same index. Formulas
+ * already built are retrieved without locking; a new formula gets the next
+ * index from an atomic counter and is stored in a segmented array supporting
+ * concurrent reads.
+ * <p>
+ * The sets returned by {@link #getGeneratedFormula()},
+ * {@link #getGeneratedFormulasOfType(jtabwbx.prop.basic.FormulaType)} and
+ * {@link #intuitionisticNonLocalFormulas()}, the value of
+ * {@link #numberOfGeneratedFormulas()} and the list returned by
+ * {@link #generatedFormulas()} are consistent only when no thread is building
+ * new formulas. The options of the factory must be set before the factory is
+ * shared.
+ * </p>
+ * 
+ * @author Mauro Ferrari
+ */
+public class ConcurrentFormulaFactory extends FormulaFactory {
+
+  /**
+   * Constructs a concurrent factory using the specified names for true and
+   * false representation.
+   * 
+   * @param falseName the name of the false constant.
+   * @param trueName the name of the true constant.
+   */
+  public ConcurrentFormulaFactory(String falseName, String trueName) {
+    super(falseName, trueName, FormulaTable.Kind.CONCURRENT);
+  }
+
+  /**
+   * Constructs a concurrent factory using "false" and "true" as names for true
+   * and false constants.
+   */
+  public ConcurrentFormulaFactory() {
+    this("false", "true");
+  }
+
+  @Override
+  public String getDescription() {
+    return "Thread-safe factory for propositional formulas.";
+  }
+
+}
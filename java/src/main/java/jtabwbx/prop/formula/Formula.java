@@ -55,6 +55,21 @@ public abstract class Formula implements _PropositionalFormula {
    */
   public abstract Formula calculateBooleanSimplification();
 
+  /**
+   * Returns the boolean simplification of this formula given the boolean
+   * simplifications of its immediate subformulas (see
+   * {@link FormulaOperations#booleanSimplification(Formula)}); the second is
+   * <code>null</code> if this formula has one immediate subformula. This
+   * implementation returns this formula.
+   * 
+   * @param first the simplification of the first immediate subformula.
+   * @param second the simplification of the second immediate subformula.
+   * @return the simplified formula.
+   */
+  Formula booleanSimplification(Formula first, Formula second) {
+    return this;
+  }
+
   /**
    * Returns the formula obtained by applying the specified substitution on
    * propositional formulas.
@@ -24,10 +24,7 @@ class FormulaAnd extends AbstractCompoundFormula {
   }
 
   @Override
-  Formula computeBooleanSimplification() {
-
-    Formula newLeft = left.calculateBooleanSimplification();
-    Formula newRight = right.calculateBooleanSimplification();
+  Formula computeBooleanSimplification(Formula newLeft, Formula newRight) {
 
     if (newLeft.equals(newRight))
       return newLeft;
@@ -42,13 +39,6 @@ class FormulaAnd extends AbstractCompoundFormula {
     return formulaFactory.buildCompound(mainConnective(), newLeft, newRight);
   }
 
-  @Override
-  protected Formula computePartialSubstitution(Substitution subst) {
-    return formulaFactory.buildCompound(mainConnective(),
-        left.applyIntuitionisticPartialSubstitution(subst),
-        right.applyIntuitionisticPartialSubstitution(subst));
-  }
-
   @Override
   public FormulaType getFormulaType() {
     return FormulaType.AND_WFF;
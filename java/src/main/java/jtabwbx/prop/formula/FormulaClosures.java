@@ -0,0 +1,190 @@
+/*******************************************************************************
+ * Copyright (C) 2013, 2016 Mauro Ferrari
+ *  
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 3 of the License, or (at your option) any later
+ * version.
+ *  
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *  
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package jtabwbx.prop.formula;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
+import jtabwbx.prop.basic.FormulaType;
+
+/**
+ * The cache of the subformula and proposition closures of the formulas of a
+ * factory (see {@link FormulaFactory#getSubformulaClosure(Formula)} and
+ * {@link FormulaFactory#getPropositionClosure(Formula)}). Closures are bitsets
+ * over the indexes of the formulas of the factory; the subformula closure of a
+ * compound formula is computed bottom-up as the union of the closures of its
+ * immediate subformulas and is stored, so that every closure is computed once
+ * and shared by all the formulas containing it. Since a subformula has an index
+ * smaller than the index of the formula, the closure of the formula with index
+ * <code>i</code> requires at most <code>i/64+1</code> words.
+ * <p>
+ * When the number of words of the stored closures exceeds the capacity of the
+ * cache, the cache is cleared before computing the next closure. The methods
+ * are synchronized, since the cache of a {@link ConcurrentFormulaFactory} is
+ * shared by many threads.
+ * </p>
+ *
+ * @author Mauro Ferrari
+ */
+final class FormulaClosures {
+
+  private final FormulaFactory factory;
+  private BitSetOfFormulas[] subformulas;
+  private BitSetOfFormulas[] propositions;
+  private long capacity;
+  private long words; // the number of words of the stored closures
+
+  FormulaClosures(FormulaFactory factory, long capacity) {
+    this.factory = factory;
+    this.subformulas = new BitSetOfFormulas[0];
+    this.propositions = new BitSetOfFormulas[0];
+    this.capacity = capacity;
+    this.words = 0;
+  }
+
+  synchronized long getCapacity() {
+    return capacity;
+  }
+
+  synchronized void setCapacity(long capacity) {
+    this.capacity = capacity;
+  }
+
+  synchronized void clear() {
+    Arrays.fill(subformulas, null);
+    Arrays.fill(propositions, null);
+    words = 0;
+  }
+
+  /**
+   * Returns the subformula closure of the specified formula.
+   * 
+   * @param wff a formula of the factory.
+   * @return the set of the subformulas of <code>wff</code>.
+   */
+  synchronized BitSetOfFormulas subformulas(Formula wff) {
+    BitSetOfFormulas closure = cached(subformulas, wff.getIndex());
+    if (closure != null)
+      return closure;
+    evictIfFull();
+    return compute(wff);
+  }
+
+  /**
+   * Returns the proposition closure of the specified formula.
+   * 
+   * @param wff a formula of the factory.
+   * @return the set of the propositions of <code>wff</code>.
+   */
+  synchronized BitSetOfFormulas propositions(Formula wff) {
+    BitSetOfFormulas closure = cached(propositions, wff.getIndex());
+    if (closure != null)
+      return closure;
+    evictIfFull();
+    BitSetOfFormulas subs = cached(subformulas, wff.getIndex());
+    if (subs == null)
+      subs = compute(wff);
+    closure = subs.clone();
+    closure.and(factory.getGeneratedFormulasOfType(FormulaType.ATOMIC_WFF));
+    propositions = store(propositions, wff.getIndex(), closure);
+    return closure;
+  }
+
+  private void evictIfFull() {
+    if (words > capacity)
+      clear();
+  }
+
+  private static BitSetOfFormulas cached(BitSetOfFormulas[] closures, int index) {
+    return index < closures.length ? closures[index] : null;
+  }
+
+  private BitSetOfFormulas[] store(BitSetOfFormulas[] closures, int index,
+      BitSetOfFormulas closure) {
+    if (index >= closures.length)
+      closures = Arrays.copyOf(closures, Math.max(index + 1, factory.numberOfGeneratedFormulas()));
+    closures[index] = closure;
+    words += (closure.length() + 63) >>> 6;
+    return closures;
+  }
+
+  /*
+   * Computes and stores the subformula closures of wff and of its subformulas
+   * not yet stored; the formula DAG is visited in post-order by an explicit
+   * stack, hence the depth of the formula is not bounded by the thread stack.
+   * If the capacity is exceeded during the computation, as it happens for a
+   * deep formula whose closures require quadratic space, the cache is cleared
+   * and only the closure of wff is computed and stored.
+   */
+  private BitSetOfFormulas compute(Formula wff) {
+    ArrayDeque<Formula> stack = new ArrayDeque<Formula>();
+    stack.push(wff);
+    while (!stack.isEmpty()) {
+      Formula top = stack.peek();
+      if (cached(subformulas, top.getIndex()) != null) {
+        stack.pop();
+        continue;
+      }
+      boolean ready = true;
+      Formula[] subs = top.isAtomic() ? null : top.immediateSubformulas();
+      if (subs != null)
+        for (Formula sub : subs)
+          if (cached(subformulas, sub.getIndex()) == null) {
+            stack.push(sub);
+            ready = false;
+          }
+      if (ready) {
+        stack.pop();
+        BitSetOfFormulas closure = new BitSetOfFormulas(factory, top.getIndex() + 1);
+        closure.set(top.getIndex());
+        if (subs != null)
+          for (Formula sub : subs)
+            closure.or(subformulas[sub.getIndex()]);
+        subformulas = store(subformulas, top.getIndex(), closure);
+        if (words > capacity && top != wff) {
+          clear();
+          return computeDirectly(wff);
+        }
+      }
+    }
+    return subformulas[wff.getIndex()];
+  }
+
+  /*
+   * Computes and stores the subformula closure of wff by a visit of its DAG,
+   * without computing the closures of its subformulas.
+   */
+  private BitSetOfFormulas computeDirectly(Formula wff) {
+    BitSetOfFormulas closure = new BitSetOfFormulas(factory, wff.getIndex() + 1);
+    ArrayDeque<Formula> stack = new ArrayDeque<Formula>();
+    closure.set(wff.getIndex());
+    stack.push(wff);
+    while (!stack.isEmpty()) {
+      Formula top = stack.pop();
+      Formula[] subs = top.isAtomic() ? null : top.immediateSubformulas();
+      if (subs != null)
+        for (Formula sub : subs)
+          if (!closure.get(sub.getIndex())) {
+            closure.set(sub.getIndex());
+            stack.push(sub);
+          }
+    }
+    subformulas = store(subformulas, wff.getIndex(), closure);
+    return closure;
+  }
+
+}
@@ -19,9 +19,9 @@ import jtabwbx.prop.basic.PropositionalConnective;
 import jtabwbx.prop.btformula.BTFormula;
 import jtabwbx.prop.btformula.BTFormulaProposition;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.IdentityHashMap;
 
 import org.antlr.v4.runtime.tree.ParseTree;
 
@@ -32,12 +32,48 @@ import org.antlr.v4.runtime.tree.ParseTree;
  */
 public class FormulaFactory {
 
-  private final Map<String, FormulaProposition> propositions;
-  private final Map<AbstractCompoundFormula, AbstractCompoundFormula> formulaCompounds;
-  private final ArrayList<Formula> formulasByIndex;
+  /**
+   * The representations of the sets of formulas and of the sequents built by a
+   * factory (see {@link FormulaFactory#newFormulaSet()} and
+   * {@link FormulaFactory#newSequent()}).
+   * 
+   * @author Mauro Ferrari
+   */
+  public static enum SetRepresentation {
+    /**
+     * Sets are represented by bitsets indexed by the formulas of the factory
+     * (see {@link BitSetOfFormulas} and {@link SequentOnArray}).
+     */
+    DENSE,
+    /**
+     * Sets are represented by sparse sets whose size depends only on their
+     * content (see {@link SparseSetOfFormulas} and {@link SequentOnSparseSet}).
+     */
+    SPARSE;
+  }
+
+  /**
+   * The default number of generated formulas from which a factory uses the
+   * {@link SetRepresentation#SPARSE} representation, that is
+   * {@link Integer#MAX_VALUE}: by default the sparse representation is
+   * disabled, since on the problems whose formulas are all reachable from the
+   * goal dense sets are faster. The G3c launcher sets the threshold by the
+   * <code>--sparse-threshold</code> option (see
+   * {@link #setSparseThreshold(int)}).
+   */
+  public static final int DEFAULT_SPARSE_THRESHOLD = Integer.MAX_VALUE;
+
+  /**
+   * The default capacity, in 64-bit words, of the cache of the closures of a
+   * factory (see {@link #setClosureCacheCapacity(long)}).
+   */
+  public static final long DEFAULT_CLOSURE_CACHE_CAPACITY = 1L << 22;
+
+  private final FormulaTable table;
   private BitSetOfFormulas[] formulasByType;
   private BitSetOfFormulas generatedFormulas;
-  private int formulaCounter;
+  private int sparseThreshold = DEFAULT_SPARSE_THRESHOLD;
+  private final FormulaClosures closures;
   boolean translateNot = false; /*
                                  * if true (~ A) is built as (A -> FALSE)
                                  */
@@ -81,13 +117,25 @@ public class FormulaFactory {
    * @param trueName the name of the true constant.
    */
   public FormulaFactory(String falseName, String trueName) {
+    this(falseName, trueName, FormulaTable.Kind.SEQUENTIAL);
+  }
+
+  /**
+   * Constructs an instance of the factory using the specified names for true
+   * and false representation and storing its formulas in a table of the
+   * specified kind (see {@link ConcurrentFormulaFactory} and
+   * {@link CompactFormulaFactory}).
+   * 
+   * @param falseName the name of the false constant.
+   * @param trueName the name of the true constant.
+   * @param tableKind the kind of the table of the factory.
+   */
+  FormulaFactory(String falseName, String trueName, FormulaTable.Kind tableKind) {
     if (trueName.equals(falseName))
       throw new ContractViolationImplementationError(
           "Names for false and true constants must be different.");
-    this.formulaCounter = 0;
-    this.propositions = new HashMap<String, FormulaProposition>(100, .5f);
-    this.formulaCompounds = new HashMap<AbstractCompoundFormula, AbstractCompoundFormula>(100, .5f);
-    this.formulasByIndex = new ArrayList<Formula>(50);
+    this.table = FormulaTable.newTable(tableKind, this);
+    this.closures = new FormulaClosures(this, DEFAULT_CLOSURE_CACHE_CAPACITY);
     this.generatedFormulas = new BitSetOfFormulas(this);
     this.formulasByType = new BitSetOfFormulas[FormulaType.values().length];
     for (int i = 0; i < this.formulasByType.length; i++)
@@ -113,7 +161,78 @@ public class FormulaFactory {
    * @return number of distinct formulas generated by this factory
    */
   public int numberOfGeneratedFormulas() {
-    return formulaCounter;
+    return table.numberOfFormulas();
+  }
+
+  /**
+   * Returns the number of generated formulas from which this factory uses the
+   * {@link SetRepresentation#SPARSE} representation.
+   * 
+   * @return the sparse threshold of this factory.
+   */
+  public int getSparseThreshold() {
+    return sparseThreshold;
+  }
+
+  /**
+   * Sets the number of generated formulas from which this factory uses the
+   * {@link SetRepresentation#SPARSE} representation; 0 forces the sparse
+   * representation and {@link Integer#MAX_VALUE} the dense one.
+   * 
+   * @param threshold the sparse threshold.
+   */
+  public void setSparseThreshold(int threshold) {
+    if (threshold < 0)
+      throw new ContractViolationImplementationError("Negative sparse threshold: " + threshold);
+    this.sparseThreshold = threshold;
+  }
+
+  /**
+   * Returns the representation of the sets built by this factory: dense sets
+   * require memory and clone time proportional to the number of generated
+   * formulas, hence sparse sets are used when such a number reaches the sparse
+   * threshold.
+   * 
+   * @return the set representation of this factory.
+   */
+  public SetRepresentation setRepresentation() {
+    return numberOfGeneratedFormulas() >= sparseThreshold ? SetRepresentation.SPARSE
+        : SetRepresentation.DENSE;
+  }
+
+  /**
+   * Returns a new empty set of formulas of this factory in the representation
+   * given by {@link #setRepresentation()}.
+   * 
+   * @return an empty set of formulas.
+   */
+  public _FormulaSet newFormulaSet() {
+    switch (setRepresentation()) {
+    case DENSE:
+      return new BitSetOfFormulas(this);
+    case SPARSE:
+      return new SparseSetOfFormulas(this);
+    default:
+      throw new ImplementationError(ImplementationError.CASE_NOT_IMPLEMENTED);
+    }
+  }
+
+  /**
+   * Returns a new empty sequent of this factory in the representation given by
+   * {@link #setRepresentation()}; the sequent should be built when the factory
+   * has generated all the formulas of the problem.
+   * 
+   * @return an empty sequent.
+   */
+  public _Sequent newSequent() {
+    switch (setRepresentation()) {
+    case DENSE:
+      return new SequentOnArray(this);
+    case SPARSE:
+      return new SequentOnSparseSet(this);
+    default:
+      throw new ImplementationError(ImplementationError.CASE_NOT_IMPLEMENTED);
+    }
   }
 
   /**
@@ -121,9 +240,8 @@ public class FormulaFactory {
    * 
    * @return a copy of the list of formulas generated by this factory.
    */
-  @SuppressWarnings("unchecked")
   public ArrayList<Formula> generatedFormulas() {
-    return (ArrayList<Formula>) formulasByIndex.clone();
+    return table.toList();
   }
 
   /**
@@ -165,19 +283,14 @@ public class FormulaFactory {
   }
 
   public FormulaProposition buildAtomic(String name) {
-    FormulaProposition newProp = propositions.get(name);
-    if (newProp == null) {
-      newProp = new FormulaProposition(this, name, name.equals(TRUE_NAME), name.equals(FALSE_NAME));
+    FormulaProposition prop = table.getProposition(name);
+    if (prop == null) {
+      FormulaProposition newProp = new FormulaProposition(this, name, name.equals(TRUE_NAME),
+          name.equals(FALSE_NAME));
       newProp.size = 1;
-      propositions.put(name, newProp);
-      newProp.setIndex(formulaCounter++);
-      formulasByIndex.add(newProp);
-      this.generatedFormulas.add(newProp);
-      this.formulasByType[newProp.getFormulaType().ordinal()].add(newProp);
-      if (!newProp.isIntuitionisticLocalFormula())
-        intuitionisticNonLocalFormulas.add(newProp);
+      prop = table.intern(newProp);
     }
-    return newProp;
+    return prop;
   }
 
   /**
@@ -233,23 +346,26 @@ public class FormulaFactory {
     }
   }
 
-  private AbstractCompoundFormula getCanonicalFormula(AbstractCompoundFormula newFormula) {
-    AbstractCompoundFormula canonicalFormula = formulaCompounds.get(newFormula);
-    if (canonicalFormula == null) {
-      formulaCompounds.put(newFormula, newFormula);
-      canonicalFormula = newFormula;
-      canonicalFormula.setIndex(formulaCounter++);
-      formulasByIndex.add(canonicalFormula);
-      this.generatedFormulas.add(canonicalFormula);
-      this.formulasByType[canonicalFormula.getFormulaType().ordinal()].add(canonicalFormula);
-      if (!canonicalFormula.isIntuitionisticLocalFormula())
-        intuitionisticNonLocalFormulas.add(canonicalFormula);
-    }
-    return canonicalFormula;
+  private Formula getCanonicalFormula(AbstractCompoundFormula newFormula) {
+    return table.intern(newFormula);
+  }
+
+  /**
+   * Adds a formula added to the table of this factory to the sets of formulas
+   * of the factory; the table invokes this method once for each formula, after
+   * setting its index.
+   * 
+   * @param wff the new formula.
+   */
+  void registerFormula(Formula wff) {
+    this.generatedFormulas.add(wff);
+    this.formulasByType[wff.getFormulaType().ordinal()].add(wff);
+    if (!wff.isIntuitionisticLocalFormula())
+      intuitionisticNonLocalFormulas.add(wff);
   }
 
   public Formula getByIndex(int index) {
-    return formulasByIndex.get(index);
+    return table.getByIndex(index);
   }
 
   /**
@@ -259,25 +375,15 @@ public class FormulaFactory {
    * @return the instance of the formula in this factory.
    */
   public Formula buildFrom(Formula wff) {
-    if (wff.isAtomic())
-      return buildAtomic(((FormulaProposition) wff).getName());
-    else {
-      PropositionalConnective mainConnective = wff.mainConnective();
-      switch (mainConnective) {
-      case AND:
-      case EQ:
-      case IMPLIES:
-      case OR: {
-        Formula left = buildFrom(wff.immediateSubformulas()[0]);
-        Formula right = buildFrom(wff.immediateSubformulas()[1]);
-        return buildCompound(mainConnective, left, right);
-      }
-      case NOT:
-        return buildCompound(mainConnective, buildFrom(wff.immediateSubformulas()[0]));
-      default:
-        throw new ImplementationError(ImplementationError.CASE_NOT_IMPLEMENTED);
+    return new FormulaVisitor<Formula>() {
+
+      @Override
+      protected Formula visit(Formula wff, Formula first, Formula second) {
+        if (wff.isAtomic())
+          return buildAtomic(((FormulaProposition) wff).getName());
+        return buildTranslation(wff.mainConnective(), first, second);
       }
-    }
+    }.traverse(wff);
   }
 
   /**
@@ -287,28 +393,47 @@ public class FormulaFactory {
    * @return the instance of the formula in this factory.
    */
   public Formula buildFrom(BTFormula wff) {
-    if (wff.isAtomic())
-      return buildAtomic(((BTFormulaProposition) wff).getName());
-    else {
-      PropositionalConnective mainConnective = wff.mainConnective();
-      Formula translation = null;
-      switch (mainConnective) {
-      case AND:
-      case EQ:
-      case IMPLIES:
-      case OR: {
-        Formula left = buildFrom(wff.immediateSubformulas()[0]);
-        Formula right = buildFrom(wff.immediateSubformulas()[1]);
-        translation = buildCompound(mainConnective, left, right);
-        break;
+    // iterative post-order visit; a subformula occurring many times is built
+    // once
+    IdentityHashMap<BTFormula, Formula> built = new IdentityHashMap<BTFormula, Formula>();
+    ArrayDeque<BTFormula> stack = new ArrayDeque<BTFormula>();
+    stack.push(wff);
+    while (!stack.isEmpty()) {
+      BTFormula top = stack.peek();
+      if (built.containsKey(top)) {
+        stack.pop();
+        continue;
       }
-      case NOT:
-        translation = buildCompound(mainConnective, buildFrom(wff.immediateSubformulas()[0]));
-        break;
-      default:
-        throw new ImplementationError(ImplementationError.CASE_NOT_IMPLEMENTED);
+      if (top.isAtomic()) {
+        built.put(stack.pop(), buildAtomic(((BTFormulaProposition) top).getName()));
+        continue;
       }
-      return translation;
+      BTFormula[] subs = top.immediateSubformulas();
+      boolean ready = true;
+      for (int i = subs.length - 1; i >= 0; i--)
+        if (!built.containsKey(subs[i])) {
+          stack.push(subs[i]);
+          ready = false;
+        }
+      if (ready)
+        built.put(stack.pop(), buildTranslation(top.mainConnective(), built.get(subs[0]),
+            subs.length > 1 ? built.get(subs[1]) : null));
+    }
+    return built.get(wff);
+  }
+
+  private Formula buildTranslation(PropositionalConnective mainConnective, Formula first,
+      Formula second) {
+    switch (mainConnective) {
+    case AND:
+    case EQ:
+    case IMPLIES:
+    case OR:
+      return buildCompound(mainConnective, first, second);
+    case NOT:
+      return buildCompound(mainConnective, first);
+    default:
+      throw new ImplementationError(ImplementationError.CASE_NOT_IMPLEMENTED);
     }
   }
 
@@ -333,6 +458,59 @@ public class FormulaFactory {
     return intuitionisticNonLocalFormulas;
   }
 
+  /**
+   * Returns the set of the subformulas of the specified formula, the formula
+   * included. The set is computed once and shared: do not modify.
+   * 
+   * @param wff a formula built by this factory.
+   * @return the subformula closure of <code>wff</code>.
+   */
+  public BitSetOfFormulas getSubformulaClosure(Formula wff) {
+    return closures.subformulas(wff);
+  }
+
+  /**
+   * Returns the set of the propositions occurring in the specified formula. The
+   * set is computed once and shared: do not modify.
+   * 
+   * @param wff a formula built by this factory.
+   * @return the proposition closure of <code>wff</code>.
+   */
+  public BitSetOfFormulas getPropositionClosure(Formula wff) {
+    return closures.propositions(wff);
+  }
+
+  /**
+   * Returns the capacity, in 64-bit words, of the cache of the closures of this
+   * factory.
+   * 
+   * @return the capacity of the closure cache.
+   */
+  public long getClosureCacheCapacity() {
+    return closures.getCapacity();
+  }
+
+  /**
+   * Sets the capacity, in 64-bit words, of the cache of the closures of this
+   * factory; when the cached closures exceed the capacity, the cache is
+   * cleared before computing a new closure.
+   * 
+   * @param capacity the capacity of the closure cache.
+   */
+  public void setClosureCacheCapacity(long capacity) {
+    if (capacity < 0)
+      throw new ContractViolationImplementationError("Negative closure cache capacity: "
+          + capacity);
+    closures.setCapacity(capacity);
+  }
+
+  /**
+   * Removes all the closures cached by this factory.
+   */
+  public void clearClosureCache() {
+    closures.clear();
+  }
+
   public String getDescription() {
     return "Factory for propositional formulas.";
   }
@@ -371,11 +549,12 @@ public class FormulaFactory {
   @Override
   public String toString() {
     return String.format("GFormulaFactory:\n propositions: %d\n formulaCompounds: %d",
-        propositions.size(), formulaCompounds.size());
+        table.numberOfPropositions(), table.numberOfCompoundFormulas());
   }
 
   GDebugInfo getDebugInfo() {
-    GDebugInfo info = new GDebugInfo(propositions.size(), formulaCompounds.size());
+    GDebugInfo info = new GDebugInfo(table.numberOfPropositions(),
+        table.numberOfCompoundFormulas());
     return info;
   }
 }
@@ -24,11 +24,8 @@ final class FormulaIff extends AbstractCompoundFormula {
   }
 
   @Override
-  protected Formula computeBooleanSimplification() {
-    Formula newLeft = left.calculateBooleanSimplification();
-    Formula newRight = right.calculateBooleanSimplification();
-
-    if (newLeft == newRight)
+  Formula computeBooleanSimplification(Formula newLeft, Formula newRight) {
+    if (newLeft.equals(newRight))
       return formulaFactory.getTrue();
     if (newLeft.isFalse() && newRight.isTrue())
       return formulaFactory.getFalse();
@@ -41,11 +38,6 @@ final class FormulaIff extends AbstractCompoundFormula {
     return formulaFactory.buildCompound(mainConnective(), newLeft, newRight);
   }
 
-  @Override
-  protected Formula computePartialSubstitution(Substitution subst) {
-    return this;
-  }
-
   @Override
   public FormulaType getFormulaType() {
     return FormulaType.EQ_WFF;
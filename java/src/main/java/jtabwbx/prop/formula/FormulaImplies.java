@@ -35,10 +35,7 @@ final class FormulaImplies extends AbstractCompoundFormula {
 	}
 
 	@Override
-	protected Formula computeBooleanSimplification() {
-		Formula newLeft = left.calculateBooleanSimplification();
-		Formula newRight = right.calculateBooleanSimplification();
-
+	Formula computeBooleanSimplification(Formula newLeft, Formula newRight) {
     if (newLeft.equals(newRight))
       return formulaFactory.getTrue();
 		if (newLeft.isTrue())
@@ -64,11 +61,6 @@ final class FormulaImplies extends AbstractCompoundFormula {
 		return left == that.left && right == that.right;
 	}
 
-	@Override
-	protected Formula computePartialSubstitution(Substitution subst) {
-		return this;
-	}
-	
 	@Override
   public FormulaType getFormulaType() {
     return FormulaType.IMPLIES_WFF;
@@ -137,13 +137,12 @@ final class FormulaNot extends AbstractCompoundFormula {
   }
 
   @Override
-  protected Formula computeBooleanSimplification() {
-    Formula newSub = left.calculateBooleanSimplification();
-    if (newSub.isTrue())
+  Formula computeBooleanSimplification(Formula newLeft, Formula newRight) {
+    if (newLeft.isTrue())
       return formulaFactory.getFalse();
-    if (newSub.isFalse())
+    if (newLeft.isFalse())
       return formulaFactory.getTrue();
-    return formulaFactory.buildCompound(mainConnective(), newSub);
+    return formulaFactory.buildCompound(mainConnective(), newLeft);
   }
 
   @Override
@@ -168,11 +167,6 @@ final class FormulaNot extends AbstractCompoundFormula {
     return left == ((FormulaNot) o).left;
   }
 
-  @Override
-  protected Formula computePartialSubstitution(Substitution subst) {
-    return this;
-  }
-
   @Override
   public FormulaType getFormulaType() {
     return FormulaType.NOT_WFF;
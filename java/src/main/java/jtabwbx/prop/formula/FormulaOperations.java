@@ -0,0 +1,172 @@
+/*******************************************************************************
+ * Copyright (C) 2013, 2016 Mauro Ferrari
+ *  
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 3 of the License, or (at your option) any later
+ * version.
+ *  
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *  
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package jtabwbx.prop.formula;
+
+import jtabwbx.prop.basic.PropositionalConnective;
+
+/**
+ * The operations on formulas implemented by a {@link FormulaVisitor}: they
+ * visit a formula iteratively and handle each of its shared subformulas once.
+ * A compound formula whose immediate subformulas are not modified by an
+ * operation is not rebuilt. The substitutions test the subformula closure of
+ * the formula (see {@link FormulaFactory#getSubformulaClosure(Formula)}) only
+ * to avoid the visit of a formula not containing the substituted formulas.
+ *
+ * @author Mauro Ferrari
+ */
+final class FormulaOperations {
+
+  private FormulaOperations() {
+  }
+
+  /**
+   * Returns the formula obtained by applying the specified substitution to the
+   * specified formula.
+   *
+   * @param wff the formula.
+   * @param subst the substitution to apply.
+   * @return the formula obtained applying the substitution.
+   */
+  static Formula applySubstitution(Formula wff, final Substitution subst) {
+    Formula newF = subst.get(wff);
+    if (newF != null)
+      return newF;
+    if (!containsAny(wff, subst.keySet()))
+      return wff;
+    return new Rebuilder() {
+
+      @Override
+      protected Formula visitBefore(Formula wff) {
+        Formula newF = subst.get(wff);
+        if (newF != null)
+          return newF;
+        return wff.isAtomic() ? wff : null;
+      }
+    }.traverse(wff);
+  }
+
+  /**
+   * Returns the formula obtained by applying the specified substitution on
+   * propositions to the specified formula.
+   *
+   * @param wff the formula.
+   * @param subst the substitution to apply.
+   * @return the formula obtained applying the substitution.
+   */
+  static Formula applySubstitution(Formula wff, final PropositionalSubstitution subst) {
+    if (!containsAny(wff, subst.keySet()))
+      return wff;
+    return new Rebuilder() {
+
+      @Override
+      protected Formula visitBefore(Formula wff) {
+        if (!wff.isAtomic())
+          return null;
+        Formula newF = subst.get(wff);
+        return newF != null ? newF : wff;
+      }
+    }.traverse(wff);
+  }
+
+  /**
+   * Returns the formula obtained by applying the specified substitution as
+   * intuitionistic partial substitution to the specified formula: the
+   * substitution is applied to the subformulas reachable from the formula
+   * through conjunctions and disjunctions.
+   *
+   * @param wff the formula.
+   * @param subst the substitution to apply.
+   * @return the formula obtained applying the substitution.
+   */
+  static Formula applyIntuitionisticPartialSubstitution(Formula wff, final Substitution subst) {
+    return new Rebuilder() {
+
+      @Override
+      protected Formula visitBefore(Formula wff) {
+        Formula newF = subst.get(wff);
+        if (newF != null)
+          return newF;
+        if (wff.isAtomic())
+          return wff;
+        PropositionalConnective connective = wff.mainConnective();
+        if (connective == PropositionalConnective.AND || connective == PropositionalConnective.OR)
+          return null;
+        return wff;
+      }
+    }.traverse(wff);
+  }
+
+  /**
+   * Returns the formula obtained by applying boolean simplifications to the
+   * specified formula; the simplification of a compound formula containing
+   * TRUE or FALSE is computed by
+   * {@link Formula#booleanSimplification(Formula, Formula)} from the
+   * simplifications of its immediate subformulas.
+   *
+   * @param wff the formula.
+   * @return the simplified formula.
+   */
+  static Formula booleanSimplification(Formula wff) {
+    return new FormulaVisitor<Formula>() {
+
+      @Override
+      protected Formula visitBefore(Formula wff) {
+        if (wff.isAtomic() || !wff.containsTrue() && !wff.containsFalse())
+          return wff;
+        if (wff instanceof AbstractCompoundFormula)
+          return ((AbstractCompoundFormula) wff).booleanSimplifiedVersion;
+        return null;
+      }
+
+      @Override
+      protected Formula visit(Formula wff, Formula first, Formula second) {
+        return wff.booleanSimplification(first, second);
+      }
+    }.traverse(wff);
+  }
+
+  private static boolean containsAny(Formula wff, Iterable<? extends Formula> formulas) {
+    if (wff.isAtomic())
+      return true;
+    BitSetOfFormulas subformulas = wff.getFactory().getSubformulaClosure(wff);
+    for (Formula f : formulas)
+      if (subformulas.contains(f))
+        return true;
+    return false;
+  }
+
+  /*
+   * A visitor rebuilding the visited compound formulas from the results of the
+   * visits of their immediate subformulas.
+   */
+  private static abstract class Rebuilder extends FormulaVisitor<Formula> {
+
+    @Override
+    protected Formula visit(Formula wff, Formula first, Formula second) {
+      if (wff.isAtomic())
+        return wff;
+      Formula[] subs = wff.immediateSubformulas();
+      if (second == null)
+        return first.equals(subs[0]) ? wff : wff.getFactory().buildCompound(
+            wff.mainConnective(), first);
+      if (first.equals(subs[0]) && second.equals(subs[1]))
+        return wff;
+      return wff.getFactory().buildCompound(wff.mainConnective(), first, second);
+    }
+  }
+
+}
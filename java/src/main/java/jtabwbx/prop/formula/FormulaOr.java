@@ -24,10 +24,7 @@ class FormulaOr extends AbstractCompoundFormula {
 	}
 
 	@Override
-	protected Formula computeBooleanSimplification() {
-		Formula newLeft = left.calculateBooleanSimplification();
-		Formula newRight = right.calculateBooleanSimplification();
-
+	Formula computeBooleanSimplification(Formula newLeft, Formula newRight) {
     if (newLeft.equals(newRight))
       return newLeft;
 		if (newLeft.isTrue())
@@ -41,12 +38,6 @@ class FormulaOr extends AbstractCompoundFormula {
 		return formulaFactory.buildCompound(mainConnective(), newLeft, newRight);
 	}
 
-	@Override
-	protected Formula computePartialSubstitution(Substitution subst) {
-		return formulaFactory.buildCompound(mainConnective(), left.applyIntuitionisticPartialSubstitution(subst),
-		    right.applyIntuitionisticPartialSubstitution(subst));
-	}
-
 	@Override
   public FormulaType getFormulaType() {
     return FormulaType.OR_WFF;
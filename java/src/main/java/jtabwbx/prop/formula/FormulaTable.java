@@ -0,0 +1,351 @@
+/*******************************************************************************
+ * Copyright (C) 2013, 2016 Mauro Ferrari
+ *  
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 3 of the License, or (at your option) any later
+ * version.
+ *  
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *  
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package jtabwbx.prop.formula;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+
+import jtabwb.util.ImplementationError;
+
+/**
+ * The table storing the canonical formulas of a factory: a table interns
+ * propositions and compound formulas, assigns consecutive indexes to the new
+ * formulas and retrieves formulas by index. When a formula is added to the
+ * table, its index is set and the formula is notified to the factory (see
+ * {@link FormulaFactory#registerFormula(Formula)}) before it is returned by
+ * any method of the table.
+ *
+ * @author Mauro Ferrari
+ */
+abstract class FormulaTable {
+
+  /**
+   * The kinds of tables.
+   */
+  static enum Kind {
+    /**
+     * A table accessed by a single thread.
+     */
+    SEQUENTIAL,
+    /**
+     * A table which can be accessed concurrently by many threads.
+     */
+    CONCURRENT,
+    /**
+     * A table storing compound formulas in arrays of primitive values (see
+     * {@link CompactFormulaTable}).
+     */
+    COMPACT;
+  }
+
+  final FormulaFactory factory;
+
+  FormulaTable(FormulaFactory factory) {
+    this.factory = factory;
+  }
+
+  /**
+   * Returns a table of the specified kind for the specified factory.
+   * 
+   * @param kind the kind of the table.
+   * @param factory the factory.
+   * @return a table for the factory.
+   */
+  static FormulaTable newTable(Kind kind, FormulaFactory factory) {
+    switch (kind) {
+    case SEQUENTIAL:
+      return new SequentialTable(factory);
+    case CONCURRENT:
+      return new ConcurrentTable(factory);
+    case COMPACT:
+      return new CompactFormulaTable(factory);
+    default:
+      throw new ImplementationError(ImplementationError.CASE_NOT_IMPLEMENTED);
+    }
+  }
+
+  /**
+   * Returns the proposition with the specified name or <code>null</code> if
+   * the table does not contain it.
+   * 
+   * @param name the name of the proposition.
+   * @return the proposition or <code>null</code>.
+   */
+  abstract FormulaProposition getProposition(String name);
+
+  /**
+   * Returns the canonical proposition with the name of the specified one; if
+   * the table does not contain such a proposition, the specified one is added
+   * to the table.
+   * 
+   * @param proposition the proposition to intern.
+   * @return the canonical proposition.
+   */
+  abstract FormulaProposition intern(FormulaProposition proposition);
+
+  /**
+   * Returns the canonical formula equal to the specified one; if the table
+   * does not contain such a formula, the specified one (or a formula
+   * representing it) is added to the table.
+   * 
+   * @param wff the formula to intern.
+   * @return the canonical formula.
+   */
+  abstract Formula intern(AbstractCompoundFormula wff);
+
+  /**
+   * Returns the formula with the specified index.
+   * 
+   * @param index the index.
+   * @return the formula with index <code>index</code>.
+   */
+  abstract Formula getByIndex(int index);
+
+  /**
+   * Returns the number of formulas in the table.
+   * 
+   * @return the number of formulas.
+   */
+  abstract int numberOfFormulas();
+
+  abstract int numberOfPropositions();
+
+  abstract int numberOfCompoundFormulas();
+
+  /**
+   * Returns the list of the formulas in the table ordered by index.
+   * 
+   * @return the formulas in the table.
+   */
+  ArrayList<Formula> toList() {
+    int size = numberOfFormulas();
+    ArrayList<Formula> list = new ArrayList<Formula>(size);
+    for (int i = 0; i < size; i++)
+      list.add(getByIndex(i));
+    return list;
+  }
+
+  /*
+   * The table of the factories used by a single thread.
+   */
+  private static class SequentialTable extends FormulaTable {
+
+    private final HashMap<String, FormulaProposition> propositions;
+    private final HashMap<AbstractCompoundFormula, AbstractCompoundFormula> formulaCompounds;
+    private final ArrayList<Formula> formulasByIndex;
+
+    SequentialTable(FormulaFactory factory) {
+      super(factory);
+      this.propositions = new HashMap<String, FormulaProposition>(100, .5f);
+      this.formulaCompounds = new HashMap<AbstractCompoundFormula, AbstractCompoundFormula>(100, .5f);
+      this.formulasByIndex = new ArrayList<Formula>(50);
+    }
+
+    @Override
+    FormulaProposition getProposition(String name) {
+      return propositions.get(name);
+    }
+
+    @Override
+    FormulaProposition intern(FormulaProposition proposition) {
+      FormulaProposition canonical = propositions.get(proposition.getName());
+      if (canonical == null) {
+        propositions.put(proposition.getName(), proposition);
+        add(proposition);
+        canonical = proposition;
+      }
+      return canonical;
+    }
+
+    @Override
+    AbstractCompoundFormula intern(AbstractCompoundFormula wff) {
+      AbstractCompoundFormula canonical = formulaCompounds.get(wff);
+      if (canonical == null) {
+        formulaCompounds.put(wff, wff);
+        add(wff);
+        canonical = wff;
+      }
+      return canonical;
+    }
+
+    private void add(Formula wff) {
+      wff.setIndex(formulasByIndex.size());
+      formulasByIndex.add(wff);
+      factory.registerFormula(wff);
+    }
+
+    @Override
+    Formula getByIndex(int index) {
+      return formulasByIndex.get(index);
+    }
+
+    @Override
+    int numberOfFormulas() {
+      return formulasByIndex.size();
+    }
+
+    @Override
+    int numberOfPropositions() {
+      return propositions.size();
+    }
+
+    @Override
+    int numberOfCompoundFormulas() {
+      return formulaCompounds.size();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    ArrayList<Formula> toList() {
+      return (ArrayList<Formula>) formulasByIndex.clone();
+    }
+  }
+
+  /*
+   * The thread-safe table. Lookups of interned formulas do not lock; a new
+   * formula is added by the computeIfAbsent method of a concurrent map, which
+   * locks only the bin of the formula: the formula gets its index from an
+   * atomic counter and is stored in the segmented array of formulas before the
+   * map publishes it, hence every thread obtaining a formula from the table
+   * sees its index and can retrieve it by index.
+   */
+  private static class ConcurrentTable extends FormulaTable {
+
+    private static final int SEGMENT_SHIFT = 12;
+    private static final int SEGMENT_SIZE = 1 << SEGMENT_SHIFT;
+    private static final int SEGMENT_MASK = SEGMENT_SIZE - 1;
+
+    private final ConcurrentHashMap<String, FormulaProposition> propositions;
+    private final ConcurrentHashMap<AbstractCompoundFormula, AbstractCompoundFormula> formulaCompounds;
+    private final AtomicInteger formulaCounter;
+    // the formulas by index: the formula with index i is the element i &
+    // SEGMENT_MASK of the segment i >>> SEGMENT_SHIFT; the directory is
+    // replaced by a larger copy when full
+    private volatile AtomicReferenceArray<Formula>[] segments;
+    private final Object registrationLock;
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    ConcurrentTable(FormulaFactory factory) {
+      super(factory);
+      this.propositions = new ConcurrentHashMap<String, FormulaProposition>(100);
+      this.formulaCompounds = new ConcurrentHashMap<AbstractCompoundFormula, AbstractCompoundFormula>(
+          100);
+      this.formulaCounter = new AtomicInteger();
+      this.segments = new AtomicReferenceArray[16];
+      this.registrationLock = new Object();
+    }
+
+    @Override
+    FormulaProposition getProposition(String name) {
+      return propositions.get(name);
+    }
+
+    @Override
+    FormulaProposition intern(final FormulaProposition proposition) {
+      FormulaProposition canonical = propositions.get(proposition.getName());
+      if (canonical != null)
+        return canonical;
+      return propositions.computeIfAbsent(proposition.getName(),
+          new Function<String, FormulaProposition>() {
+
+            @Override
+            public FormulaProposition apply(String name) {
+              add(proposition);
+              return proposition;
+            }
+          });
+    }
+
+    @Override
+    AbstractCompoundFormula intern(AbstractCompoundFormula wff) {
+      AbstractCompoundFormula canonical = formulaCompounds.get(wff);
+      if (canonical != null)
+        return canonical;
+      return formulaCompounds.computeIfAbsent(wff,
+          new Function<AbstractCompoundFormula, AbstractCompoundFormula>() {
+
+            @Override
+            public AbstractCompoundFormula apply(AbstractCompoundFormula key) {
+              add(key);
+              return key;
+            }
+          });
+    }
+
+    private void add(Formula wff) {
+      int index = formulaCounter.getAndIncrement();
+      wff.setIndex(index);
+      segment(index >>> SEGMENT_SHIFT).set(index & SEGMENT_MASK, wff);
+      // the sets of formulas of the factory are not thread-safe
+      synchronized (registrationLock) {
+        factory.registerFormula(wff);
+      }
+    }
+
+    private AtomicReferenceArray<Formula> segment(int s) {
+      AtomicReferenceArray<Formula>[] dir = segments;
+      if (s < dir.length && dir[s] != null)
+        return dir[s];
+      synchronized (this) {
+        dir = segments;
+        if (s >= dir.length) {
+          dir = Arrays.copyOf(dir, Math.max(2 * dir.length, s + 1));
+          segments = dir;
+        }
+        if (dir[s] == null) {
+          dir[s] = new AtomicReferenceArray<Formula>(SEGMENT_SIZE);
+          // republish the directory to make the new segment visible
+          segments = dir;
+        }
+        return dir[s];
+      }
+    }
+
+    @Override
+    Formula getByIndex(int index) {
+      AtomicReferenceArray<Formula>[] dir = segments;
+      int s = index >>> SEGMENT_SHIFT;
+      Formula wff = null;
+      if (s < dir.length && dir[s] != null)
+        wff = dir[s].get(index & SEGMENT_MASK);
+      if (wff == null)
+        throw new IndexOutOfBoundsException("No formula with index: " + index);
+      return wff;
+    }
+
+    @Override
+    int numberOfFormulas() {
+      return formulaCounter.get();
+    }
+
+    @Override
+    int numberOfPropositions() {
+      return propositions.size();
+    }
+
+    @Override
+    int numberOfCompoundFormulas() {
+      return formulaCompounds.size();
+    }
+  }
+
+}
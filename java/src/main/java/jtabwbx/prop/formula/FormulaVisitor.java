@@ -0,0 +1,191 @@
+/*******************************************************************************
+ * Copyright (C) 2013, 2016 Mauro Ferrari
+ *  
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 3 of the License, or (at your option) any later
+ * version.
+ *  
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *  
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package jtabwbx.prop.formula;
+
+import java.util.Arrays;
+
+/**
+ * A post-order visitor of the DAG of a formula. The visit is iterative, hence
+ * its depth is not bounded by the size of the thread stack, and every
+ * subformula shared by many formulas is visited once: the result of the visit
+ * of a subformula is stored and reused for its other occurrences. Subformulas
+ * are identified by their index, hence the visited formula and all its
+ * subformulas must be formulas of the same factory.
+ * <p>
+ * The visit of a formula <code>wff</code> first invokes
+ * {@link #visitBefore(Formula)}; if it returns <code>null</code>, the immediate
+ * subformulas of <code>wff</code> are visited from left to right and their
+ * results are passed to {@link #visit(Formula, Object, Object)}. Results must
+ * be non-null.
+ * </p>
+ *
+ * @author Mauro Ferrari
+ *
+ * @param <T> the type of the results of the visit.
+ */
+public abstract class FormulaVisitor<T> {
+
+  private static final int INITIAL_DEPTH = 16;
+
+  /**
+   * Returns the result of the visit of the specified formula without visiting
+   * its subformulas, or <code>null</code> if its subformulas must be visited.
+   * This implementation returns <code>null</code>.
+   *
+   * @param wff the visited formula.
+   * @return the result of the visit of <code>wff</code> or <code>null</code>.
+   */
+  protected T visitBefore(Formula wff) {
+    return null;
+  }
+
+  /**
+   * Returns the result of the visit of the specified formula given the results
+   * of the visits of its immediate subformulas; both are <code>null</code> if
+   * the formula is atomic and the second is <code>null</code> if the formula
+   * has one immediate subformula.
+   *
+   * @param wff the visited formula.
+   * @param first the result of the visit of the first immediate subformula.
+   * @param second the result of the visit of the second immediate subformula.
+   * @return the result of the visit of <code>wff</code>.
+   */
+  protected abstract T visit(Formula wff, T first, T second);
+
+  /**
+   * Visits the specified formula and returns the result of the visit.
+   *
+   * @param wff the formula to visit.
+   * @return the result of the visit.
+   */
+  @SuppressWarnings("unchecked")
+  public final T traverse(Formula wff) {
+    T result = visitBefore(wff);
+    if (result != null)
+      return result;
+    Results visited = new Results();
+    // the stack of the formulas whose visit is in progress: for each of them
+    // the immediate subformulas, the number of visited subformulas and their
+    // results
+    Formula[] formulas = new Formula[INITIAL_DEPTH];
+    Formula[][] subformulas = new Formula[INITIAL_DEPTH][];
+    int[] next = new int[INITIAL_DEPTH];
+    Object[][] partial = new Object[INITIAL_DEPTH][];
+    int top = 0;
+    formulas[0] = wff;
+    subformulas[0] = wff.immediateSubformulas();
+    partial[0] = new Object[2];
+    while (true) {
+      Formula[] subs = subformulas[top];
+      if (subs != null && next[top] < subs.length) {
+        Formula sub = subs[next[top]];
+        Object subResult = visited.get(sub.getIndex());
+        if (subResult == null) {
+          subResult = visitBefore(sub);
+          if (subResult != null)
+            visited.put(sub.getIndex(), subResult);
+        }
+        if (subResult != null) {
+          partial[top][next[top]++] = subResult;
+          continue;
+        }
+        if (++top == formulas.length) {
+          int depth = 2 * formulas.length;
+          formulas = Arrays.copyOf(formulas, depth);
+          subformulas = Arrays.copyOf(subformulas, depth);
+          next = Arrays.copyOf(next, depth);
+          partial = Arrays.copyOf(partial, depth);
+        }
+        formulas[top] = sub;
+        subformulas[top] = sub.immediateSubformulas();
+        next[top] = 0;
+        if (partial[top] == null)
+          partial[top] = new Object[2];
+        continue;
+      }
+      Formula done = formulas[top];
+      Object[] args = partial[top];
+      result = visit(done, (T) args[0], (T) args[1]);
+      args[0] = args[1] = null;
+      formulas[top] = null;
+      subformulas[top] = null;
+      // the root is not stored, since it is not a subformula of the visited
+      // formulas
+      if (top == 0)
+        return result;
+      visited.put(done.getIndex(), result);
+      top--;
+      partial[top][next[top]++] = result;
+    }
+  }
+
+  /*
+   * The results of the visited subformulas: an open-addressing hash table with
+   * linear probing indexed by the indexes of the formulas.
+   */
+  private static final class Results {
+
+    private int[] keys = new int[64]; // index + 1, 0 marks a free slot
+    private Object[] values = new Object[64];
+    private int size = 0;
+
+    Object get(int index) {
+      int mask = keys.length - 1;
+      for (int i = slot(index, mask);; i = (i + 1) & mask) {
+        if (keys[i] == 0)
+          return null;
+        if (keys[i] == index + 1)
+          return values[i];
+      }
+    }
+
+    void put(int index, Object value) {
+      if (2 * (size + 1) > keys.length)
+        resize();
+      int mask = keys.length - 1;
+      int i = slot(index, mask);
+      while (keys[i] != 0 && keys[i] != index + 1)
+        i = (i + 1) & mask;
+      if (keys[i] == 0)
+        size++;
+      keys[i] = index + 1;
+      values[i] = value;
+    }
+
+    private void resize() {
+      int[] oldKeys = keys;
+      Object[] oldValues = values;
+      keys = new int[2 * oldKeys.length];
+      values = new Object[2 * oldKeys.length];
+      int mask = keys.length - 1;
+      for (int j = 0; j < oldKeys.length; j++)
+        if (oldKeys[j] != 0) {
+          int i = slot(oldKeys[j] - 1, mask);
+          while (keys[i] != 0)
+            i = (i + 1) & mask;
+          keys[i] = oldKeys[j];
+          values[i] = oldValues[j];
+        }
+    }
+
+    private static int slot(int index, int mask) {
+      int h = index * 0x9E3779B9;
+      return (h ^ (h >>> 16)) & mask;
+    }
+  }
+
+}
@@ -16,6 +16,7 @@
  *******************************************************************************/
 package jtabwbx.prop.formula;
 
+import java.util.ArrayDeque;
 import java.util.Stack;
 
 import jtabwb.util.ImplementationError;
@@ -30,8 +31,12 @@ import jtabwbx.prop.parser.FormulaParser.OrContext;
 import jtabwbx.prop.parser.FormulaParser.ParContext;
 import jtabwbx.prop.parser.FormulaParser.PropContext;
 
+import org.antlr.v4.runtime.tree.ErrorNode;
 import org.antlr.v4.runtime.tree.ParseTree;
+import org.antlr.v4.runtime.tree.ParseTreeListener;
 import org.antlr.v4.runtime.tree.ParseTreeWalker;
+import org.antlr.v4.runtime.tree.RuleNode;
+import org.antlr.v4.runtime.tree.TerminalNode;
 
 class FromParseTreeFormulaBuilder extends FormulaBaseListener {
 
@@ -44,7 +49,7 @@ class FromParseTreeFormulaBuilder extends FormulaBaseListener {
   private FormulaFactory formulaFactory;
 
   Formula buildFrom(ParseTree tree) {
-    ParseTreeWalker walker = new ParseTreeWalker();
+    ParseTreeWalker walker = new IterativeParseTreeWalker();
 
     // create listener then feed to walker
     walker.walk(this, tree); // walk parse tree
@@ -104,4 +109,44 @@ class FromParseTreeFormulaBuilder extends FormulaBaseListener {
   public void exitPar(ParContext ctx) {
   }
 
+  /*
+   * A walker visiting the parse tree with an explicit stack, hence the depth of
+   * the walk is not bounded by the size of the thread stack.
+   */
+  private static class IterativeParseTreeWalker extends ParseTreeWalker {
+
+    @Override
+    public void walk(ParseTreeListener listener, ParseTree t) {
+      ArrayDeque<ParseTree> nodes = new ArrayDeque<ParseTree>();
+      ArrayDeque<Integer> nextChild = new ArrayDeque<Integer>();
+      nodes.push(t);
+      nextChild.push(0);
+      while (!nodes.isEmpty()) {
+        ParseTree node = nodes.peek();
+        int next = nextChild.pop();
+        if (node instanceof ErrorNode) {
+          listener.visitErrorNode((ErrorNode) node);
+          nodes.pop();
+          continue;
+        }
+        if (node instanceof TerminalNode) {
+          listener.visitTerminal((TerminalNode) node);
+          nodes.pop();
+          continue;
+        }
+        RuleNode rule = (RuleNode) node;
+        if (next == 0)
+          enterRule(listener, rule);
+        if (next < rule.getChildCount()) {
+          nextChild.push(next + 1);
+          nodes.push(rule.getChild(next));
+          nextChild.push(0);
+        } else {
+          exitRule(listener, rule);
+          nodes.pop();
+        }
+      }
+    }
+  }
+
 }
@@ -0,0 +1,298 @@
+/*******************************************************************************
+ * Copyright (C) 2013, 2016 Mauro Ferrari
+ *  
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 3 of the License, or (at your option) any later
+ * version.
+ *  
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *  
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package jtabwbx.prop.formula;
+
+import java.util.Arrays;
+
+import jtabwb.util.ImplementationError;
+
+/**
+ * Persistent sets of non-negative integers with constant-time clone. The set is
+ * represented by a trie whose leaves are chunks of {@value #LEAF_BITS} bits and
+ * whose internal nodes have {@value #NODE_WIDTH} children; empty subtries are
+ * removed, hence the representation of a set is unique. A clone shares all the
+ * nodes of the original set: a set modifies in place only the nodes it has
+ * created after its last clone and copies the other nodes on the path to the
+ * modified leaf. Hence clone requires constant time and add and remove require
+ * time logarithmic in the greatest element of the set.
+ * <p>
+ * The cardinality and the hash code of a set are updated incrementally.
+ * </p>
+ *
+ * @author Mauro Ferrari
+ */
+final class PersistentBitSet implements Cloneable {
+
+  private static final int LEAF_SHIFT = 10;
+  static final int LEAF_BITS = 1 << LEAF_SHIFT;
+  private static final int LEAF_WORDS = LEAF_BITS >>> 6;
+  private static final int NODE_SHIFT = 5;
+  static final int NODE_WIDTH = 1 << NODE_SHIFT;
+  private static final int NODE_MASK = NODE_WIDTH - 1;
+
+  /*
+   * A node of the trie: leaves store words, internal nodes store children. A
+   * node can be modified in place only by the set owning it.
+   */
+  private static final class Node {
+    final Object owner;
+    final Node[] children;
+    final long[] words;
+
+    Node(Object owner, boolean leaf) {
+      this.owner = owner;
+      this.children = leaf ? null : new Node[NODE_WIDTH];
+      this.words = leaf ? new long[LEAF_WORDS] : null;
+    }
+
+    Node(Object owner, Node node) {
+      this.owner = owner;
+      this.children = node.children == null ? null : node.children.clone();
+      this.words = node.words == null ? null : node.words.clone();
+    }
+  }
+
+  private Object owner = new Object();
+  private Node root = null;
+  private int height = 0; // the number of levels of internal nodes
+  private int cardinality = 0;
+  private int hash = 0;
+
+  /**
+   * Returns <code>true</code> iff the specified integer belongs to this set.
+   *
+   * @param i the integer.
+   * @return <code>true</code> iff <code>i</code> belongs to this set.
+   */
+  boolean get(int i) {
+    if (root == null || i >= capacity(height))
+      return false;
+    Node node = root;
+    for (int level = height; level > 0; level--) {
+      node = node.children[childIndex(i, level)];
+      if (node == null)
+        return false;
+    }
+    return (node.words[(i >>> 6) & (LEAF_WORDS - 1)] & (1L << i)) != 0;
+  }
+
+  /**
+   * Adds the specified integer to this set.
+   *
+   * @param i the integer to add.
+   * @return <code>true</code> iff this set did not contain <code>i</code>.
+   */
+  boolean set(int i) {
+    if (get(i))
+      return false;
+    while (i >= capacity(height)) {
+      if (root != null) {
+        Node newRoot = new Node(owner, false);
+        newRoot.children[0] = root;
+        root = newRoot;
+      }
+      height++;
+    }
+    root = root == null ? new Node(owner, height == 0) : editable(root);
+    Node node = root;
+    for (int level = height; level > 0; level--) {
+      int k = childIndex(i, level);
+      Node child = node.children[k];
+      child = child == null ? new Node(owner, level == 1) : editable(child);
+      node.children[k] = child;
+      node = child;
+    }
+    node.words[(i >>> 6) & (LEAF_WORDS - 1)] |= 1L << i;
+    cardinality++;
+    hash += mix(i);
+    return true;
+  }
+
+  /**
+   * Removes the specified integer from this set.
+   *
+   * @param i the integer to remove.
+   * @return <code>true</code> iff this set contained <code>i</code>.
+   */
+  boolean clear(int i) {
+    if (!get(i))
+      return false;
+    root = clear(root, height, i);
+    cardinality--;
+    hash -= mix(i);
+    return true;
+  }
+
+  /**
+   * Returns the least integer of this set greater than or equal to the
+   * specified one or -1 if there is no such integer.
+   *
+   * @param from the integer to start from.
+   * @return the next integer of this set or -1.
+   */
+  int nextSetBit(int from) {
+    if (from < 0)
+      from = 0;
+    if (root == null || from >= capacity(height))
+      return -1;
+    return nextSetBit(root, height, from, 0);
+  }
+
+  /**
+   * Returns the number of integers in this set.
+   *
+   * @return the cardinality of this set.
+   */
+  int cardinality() {
+    return cardinality;
+  }
+
+  /**
+   * Returns <code>true</code> iff this set is empty.
+   *
+   * @return <code>true</code> iff this set is empty.
+   */
+  boolean isEmpty() {
+    return cardinality == 0;
+  }
+
+  /**
+   * Returns a copy of this set sharing the nodes of this set.
+   *
+   * @return a clone of this set.
+   */
+  @Override
+  public PersistentBitSet clone() {
+    try {
+      PersistentBitSet cloned = (PersistentBitSet) super.clone();
+      // the nodes are now shared, hence neither set can modify them in place
+      this.owner = new Object();
+      cloned.owner = new Object();
+      return cloned;
+    } catch (CloneNotSupportedException e) {
+      throw new ImplementationError("Clone not supported: " + e.getMessage());
+    }
+  }
+
+  @Override
+  public int hashCode() {
+    return hash;
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj)
+      return true;
+    if (!(obj instanceof PersistentBitSet))
+      return false;
+    PersistentBitSet other = (PersistentBitSet) obj;
+    if (cardinality != other.cardinality || hash != other.hash)
+      return false;
+    if (height == other.height)
+      return equalNodes(root, other.root, height);
+    for (int i = nextSetBit(0); i >= 0; i = nextSetBit(i + 1))
+      if (!other.get(i))
+        return false;
+    return true;
+  }
+
+  private static long capacity(int height) {
+    return 1L << (LEAF_SHIFT + NODE_SHIFT * height);
+  }
+
+  private static int childIndex(int i, int level) {
+    return (i >>> (LEAF_SHIFT + NODE_SHIFT * (level - 1))) & NODE_MASK;
+  }
+
+  // the hash code of a set is the sum of the mixed values of its elements
+  private static int mix(int i) {
+    int h = i * 0x9E3779B9;
+    return h ^ (h >>> 16);
+  }
+
+  private Node editable(Node node) {
+    return node.owner == owner ? node : new Node(owner, node);
+  }
+
+  /*
+   * Removes i from the subtrie of the specified level rooted in node and returns
+   * the new root of the subtrie or null if it is empty; i belongs to the
+   * subtrie.
+   */
+  private Node clear(Node node, int level, int i) {
+    node = editable(node);
+    if (level == 0) {
+      node.words[(i >>> 6) & (LEAF_WORDS - 1)] &= ~(1L << i);
+      for (long word : node.words)
+        if (word != 0)
+          return node;
+      return null;
+    }
+    int k = childIndex(i, level);
+    node.children[k] = clear(node.children[k], level - 1, i);
+    if (node.children[k] == null) {
+      for (Node child : node.children)
+        if (child != null)
+          return node;
+      return null;
+    }
+    return node;
+  }
+
+  /*
+   * Returns the least integer greater than or equal to from in the subtrie of
+   * the specified level rooted in node, whose least element is base.
+   */
+  private static int nextSetBit(Node node, int level, int from, int base) {
+    if (level == 0) {
+      int w = (from - base) >>> 6;
+      long word = node.words[w] & (-1L << from);
+      while (true) {
+        if (word != 0)
+          return base + (w << 6) + Long.numberOfTrailingZeros(word);
+        if (++w == LEAF_WORDS)
+          return -1;
+        word = node.words[w];
+      }
+    }
+    int shift = LEAF_SHIFT + NODE_SHIFT * (level - 1);
+    for (int k = (from - base) >>> shift; k < NODE_WIDTH; k++) {
+      Node child = node.children[k];
+      if (child != null) {
+        int childBase = base + (k << shift);
+        int next = nextSetBit(child, level - 1, Math.max(from, childBase), childBase);
+        if (next >= 0)
+          return next;
+      }
+    }
+    return -1;
+  }
+
+  private static boolean equalNodes(Node n1, Node n2, int level) {
+    if (n1 == n2)
+      return true;
+    if (n1 == null || n2 == null)
+      return false;
+    if (level == 0)
+      return Arrays.equals(n1.words, n2.words);
+    for (int k = 0; k < NODE_WIDTH; k++)
+      if (!equalNodes(n1.children[k], n2.children[k], level - 1))
+        return false;
+    return true;
+  }
+
+}
@@ -16,20 +16,28 @@
  *******************************************************************************/
 package jtabwbx.prop.formula;
 
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.LinkedList;
 
+import jtabwb.engine._HashableGoal;
+import jtabwb.engine._TrailedGoal;
 import jtabwb.util.ImplementationError;
 import jtabwbx.prop.basic.FormulaType;
 
 /**
  * Implementation of the {@link _Sequent} interface using an array of integers
  * to represents the sequent. TODO: doc
+ * <p>
+ * After the invocation of {@link #startTrail()} the additions and removals of
+ * formulas are recorded in a trail and can be undone by
+ * {@link #undoTrail(int)}.
+ * </p>
  * 
  * @author Mauro Ferrari
  */
-public class SequentOnArray implements _Sequent, Cloneable {
+public class SequentOnArray implements _Sequent, _HashableGoal, _TrailedGoal, Cloneable {
 
   private static final int ABSENT = 0;
   private static final int LEFT = 1;
@@ -39,10 +47,21 @@ public class SequentOnArray implements _Sequent, Cloneable {
 
   private int[] sequent;
   private FormulaFactory factory;
+  // the sets of formulas of each type, null if no formula of the type has
+  // been added; the sets are kept when they become empty to avoid allocations
   private BitSetOfFormulas[] leftFormulas;
   private BitSetOfFormulas[] rightFormulas;
   private BitSetOfFormulas clashes;
 
+  // the trail: an entry stores the index of a formula and the modification
+  private static final int ADD_LEFT = 0;
+  private static final int ADD_RIGHT = 1;
+  private static final int REMOVE_LEFT = 2;
+  private static final int REMOVE_RIGHT = 3;
+  private boolean trailing = false;
+  private int[] trail = null;
+  private int trailSize = 0;
+
   public SequentOnArray(FormulaFactory factory) {
     this.factory = factory;
     this.sequent = new int[factory.numberOfGeneratedFormulas()];
@@ -55,7 +74,7 @@ public class SequentOnArray implements _Sequent, Cloneable {
   public Collection<Formula> getLeftFormulas() {
     Collection<Formula> coll = new LinkedList<Formula>();
     for (BitSetOfFormulas set : leftFormulas)
-      if (set != null)
+      if (set != null && !set.isEmpty())
         coll.addAll(set.getAllFormulas());
     return coll.size() == 0 ? null : coll;
   }
@@ -70,7 +89,7 @@ public class SequentOnArray implements _Sequent, Cloneable {
   public Collection<Formula> getRightFormulas() {
     Collection<Formula> coll = new LinkedList<Formula>();
     for (FormulaType ft : FormulaType.values()) {
-      if (rightFormulas[ft.ordinal()] != null)
+      if (rightFormulas[ft.ordinal()] != null && !rightFormulas[ft.ordinal()].isEmpty())
         coll.addAll(rightFormulas[ft.ordinal()].getAllFormulas());
 
     }
@@ -97,6 +116,8 @@ public class SequentOnArray implements _Sequent, Cloneable {
       clashes.add(wff);
     } else
       sequent[idx] = LEFT;
+    if (trailing)
+      record(idx, ADD_LEFT);
 
     // update leftFormulas
     int type = wff.getFormulaType().ordinal();
@@ -120,6 +141,8 @@ public class SequentOnArray implements _Sequent, Cloneable {
       clashes.add(wff);
     } else
       sequent[idx] = RIGHT;
+    if (trailing)
+      record(idx, ADD_RIGHT);
 
     // update rightFormulas
     int type = wff.getFormulaType().ordinal();
@@ -154,13 +177,12 @@ public class SequentOnArray implements _Sequent, Cloneable {
       clashes.remove(wff);
     } else
       sequent[idx] = ABSENT;
+    if (trailing)
+      record(idx, REMOVE_LEFT);
 
     // update leftFormulas
     int type = wff.getFormulaType().ordinal();
-    if (leftFormulas[type].cardinality() == 1)
-      leftFormulas[type] = null;
-    else
-      leftFormulas[type].remove(wff);
+    leftFormulas[type].remove(wff);
 
     return true;
   }
@@ -179,13 +201,12 @@ public class SequentOnArray implements _Sequent, Cloneable {
       clashes.remove(wff);
     } else
       sequent[idx] = ABSENT;
+    if (trailing)
+      record(idx, REMOVE_RIGHT);
 
     // update rightFormulas
     int type = wff.getFormulaType().ordinal();
-    if (rightFormulas[type].cardinality() == 1)
-      rightFormulas[type] = null;
-    else
-      rightFormulas[type].remove(wff);
+    rightFormulas[type].remove(wff);
     return true;
   }
 
@@ -201,7 +222,8 @@ public class SequentOnArray implements _Sequent, Cloneable {
   }
 
   public boolean containsLeft(FormulaType type) {
-    return leftFormulas[type.ordinal()] != null;
+    BitSetOfFormulas set = leftFormulas[type.ordinal()];
+    return set != null && !set.isEmpty();
   }
 
   @Override
@@ -211,13 +233,14 @@ public class SequentOnArray implements _Sequent, Cloneable {
   }
 
   public boolean containsRight(FormulaType type) {
-    return rightFormulas[type.ordinal()] != null;
+    BitSetOfFormulas set = rightFormulas[type.ordinal()];
+    return set != null && !set.isEmpty();
   }
 
   @Override
   public boolean isLeftSideEmpty() {
     for (BitSetOfFormulas set : leftFormulas)
-      if (set != null)
+      if (set != null && !set.isEmpty())
         return false;
     return true;
   }
@@ -225,7 +248,7 @@ public class SequentOnArray implements _Sequent, Cloneable {
   @Override
   public boolean isRightSideEmpty() {
     for (BitSetOfFormulas set : rightFormulas)
-      if (set != null)
+      if (set != null && !set.isEmpty())
         return false;
     return true;
   }
@@ -249,6 +272,8 @@ public class SequentOnArray implements _Sequent, Cloneable {
           cloned.rightFormulas[i] = this.rightFormulas[i].clone();
       }
       cloned.clashes = this.clashes.clone();
+      cloned.trail = null;
+      cloned.trailSize = 0;
       return cloned;
     } catch (CloneNotSupportedException e) {
       throw new ImplementationError("Clone not supported: " + e.getMessage());
@@ -319,7 +344,82 @@ public class SequentOnArray implements _Sequent, Cloneable {
   public Iterator<Formula> rigtSideIterator() {
     return getRightFormulas().iterator();
   }
-  
-  
+
+  @Override
+  public void startTrail() {
+    this.trailing = true;
+  }
+
+  @Override
+  public int trailMark() {
+    return trailSize;
+  }
+
+  @Override
+  public void undoTrail(int mark) {
+    boolean wasTrailing = trailing;
+    trailing = false;
+    while (trailSize > mark) {
+      int entry = trail[--trailSize];
+      Formula wff = factory.getByIndex(entry >>> 2);
+      switch (entry & 3) {
+      case ADD_LEFT:
+        removeLeft(wff);
+        break;
+      case ADD_RIGHT:
+        removeRight(wff);
+        break;
+      case REMOVE_LEFT:
+        addLeft(wff);
+        break;
+      case REMOVE_RIGHT:
+        addRight(wff);
+        break;
+      }
+    }
+    trailing = wasTrailing;
+  }
+
+  private void record(int idx, int modification) {
+    if (trail == null)
+      trail = new int[64];
+    else if (trailSize == trail.length)
+      trail = Arrays.copyOf(trail, 2 * trailSize);
+    trail[trailSize++] = idx << 2 | modification;
+  }
+
+  /*
+   * Two sequents are equal iff they contain the same formulas in the same
+   * sides; the arrays of two sequents may have different lengths if the
+   * factory generated new formulas between their constructions.
+   */
+  @Override
+  public int hashCode() {
+    final int prime = 31;
+    int result = 1;
+    for (int i = 0; i < sequent.length; i++)
+      if (sequent[i] != ABSENT)
+        result = prime * (prime * result + i) + sequent[i];
+    return result;
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj)
+      return true;
+    if (obj == null)
+      return false;
+    if (getClass() != obj.getClass())
+      return false;
+    SequentOnArray other = (SequentOnArray) obj;
+    int length = Math.max(this.sequent.length, other.sequent.length);
+    for (int i = 0; i < length; i++) {
+      int thisValue = i < this.sequent.length ? this.sequent[i] : ABSENT;
+      int otherValue = i < other.sequent.length ? other.sequent[i] : ABSENT;
+      if (thisValue != otherValue)
+        return false;
+    }
+    return true;
+  }
 
 }
@@ -19,6 +19,7 @@ package jtabwbx.prop.formula;
 import java.util.Collection;
 import java.util.Iterator;
 
+import jtabwb.engine._HashableGoal;
 import jtabwb.util.ImplementationError;
 import jtabwbx.prop.basic.FormulaType;
 
@@ -28,7 +29,7 @@ import jtabwbx.prop.basic.FormulaType;
  * 
  * @author Mauro Ferrari
  */
-public class SequentOnBSF implements _Sequent, Cloneable {
+public class SequentOnBSF implements _Sequent, _HashableGoal, Cloneable {
 
   private FormulaFactory formulaFactory;
 
@@ -242,4 +243,25 @@ public class SequentOnBSF implements _Sequent, Cloneable {
     return rightside.iterator();
   }
 
+  @Override
+  public int hashCode() {
+    final int prime = 31;
+    int result = 1;
+    result = prime * result + this.leftside.hashCode();
+    result = prime * result + this.rightside.hashCode();
+    return result;
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj)
+      return true;
+    if (obj == null)
+      return false;
+    if (getClass() != obj.getClass())
+      return false;
+    SequentOnBSF other = (SequentOnBSF) obj;
+    return this.leftside.equals(other.leftside) && this.rightside.equals(other.rightside);
+  }
+
 }
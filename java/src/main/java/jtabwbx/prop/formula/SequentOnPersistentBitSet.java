@@ -0,0 +1,319 @@
+/*******************************************************************************
+ * Copyright (C) 2013, 2016 Mauro Ferrari
+ *  
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 3 of the License, or (at your option) any later
+ * version.
+ *  
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *  
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package jtabwbx.prop.formula;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedList;
+
+import jtabwb.engine._HashableGoal;
+import jtabwb.util.ImplementationError;
+import jtabwbx.prop.basic.FormulaType;
+
+/**
+ * Implementation of the {@link _Sequent} interface using, for each side and
+ * each formula type, a persistent set of formula indexes (see
+ * {@link PersistentBitSet}). A clone shares the representation of the original
+ * sequent, hence it requires time independent of the number of formulas
+ * generated by the formula factory; adding or removing a formula copies only
+ * the part of the representation it modifies. This implementation is suited
+ * for problems where the formula factory generates many formulas and the
+ * rules clone their premises.
+ *
+ * @author Mauro Ferrari
+ */
+public class SequentOnPersistentBitSet implements _Sequent, _HashableGoal, Cloneable {
+
+  private static int NUMBER_OF_FORMULA_TYPE = FormulaType.values().length;
+
+  private FormulaFactory factory;
+  private PersistentBitSet[] leftFormulas;
+  private PersistentBitSet[] rightFormulas;
+  private int clashes; // number of formulas occurring in both sides
+
+  public SequentOnPersistentBitSet(FormulaFactory factory) {
+    this.factory = factory;
+    this.leftFormulas = new PersistentBitSet[NUMBER_OF_FORMULA_TYPE];
+    this.rightFormulas = new PersistentBitSet[NUMBER_OF_FORMULA_TYPE];
+    this.clashes = 0;
+  }
+
+  @Override
+  public Collection<Formula> getLeftFormulas() {
+    Collection<Formula> coll = new LinkedList<Formula>();
+    for (PersistentBitSet set : leftFormulas)
+      addFormulas(set, coll);
+    return coll.size() == 0 ? null : coll;
+  }
+
+  @Override
+  public Collection<Formula> getLeftFormulas(FormulaType formulaType) {
+    PersistentBitSet set = leftFormulas[formulaType.ordinal()];
+    return set == null ? null : addFormulas(set, new LinkedList<Formula>());
+  }
+
+  @Override
+  public Collection<Formula> getRightFormulas() {
+    Collection<Formula> coll = new LinkedList<Formula>();
+    for (PersistentBitSet set : rightFormulas)
+      addFormulas(set, coll);
+    return coll.size() == 0 ? null : coll;
+  }
+
+  @Override
+  public Collection<Formula> getRightFormulas(FormulaType formulaType) {
+    PersistentBitSet set = rightFormulas[formulaType.ordinal()];
+    return set == null ? null : addFormulas(set, new LinkedList<Formula>());
+  }
+
+  @Override
+  public void addLeft(Formula wff) {
+    if (add(leftFormulas, wff) && containsRight(wff))
+      clashes++;
+  }
+
+  @Override
+  public void addRight(Formula wff) {
+    if (add(rightFormulas, wff) && containsLeft(wff))
+      clashes++;
+  }
+
+  @Override
+  public Formula getLeft(FormulaType formulaType) {
+    PersistentBitSet set = leftFormulas[formulaType.ordinal()];
+    return set == null ? null : factory.getByIndex(set.nextSetBit(0));
+  }
+
+  @Override
+  public Formula getRight(FormulaType formulaType) {
+    PersistentBitSet set = rightFormulas[formulaType.ordinal()];
+    return set == null ? null : factory.getByIndex(set.nextSetBit(0));
+  }
+
+  @Override
+  public boolean removeLeft(Formula wff) {
+    if (!remove(leftFormulas, wff))
+      return false;
+    if (containsRight(wff))
+      clashes--;
+    return true;
+  }
+
+  @Override
+  public boolean removeRight(Formula wff) {
+    if (!remove(rightFormulas, wff))
+      return false;
+    if (containsLeft(wff))
+      clashes--;
+    return true;
+  }
+
+  @Override
+  public boolean isIdentityAxiom() {
+    return clashes > 0;
+  }
+
+  @Override
+  public boolean containsLeft(Formula wff) {
+    return contains(leftFormulas, wff);
+  }
+
+  public boolean containsLeft(FormulaType type) {
+    return leftFormulas[type.ordinal()] != null;
+  }
+
+  @Override
+  public boolean containsRight(Formula wff) {
+    return contains(rightFormulas, wff);
+  }
+
+  public boolean containsRight(FormulaType type) {
+    return rightFormulas[type.ordinal()] != null;
+  }
+
+  @Override
+  public boolean isLeftSideEmpty() {
+    for (PersistentBitSet set : leftFormulas)
+      if (set != null)
+        return false;
+    return true;
+  }
+
+  @Override
+  public boolean isRightSideEmpty() {
+    for (PersistentBitSet set : rightFormulas)
+      if (set != null)
+        return false;
+    return true;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return isLeftSideEmpty() && isRightSideEmpty();
+  }
+
+  @Override
+  public SequentOnPersistentBitSet clone() {
+    try {
+      SequentOnPersistentBitSet cloned = (SequentOnPersistentBitSet) super.clone();
+      cloned.leftFormulas = new PersistentBitSet[NUMBER_OF_FORMULA_TYPE];
+      cloned.rightFormulas = new PersistentBitSet[NUMBER_OF_FORMULA_TYPE];
+      for (int i = 0; i < NUMBER_OF_FORMULA_TYPE; i++) {
+        if (this.leftFormulas[i] != null)
+          cloned.leftFormulas[i] = this.leftFormulas[i].clone();
+        if (this.rightFormulas[i] != null)
+          cloned.rightFormulas[i] = this.rightFormulas[i].clone();
+      }
+      return cloned;
+    } catch (CloneNotSupportedException e) {
+      throw new ImplementationError("Clone not supported: " + e.getMessage());
+    }
+  }
+
+  @Override
+  public String format() {
+    return this.toString();
+  }
+
+  @Override
+  public String toString() {
+    return toString(this.getLeftFormulas()) + " => " + toString(this.getRightFormulas());
+  }
+
+  private String toString(Collection<Formula> list) {
+    if (list == null)
+      return "";
+    Iterator<Formula> it = list.iterator();
+    String str = it.next().format();
+    while (it.hasNext())
+      str += ", " + it.next().format();
+    return str;
+  }
+
+  @Override
+  public void stablePart() {
+    this.clearRight();
+  }
+
+  @Override
+  public void clearLeft() {
+    for (int i = 0; i < NUMBER_OF_FORMULA_TYPE; i++)
+      leftFormulas[i] = null;
+    clashes = 0;
+  }
+
+  @Override
+  public void clearRight() {
+    for (int i = 0; i < NUMBER_OF_FORMULA_TYPE; i++)
+      rightFormulas[i] = null;
+    clashes = 0;
+  }
+
+  @Override
+  public void addLeft(Collection<Formula> formulas) {
+    for (Formula wff : formulas)
+      this.addLeft(wff);
+  }
+
+  @Override
+  public void addRight(Collection<Formula> formulas) {
+    for (Formula wff : formulas)
+      this.addRight(wff);
+  }
+
+  public FormulaFactory getFormulaFactory() {
+    return factory;
+  }
+
+  @Override
+  public Iterator<Formula> leftSideIterator() {
+    return getLeftFormulas().iterator();
+  }
+
+  @Override
+  public Iterator<Formula> rigtSideIterator() {
+    return getRightFormulas().iterator();
+  }
+
+  @Override
+  public int hashCode() {
+    final int prime = 31;
+    int result = 1;
+    for (int i = 0; i < NUMBER_OF_FORMULA_TYPE; i++) {
+      result = prime * result + (leftFormulas[i] == null ? 0 : leftFormulas[i].hashCode());
+      result = prime * result + (rightFormulas[i] == null ? 0 : rightFormulas[i].hashCode());
+    }
+    return result;
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj)
+      return true;
+    if (obj == null)
+      return false;
+    if (getClass() != obj.getClass())
+      return false;
+    SequentOnPersistentBitSet other = (SequentOnPersistentBitSet) obj;
+    if (this.clashes != other.clashes)
+      return false;
+    for (int i = 0; i < NUMBER_OF_FORMULA_TYPE; i++) {
+      if (!equalSets(this.leftFormulas[i], other.leftFormulas[i]))
+        return false;
+      if (!equalSets(this.rightFormulas[i], other.rightFormulas[i]))
+        return false;
+    }
+    return true;
+  }
+
+  /*
+   * Empty sets are represented by null.
+   */
+  private static boolean equalSets(PersistentBitSet set1, PersistentBitSet set2) {
+    return set1 == null ? set2 == null : set1.equals(set2);
+  }
+
+  private static boolean add(PersistentBitSet[] sets, Formula wff) {
+    int type = wff.getFormulaType().ordinal();
+    if (sets[type] == null)
+      sets[type] = new PersistentBitSet();
+    return sets[type].set(wff.getIndex());
+  }
+
+  private static boolean remove(PersistentBitSet[] sets, Formula wff) {
+    int type = wff.getFormulaType().ordinal();
+    PersistentBitSet set = sets[type];
+    if (set == null || !set.clear(wff.getIndex()))
+      return false;
+    if (set.isEmpty())
+      sets[type] = null;
+    return true;
+  }
+
+  private static boolean contains(PersistentBitSet[] sets, Formula wff) {
+    PersistentBitSet set = sets[wff.getFormulaType().ordinal()];
+    return set != null && set.get(wff.getIndex());
+  }
+
+  private Collection<Formula> addFormulas(PersistentBitSet set, Collection<Formula> coll) {
+    if (set != null)
+      for (int i = set.nextSetBit(0); i >= 0; i = set.nextSetBit(i + 1))
+        coll.add(factory.getByIndex(i));
+    return coll;
+  }
+
+}
@@ -0,0 +1,397 @@
+/*******************************************************************************
+ * Copyright (C) 2013, 2016 Mauro Ferrari
+ *  
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 3 of the License, or (at your option) any later
+ * version.
+ *  
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *  
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package jtabwbx.prop.formula;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedList;
+
+import jtabwb.engine._HashableGoal;
+import jtabwb.engine._TrailedGoal;
+import jtabwb.util.ImplementationError;
+import jtabwbx.prop.basic.FormulaType;
+
+/**
+ * Implementation of the {@link _Sequent} interface using, for each side and
+ * each formula type, a sparse set of formulas (see
+ * {@link SparseSetOfFormulas}). The memory required by a sequent and the time
+ * required to clone it depend on the number of formulas in the sequent and not
+ * on the number of formulas generated by the formula factory. This
+ * implementation is suited for problems where the formula factory generates
+ * many formulas and the sequents contain few of them (see
+ * {@link FormulaFactory#newSequent()}).
+ * <p>
+ * After the invocation of {@link #startTrail()} the additions and removals of
+ * formulas are recorded in a trail and can be undone by
+ * {@link #undoTrail(int)}.
+ * </p>
+ *
+ * @author Mauro Ferrari
+ */
+public class SequentOnSparseSet implements _Sequent, _HashableGoal, _TrailedGoal, Cloneable {
+
+  private static int NUMBER_OF_FORMULA_TYPE = FormulaType.values().length;
+
+  private FormulaFactory factory;
+  // the sets of formulas of each type, null if no formula of the type has
+  // been added
+  private SparseSetOfFormulas[] leftFormulas;
+  private SparseSetOfFormulas[] rightFormulas;
+  private int clashes; // number of formulas occurring in both sides
+
+  // the trail: an entry stores the index of a formula and the modification
+  private static final int ADD_LEFT = 0;
+  private static final int ADD_RIGHT = 1;
+  private static final int REMOVE_LEFT = 2;
+  private static final int REMOVE_RIGHT = 3;
+  private boolean trailing = false;
+  private int[] trail = null;
+  private int trailSize = 0;
+
+  public SequentOnSparseSet(FormulaFactory factory) {
+    this.factory = factory;
+    this.leftFormulas = new SparseSetOfFormulas[NUMBER_OF_FORMULA_TYPE];
+    this.rightFormulas = new SparseSetOfFormulas[NUMBER_OF_FORMULA_TYPE];
+    this.clashes = 0;
+  }
+
+  @Override
+  public Collection<Formula> getLeftFormulas() {
+    Collection<Formula> coll = new LinkedList<Formula>();
+    for (SparseSetOfFormulas set : leftFormulas)
+      addFormulas(set, coll);
+    return coll.size() == 0 ? null : coll;
+  }
+
+  @Override
+  public Collection<Formula> getLeftFormulas(FormulaType formulaType) {
+    SparseSetOfFormulas set = leftFormulas[formulaType.ordinal()];
+    return set == null || set.isEmpty() ? null : addFormulas(set, new LinkedList<Formula>());
+  }
+
+  @Override
+  public Collection<Formula> getRightFormulas() {
+    Collection<Formula> coll = new LinkedList<Formula>();
+    for (SparseSetOfFormulas set : rightFormulas)
+      addFormulas(set, coll);
+    return coll.size() == 0 ? null : coll;
+  }
+
+  @Override
+  public Collection<Formula> getRightFormulas(FormulaType formulaType) {
+    SparseSetOfFormulas set = rightFormulas[formulaType.ordinal()];
+    return set == null || set.isEmpty() ? null : addFormulas(set, new LinkedList<Formula>());
+  }
+
+  @Override
+  public void addLeft(Formula wff) {
+    if (!add(leftFormulas, wff))
+      return;
+    if (containsRight(wff))
+      clashes++;
+    if (trailing)
+      record(wff.getIndex(), ADD_LEFT);
+  }
+
+  @Override
+  public void addRight(Formula wff) {
+    if (!add(rightFormulas, wff))
+      return;
+    if (containsLeft(wff))
+      clashes++;
+    if (trailing)
+      record(wff.getIndex(), ADD_RIGHT);
+  }
+
+  @Override
+  public Formula getLeft(FormulaType formulaType) {
+    SparseSetOfFormulas set = leftFormulas[formulaType.ordinal()];
+    return set == null ? null : set.getFirst();
+  }
+
+  @Override
+  public Formula getRight(FormulaType formulaType) {
+    SparseSetOfFormulas set = rightFormulas[formulaType.ordinal()];
+    return set == null ? null : set.getFirst();
+  }
+
+  @Override
+  public boolean removeLeft(Formula wff) {
+    if (!remove(leftFormulas, wff))
+      return false;
+    if (containsRight(wff))
+      clashes--;
+    if (trailing)
+      record(wff.getIndex(), REMOVE_LEFT);
+    return true;
+  }
+
+  @Override
+  public boolean removeRight(Formula wff) {
+    if (!remove(rightFormulas, wff))
+      return false;
+    if (containsLeft(wff))
+      clashes--;
+    if (trailing)
+      record(wff.getIndex(), REMOVE_RIGHT);
+    return true;
+  }
+
+  @Override
+  public boolean isIdentityAxiom() {
+    return clashes > 0;
+  }
+
+  @Override
+  public boolean containsLeft(Formula wff) {
+    return contains(leftFormulas, wff);
+  }
+
+  public boolean containsLeft(FormulaType type) {
+    return !isEmpty(leftFormulas[type.ordinal()]);
+  }
+
+  @Override
+  public boolean containsRight(Formula wff) {
+    return contains(rightFormulas, wff);
+  }
+
+  public boolean containsRight(FormulaType type) {
+    return !isEmpty(rightFormulas[type.ordinal()]);
+  }
+
+  @Override
+  public boolean isLeftSideEmpty() {
+    for (SparseSetOfFormulas set : leftFormulas)
+      if (!isEmpty(set))
+        return false;
+    return true;
+  }
+
+  @Override
+  public boolean isRightSideEmpty() {
+    for (SparseSetOfFormulas set : rightFormulas)
+      if (!isEmpty(set))
+        return false;
+    return true;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return isLeftSideEmpty() && isRightSideEmpty();
+  }
+
+  @Override
+  public SequentOnSparseSet clone() {
+    try {
+      SequentOnSparseSet cloned = (SequentOnSparseSet) super.clone();
+      cloned.leftFormulas = new SparseSetOfFormulas[NUMBER_OF_FORMULA_TYPE];
+      cloned.rightFormulas = new SparseSetOfFormulas[NUMBER_OF_FORMULA_TYPE];
+      for (int i = 0; i < NUMBER_OF_FORMULA_TYPE; i++) {
+        if (!isEmpty(this.leftFormulas[i]))
+          cloned.leftFormulas[i] = this.leftFormulas[i].clone();
+        if (!isEmpty(this.rightFormulas[i]))
+          cloned.rightFormulas[i] = this.rightFormulas[i].clone();
+      }
+      cloned.trailing = false;
+      cloned.trail = null;
+      cloned.trailSize = 0;
+      return cloned;
+    } catch (CloneNotSupportedException e) {
+      throw new ImplementationError("Clone not supported: " + e.getMessage());
+    }
+  }
+
+  @Override
+  public String format() {
+    return this.toString();
+  }
+
+  @Override
+  public String toString() {
+    return toString(this.getLeftFormulas()) + " => " + toString(this.getRightFormulas());
+  }
+
+  private String toString(Collection<Formula> list) {
+    if (list == null)
+      return "";
+    Iterator<Formula> it = list.iterator();
+    String str = it.next().format();
+    while (it.hasNext())
+      str += ", " + it.next().format();
+    return str;
+  }
+
+  @Override
+  public void stablePart() {
+    this.clearRight();
+  }
+
+  @Override
+  public void clearLeft() {
+    Collection<Formula> formulas = getLeftFormulas();
+    if (formulas != null)
+      for (Formula wff : formulas)
+        this.removeLeft(wff);
+  }
+
+  @Override
+  public void clearRight() {
+    Collection<Formula> formulas = getRightFormulas();
+    if (formulas != null)
+      for (Formula wff : formulas)
+        this.removeRight(wff);
+  }
+
+  @Override
+  public void addLeft(Collection<Formula> formulas) {
+    for (Formula wff : formulas)
+      this.addLeft(wff);
+  }
+
+  @Override
+  public void addRight(Collection<Formula> formulas) {
+    for (Formula wff : formulas)
+      this.addRight(wff);
+  }
+
+  public FormulaFactory getFormulaFactory() {
+    return factory;
+  }
+
+  @Override
+  public Iterator<Formula> leftSideIterator() {
+    return getLeftFormulas().iterator();
+  }
+
+  @Override
+  public Iterator<Formula> rigtSideIterator() {
+    return getRightFormulas().iterator();
+  }
+
+  @Override
+  public void startTrail() {
+    this.trailing = true;
+  }
+
+  @Override
+  public int trailMark() {
+    return trailSize;
+  }
+
+  @Override
+  public void undoTrail(int mark) {
+    boolean wasTrailing = trailing;
+    trailing = false;
+    while (trailSize > mark) {
+      int entry = trail[--trailSize];
+      Formula wff = factory.getByIndex(entry >>> 2);
+      switch (entry & 3) {
+      case ADD_LEFT:
+        removeLeft(wff);
+        break;
+      case ADD_RIGHT:
+        removeRight(wff);
+        break;
+      case REMOVE_LEFT:
+        addLeft(wff);
+        break;
+      case REMOVE_RIGHT:
+        addRight(wff);
+        break;
+      }
+    }
+    trailing = wasTrailing;
+  }
+
+  private void record(int idx, int modification) {
+    if (trail == null)
+      trail = new int[64];
+    else if (trailSize == trail.length)
+      trail = Arrays.copyOf(trail, 2 * trailSize);
+    trail[trailSize++] = idx << 2 | modification;
+  }
+
+  @Override
+  public int hashCode() {
+    final int prime = 31;
+    int result = 1;
+    for (int i = 0; i < NUMBER_OF_FORMULA_TYPE; i++) {
+      result = prime * result + (isEmpty(leftFormulas[i]) ? 0 : leftFormulas[i].hashCode());
+      result = prime * result + (isEmpty(rightFormulas[i]) ? 0 : rightFormulas[i].hashCode());
+    }
+    return result;
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj)
+      return true;
+    if (obj == null)
+      return false;
+    if (getClass() != obj.getClass())
+      return false;
+    SequentOnSparseSet other = (SequentOnSparseSet) obj;
+    if (this.clashes != other.clashes)
+      return false;
+    for (int i = 0; i < NUMBER_OF_FORMULA_TYPE; i++) {
+      if (!equalSets(this.leftFormulas[i], other.leftFormulas[i]))
+        return false;
+      if (!equalSets(this.rightFormulas[i], other.rightFormulas[i]))
+        return false;
+    }
+    return true;
+  }
+
+  /*
+   * Empty sets are represented by null or by an empty set.
+   */
+  private static boolean isEmpty(SparseSetOfFormulas set) {
+    return set == null || set.isEmpty();
+  }
+
+  private static boolean equalSets(SparseSetOfFormulas set1, SparseSetOfFormulas set2) {
+    return isEmpty(set1) ? isEmpty(set2) : set1.equals(set2);
+  }
+
+  private static boolean add(SparseSetOfFormulas[] sets, Formula wff) {
+    int type = wff.getFormulaType().ordinal();
+    if (sets[type] == null)
+      sets[type] = new SparseSetOfFormulas(wff.getFactory());
+    return sets[type].add(wff);
+  }
+
+  private static boolean remove(SparseSetOfFormulas[] sets, Formula wff) {
+    int type = wff.getFormulaType().ordinal();
+    SparseSetOfFormulas set = sets[type];
+    return set != null && set.remove(wff);
+  }
+
+  private static boolean contains(SparseSetOfFormulas[] sets, Formula wff) {
+    SparseSetOfFormulas set = sets[wff.getFormulaType().ordinal()];
+    return set != null && set.contains(wff.getIndex());
+  }
+
+  private static Collection<Formula> addFormulas(SparseSetOfFormulas set, Collection<Formula> coll) {
+    if (set != null)
+      for (Formula wff : set)
+        coll.add(wff);
+    return coll;
+  }
+
+}
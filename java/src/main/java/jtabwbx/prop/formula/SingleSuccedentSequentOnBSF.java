@@ -18,6 +18,7 @@ package jtabwbx.prop.formula;
 
 import java.util.Collection;
 
+import jtabwb.engine._HashableGoal;
 import jtabwb.util.ImplementationError;
 import jtabwbx.prop.basic.FormulaType;
 
@@ -27,7 +28,8 @@ import jtabwbx.prop.basic.FormulaType;
  * 
  * @author Mauro Ferrari
  */
-public class SingleSuccedentSequentOnBSF implements _SingleSuccedentSequent, Cloneable {
+public class SingleSuccedentSequentOnBSF implements _SingleSuccedentSequent, _HashableGoal,
+    Cloneable {
 
   private FormulaFactory formulaFactory;
   private BitSetOfFormulas leftSide;
@@ -0,0 +1,375 @@
+/*******************************************************************************
+ * Copyright (C) 2013, 2016 Mauro Ferrari
+ *  
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 3 of the License, or (at your option) any later
+ * version.
+ *  
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *  
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package jtabwbx.prop.formula;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.NoSuchElementException;
+
+import jtabwb.util.ImplementationError;
+
+/**
+ * Sets of formulas whose memory depends on the number of formulas in the set
+ * and not on the number of formulas generated by the factory. The indexes of
+ * the formulas are partitioned into chunks of 2<sup>16</sup> indexes sharing
+ * the 16 high bits; the chunks containing at least a formula are stored in a
+ * sorted array. A chunk containing at most {@value #ARRAY_CONTAINER_MAX}
+ * formulas stores the low bits of the indexes in a sorted array, otherwise it
+ * stores them in a bitmap of 2<sup>16</sup> bits (see the Roaring bitmap
+ * format).
+ * 
+ * @author Mauro Ferrari
+ */
+public class SparseSetOfFormulas implements _FormulaSet, Cloneable {
+
+  static final int ARRAY_CONTAINER_MAX = 4096;
+  private static final int BITMAP_WORDS = 1 << 10;
+
+  /*
+   * A chunk of the set: the low bits of the indexes are stored in the sorted
+   * prefix of values if bitmap is null, otherwise in bitmap.
+   */
+  private static final class Container {
+    char[] values;
+    long[] bitmap;
+    int cardinality;
+
+    Container() {
+      this.values = new char[4];
+    }
+
+    Container copy() {
+      Container copy = new Container();
+      copy.values = values == null ? null : Arrays.copyOf(values, Math.max(cardinality, 1));
+      copy.bitmap = bitmap == null ? null : bitmap.clone();
+      copy.cardinality = cardinality;
+      return copy;
+    }
+
+    boolean contains(char low) {
+      if (bitmap != null)
+        return (bitmap[low >>> 6] & (1L << low)) != 0;
+      return Arrays.binarySearch(values, 0, cardinality, low) >= 0;
+    }
+
+    boolean add(char low) {
+      if (bitmap != null) {
+        long bit = 1L << low;
+        if ((bitmap[low >>> 6] & bit) != 0)
+          return false;
+        bitmap[low >>> 6] |= bit;
+        cardinality++;
+        return true;
+      }
+      int pos = Arrays.binarySearch(values, 0, cardinality, low);
+      if (pos >= 0)
+        return false;
+      if (cardinality == ARRAY_CONTAINER_MAX) {
+        toBitmap();
+        return add(low);
+      }
+      pos = -pos - 1;
+      if (cardinality == values.length)
+        values = Arrays.copyOf(values, 2 * cardinality);
+      System.arraycopy(values, pos, values, pos + 1, cardinality - pos);
+      values[pos] = low;
+      cardinality++;
+      return true;
+    }
+
+    boolean remove(char low) {
+      if (bitmap != null) {
+        long bit = 1L << low;
+        if ((bitmap[low >>> 6] & bit) == 0)
+          return false;
+        bitmap[low >>> 6] &= ~bit;
+        if (--cardinality == ARRAY_CONTAINER_MAX)
+          toArray();
+        return true;
+      }
+      int pos = Arrays.binarySearch(values, 0, cardinality, low);
+      if (pos < 0)
+        return false;
+      System.arraycopy(values, pos + 1, values, pos, cardinality - pos - 1);
+      cardinality--;
+      return true;
+    }
+
+    // the least element greater than or equal to low or -1
+    int next(int low) {
+      if (bitmap != null) {
+        int w = low >>> 6;
+        long word = bitmap[w] & (-1L << low);
+        while (true) {
+          if (word != 0)
+            return (w << 6) + Long.numberOfTrailingZeros(word);
+          if (++w == BITMAP_WORDS)
+            return -1;
+          word = bitmap[w];
+        }
+      }
+      int pos = Arrays.binarySearch(values, 0, cardinality, (char) low);
+      if (pos < 0)
+        pos = -pos - 1;
+      return pos < cardinality ? values[pos] : -1;
+    }
+
+    private void toBitmap() {
+      bitmap = new long[BITMAP_WORDS];
+      for (int i = 0; i < cardinality; i++)
+        bitmap[values[i] >>> 6] |= 1L << values[i];
+      values = null;
+    }
+
+    private void toArray() {
+      values = new char[cardinality];
+      int j = 0;
+      for (int low = next(0); low >= 0; low = low < 0xFFFF ? next(low + 1) : -1)
+        values[j++] = (char) low;
+      bitmap = null;
+    }
+
+    boolean sameElements(Container other) {
+      if (cardinality != other.cardinality)
+        return false;
+      if (bitmap != null && other.bitmap != null)
+        return Arrays.equals(bitmap, other.bitmap);
+      if (bitmap == null && other.bitmap == null) {
+        for (int i = 0; i < cardinality; i++)
+          if (values[i] != other.values[i])
+            return false;
+        return true;
+      }
+      // the two containers have the same cardinality hence the same kind
+      return false;
+    }
+  }
+
+  private FormulaFactory formulaFactory;
+  private char[] keys; // the sorted high bits of the chunks
+  private Container[] containers;
+  private int size; // the number of chunks
+  private int cardinality;
+
+  /**
+   * Builds an empty set of formulas generated by the specified factory.
+   * 
+   * @param factory the formula factory.
+   */
+  public SparseSetOfFormulas(FormulaFactory factory) {
+    this.formulaFactory = factory;
+    this.keys = new char[1];
+    this.containers = new Container[1];
+    this.size = 0;
+    this.cardinality = 0;
+  }
+
+  @Override
+  public boolean add(Formula wff) {
+    int idx = wff.getIndex();
+    char key = (char) (idx >>> 16);
+    int pos = Arrays.binarySearch(keys, 0, size, key);
+    if (pos < 0) {
+      pos = -pos - 1;
+      if (size == keys.length) {
+        keys = Arrays.copyOf(keys, 2 * size);
+        containers = Arrays.copyOf(containers, 2 * size);
+      }
+      System.arraycopy(keys, pos, keys, pos + 1, size - pos);
+      System.arraycopy(containers, pos, containers, pos + 1, size - pos);
+      keys[pos] = key;
+      containers[pos] = new Container();
+      size++;
+    }
+    if (!containers[pos].add((char) idx))
+      return false;
+    cardinality++;
+    return true;
+  }
+
+  @Override
+  public void addAll(_FormulaSet set) {
+    for (Formula wff : set)
+      this.add(wff);
+  }
+
+  @Override
+  public int cardinality() {
+    return cardinality;
+  }
+
+  @Override
+  public SparseSetOfFormulas clone() {
+    try {
+      SparseSetOfFormulas cloned = (SparseSetOfFormulas) super.clone();
+      int length = Math.max(size, 1);
+      cloned.keys = Arrays.copyOf(keys, length);
+      cloned.containers = new Container[length];
+      for (int i = 0; i < size; i++)
+        cloned.containers[i] = containers[i].copy();
+      return cloned;
+    } catch (CloneNotSupportedException e) {
+      throw new ImplementationError("Clone not supported: " + e.getMessage());
+    }
+  }
+
+  @Override
+  public boolean contains(Formula wff) {
+    return contains(wff.getIndex());
+  }
+
+  /**
+   * Returns <code>true</code> iff this set contains the formula with the
+   * specified index.
+   * 
+   * @param idx the index of the formula.
+   * @return <code>true</code> iff the formula with index <code>idx</code> is
+   * in this set.
+   */
+  public boolean contains(int idx) {
+    int pos = Arrays.binarySearch(keys, 0, size, (char) (idx >>> 16));
+    return pos >= 0 && containers[pos].contains((char) idx);
+  }
+
+  @Override
+  public boolean remove(Formula wff) {
+    int idx = wff.getIndex();
+    int pos = Arrays.binarySearch(keys, 0, size, (char) (idx >>> 16));
+    if (pos < 0 || !containers[pos].remove((char) idx))
+      return false;
+    if (containers[pos].cardinality == 0) {
+      System.arraycopy(keys, pos + 1, keys, pos, size - pos - 1);
+      System.arraycopy(containers, pos + 1, containers, pos, size - pos - 1);
+      containers[--size] = null;
+    }
+    cardinality--;
+    return true;
+  }
+
+  /**
+   * Returns the least index of a formula in this set greater than or equal to
+   * the specified one or -1 if there is no such formula.
+   * 
+   * @param from the index to start from.
+   * @return the index of the next formula in this set or -1.
+   */
+  public int nextSetBit(int from) {
+    if (from < 0)
+      from = 0;
+    int pos = Arrays.binarySearch(keys, 0, size, (char) (from >>> 16));
+    if (pos >= 0) {
+      int low = containers[pos].next(from & 0xFFFF);
+      if (low >= 0)
+        return keys[pos] << 16 | low;
+      pos++;
+    } else
+      pos = -pos - 1;
+    return pos < size ? keys[pos] << 16 | containers[pos].next(0) : -1;
+  }
+
+  @Override
+  public Collection<Formula> getAllFormulas() {
+    LinkedList<Formula> list = new LinkedList<Formula>();
+    for (int i = nextSetBit(0); i >= 0; i = nextSetBit(i + 1))
+      list.add(formulaFactory.getByIndex(i));
+    return list.size() == 0 ? null : list;
+  }
+
+  @Override
+  public Formula getFirst() {
+    return size == 0 ? null : formulaFactory.getByIndex(keys[0] << 16 | containers[0].next(0));
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return cardinality == 0;
+  }
+
+  @Override
+  public Iterator<Formula> iterator() {
+    return new Iterator<Formula>() {
+
+      int nextElement = SparseSetOfFormulas.this.nextSetBit(0);
+
+      @Override
+      public boolean hasNext() {
+        return nextElement >= 0;
+      }
+
+      @Override
+      public Formula next() {
+        if (nextElement < 0)
+          throw new NoSuchElementException();
+        Formula wff = formulaFactory.getByIndex(nextElement);
+        nextElement = SparseSetOfFormulas.this.nextSetBit(nextElement + 1);
+        return wff;
+      }
+
+      @Override
+      public void remove() {
+        throw new UnsupportedOperationException("remove not supported.");
+      }
+
+    };
+  }
+
+  @Override
+  public Formula[] toArray() {
+    Formula[] result = new Formula[cardinality];
+    for (int i = nextSetBit(0), j = 0; i >= 0; i = nextSetBit(i + 1), j++)
+      result[j] = formulaFactory.getByIndex(i);
+    return result;
+  }
+
+  public FormulaFactory getFactory() {
+    return formulaFactory;
+  }
+
+  @Override
+  public int hashCode() {
+    int result = 1;
+    for (int i = nextSetBit(0); i >= 0; i = nextSetBit(i + 1))
+      result = 31 * result + i;
+    return result;
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj)
+      return true;
+    if (!(obj instanceof SparseSetOfFormulas))
+      return false;
+    SparseSetOfFormulas other = (SparseSetOfFormulas) obj;
+    if (cardinality != other.cardinality || size != other.size)
+      return false;
+    for (int i = 0; i < size; i++)
+      if (keys[i] != other.keys[i] || !containers[i].sameElements(other.containers[i]))
+        return false;
+    return true;
+  }
+
+  @Override
+  public String toString() {
+    String str = "";
+    for (Iterator<Formula> it = iterator(); it.hasNext();)
+      str += it.next().toString() + (it.hasNext() ? ", " : "");
+    return str;
+  }
+
+}
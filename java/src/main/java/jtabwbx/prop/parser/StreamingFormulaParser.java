@@ -0,0 +1,399 @@
+/*******************************************************************************
+ * Copyright (C) 2013, 2016 Mauro Ferrari This program is free software; you can
+ * redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation; either version 3 of the
+ * License, or (at your option) any later version. This program is distributed
+ * in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details. You should have received
+ * a copy of the GNU General Public License along with this program; if not, see
+ * <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+package jtabwbx.prop.parser;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.util.Arrays;
+
+import jtabwbx.prop.basic.PropositionalConnective;
+import jtabwbx.prop.formula.Formula;
+import jtabwbx.prop.formula.FormulaFactory;
+import jtabwbx.prop.formula.FormulaProposition;
+
+/**
+ * A parser for the propositional formulas accepted by
+ * {@link PropositionalFormulaParser} building the formulas directly in a
+ * factory. The input is read in chunks from a {@link Reader} or a
+ * {@link CharSequence} and is parsed in a single pass by an operator-precedence
+ * parser using explicit stacks, hence neither tokens nor parse trees are
+ * allocated and the depth of the formula is not bounded by the thread stack.
+ * The propositions read are cached by the parser, so that the name of a
+ * proposition is converted into a string only the first time it occurs.
+ * <p>
+ * A parser can be used to parse many formulas, but it is not thread-safe.
+ * </p>
+ * 
+ * @author Mauro Ferrari
+ */
+public class StreamingFormulaParser {
+
+  private static final int BUFFER_SIZE = 1 << 13;
+
+  // tokens and operators
+  private static final byte NOT = 0;
+  private static final byte AND = 1;
+  private static final byte OR = 2;
+  private static final byte IMPLIES = 3;
+  private static final byte EQ = 4;
+  private static final byte LPAR = 5;
+  private static final byte RPAR = 6;
+  private static final byte ID = 7;
+  private static final byte EOF = 8;
+
+  // the precedence of the operators (from NOT to EQ); IMPLIES and EQ are right
+  // associative
+  private static final int[] PRECEDENCE = { 5, 4, 3, 2, 1 };
+  private static final PropositionalConnective[] CONNECTIVES = { PropositionalConnective.NOT,
+      PropositionalConnective.AND, PropositionalConnective.OR, PropositionalConnective.IMPLIES,
+      PropositionalConnective.EQ };
+  private static final String[] LEXEMES = { "~", "&", "|", "->", "<=>", "(", ")", null, "<EOF>" };
+
+  private final FormulaFactory factory;
+
+  // the input
+  private Reader reader;
+  private CharBuffer charBuffer;
+  private final char[] buffer = new char[BUFFER_SIZE];
+  private int position;
+  private int limit;
+  private int line;
+  private int column;
+  private int tokenLine;
+  private int tokenColumn;
+
+  // the text of the last identifier
+  private char[] text = new char[64];
+  private int textLength;
+  private int textHash;
+
+  // the cache of the propositions: an open-addressing hash table
+  private char[][] names = new char[64][];
+  private FormulaProposition[] propositions = new FormulaProposition[64];
+  private int numberOfPropositions = 0;
+
+  // the stacks of the parser
+  private Formula[] operands = new Formula[64];
+  private int operandsTop;
+  private byte[] operators = new byte[64];
+  private int operatorsTop;
+
+  /**
+   * Constructs a parser building formulas in the specified factory.
+   * 
+   * @param factory the factory building the formulas.
+   */
+  public StreamingFormulaParser(FormulaFactory factory) {
+    this.factory = factory;
+  }
+
+  /**
+   * Returns the factory building the formulas parsed by this parser.
+   * 
+   * @return the factory of this parser.
+   */
+  public FormulaFactory getFactory() {
+    return factory;
+  }
+
+  /**
+   * Parses the formula described by the specified character sequence.
+   * 
+   * @param str the character sequence describing the formula.
+   * @return the formula built in the factory of this parser.
+   * @throws FormulaParseException if an error occurs during parsing.
+   */
+  public Formula parse(CharSequence str) throws FormulaParseException {
+    this.reader = null;
+    this.charBuffer = CharBuffer.wrap(str);
+    try {
+      return parse();
+    } catch (IOException e) {
+      // a character buffer does not throw IOException
+      throw new FormulaParseException(e);
+    } finally {
+      this.charBuffer = null;
+    }
+  }
+
+  /**
+   * Parses the formula read from the specified reader; the reader is read up to
+   * its end.
+   * 
+   * @param input the reader.
+   * @return the formula built in the factory of this parser.
+   * @throws FormulaParseException if an error occurs during parsing.
+   * @throws IOException if an input/output error occurs.
+   */
+  public Formula parse(Reader input) throws FormulaParseException, IOException {
+    this.reader = input;
+    this.charBuffer = null;
+    try {
+      return parse();
+    } finally {
+      this.reader = null;
+    }
+  }
+
+  private Formula parse() throws FormulaParseException, IOException {
+    position = limit = 0;
+    line = 1;
+    column = 0;
+    operandsTop = operatorsTop = 0;
+    boolean expectingOperand = true;
+    while (true) {
+      byte token = nextToken();
+      if (expectingOperand) {
+        switch (token) {
+        case ID:
+          pushOperand(lookupProposition());
+          expectingOperand = false;
+          break;
+        case NOT:
+        case LPAR:
+          pushOperator(token);
+          break;
+        default:
+          throw error(token);
+        }
+      } else {
+        switch (token) {
+        case AND:
+        case OR:
+        case IMPLIES:
+        case EQ:
+          // reduce the operators with higher precedence and the left
+          // associative ones with the same precedence
+          while (operatorsTop > 0 && operators[operatorsTop - 1] != LPAR) {
+            byte top = operators[operatorsTop - 1];
+            if (PRECEDENCE[top] > PRECEDENCE[token]
+                || (PRECEDENCE[top] == PRECEDENCE[token] && (token == AND || token == OR)))
+              reduce();
+            else
+              break;
+          }
+          pushOperator(token);
+          expectingOperand = true;
+          break;
+        case RPAR:
+          while (operatorsTop > 0 && operators[operatorsTop - 1] != LPAR)
+            reduce();
+          if (operatorsTop == 0)
+            throw error(token);
+          operatorsTop--; // pop the left parenthesis
+          break;
+        case EOF:
+          while (operatorsTop > 0 && operators[operatorsTop - 1] != LPAR)
+            reduce();
+          if (operatorsTop > 0)
+            throw error(token);
+          Formula wff = operands[0];
+          operands[0] = null;
+          return wff;
+        default:
+          throw error(token);
+        }
+      }
+    }
+  }
+
+  private void reduce() {
+    byte op = operators[--operatorsTop];
+    if (op == NOT) {
+      operands[operandsTop - 1] = factory.buildCompound(CONNECTIVES[op], operands[operandsTop - 1]);
+    } else {
+      Formula right = operands[--operandsTop];
+      operands[operandsTop] = null;
+      operands[operandsTop - 1] =
+          factory.buildCompound(CONNECTIVES[op], operands[operandsTop - 1], right);
+    }
+  }
+
+  private void pushOperand(Formula wff) {
+    if (operandsTop == operands.length)
+      operands = Arrays.copyOf(operands, 2 * operands.length);
+    operands[operandsTop++] = wff;
+  }
+
+  private void pushOperator(byte op) {
+    if (operatorsTop == operators.length)
+      operators = Arrays.copyOf(operators, 2 * operators.length);
+    operators[operatorsTop++] = op;
+  }
+
+  private FormulaParseException error(byte token) {
+    String found = token == ID ? new String(text, 0, textLength) : LEXEMES[token];
+    return new FormulaParseException("line " + tokenLine + ":" + tokenColumn
+        + " - unexpected input '" + found + "'");
+  }
+
+  /* LEXER */
+
+  private boolean fill() throws IOException {
+    int n;
+    if (reader != null)
+      n = reader.read(buffer, 0, buffer.length);
+    else {
+      n = Math.min(buffer.length, charBuffer.remaining());
+      charBuffer.get(buffer, 0, n);
+    }
+    if (n <= 0)
+      return false;
+    position = 0;
+    limit = n;
+    return true;
+  }
+
+  private byte nextToken() throws FormulaParseException, IOException {
+    char c;
+    // skip white spaces
+    while (true) {
+      if (position == limit && !fill()) {
+        tokenLine = line;
+        tokenColumn = column;
+        return EOF;
+      }
+      c = buffer[position];
+      if (c == ' ' || c == '\t') {
+        position++;
+        column++;
+      } else if (c == '\n') {
+        position++;
+        line++;
+        column = 0;
+      } else
+        break;
+    }
+    tokenLine = line;
+    tokenColumn = column;
+    position++;
+    column++;
+    switch (c) {
+    case '~':
+      return NOT;
+    case '&':
+      return AND;
+    case '|':
+      return OR;
+    case '(':
+      return LPAR;
+    case ')':
+      return RPAR;
+    case '-':
+      expect('>');
+      return IMPLIES;
+    case '<':
+      expect('=');
+      expect('>');
+      return EQ;
+    default:
+      if (isIdentifierStart(c)) {
+        readIdentifier(c);
+        return ID;
+      }
+      throw recognitionError(c);
+    }
+  }
+
+  private void expect(char expected) throws FormulaParseException, IOException {
+    if (position == limit && !fill())
+      throw new FormulaParseException("line " + line + ":" + column
+          + " - token recognition error at: <EOF>");
+    char c = buffer[position];
+    if (c != expected)
+      throw recognitionError(c);
+    position++;
+    column++;
+  }
+
+  private FormulaParseException recognitionError(char c) {
+    return new FormulaParseException("line " + tokenLine + ":" + tokenColumn
+        + " - token recognition error at: '" + c + "'");
+  }
+
+  private static boolean isIdentifierStart(char c) {
+    return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '_';
+  }
+
+  private static boolean isIdentifierPart(char c) {
+    return isIdentifierStart(c) || (c >= '0' && c <= '9');
+  }
+
+  private void readIdentifier(char first) throws IOException {
+    text[0] = first;
+    textLength = 1;
+    int hash = first;
+    while (position < limit || fill()) {
+      char c = buffer[position];
+      if (!isIdentifierPart(c))
+        break;
+      if (textLength == text.length)
+        text = Arrays.copyOf(text, 2 * text.length);
+      text[textLength++] = c;
+      hash = 31 * hash + c;
+      position++;
+      column++;
+    }
+    textHash = hash;
+  }
+
+  /* PROPOSITION CACHE */
+
+  private FormulaProposition lookupProposition() {
+    int mask = names.length - 1;
+    int pos = mix(textHash) & mask;
+    for (char[] name = names[pos]; name != null; name = names[pos]) {
+      if (name.length == textLength && equalsText(name))
+        return propositions[pos];
+      pos = (pos + 1) & mask;
+    }
+    FormulaProposition prop = factory.buildAtomic(new String(text, 0, textLength));
+    names[pos] = Arrays.copyOf(text, textLength);
+    propositions[pos] = prop;
+    if (++numberOfPropositions > names.length >>> 1)
+      rehash();
+    return prop;
+  }
+
+  private boolean equalsText(char[] name) {
+    for (int i = 0; i < textLength; i++)
+      if (name[i] != text[i])
+        return false;
+    return true;
+  }
+
+  private void rehash() {
+    char[][] oldNames = names;
+    FormulaProposition[] oldPropositions = propositions;
+    names = new char[2 * oldNames.length][];
+    propositions = new FormulaProposition[names.length];
+    int mask = names.length - 1;
+    for (int i = 0; i < oldNames.length; i++)
+      if (oldNames[i] != null) {
+        int hash = 0;
+        for (char c : oldNames[i])
+          hash = 31 * hash + c;
+        int pos = mix(hash) & mask;
+        while (names[pos] != null)
+          pos = (pos + 1) & mask;
+        names[pos] = oldNames[i];
+        propositions[pos] = oldPropositions[i];
+      }
+  }
+
+  private static int mix(int hash) {
+    int h = hash * 0x9E3779B9;
+    return h ^ (h >>> 16);
+  }
+
+}